@@ -0,0 +1,129 @@
+package com.couriersync.admin.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.couriersync.cache.BusInvalidacion;
+import com.couriersync.diagnostico.ExcesosConsultas;
+import com.couriersync.diagnostico.SolicitudesLentas;
+import com.couriersync.route_optimizer.entity.EstadoRuta;
+import com.couriersync.route_optimizer.entity.TipoTrafico;
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.service.BitacoraSeguridad;
+import com.couriersync.users.service.CacheUsuarios;
+import com.couriersync.users.service.HashContrasenas;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@RestController
+@RequestMapping("/admin/stats")
+@PreAuthorize("hasRole('ADMIN')")
+public class EstadisticasController {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HashContrasenas hashContrasenas;
+
+    @Autowired
+    private BitacoraSeguridad bitacoraSeguridad;
+
+    @Autowired
+    private BusInvalidacion busInvalidacion;
+
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
+    @Autowired
+    private SolicitudesLentas solicitudesLentas;
+
+    @Autowired
+    private ExcesosConsultas excesosConsultas;
+
+    // Aciertos y fallos de la caché de segundo nivel por región
+    @GetMapping("/cache")
+    public ResponseEntity<?> estadisticasCache() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regiones = new LinkedHashMap<>();
+        for (Class<?> entidad : new Class<?>[] { EstadoRuta.class, TipoTrafico.class, Rol.class }) {
+            regiones.put(entidad.getSimpleName(), region(stats.getDomainDataRegionStatistics(entidad.getName())));
+        }
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("estadisticasHabilitadas", stats.isStatisticsEnabled());
+        respuesta.put("regiones", regiones);
+        respuesta.put("segundoNivel", Map.of(
+                "aciertos", stats.getSecondLevelCacheHitCount(),
+                "fallos", stats.getSecondLevelCacheMissCount(),
+                "escrituras", stats.getSecondLevelCachePutCount()));
+        respuesta.put("idNatural", Map.of(
+                "aciertos", stats.getNaturalIdCacheHitCount(),
+                "fallos", stats.getNaturalIdCacheMissCount(),
+                "consultas", stats.getNaturalIdQueryExecutionCount()));
+        respuesta.put("consultas", Map.of(
+                "aciertos", stats.getQueryCacheHitCount(),
+                "fallos", stats.getQueryCacheMissCount(),
+                "escrituras", stats.getQueryCachePutCount()));
+        respuesta.put("sentenciasPreparadas", stats.getPrepareStatementCount());
+        return ResponseEntity.ok(respuesta);
+    }
+
+    // Cola, rechazos y latencia del pool de BCrypt de /login y /register
+    @GetMapping("/bcrypt")
+    public ResponseEntity<?> estadisticasBcrypt() {
+        return ResponseEntity.ok(hashContrasenas.estadisticas());
+    }
+
+    // Eventos encolados, escritos y descartados de la bitácora de seguridad
+    @GetMapping("/bitacora")
+    public ResponseEntity<?> estadisticasBitacora() {
+        return ResponseEntity.ok(bitacoraSeguridad.estadisticas());
+    }
+
+    // Mensajes enviados y recibidos por el bus de invalidación entre nodos
+    @GetMapping("/invalidacion")
+    public ResponseEntity<?> estadisticasInvalidacion() {
+        return ResponseEntity.ok(busInvalidacion.estadisticas());
+    }
+
+    // Tasa de aciertos de la caché de usuarios, incluidos los nombres inexistentes
+    @GetMapping("/usuarios")
+    public ResponseEntity<?> estadisticasUsuarios() {
+        return ResponseEntity.ok(cacheUsuarios.estadisticas());
+    }
+
+    // Últimas solicitudes sobre el umbral con su tiempo por fase y sentencias SQL
+    @GetMapping("/lentas")
+    public ResponseEntity<?> solicitudesLentas() {
+        return ResponseEntity.ok(solicitudesLentas.estadisticas());
+    }
+
+    // Últimos métodos y solicitudes que prepararon más sentencias SQL que su máximo
+    @GetMapping("/excesos")
+    public ResponseEntity<?> excesosConsultas() {
+        return ResponseEntity.ok(excesosConsultas.estadisticas());
+    }
+
+    private static Map<String, Object> region(CacheRegionStatistics region) {
+        if (region == null) {
+            return Map.of();
+        }
+        return Map.of(
+                "aciertos", region.getHitCount(),
+                "fallos", region.getMissCount(),
+                "escrituras", region.getPutCount(),
+                "elementosEnMemoria", region.getElementCountInMemory());
+    }
+}
@@ -0,0 +1,275 @@
+package com.couriersync.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Avisa a los demás nodos qué claves de sus cachés en proceso cambiaron. Las
+ * escrituras publican región y claves; el aviso sale al confirmarse la
+ * transacción y las ráfagas se agrupan durante cache.invalidacion.agrupacion-ms
+ * en un mensaje por región ("nodo|region|clave,clave" o "nodo|region|*"). Cada
+ * nodo ignora sus propios mensajes, agrupa también los recibidos y entrega a
+ * los suscriptores de la región una sola Invalidacion con todas las claves.
+ */
+@Component
+public class BusInvalidacion {
+
+    // NOTIFY admite hasta 8000 bytes de carga
+    static final int MAXIMO_MENSAJE_BYTES = 7000;
+    private static final String TODAS = "*";
+
+    private final TransporteInvalidacion transporte;
+    private final long agrupacionMs;
+    private final String nodo = UUID.randomUUID().toString().substring(0, 8);
+    private final ScheduledExecutorService hilo;
+
+    private final Map<String, List<Consumer<Invalidacion>>> suscriptores = new ConcurrentHashMap<>();
+
+    // región -> claves pendientes; null significa la región completa
+    private final Map<String, Set<String>> salientes = new HashMap<>();
+    private final Map<String, Set<String>> entrantes = new HashMap<>();
+    private boolean envioProgramado = false;
+    private boolean entregaProgramada = false;
+
+    private final AtomicLong publicadas = new AtomicLong();
+    private final AtomicLong mensajesEnviados = new AtomicLong();
+    private final AtomicLong mensajesRecibidos = new AtomicLong();
+    private final AtomicLong entregas = new AtomicLong();
+    private final AtomicLong erroresEnvio = new AtomicLong();
+
+    public BusInvalidacion(TransporteInvalidacion transporte,
+                           @Value("${cache.invalidacion.agrupacion-ms:50}") long agrupacionMs) {
+        this.transporte = transporte;
+        this.agrupacionMs = Math.max(0, agrupacionMs);
+        this.hilo = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread t = new Thread(tarea, "invalidacion-bus");
+            t.setDaemon(true);
+            return t;
+        });
+        transporte.escuchar(this::recibir);
+    }
+
+    /** Registra un suscriptor; se ejecuta en el hilo del bus, nunca en el de la solicitud. */
+    public void suscribir(String region, Consumer<Invalidacion> suscriptor) {
+        validarRegion(region);
+        suscriptores.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(suscriptor);
+    }
+
+    /** Publica las claves modificadas de la región; dentro de una transacción, al confirmarla. */
+    public void publicar(String region, Collection<?> claves) {
+        validarRegion(region);
+        if (claves.isEmpty()) {
+            return;
+        }
+        Set<String> texto = new HashSet<>(claves.size() * 2);
+        for (Object clave : claves) {
+            texto.add(String.valueOf(clave));
+        }
+        alConfirmar(() -> encolar(salientes, region, texto, true));
+    }
+
+    public void publicar(String region, Object clave) {
+        publicar(region, List.of(clave));
+    }
+
+    /** Publica que toda la región cambió. */
+    public void publicarTodo(String region) {
+        validarRegion(region);
+        alConfirmar(() -> encolar(salientes, region, null, true));
+    }
+
+    public String getNodo() {
+        return nodo;
+    }
+
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("nodo", nodo);
+        datos.put("transporte", transporte.getClass().getSimpleName());
+        datos.put("regiones", suscriptores.keySet());
+        datos.put("publicadas", publicadas.get());
+        datos.put("mensajesEnviados", mensajesEnviados.get());
+        datos.put("mensajesRecibidos", mensajesRecibidos.get());
+        datos.put("entregas", entregas.get());
+        datos.put("erroresEnvio", erroresEnvio.get());
+        return datos;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        transporte.cerrar();
+        hilo.shutdown();
+        try {
+            hilo.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Lo llama el transporte desde su propio hilo
+    void recibir(String mensaje) {
+        mensajesRecibidos.incrementAndGet();
+        if (TransporteInvalidacion.RESINCRONIZAR.equals(mensaje)) {
+            for (String region : suscriptores.keySet()) {
+                encolar(entrantes, region, null, false);
+            }
+            return;
+        }
+        int primero = mensaje.indexOf('|');
+        int segundo = primero < 0 ? -1 : mensaje.indexOf('|', primero + 1);
+        if (segundo < 0) {
+            System.err.println("Mensaje de invalidación inválido: " + mensaje);
+            return;
+        }
+        if (mensaje.regionMatches(0, nodo, 0, primero) && primero == nodo.length()) {
+            return;
+        }
+        String region = mensaje.substring(primero + 1, segundo);
+        String claves = mensaje.substring(segundo + 1);
+        if (!suscriptores.containsKey(region)) {
+            return;
+        }
+        encolar(entrantes, region, TODAS.equals(claves) ? null : Set.copyOf(Arrays.asList(claves.split(","))), false);
+    }
+
+    private void encolar(Map<String, Set<String>> pendientes, String region, Set<String> claves, boolean saliente) {
+        synchronized (pendientes) {
+            if (!pendientes.containsKey(region)) {
+                pendientes.put(region, claves == null ? null : new HashSet<>(claves));
+            } else if (pendientes.get(region) != null) {
+                if (claves == null) {
+                    pendientes.put(region, null);
+                } else {
+                    pendientes.get(region).addAll(claves);
+                }
+            }
+            if (saliente) {
+                publicadas.incrementAndGet();
+                if (!envioProgramado) {
+                    envioProgramado = true;
+                    hilo.schedule(this::enviarPendientes, agrupacionMs, TimeUnit.MILLISECONDS);
+                }
+            } else if (!entregaProgramada) {
+                entregaProgramada = true;
+                hilo.schedule(this::entregarPendientes, agrupacionMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void enviarPendientes() {
+        Map<String, Set<String>> lote;
+        synchronized (salientes) {
+            lote = new HashMap<>(salientes);
+            salientes.clear();
+            envioProgramado = false;
+        }
+        lote.forEach((region, claves) -> {
+            for (String mensaje : mensajes(nodo, region, claves)) {
+                try {
+                    transporte.enviar(mensaje);
+                    mensajesEnviados.incrementAndGet();
+                } catch (RuntimeException e) {
+                    erroresEnvio.incrementAndGet();
+                    System.err.println("No se pudo enviar la invalidación de " + region + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void entregarPendientes() {
+        Map<String, Set<String>> lote;
+        synchronized (entrantes) {
+            lote = new HashMap<>(entrantes);
+            entrantes.clear();
+            entregaProgramada = false;
+        }
+        lote.forEach((region, claves) -> {
+            Invalidacion invalidacion = claves == null
+                    ? new Invalidacion(region, Set.of(), true)
+                    : new Invalidacion(region, Set.copyOf(claves), false);
+            for (Consumer<Invalidacion> suscriptor : suscriptores.getOrDefault(region, List.of())) {
+                try {
+                    suscriptor.accept(invalidacion);
+                    entregas.incrementAndGet();
+                } catch (RuntimeException e) {
+                    System.err.println("Error al invalidar la región " + region + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Divide las claves en mensajes que caben en un NOTIFY. Si alguna clave
+     * contiene los separadores, se invalida la región completa.
+     */
+    static List<String> mensajes(String nodo, String region, Set<String> claves) {
+        String prefijo = nodo + "|" + region + "|";
+        if (claves == null || claves.stream().anyMatch(c -> c.isEmpty() || c.indexOf(',') >= 0
+                || c.indexOf('|') >= 0 || TODAS.equals(c))) {
+            return List.of(prefijo + TODAS);
+        }
+        int base = prefijo.getBytes(StandardCharsets.UTF_8).length;
+        List<String> resultado = new ArrayList<>();
+        StringBuilder actual = new StringBuilder(prefijo);
+        int bytes = base;
+        for (String clave : claves) {
+            int tamano = clave.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes > base && bytes + 1 + tamano > MAXIMO_MENSAJE_BYTES) {
+                resultado.add(actual.toString());
+                actual.setLength(0);
+                actual.append(prefijo);
+                bytes = base;
+            }
+            if (bytes > base) {
+                actual.append(',');
+                bytes++;
+            }
+            actual.append(clave);
+            bytes += tamano;
+        }
+        resultado.add(actual.toString());
+        return resultado;
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    private static void validarRegion(String region) {
+        if (region == null || region.isEmpty() || region.indexOf('|') >= 0) {
+            throw new IllegalArgumentException("Región de caché inválida: " + region);
+        }
+    }
+}
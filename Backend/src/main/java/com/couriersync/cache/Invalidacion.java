@@ -0,0 +1,10 @@
+package com.couriersync.cache;
+
+import java.util.Set;
+
+/**
+ * Claves de una región de caché que otro nodo modificó. Con {@code todas} la
+ * región completa deja de ser válida y {@code claves} viene vacío.
+ */
+public record Invalidacion(String region, Set<String> claves, boolean todas) {
+}
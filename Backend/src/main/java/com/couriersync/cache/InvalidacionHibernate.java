@@ -0,0 +1,80 @@
+package com.couriersync.cache;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Mantiene coherente entre nodos la caché de segundo nivel de los catálogos
+ * (EstadoRuta, TipoTrafico, Rol). Al cambiar una de esas entidades se publica
+ * su nombre, y los demás nodos desalojan su región y los resultados de
+ * consultas cacheadas, que Hibernate solo invalida dentro del propio nodo.
+ */
+@Component
+public class InvalidacionHibernate {
+
+    public static final String REGION = "entidades";
+
+    @Autowired
+    private BusInvalidacion busInvalidacion;
+
+    @Autowired
+    @Lazy
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void suscribir() {
+        busInvalidacion.suscribir(REGION, this::desalojar);
+    }
+
+    private void desalojar(Invalidacion invalidacion) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        if (invalidacion.todas()) {
+            cache.evictAll();
+        } else {
+            for (String nombre : invalidacion.claves()) {
+                Class<?> clase = claseDeEntidad(nombre);
+                if (clase != null) {
+                    cache.evict(clase);
+                } else {
+                    cache.evictAll();
+                }
+            }
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    private Class<?> claseDeEntidad(String nombre) {
+        for (EntityType<?> entidad : entityManagerFactory.getMetamodel().getEntities()) {
+            if (entidad.getName().equals(nombre)) {
+                return entidad.getJavaType();
+            }
+        }
+        return null;
+    }
+
+    /** Listener JPA de las entidades cacheadas; Hibernate lo obtiene del contenedor de Spring. */
+    @Component
+    public static class CambiosEntidad {
+
+        @Autowired
+        @Lazy
+        private BusInvalidacion busInvalidacion;
+
+        @PostPersist
+        @PostUpdate
+        @PostRemove
+        public void alCambiar(Object entidad) {
+            busInvalidacion.publicar(REGION, Hibernate.getClass(entidad).getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.couriersync.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Canal por el que los nodos intercambian los mensajes de BusInvalidacion.
+ * Los mensajes son texto corto; el transporte no garantiza entrega si un nodo
+ * está desconectado, por eso avisa con {@link #RESINCRONIZAR} al reconectarse.
+ */
+public interface TransporteInvalidacion {
+
+    /** Mensaje que entrega el transporte cuando pudo perder mensajes. */
+    String RESINCRONIZAR = "*";
+
+    void enviar(String mensaje);
+
+    void escuchar(Consumer<String> receptor);
+
+    default void cerrar() {
+    }
+}
@@ -0,0 +1,27 @@
+package com.couriersync.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte dentro de la JVM: entrega cada mensaje a todos los receptores
+ * registrados en la misma instancia. Sirve con un solo nodo o para probar
+ * varios buses que comparten el transporte.
+ */
+public class TransporteLocal implements TransporteInvalidacion {
+
+    private final List<Consumer<String>> receptores = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void enviar(String mensaje) {
+        for (Consumer<String> receptor : receptores) {
+            receptor.accept(mensaje);
+        }
+    }
+
+    @Override
+    public void escuchar(Consumer<String> receptor) {
+        receptores.add(receptor);
+    }
+}
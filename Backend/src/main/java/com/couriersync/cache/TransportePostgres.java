@@ -0,0 +1,106 @@
+package com.couriersync.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Transporte sobre LISTEN/NOTIFY de PostgreSQL. Los envíos usan pg_notify con
+ * una conexión del pool; la escucha usa una conexión propia, fuera del pool,
+ * que se reabre si se cae. Al reconectarse entrega RESINCRONIZAR porque las
+ * notificaciones emitidas mientras tanto se perdieron.
+ */
+public class TransportePostgres implements TransporteInvalidacion {
+
+    private static final int ESPERA_NOTIFICACIONES_MS = 500;
+    private static final long REINTENTO_MAXIMO_MS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String canal;
+    private final String url;
+    private final String usuario;
+    private final String contrasena;
+    private volatile boolean cerrando = false;
+    private Thread escucha;
+
+    public TransportePostgres(JdbcTemplate jdbcTemplate, String canal, String url, String usuario, String contrasena) {
+        if (!canal.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Nombre de canal inválido: " + canal);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.canal = canal;
+        this.url = url;
+        this.usuario = usuario;
+        this.contrasena = contrasena;
+    }
+
+    @Override
+    public void enviar(String mensaje) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, canal, mensaje);
+    }
+
+    @Override
+    public synchronized void escuchar(Consumer<String> receptor) {
+        if (escucha != null) {
+            throw new IllegalStateException("El transporte ya tiene un receptor.");
+        }
+        escucha = new Thread(() -> escucharEnFondo(receptor), "invalidacion-listen");
+        escucha.setDaemon(true);
+        escucha.start();
+    }
+
+    @Override
+    public void cerrar() {
+        cerrando = true;
+        if (escucha != null) {
+            escucha.interrupt();
+        }
+    }
+
+    private void escucharEnFondo(Consumer<String> receptor) {
+        long esperaMs = 1000;
+        boolean primeraConexion = true;
+        while (!cerrando) {
+            try (Connection conexion = DriverManager.getConnection(url, usuario, contrasena)) {
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.execute("LISTEN " + canal);
+                }
+                if (!primeraConexion) {
+                    receptor.accept(RESINCRONIZAR);
+                }
+                primeraConexion = false;
+                esperaMs = 1000;
+                PGConnection pg = conexion.unwrap(PGConnection.class);
+                while (!cerrando) {
+                    PGNotification[] notificaciones = pg.getNotifications(ESPERA_NOTIFICACIONES_MS);
+                    if (notificaciones == null) {
+                        continue;
+                    }
+                    for (PGNotification notificacion : notificaciones) {
+                        receptor.accept(notificacion.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (cerrando) {
+                    return;
+                }
+                primeraConexion = false;
+                System.err.println("Conexión LISTEN de invalidaciones perdida, reintento en " + esperaMs + " ms: "
+                        + e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(esperaMs);
+                } catch (InterruptedException interrumpido) {
+                    return;
+                }
+                esperaMs = Math.min(REINTENTO_MAXIMO_MS, esperaMs * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.couriersync.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.couriersync.diagnostico.ConversorJsonCronometrado;
+import com.couriersync.diagnostico.ExcesosConsultas;
+import com.couriersync.diagnostico.GuardiaConsultas;
+import com.couriersync.diagnostico.PresupuestoConsultas;
+import com.couriersync.diagnostico.TiemposSolicitud;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Enganches de TiemposSolicitud fuera de los filtros: el conversor JSON que
+ * mide la serialización (reemplaza al de Spring Boot con el mismo
+ * ObjectMapper), el tiempo de cada método de repositorio Spring Data y la
+ * revisión de los métodos anotados con PresupuestoConsultas.
+ */
+@Configuration
+public class DiagnosticoConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new ConversorJsonCronometrado(objectMapper);
+    }
+
+    // Igual que Spring Boot registra el listener de sus métricas de repositorio
+    @Bean
+    public static BeanPostProcessor tiemposRepositorios() {
+        RepositoryMethodInvocationListener listener = invocacion -> TiemposSolicitud.sumar(
+                TiemposSolicitud.Fase.REPOSITORIO, invocacion.getDuration(TimeUnit.NANOSECONDS));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String nombre) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> fabrica) {
+                    fabrica.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Rol de infraestructura para que lo aplique el mismo creador de proxies que @Transactional;
+    // con la mayor precedencia queda por fuera de la transacción y cuenta el flush del commit
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor guardiaConsultas(@Value("${diagnostico.consultas.estricto:false}") boolean estricto,
+                                           ObjectProvider<ExcesosConsultas> excesos) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(PresupuestoConsultas.class),
+                new GuardiaConsultas(estricto, excesos));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -0,0 +1,40 @@
+package com.couriersync.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.couriersync.cache.TransporteInvalidacion;
+import com.couriersync.cache.TransporteLocal;
+import com.couriersync.cache.TransportePostgres;
+
+/**
+ * Transporte del bus de invalidación entre nodos. Con "auto" se usa
+ * LISTEN/NOTIFY si la base de datos es PostgreSQL y el transporte en memoria
+ * en otro caso (H2 en las pruebas, un solo nodo).
+ */
+@Configuration
+public class InvalidacionConfig {
+
+    @Bean
+    public TransporteInvalidacion transporteInvalidacion(
+            @Value("${cache.invalidacion.transporte:auto}") String transporte,
+            @Value("${cache.invalidacion.canal:couriersync_invalidacion}") String canal,
+            @Value("${cache.invalidacion.url:}") String url,
+            DataSourceProperties dataSource, JdbcTemplate jdbcTemplate) {
+        String urlEscucha = url.isBlank() ? dataSource.determineUrl() : url;
+        boolean postgres = switch (transporte) {
+            case "postgres" -> true;
+            case "local" -> false;
+            case "auto" -> urlEscucha != null && urlEscucha.startsWith("jdbc:postgresql:");
+            default -> throw new IllegalArgumentException("cache.invalidacion.transporte inválido: " + transporte);
+        };
+        if (!postgres) {
+            return new TransporteLocal();
+        }
+        return new TransportePostgres(jdbcTemplate, canal, urlEscucha, dataSource.determineUsername(),
+                dataSource.determinePassword());
+    }
+}
@@ -0,0 +1,121 @@
+package com.couriersync.config;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.couriersync.route_optimizer.entity.EstadoRuta;
+import com.couriersync.route_optimizer.entity.TipoTrafico;
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.service.CacheUsuarios;
+import com.couriersync.users.service.HashContrasenas;
+import com.couriersync.users.service.RolService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Métricas propias de las cachés y del pool de BCrypt, leídas de los mismos
+ * contadores que /admin/stats al momento de cada lectura de Prometheus. Las de
+ * controladores (http.server.requests), repositorios
+ * (spring.data.repository.invocations), HikariCP y JVM/GC las registra
+ * Spring Boot; sus histogramas se configuran en application.properties.
+ * Micrometer observa el objeto con una referencia débil, por eso se le pasa
+ * el bean y no una lambda que lo capture.
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public MeterBinder metricasRoles(RolService rolService) {
+        return registro -> {
+            Gauge.builder("cache.roles.entradas", rolService, r -> valor(r.estadisticas(), "roles"))
+                    .description("Roles en la instantánea de RolService")
+                    .register(registro);
+            contador(registro, "cache.roles.consultas", rolService, RolService::estadisticas, "consultas",
+                    "Consultas de autoridades por ID de rol");
+            contador(registro, "cache.roles.desconocidos", rolService, RolService::estadisticas, "desconocidos",
+                    "Consultas de IDs sin rol cargado (se usa ROLE_USER)");
+            contador(registro, "cache.roles.recargas", rolService, RolService::estadisticas, "publicaciones",
+                    "Veces que cambió la instantánea");
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasUsuarios(CacheUsuarios cacheUsuarios) {
+        return registro -> {
+            Gauge.builder("cache.usuarios.entradas", cacheUsuarios, c -> valor(c.estadisticas(), "entradas"))
+                    .tag("tipo", "usuarios").register(registro);
+            Gauge.builder("cache.usuarios.entradas", cacheUsuarios, c -> valor(c.estadisticas(), "negativos"))
+                    .tag("tipo", "negativos").register(registro);
+            for (String[] resultado : new String[][] {{"acierto", "aciertos"},
+                    {"acierto_negativo", "aciertosNegativos"}, {"fallo", "fallos"}}) {
+                FunctionCounter.builder("cache.usuarios.consultas", cacheUsuarios,
+                                c -> valor(c.estadisticas(), resultado[1]))
+                        .tag("resultado", resultado[0]).register(registro);
+            }
+            contador(registro, "cache.usuarios.desalojos", cacheUsuarios, CacheUsuarios::estadisticas, "desalojos",
+                    "Entradas quitadas por tamaño");
+            contador(registro, "cache.usuarios.invalidaciones", cacheUsuarios, CacheUsuarios::estadisticas,
+                    "invalidaciones", "Invalidaciones recibidas por el bus");
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasBcrypt(HashContrasenas hashContrasenas) {
+        return registro -> {
+            Gauge.builder("seguridad.bcrypt.activos", hashContrasenas, h -> valor(h.estadisticas(), "activos"))
+                    .register(registro);
+            Gauge.builder("seguridad.bcrypt.en_cola", hashContrasenas, h -> valor(h.estadisticas(), "enCola"))
+                    .register(registro);
+            contador(registro, "seguridad.bcrypt.completadas", hashContrasenas, HashContrasenas::estadisticas,
+                    "completadas", "Hashes y verificaciones hechas");
+            contador(registro, "seguridad.bcrypt.rechazadas", hashContrasenas, HashContrasenas::estadisticas,
+                    "rechazadas", "Solicitudes rechazadas con 429");
+        };
+    }
+
+    // Caché de segundo nivel de Hibernate; solo cuenta con hibernate.generate_statistics activo
+    @Bean
+    public MeterBinder metricasSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        return registro -> {
+            Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (Class<?> entidad : new Class<?>[] { EstadoRuta.class, TipoTrafico.class, Rol.class }) {
+                String region = entidad.getSimpleName();
+                FunctionCounter.builder("hibernate.cache.consultas", stats,
+                                s -> aciertos(s.getDomainDataRegionStatistics(entidad.getName()), true))
+                        .tags("region", region, "resultado", "acierto").register(registro);
+                FunctionCounter.builder("hibernate.cache.consultas", stats,
+                                s -> aciertos(s.getDomainDataRegionStatistics(entidad.getName()), false))
+                        .tags("region", region, "resultado", "fallo").register(registro);
+            }
+        };
+    }
+
+    private static <T> void contador(MeterRegistry registro, String nombre, T fuente,
+            Function<T, Map<String, Object>> estadisticas, String clave, String descripcion) {
+        FunctionCounter.builder(nombre, fuente, f -> valor(estadisticas.apply(f), clave))
+                .description(descripcion)
+                .register(registro);
+    }
+
+    private static double aciertos(CacheRegionStatistics region, boolean aciertos) {
+        if (region == null) {
+            return 0;
+        }
+        return aciertos ? region.getHitCount() : region.getMissCount();
+    }
+
+    private static double valor(Map<String, Object> datos, String clave) {
+        Object valor = datos.get(clave);
+        return valor instanceof Number numero ? numero.doubleValue() : 0;
+    }
+}
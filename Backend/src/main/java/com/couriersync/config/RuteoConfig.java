@@ -0,0 +1,36 @@
+package com.couriersync.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.couriersync.route_optimizer.routing.ConversorGrafo;
+import com.couriersync.route_optimizer.routing.GrafoVial;
+import com.couriersync.route_optimizer.routing.MotorRuteo;
+
+/**
+ * Motor de ruteo sobre la red vial local. Solo se crea si ruteo.grafo.archivo
+ * apunta a un grafo; sin él las rutas siguen recibiendo distancia y tiempo del cliente.
+ */
+@Configuration
+public class RuteoConfig {
+
+    @Bean
+    @ConditionalOnExpression("'${ruteo.grafo.archivo:}' != ''")
+    public MotorRuteo motorRuteo(@Value("${ruteo.grafo.archivo}") String archivo) throws IOException {
+        Path ruta = Path.of(archivo);
+        // Un grafo en texto se convierte al arrancar; en producción conviene convertirlo antes
+        if (archivo.endsWith(".txt")) {
+            Path binario = Files.createTempFile("grafo-vial", ".bin");
+            binario.toFile().deleteOnExit();
+            ConversorGrafo.convertir(ruta, binario, GrafoVial.LANDMARKS_POR_DEFECTO);
+            ruta = binario;
+        }
+        return new MotorRuteo(GrafoVial.abrir(ruta));
+    }
+}
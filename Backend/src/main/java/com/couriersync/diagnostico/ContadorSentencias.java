@@ -0,0 +1,46 @@
+package com.couriersync.diagnostico;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuenta las sentencias SQL que prepara Hibernate en cada hilo, haya o no una
+ * solicitud en curso, y recuerda las últimas por referencia para mostrarlas
+ * cuando un método excede su PresupuestoConsultas. Los INSERT agrupados en
+ * batch cuentan una vez por lote, como viajan a la base de datos; lo que
+ * resuelve la caché de segundo nivel no cuenta.
+ */
+public final class ContadorSentencias {
+
+    static final int RECIENTES = 20;
+
+    private static final ThreadLocal<ContadorSentencias> ACTUAL = ThreadLocal.withInitial(ContadorSentencias::new);
+
+    private final String[] recientes = new String[RECIENTES];
+    private long total;
+
+    private ContadorSentencias() {
+    }
+
+    static void sentencia(String sql) {
+        ContadorSentencias contador = ACTUAL.get();
+        contador.recientes[(int) (contador.total % RECIENTES)] = sql;
+        contador.total++;
+    }
+
+    /** Sentencias preparadas por este hilo desde que arrancó; la diferencia entre dos lecturas es lo gastado. */
+    public static long total() {
+        return ACTUAL.get().total;
+    }
+
+    /** Las sentencias posteriores a la marca que aún se recuerdan, de la más antigua a la más reciente. */
+    public static List<String> desde(long marca) {
+        ContadorSentencias contador = ACTUAL.get();
+        long primera = Math.max(marca, contador.total - RECIENTES);
+        List<String> sentencias = new ArrayList<>((int) (contador.total - primera));
+        for (long i = primera; i < contador.total; i++) {
+            sentencias.add(contador.recientes[(int) (i % RECIENTES)]);
+        }
+        return sentencias;
+    }
+}
@@ -0,0 +1,58 @@
+package com.couriersync.diagnostico;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Conversor JSON de Spring que mide la serialización como fase de
+ * TiemposSolicitud. Normalmente escribe directo a la respuesta; si se pidió
+ * Server-Timing serializa primero en memoria para que el encabezado, que debe
+ * ir antes del cuerpo, ya incluya ese tiempo.
+ */
+public class ConversorJsonCronometrado extends MappingJackson2HttpMessageConverter {
+
+    public ConversorJsonCronometrado(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        TiemposSolicitud tiempos = TiemposSolicitud.actual();
+        if (tiempos == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long inicio = System.nanoTime();
+        if (!tiempos.encabezadoSolicitado()) {
+            super.writeInternal(object, type, outputMessage);
+            TiemposSolicitud.sumar(TiemposSolicitud.Fase.SERIALIZACION, System.nanoTime() - inicio);
+            return;
+        }
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream(8192);
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return cuerpo;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        TiemposSolicitud.sumar(TiemposSolicitud.Fase.SERIALIZACION, System.nanoTime() - inicio);
+        outputMessage.getHeaders().set(FiltroTiemposSolicitud.SERVER_TIMING, tiempos.serverTiming());
+        cuerpo.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,31 @@
+package com.couriersync.diagnostico;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Mide en TiemposSolicitud el tiempo de ejecución JDBC de cada sentencia y
+ * lote. Hibernate crea una instancia por sesión (hibernate.session.events.auto);
+ * el estado vive en TiemposSolicitud, no aquí.
+ */
+public class EventosJdbcHibernate extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        TiemposSolicitud.inicioJdbc();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        TiemposSolicitud.finJdbc();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        TiemposSolicitud.inicioJdbc();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        TiemposSolicitud.finJdbc();
+    }
+}
@@ -0,0 +1,88 @@
+package com.couriersync.diagnostico;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Destino de los avisos de sentencias SQL de más: métodos que exceden su
+ * PresupuestoConsultas y solicitudes sobre diagnostico.consultas.maximo-por-solicitud.
+ * Cada aviso suma al contador diagnostico.consultas.excedidas y queda en un
+ * anillo de tamaño fijo, como SolicitudesLentas, que se consulta en
+ * /admin/stats/excesos. No hay escritura en consola ni se copian las sentencias.
+ */
+@Component
+public class ExcesosConsultas {
+
+    // ruta es null cuando el exceso es de un método
+    public record Exceso(Instant instante, String origen, String metodo, String ruta, long sentencias, int maximo) {
+    }
+
+    private final Counter metodos;
+    private final Counter solicitudes;
+    private final Exceso[] anillo;
+    private int siguiente;
+    private long registrados;
+
+    public ExcesosConsultas(MeterRegistry meterRegistry,
+                            @Value("${diagnostico.consultas.excesos-capacidad:100}") int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("diagnostico.consultas.excesos-capacidad debe ser al menos 1");
+        }
+        this.metodos = contador(meterRegistry, "metodo");
+        this.solicitudes = contador(meterRegistry, "solicitud");
+        this.anillo = new Exceso[capacidad];
+    }
+
+    void metodo(String metodo, long sentencias, int maximo) {
+        metodos.increment();
+        guardar(new Exceso(Instant.now(), "metodo", metodo, null, sentencias, maximo));
+    }
+
+    void solicitud(String metodoHttp, String ruta, int sentencias, int maximo) {
+        solicitudes.increment();
+        guardar(new Exceso(Instant.now(), "solicitud", metodoHttp, ruta, sentencias, maximo));
+    }
+
+    private synchronized void guardar(Exceso exceso) {
+        anillo[siguiente] = exceso;
+        siguiente = (siguiente + 1) % anillo.length;
+        registrados++;
+    }
+
+    /** Excesos guardados, del más reciente al más antiguo. */
+    public synchronized List<Exceso> recientes() {
+        List<Exceso> lista = new ArrayList<>(anillo.length);
+        for (int i = 1; i <= anillo.length; i++) {
+            Exceso exceso = anillo[Math.floorMod(siguiente - i, anillo.length)];
+            if (exceso == null) {
+                break;
+            }
+            lista.add(exceso);
+        }
+        return lista;
+    }
+
+    public synchronized Map<String, Object> estadisticas() {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("capacidad", anillo.length);
+        datos.put("registrados", registrados);
+        datos.put("excesos", recientes());
+        return datos;
+    }
+
+    private static Counter contador(MeterRegistry registro, String origen) {
+        return Counter.builder("diagnostico.consultas.excedidas")
+                .description("Métodos o solicitudes que prepararon más sentencias SQL que su máximo")
+                .tag("origen", origen)
+                .register(registro);
+    }
+}
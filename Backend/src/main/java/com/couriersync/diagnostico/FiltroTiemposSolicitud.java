@@ -0,0 +1,129 @@
+package com.couriersync.diagnostico;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Primer filtro de la cadena: abre la medición por fases del hilo y, al
+ * terminar, guarda el desglose si la solicitud fue lenta. El encabezado
+ * Server-Timing expone tiempos internos, así que está apagado por defecto: con
+ * diagnostico.server-timing.habilitado se agrega cuando el cliente envía
+ * X-Server-Timing, y con diagnostico.server-timing.siempre en toda respuesta.
+ * Las respuestas JSON lo escriben desde
+ * ConversorJsonCronometrado para incluir la serialización y las demás justo
+ * antes de enviar el cuerpo. Las solicitudes que preparan más sentencias SQL
+ * que diagnostico.consultas.maximo-por-solicitud se avisan a ExcesosConsultas.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FiltroTiemposSolicitud extends OncePerRequestFilter {
+
+    public static final String SOLICITAR_ENCABEZADO = "X-Server-Timing";
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final SolicitudesLentas solicitudesLentas;
+    private final ExcesosConsultas excesosConsultas;
+    private final boolean habilitado;
+    private final boolean siempre;
+    private final int maximoSentencias;
+
+    public FiltroTiemposSolicitud(SolicitudesLentas solicitudesLentas, ExcesosConsultas excesosConsultas,
+                                  @Value("${diagnostico.server-timing.habilitado:false}") boolean habilitado,
+                                  @Value("${diagnostico.server-timing.siempre:false}") boolean siempre,
+                                  @Value("${diagnostico.consultas.maximo-por-solicitud:0}") int maximoSentencias) {
+        this.solicitudesLentas = solicitudesLentas;
+        this.excesosConsultas = excesosConsultas;
+        this.habilitado = habilitado;
+        this.siempre = siempre;
+        this.maximoSentencias = maximoSentencias;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean encabezado = siempre || (habilitado && request.getHeader(SOLICITAR_ENCABEZADO) != null);
+        TiemposSolicitud tiempos = TiemposSolicitud.iniciar(encabezado);
+        try {
+            filterChain.doFilter(request, encabezado ? new RespuestaConTiempos(response, tiempos) : response);
+        } finally {
+            long total = tiempos.transcurrido();
+            if (solicitudesLentas.esLenta(total)) {
+                solicitudesLentas.guardar(new SolicitudesLentas.SolicitudLenta(Instant.now(), request.getMethod(),
+                        ruta(request), response.getStatus(), total / 1e6, tiempos.desglose(),
+                        tiempos.totalSentencias(), tiempos.sentencias()));
+            }
+            // 0 desactiva el aviso
+            if (maximoSentencias > 0 && tiempos.totalSentencias() > maximoSentencias) {
+                excesosConsultas.solicitud(request.getMethod(), ruta(request), tiempos.totalSentencias(),
+                        maximoSentencias);
+            }
+            tiempos.terminar();
+        }
+    }
+
+    private static String ruta(HttpServletRequest request) {
+        String consulta = request.getQueryString();
+        return consulta == null ? request.getRequestURI() : request.getRequestURI() + "?" + consulta;
+    }
+
+    // Agrega Server-Timing al empezar el cuerpo o un error si nadie lo hizo antes (respuestas que no son JSON)
+    private static final class RespuestaConTiempos extends HttpServletResponseWrapper {
+
+        private final TiemposSolicitud tiempos;
+
+        RespuestaConTiempos(HttpServletResponse response, TiemposSolicitud tiempos) {
+            super(response);
+            this.tiempos = tiempos;
+        }
+
+        private void agregarEncabezado() {
+            if (!isCommitted() && !containsHeader(SERVER_TIMING)) {
+                setHeader(SERVER_TIMING, tiempos.serverTiming());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            agregarEncabezado();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            agregarEncabezado();
+            return super.getWriter();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            agregarEncabezado();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            agregarEncabezado();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            agregarEncabezado();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.couriersync.diagnostico;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+/**
+ * Compara las sentencias que prepara un método anotado con
+ * PresupuestoConsultas contra su máximo. Va por fuera de @Transactional para
+ * incluir el flush del commit. Si el método lanza una excepción no se revisa:
+ * el error original es más útil que el del presupuesto. El exceso se avisa a
+ * ExcesosConsultas; el modo estricto además lanza IllegalStateException con
+ * las últimas sentencias. Es solo para pruebas: la revisión ocurre al volver
+ * del método, con la transacción ya confirmada, así que el llamador recibiría
+ * un error de una operación que sí se guardó.
+ */
+public class GuardiaConsultas implements MethodInterceptor {
+
+    private final boolean estricto;
+    // Se resuelve al primer exceso: el advisor se crea antes que los beans de la aplicación
+    private final ObjectProvider<ExcesosConsultas> excesos;
+    private final ConcurrentMap<Method, Integer> maximos = new ConcurrentHashMap<>();
+
+    public GuardiaConsultas(boolean estricto, ObjectProvider<ExcesosConsultas> excesos) {
+        this.estricto = estricto;
+        this.excesos = excesos;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocacion) throws Throwable {
+        long marca = ContadorSentencias.total();
+        Object resultado = invocacion.proceed();
+        long usadas = ContadorSentencias.total() - marca;
+        Method metodo = invocacion.getMethod();
+        Class<?> clase = invocacion.getThis() == null ? metodo.getDeclaringClass()
+                : AopUtils.getTargetClass(invocacion.getThis());
+        int maximo = maximos.computeIfAbsent(metodo, m -> maximo(AopUtils.getMostSpecificMethod(m, clase)));
+        if (usadas > maximo) {
+            String nombre = clase.getSimpleName() + "." + metodo.getName();
+            excesos.ifAvailable(e -> e.metodo(nombre, usadas, maximo));
+            if (estricto) {
+                throw new IllegalStateException("Presupuesto de consultas excedido en " + nombre + ": " + usadas
+                        + " sentencias, máximo " + maximo + ". Últimas: "
+                        + String.join(" | ", ContadorSentencias.desde(marca)));
+            }
+        }
+        return resultado;
+    }
+
+    private static int maximo(Method metodo) {
+        PresupuestoConsultas presupuesto = AnnotatedElementUtils.findMergedAnnotation(metodo,
+                PresupuestoConsultas.class);
+        return presupuesto == null ? Integer.MAX_VALUE : presupuesto.value();
+    }
+}
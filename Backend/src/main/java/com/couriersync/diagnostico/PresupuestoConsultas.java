@@ -0,0 +1,22 @@
+package com.couriersync.diagnostico;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Máximo de sentencias SQL que puede preparar un método de un bean de Spring,
+ * contando las de los métodos que llame y el flush al confirmar su
+ * transacción. GuardiaConsultas lo revisa al volver del método y avisa el
+ * exceso a ExcesosConsultas. Con diagnostico.consultas.estricto, que es solo
+ * para pruebas, además es un error, lanzado después del commit.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PresupuestoConsultas {
+
+    int value();
+}
@@ -0,0 +1,19 @@
+package com.couriersync.diagnostico;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Anota en TiemposSolicitud cada sentencia SQL que Hibernate prepara, para
+ * mostrarlas junto al desglose de las solicitudes lentas, y la cuenta en
+ * ContadorSentencias para los presupuestos por método. No modifica el SQL.
+ * Se registra con hibernate.session_factory.statement_inspector.
+ */
+public class SentenciasHibernate implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        TiemposSolicitud.sentencia(sql);
+        ContadorSentencias.sentencia(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,71 @@
+package com.couriersync.diagnostico;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Últimas solicitudes que superaron el umbral, con su desglose por fase y las
+ * sentencias SQL que ejecutaron. Es un anillo de tamaño fijo: al llenarse se
+ * reemplaza la más antigua. Solo se escribe en solicitudes lentas, así que el
+ * candado no está en el camino normal.
+ */
+@Component
+public class SolicitudesLentas {
+
+    public record SolicitudLenta(Instant instante, String metodo, String ruta, int estado, double totalMs,
+                                 Map<String, Object> fases, int totalSentencias, List<String> sentencias) {
+    }
+
+    private final long umbralNanos;
+    private final SolicitudLenta[] anillo;
+    private int siguiente;
+    private long capturadas;
+
+    public SolicitudesLentas(@Value("${diagnostico.lentas.umbral-ms:1000}") long umbralMs,
+                             @Value("${diagnostico.lentas.capacidad:100}") int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("diagnostico.lentas.capacidad debe ser al menos 1");
+        }
+        this.umbralNanos = umbralMs * 1_000_000L;
+        this.anillo = new SolicitudLenta[capacidad];
+    }
+
+    // Umbral 0 o negativo desactiva la captura
+    boolean esLenta(long nanos) {
+        return umbralNanos > 0 && nanos >= umbralNanos;
+    }
+
+    synchronized void guardar(SolicitudLenta solicitud) {
+        anillo[siguiente] = solicitud;
+        siguiente = (siguiente + 1) % anillo.length;
+        capturadas++;
+    }
+
+    /** Solicitudes guardadas, de la más reciente a la más antigua. */
+    public synchronized List<SolicitudLenta> recientes() {
+        List<SolicitudLenta> lista = new ArrayList<>(anillo.length);
+        for (int i = 1; i <= anillo.length; i++) {
+            SolicitudLenta solicitud = anillo[Math.floorMod(siguiente - i, anillo.length)];
+            if (solicitud == null) {
+                break;
+            }
+            lista.add(solicitud);
+        }
+        return lista;
+    }
+
+    public synchronized Map<String, Object> estadisticas() {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("umbralMs", umbralNanos / 1_000_000L);
+        datos.put("capacidad", anillo.length);
+        datos.put("capturadas", capturadas);
+        datos.put("solicitudes", recientes());
+        return datos;
+    }
+}
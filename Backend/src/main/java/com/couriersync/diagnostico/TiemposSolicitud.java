@@ -0,0 +1,167 @@
+package com.couriersync.diagnostico;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tiempo por fase de la solicitud en curso: filtro JWT, repositorios, SQL,
+ * hidratación (tiempo de repositorio que no fue SQL) y serialización JSON.
+ * Cada hilo reutiliza su propia instancia, así que medir no crea objetos; las
+ * sentencias SQL se guardan por referencia hasta un máximo por solicitud.
+ * Fuera de FiltroTiemposSolicitud (tareas programadas, hilos propios) la
+ * instancia queda inactiva y las llamadas no hacen nada.
+ */
+public final class TiemposSolicitud {
+
+    public enum Fase {
+        JWT("jwt"), REPOSITORIO("repo"), SQL("sql"), SERIALIZACION("json");
+
+        private final String nombre;
+
+        Fase(String nombre) {
+            this.nombre = nombre;
+        }
+    }
+
+    static final int MAXIMO_SENTENCIAS = 50;
+
+    // values() copia el arreglo en cada llamada
+    private static final Fase[] FASES = Fase.values();
+    private static final ThreadLocal<TiemposSolicitud> ACTUAL = ThreadLocal.withInitial(TiemposSolicitud::new);
+
+    private final long[] nanos = new long[FASES.length];
+    private final int[] veces = new int[FASES.length];
+    private final String[] sentencias = new String[MAXIMO_SENTENCIAS];
+    private int totalSentencias;
+    private boolean activa;
+    private boolean encabezado;
+    private long inicio;
+    private long inicioJdbc;
+
+    private TiemposSolicitud() {
+    }
+
+    static TiemposSolicitud iniciar(boolean encabezado) {
+        TiemposSolicitud tiempos = ACTUAL.get();
+        Arrays.fill(tiempos.nanos, 0);
+        Arrays.fill(tiempos.veces, 0);
+        tiempos.totalSentencias = 0;
+        tiempos.inicioJdbc = 0;
+        tiempos.encabezado = encabezado;
+        tiempos.activa = true;
+        tiempos.inicio = System.nanoTime();
+        return tiempos;
+    }
+
+    void terminar() {
+        activa = false;
+        // No retener el texto de las sentencias hasta la próxima solicitud del hilo
+        Arrays.fill(sentencias, 0, Math.min(totalSentencias, MAXIMO_SENTENCIAS), null);
+    }
+
+    /** Medición de la solicitud atendida por este hilo, o null si no hay una en curso. */
+    public static TiemposSolicitud actual() {
+        TiemposSolicitud tiempos = ACTUAL.get();
+        return tiempos.activa ? tiempos : null;
+    }
+
+    public static void sumar(Fase fase, long nanos) {
+        TiemposSolicitud tiempos = ACTUAL.get();
+        if (tiempos.activa) {
+            tiempos.nanos[fase.ordinal()] += nanos;
+            tiempos.veces[fase.ordinal()]++;
+        }
+    }
+
+    static void sentencia(String sql) {
+        TiemposSolicitud tiempos = ACTUAL.get();
+        if (tiempos.activa) {
+            if (tiempos.totalSentencias < MAXIMO_SENTENCIAS) {
+                tiempos.sentencias[tiempos.totalSentencias] = sql;
+            }
+            tiempos.totalSentencias++;
+        }
+    }
+
+    static void inicioJdbc() {
+        TiemposSolicitud tiempos = ACTUAL.get();
+        if (tiempos.activa) {
+            tiempos.inicioJdbc = System.nanoTime();
+        }
+    }
+
+    static void finJdbc() {
+        TiemposSolicitud tiempos = ACTUAL.get();
+        if (tiempos.activa && tiempos.inicioJdbc != 0) {
+            sumar(Fase.SQL, System.nanoTime() - tiempos.inicioJdbc);
+            tiempos.inicioJdbc = 0;
+        }
+    }
+
+    public boolean encabezadoSolicitado() {
+        return encabezado;
+    }
+
+    long transcurrido() {
+        return System.nanoTime() - inicio;
+    }
+
+    long nanos(Fase fase) {
+        return nanos[fase.ordinal()];
+    }
+
+    // El tiempo de SQL ocurre casi siempre dentro de un repositorio; lo demás es armar las entidades
+    long hidratacion() {
+        return Math.max(0, nanos(Fase.REPOSITORIO) - nanos(Fase.SQL));
+    }
+
+    /** Valor del encabezado Server-Timing con las fases medidas hasta ahora, en milisegundos. */
+    public String serverTiming() {
+        StringBuilder valor = new StringBuilder(128);
+        agregar(valor, "jwt", nanos(Fase.JWT), null);
+        agregar(valor, "sql", nanos(Fase.SQL), totalSentencias + " sentencias");
+        agregar(valor, "hidratacion", hidratacion(), null);
+        agregar(valor, "json", nanos(Fase.SERIALIZACION), null);
+        agregar(valor, "total", transcurrido(), null);
+        return valor.toString();
+    }
+
+    private static void agregar(StringBuilder valor, String nombre, long nanos, String descripcion) {
+        if (valor.length() > 0) {
+            valor.append(", ");
+        }
+        valor.append(nombre).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1e6));
+        if (descripcion != null) {
+            valor.append(";desc=\"").append(descripcion).append('"');
+        }
+    }
+
+    /** Copia del desglose para guardarla; solo se llama con solicitudes lentas. */
+    Map<String, Object> desglose() {
+        Map<String, Object> fases = new LinkedHashMap<>();
+        for (Fase fase : FASES) {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("ms", nanos(fase) / 1e6);
+            datos.put("veces", veces[fase.ordinal()]);
+            fases.put(fase.nombre, datos);
+        }
+        fases.put("hidratacion", Map.of("ms", hidratacion() / 1e6));
+        return fases;
+    }
+
+    List<String> sentencias() {
+        List<String> copia = new ArrayList<>(Math.min(totalSentencias, MAXIMO_SENTENCIAS));
+        for (int i = 0; i < Math.min(totalSentencias, MAXIMO_SENTENCIAS); i++) {
+            copia.add(sentencias[i]);
+        }
+        return copia;
+    }
+
+    int totalSentencias() {
+        return totalSentencias;
+    }
+}
@@ -1,6 +1,8 @@
 package com.couriersync.route_optimizer.controller;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -17,10 +19,21 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.couriersync.route_optimizer.dto.OperacionRutaDTO;
+import com.couriersync.route_optimizer.dto.OptimizacionRequestDTO;
+import com.couriersync.route_optimizer.dto.OptimizacionResultadoDTO;
+import com.couriersync.route_optimizer.dto.PaginaRutas;
+import com.couriersync.route_optimizer.dto.ResultadoOperacionRutaDTO;
+import com.couriersync.route_optimizer.dto.RutaCercanaDTO;
 import com.couriersync.route_optimizer.entity.EstadoRuta;
 import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.service.OptimizacionService;
+import com.couriersync.route_optimizer.service.OrdenRuta;
+import com.couriersync.route_optimizer.service.RutaLoteService;
 import com.couriersync.route_optimizer.service.RutaService;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 
 @RestController
 @RequestMapping("/routes")
@@ -29,6 +42,12 @@ public class RutaController {
     @Autowired
     private RutaService rutaService;
 
+    @Autowired
+    private RutaLoteService rutaLoteService;
+
+    @Autowired
+    private OptimizacionService optimizacionService;
+
     // Crear una nueva ruta
     @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA')")
     @PostMapping("/create")
@@ -53,8 +72,45 @@ public class RutaController {
         try {
             Ruta actualizada = rutaService.actualizarRuta(idRuta, rutaActualizada);
             return ResponseEntity.ok(actualizada);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
         } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
+
+    // Crear, editar y eliminar rutas en lote; devuelve el resultado de cada operación
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA')")
+    @PostMapping("/bulk")
+    public ResponseEntity<?> procesarLote(@RequestBody List<OperacionRutaDTO> operaciones) {
+        try {
+            List<ResultadoOperacionRutaDTO> resultados = rutaLoteService.procesarLote(operaciones);
+            return ResponseEntity.ok(resultados);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
+
+    // Ordenar paradas entre los vehículos y guardar distancia y tiempo en sus rutas
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA')")
+    @PostMapping("/optimize")
+    public ResponseEntity<?> optimizarRutas(@RequestBody OptimizacionRequestDTO solicitud) {
+        try {
+            OptimizacionResultadoDTO resultado = optimizacionService.optimizar(solicitud);
+            return ResponseEntity.ok(resultado);
+        } catch (NoSuchElementException e) {
+            // Una ruta del vehículo se borró mientras se optimizaba
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error inesperado. Intente más tarde.");
@@ -81,6 +137,56 @@ public class RutaController {
         return rutaService.obtenerTodasLasRutas();
     }
 
+    // Exportar rutas como NDJSON (una ruta por línea) sin cargar la tabla en memoria
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA') or hasRole('AUDITOR')")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public void exportarRutas(@RequestParam(value = "idEstado", required = false) Integer idEstado,
+                              @RequestParam(value = "idTrafico", required = false) Integer idTrafico,
+                              HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"rutas.ndjson\"");
+        rutaService.exportarRutas(idEstado, idTrafico, response.getOutputStream());
+    }
+
+    // Rutas activas con paradas cerca de un punto, de la más cercana a la más lejana
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA') or hasRole('AUDITOR')")
+    @GetMapping("/near")
+    public ResponseEntity<?> buscarRutasCercanas(@RequestParam("lat") double latitud,
+                                                 @RequestParam("lon") double longitud,
+                                                 @RequestParam(value = "k", defaultValue = "10") int k,
+                                                 @RequestParam(value = "radioKm", defaultValue = "5") double radioKm) {
+        try {
+            List<RutaCercanaDTO> rutas = rutaService.buscarRutasCercanas(latitud, longitud, k, radioKm);
+            return ResponseEntity.ok(rutas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
+
+    // Rutas activas con alguna parada dentro de un rectángulo de coordenadas
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA') or hasRole('AUDITOR')")
+    @GetMapping("/near/bbox")
+    public ResponseEntity<?> buscarRutasEnArea(@RequestParam("minLat") double latitudMinima,
+                                               @RequestParam("minLon") double longitudMinima,
+                                               @RequestParam("maxLat") double latitudMaxima,
+                                               @RequestParam("maxLon") double longitudMaxima,
+                                               @RequestParam(value = "limite", defaultValue = "500") int limite) {
+        try {
+            List<Ruta> rutas = rutaService.buscarRutasEnArea(latitudMinima, longitudMinima,
+                    latitudMaxima, longitudMaxima, limite);
+            return ResponseEntity.ok(rutas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
+
     // Obtener todos los estados disponibles
     @GetMapping("/estados")
     public ResponseEntity<List<EstadoRuta>> obtenerTodosLosEstados() {
@@ -123,7 +229,77 @@ public class RutaController {
         return ResponseEntity.ok(rutas);
     }
 
+    // Variantes paginadas por cursor: devuelven {rutas, siguienteCursor}
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA') or hasRole('AUDITOR')")
+    @GetMapping("/get/all/page")
+    public ResponseEntity<?> paginarTodasLasRutas(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", defaultValue = "100") int limite,
+            @RequestParam(value = "orden", defaultValue = "id") String orden,
+            @RequestParam(value = "desc", defaultValue = "false") boolean descendente) {
+        try {
+            PaginaRutas pagina = rutaService.paginarRutas(null, null, OrdenRuta.desde(orden), descendente, cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
 
+    @GetMapping("/by-estado/page")
+    public ResponseEntity<?> paginarRutasPorEstado(
+            @RequestParam("estado") String nombreEstado,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", defaultValue = "100") int limite,
+            @RequestParam(value = "orden", defaultValue = "id") String orden,
+            @RequestParam(value = "desc", defaultValue = "false") boolean descendente) {
+        try {
+            PaginaRutas pagina = rutaService.paginarRutasPorNombreEstado(nombreEstado, OrdenRuta.desde(orden),
+                    descendente, cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
 
-}
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA') or hasRole('AUDITOR')")
+    @GetMapping("/trafico/{nivelTrafico}/page")
+    public ResponseEntity<?> paginarRutasPorTrafico(
+            @PathVariable("nivelTrafico") String nivelTrafico,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", defaultValue = "100") int limite,
+            @RequestParam(value = "orden", defaultValue = "id") String orden,
+            @RequestParam(value = "desc", defaultValue = "false") boolean descendente) {
+        try {
+            PaginaRutas pagina = rutaService.paginarRutasPorTrafico(nivelTrafico, OrdenRuta.desde(orden),
+                    descendente, cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
 
+    @PreAuthorize("hasRole('ADMIN') or hasRole('GESTORRUTA') or hasRole('AUDITOR')")
+    @GetMapping("/trafico/all/page")
+    public ResponseEntity<?> paginarRutasPorTraficoAsc(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", defaultValue = "100") int limite) {
+        try {
+            PaginaRutas pagina = rutaService.paginarRutas(null, null, OrdenRuta.TRAFICO, false, cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.couriersync.route_optimizer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Coordenada {
+
+    private Double latitud;
+
+    private Double longitud;
+}
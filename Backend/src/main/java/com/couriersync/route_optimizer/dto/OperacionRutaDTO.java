@@ -0,0 +1,27 @@
+package com.couriersync.route_optimizer.dto;
+
+import com.couriersync.route_optimizer.entity.Ruta;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class OperacionRutaDTO {
+
+    public enum Tipo {
+        CREAR,
+        ACTUALIZAR,
+        ELIMINAR
+    }
+
+    @NotNull
+    private Tipo tipo;
+
+    // Obligatorio para ACTUALIZAR y ELIMINAR; opcional en CREAR
+    private Integer idRuta;
+
+    // Datos de la ruta para CREAR y ACTUALIZAR
+    private Ruta ruta;
+
+    // Getters y Setters generados por Lombok
+}
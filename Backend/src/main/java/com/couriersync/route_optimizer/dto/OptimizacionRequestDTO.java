@@ -0,0 +1,49 @@
+package com.couriersync.route_optimizer.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class OptimizacionRequestDTO {
+
+    // Punto de salida y regreso de todos los vehículos
+    private Coordenada deposito;
+
+    private List<Parada> paradas;
+
+    private List<Vehiculo> vehiculos;
+
+    // Velocidad media para estimar tiempos; por defecto 30 km/h
+    private Double velocidadKmh;
+
+    // Cantidad de reinicios paralelos del optimizador
+    private Integer reinicios;
+
+    // Opcional: fija la semilla para obtener resultados reproducibles
+    private Long semilla;
+
+    @Data
+    public static class Coordenada {
+        private Double latitud;
+        private Double longitud;
+    }
+
+    @Data
+    public static class Parada {
+        private String id;
+        private Double latitud;
+        private Double longitud;
+        // Unidades de carga; por defecto 1
+        private Integer demanda;
+    }
+
+    @Data
+    public static class Vehiculo {
+        // Ruta existente donde se guardan distancia y tiempo del recorrido
+        private Integer idRuta;
+        private String placa;
+        // Si se omite se reparte la demanda total entre la flota
+        private Integer capacidad;
+    }
+}
@@ -0,0 +1,30 @@
+package com.couriersync.route_optimizer.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OptimizacionResultadoDTO {
+
+    // Kilómetros recorridos por toda la flota
+    private double distanciaTotal;
+
+    private long tiempoCalculoMs;
+
+    private List<RecorridoVehiculo> recorridos;
+
+    @Data
+    @AllArgsConstructor
+    public static class RecorridoVehiculo {
+        private Integer idRuta;
+        private String placa;
+        // IDs de las paradas en el orden de visita, sin el depósito
+        private List<String> paradas;
+        private int carga;
+        private double distanciaKm;
+        private double tiempoMin;
+    }
+}
@@ -0,0 +1,18 @@
+package com.couriersync.route_optimizer.dto;
+
+import java.util.List;
+
+import com.couriersync.route_optimizer.entity.Ruta;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PaginaRutas {
+
+    private List<Ruta> rutas;
+
+    // Cursor opaco para pedir la siguiente página; null si no hay más rutas
+    private String siguienteCursor;
+}
@@ -0,0 +1,21 @@
+package com.couriersync.route_optimizer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResultadoOperacionRutaDTO {
+
+    // Posición de la operación dentro del lote recibido
+    private int indice;
+
+    private OperacionRutaDTO.Tipo tipo;
+
+    private Integer idRuta;
+
+    // Código HTTP equivalente al que devolvería el endpoint individual
+    private int estado;
+
+    private String mensaje;
+}
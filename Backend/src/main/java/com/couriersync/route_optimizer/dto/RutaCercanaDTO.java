@@ -0,0 +1,16 @@
+package com.couriersync.route_optimizer.dto;
+
+import com.couriersync.route_optimizer.entity.Ruta;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RutaCercanaDTO {
+
+    private Ruta ruta;
+
+    // Distancia en línea recta a la parada más cercana de la ruta
+    private Double distanciaKm;
+}
@@ -1,12 +1,25 @@
 package com.couriersync.route_optimizer.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Data;
 
+import com.couriersync.cache.InvalidacionHibernate;
+
 @Entity
+@EntityListeners(InvalidacionHibernate.CambiosEntidad.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Table(name = "tbl_estado_ruta")
 @Data
 public class EstadoRuta {
@@ -15,6 +28,7 @@ public class EstadoRuta {
     @Column(name = "id_estado", nullable = false)
     private Integer idEstado;
 
+    @NaturalId
     @Column(name = "nombre_estado", nullable = false, length = 50)
     private String nombreEstado;
 
@@ -0,0 +1,91 @@
+package com.couriersync.route_optimizer.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Punto de paso de una ruta, en el orden de visita; se escribe a partir de
+ * Ruta.trayecto. En PostgreSQL:
+ *
+ * <pre>
+ * CREATE TABLE tbl_paradas (
+ *     id_ruta  INTEGER NOT NULL REFERENCES tbl_rutas (id_ruta) ON DELETE CASCADE,
+ *     orden    INTEGER NOT NULL,
+ *     latitud  DOUBLE PRECISION NOT NULL,
+ *     longitud DOUBLE PRECISION NOT NULL,
+ *     PRIMARY KEY (id_ruta, orden)
+ * );
+ * </pre>
+ */
+@Entity
+@IdClass(ParadaId.class)
+@Table(name = "tbl_paradas")
+@Data
+@NoArgsConstructor
+public class Parada implements Persistable<ParadaId> {
+
+    @Id
+    @Column(name = "id_ruta", nullable = false)
+    private Integer idRuta;
+
+    @Id
+    @Column(name = "orden", nullable = false)
+    private Integer orden;
+
+    @Column(name = "latitud", nullable = false)
+    private Double latitud;
+
+    @Column(name = "longitud", nullable = false)
+    private Double longitud;
+
+    // Las paradas siempre se reemplazan completas, así que se insertan sin SELECT previo
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean nueva = true;
+
+    public Parada(Integer idRuta, Integer orden, Double latitud, Double longitud) {
+        this.idRuta = idRuta;
+        this.orden = orden;
+        this.latitud = latitud;
+        this.longitud = longitud;
+    }
+
+    @Override
+    @JsonIgnore
+    public ParadaId getId() {
+        return new ParadaId(idRuta, orden);
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
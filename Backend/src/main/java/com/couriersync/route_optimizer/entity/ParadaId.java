@@ -0,0 +1,18 @@
+package com.couriersync.route_optimizer.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Llave compuesta de Parada: ruta y posición dentro del trayecto
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParadaId implements Serializable {
+
+    private Integer idRuta;
+
+    private Integer orden;
+}
@@ -1,16 +1,38 @@
 package com.couriersync.route_optimizer.entity;
 
+import java.util.List;
+
+import org.springframework.data.domain.Persistable;
+
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Table(name = "tbl_rutas")
+@Table(name = "tbl_rutas", indexes = {
+    // Índices compuestos que sirven a la paginación por cursor
+    @Index(name = "idx_rutas_estado_id", columnList = "id_estado, id_ruta"),
+    @Index(name = "idx_rutas_trafico_id", columnList = "id_trafico, id_ruta"),
+    @Index(name = "idx_rutas_prioridad_id", columnList = "prioridad, id_ruta")
+})
 @Data
 
-public class Ruta {
+public class Ruta implements Persistable<Integer> {
 
     @Id
     @Column(name = "id_ruta", nullable = false, unique = true)
@@ -37,5 +59,41 @@ public class Ruta {
     @Column(name = "prioridad", nullable = false)
     private Short prioridad;
 
+    // Puntos por los que pasa la ruta; se guardan como Parada y, con red vial
+    // cargada, se usan para calcular distanciaTotal y tiempoPromedio
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<Coordenada> trayecto;
+
+    // El ID se asigna antes de guardar, así que Spring Data no puede deducir si
+    // la ruta es nueva; sin esta marca haría merge (SELECT previo) en cada insert
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean nueva = true;
+
+    @Override
+    @JsonIgnore
+    public Integer getId() {
+        return idRuta;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+
     // Getters y Setters generados por Lombok
 }
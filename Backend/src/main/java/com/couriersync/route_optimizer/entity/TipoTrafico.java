@@ -1,12 +1,25 @@
 package com.couriersync.route_optimizer.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Data;
 
+import com.couriersync.cache.InvalidacionHibernate;
+
 @Entity
+@EntityListeners(InvalidacionHibernate.CambiosEntidad.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Table(name = "tbl_trafico_promedio")
 @Data
 
@@ -16,6 +29,7 @@ public class TipoTrafico {
     @Column(name = "id_trafico", nullable = false, unique = true)
     private Integer idTrafico;
 
+    @NaturalId
     @Column(name = "nivel_trafico", nullable = false, unique = true)
     private String nivelTrafico;
 
@@ -0,0 +1,307 @@
+package com.couriersync.route_optimizer.optimizer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Estado de trabajo de un reinicio del optimizador: construye una solución
+ * inicial aleatorizada y la mejora con búsqueda local. Todos los arreglos se
+ * reservan al crear el objeto, así que los ciclos de búsqueda no asignan memoria.
+ * No es seguro entre hilos; cada reinicio usa su propia instancia.
+ */
+final class EspacioBusqueda {
+
+    private static final double EPSILON = 1e-9;
+    private static final int LARGO_MAXIMO_SEGMENTO = 3;
+    private static final int CANDIDATOS_CONSTRUCCION = 3;
+
+    private final ProblemaRuteo problema;
+    private final MatrizCostos matriz;
+    private final int[] vecinos;
+    private final int cantidadVecinos;
+    private final int n;
+    private final int vehiculos;
+
+    private final int[][] rutas;
+    private final int[] largo;
+    private final int[] carga;
+    private final int[] rutaDe;
+    private final int[] posicion;
+    private final int[] segmento = new int[LARGO_MAXIMO_SEGMENTO];
+    private final int[] orden;
+    private final boolean[] visitada;
+
+    EspacioBusqueda(ProblemaRuteo problema, int[] vecinos, int cantidadVecinos) {
+        this.problema = problema;
+        this.matriz = problema.getMatriz();
+        this.vecinos = vecinos;
+        this.cantidadVecinos = cantidadVecinos;
+        this.n = problema.getUbicaciones();
+        this.vehiculos = problema.getVehiculos();
+        this.rutas = new int[vehiculos][n];
+        this.largo = new int[vehiculos];
+        this.carga = new int[vehiculos];
+        this.rutaDe = new int[n];
+        this.posicion = new int[n];
+        this.orden = new int[n - 1];
+        this.visitada = new boolean[n];
+    }
+
+    SolucionRuteo resolver(SplittableRandom aleatorio) {
+        construir(aleatorio);
+        mejorar(aleatorio);
+        int[][] resultado = new int[vehiculos][];
+        for (int r = 0; r < vehiculos; r++) {
+            resultado[r] = Arrays.copyOf(rutas[r], largo[r]);
+        }
+        return new SolucionRuteo(resultado, matriz);
+    }
+
+    /**
+     * Vecino más cercano aleatorizado (GRASP): cada vehículo avanza hacia una de
+     * las ubicaciones factibles más cercanas hasta llenar su capacidad.
+     */
+    private void construir(SplittableRandom aleatorio) {
+        Arrays.fill(visitada, false);
+        int pendientes = n - 1;
+        int[] candidatos = new int[CANDIDATOS_CONSTRUCCION];
+        double[] distanciasCandidatos = new double[CANDIDATOS_CONSTRUCCION];
+
+        for (int r = 0; r < vehiculos; r++) {
+            largo[r] = 0;
+            carga[r] = 0;
+            int actual = 0;
+            while (pendientes > 0) {
+                int encontrados = 0;
+                for (int u = 1; u < n; u++) {
+                    if (visitada[u] || carga[r] + problema.demanda(u) > problema.capacidad(r)) {
+                        continue;
+                    }
+                    double d = matriz.distancia(actual, u);
+                    int k = Math.min(encontrados, CANDIDATOS_CONSTRUCCION - 1);
+                    if (encontrados == CANDIDATOS_CONSTRUCCION && d >= distanciasCandidatos[k]) {
+                        continue;
+                    }
+                    while (k > 0 && distanciasCandidatos[k - 1] > d) {
+                        candidatos[k] = candidatos[k - 1];
+                        distanciasCandidatos[k] = distanciasCandidatos[k - 1];
+                        k--;
+                    }
+                    candidatos[k] = u;
+                    distanciasCandidatos[k] = d;
+                    encontrados = Math.min(encontrados + 1, CANDIDATOS_CONSTRUCCION);
+                }
+                if (encontrados == 0) {
+                    break;
+                }
+                int elegida = candidatos[aleatorio.nextInt(encontrados)];
+                agregarAlFinal(r, elegida);
+                visitada[elegida] = true;
+                actual = elegida;
+                pendientes--;
+            }
+        }
+
+        // El llenado voraz puede dejar ubicaciones sueltas aunque la capacidad
+        // total alcance; se ubican en el vehículo con más espacio libre
+        for (int u = 1; u < n && pendientes > 0; u++) {
+            if (visitada[u]) {
+                continue;
+            }
+            int mejor = -1;
+            for (int r = 0; r < vehiculos; r++) {
+                int libre = problema.capacidad(r) - carga[r];
+                if (libre >= problema.demanda(u) && (mejor < 0 || libre > problema.capacidad(mejor) - carga[mejor])) {
+                    mejor = r;
+                }
+            }
+            if (mejor < 0) {
+                throw new IllegalArgumentException("No se encontró una asignación factible para la capacidad de la flota.");
+            }
+            agregarAlFinal(mejor, u);
+            visitada[u] = true;
+            pendientes--;
+        }
+    }
+
+    private void agregarAlFinal(int r, int u) {
+        rutas[r][largo[r]] = u;
+        posicion[u] = largo[r];
+        rutaDe[u] = r;
+        largo[r]++;
+        carga[r] += problema.demanda(u);
+    }
+
+    /** Aplica movimientos de primera mejora hasta llegar a un óptimo local. */
+    private void mejorar(SplittableRandom aleatorio) {
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = i + 1;
+        }
+        for (int i = orden.length - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            int tmp = orden[i];
+            orden[i] = orden[j];
+            orden[j] = tmp;
+        }
+
+        boolean mejoro = true;
+        while (mejoro) {
+            mejoro = false;
+            for (int v : orden) {
+                if (dosOpt(v) || orOpt(v)) {
+                    mejoro = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 2-opt dentro de una ruta usando la lista de vecinos de v: crea la arista
+     * (v, w) e invierte el tramo entre ambos.
+     */
+    private boolean dosOpt(int v) {
+        int r = rutaDe[v];
+        int base = v * cantidadVecinos;
+        for (int k = 0; k < cantidadVecinos; k++) {
+            int w = vecinos[base + k];
+            if (rutaDe[w] != r) {
+                continue;
+            }
+            int a = posicion[v] < posicion[w] ? v : w;
+            int c = a == v ? w : v;
+            int i = posicion[a];
+            int j = posicion[c];
+            if (j == i + 1) {
+                continue;
+            }
+            double dAC = matriz.distancia(a, c);
+
+            // Aristas (a, sig(a)) y (c, sig(c)) -> (a, c) y (sig(a), sig(c))
+            int sa = sucesor(a);
+            int sc = sucesor(c);
+            double delta = dAC + matriz.distancia(sa, sc) - matriz.distancia(a, sa) - matriz.distancia(c, sc);
+            if (delta < -EPSILON) {
+                invertir(r, i + 1, j);
+                return true;
+            }
+
+            // Aristas (ant(a), a) y (ant(c), c) -> (ant(a), ant(c)) y (a, c)
+            int pa = predecesor(a);
+            int pc = predecesor(c);
+            delta = matriz.distancia(pa, pc) + dAC - matriz.distancia(pa, a) - matriz.distancia(pc, c);
+            if (delta < -EPSILON) {
+                invertir(r, i, j - 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Or-opt: mueve el tramo de 1 a 3 ubicaciones que empieza en v junto a uno de
+     * sus vecinos, en la misma ruta o en otra con capacidad disponible.
+     */
+    private boolean orOpt(int v) {
+        int r = rutaDe[v];
+        int i = posicion[v];
+        int demandaSegmento = 0;
+        for (int largoSegmento = 1; largoSegmento <= LARGO_MAXIMO_SEGMENTO && i + largoSegmento <= largo[r]; largoSegmento++) {
+            int ultimo = rutas[r][i + largoSegmento - 1];
+            demandaSegmento += problema.demanda(ultimo);
+            int anterior = predecesor(v);
+            int siguiente = sucesor(ultimo);
+            double ahorro = matriz.distancia(anterior, v) + matriz.distancia(ultimo, siguiente)
+                    - matriz.distancia(anterior, siguiente);
+            if (ahorro <= EPSILON) {
+                continue;
+            }
+
+            int base = v * cantidadVecinos;
+            for (int k = 0; k < cantidadVecinos; k++) {
+                int w = vecinos[base + k];
+                int q = rutaDe[w];
+                if (q == r) {
+                    if (posicion[w] >= i && posicion[w] < i + largoSegmento) {
+                        continue;
+                    }
+                } else if (carga[q] + demandaSegmento > problema.capacidad(q)) {
+                    continue;
+                }
+
+                // Insertar después de w: (w, sig(w)) -> (w, v) ... (ultimo, sig(w))
+                int sw = sucesor(w);
+                if (!(q == r && w == anterior)) {
+                    double costo = matriz.distancia(w, v) + matriz.distancia(ultimo, sw) - matriz.distancia(w, sw);
+                    if (costo - ahorro < -EPSILON) {
+                        mover(r, i, largoSegmento, w, true);
+                        return true;
+                    }
+                }
+
+                // Insertar antes de w: (ant(w), w) -> (ant(w), v) ... (ultimo, w)
+                int pw = predecesor(w);
+                if (!(q == r && w == siguiente)) {
+                    double costo = matriz.distancia(pw, v) + matriz.distancia(ultimo, w) - matriz.distancia(pw, w);
+                    if (costo - ahorro < -EPSILON) {
+                        mover(r, i, largoSegmento, w, false);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private int predecesor(int u) {
+        int p = posicion[u];
+        return p == 0 ? 0 : rutas[rutaDe[u]][p - 1];
+    }
+
+    private int sucesor(int u) {
+        int r = rutaDe[u];
+        int p = posicion[u];
+        return p == largo[r] - 1 ? 0 : rutas[r][p + 1];
+    }
+
+    private void invertir(int r, int desde, int hasta) {
+        int[] ruta = rutas[r];
+        while (desde < hasta) {
+            int tmp = ruta[desde];
+            ruta[desde] = ruta[hasta];
+            ruta[hasta] = tmp;
+            posicion[ruta[desde]] = desde;
+            posicion[ruta[hasta]] = hasta;
+            desde++;
+            hasta--;
+        }
+    }
+
+    private void mover(int r, int inicio, int largoSegmento, int destino, boolean despues) {
+        int[] origen = rutas[r];
+        int demandaSegmento = 0;
+        for (int k = 0; k < largoSegmento; k++) {
+            segmento[k] = origen[inicio + k];
+            demandaSegmento += problema.demanda(segmento[k]);
+        }
+        System.arraycopy(origen, inicio + largoSegmento, origen, inicio, largo[r] - inicio - largoSegmento);
+        largo[r] -= largoSegmento;
+        carga[r] -= demandaSegmento;
+        for (int p = inicio; p < largo[r]; p++) {
+            posicion[origen[p]] = p;
+        }
+
+        int q = rutaDe[destino];
+        int[] ruta = rutas[q];
+        int k = posicion[destino] + (despues ? 1 : 0);
+        System.arraycopy(ruta, k, ruta, k + largoSegmento, largo[q] - k);
+        System.arraycopy(segmento, 0, ruta, k, largoSegmento);
+        largo[q] += largoSegmento;
+        carga[q] += demandaSegmento;
+        for (int p = k; p < largo[q]; p++) {
+            posicion[ruta[p]] = p;
+        }
+        for (int s = 0; s < largoSegmento; s++) {
+            rutaDe[segmento[s]] = q;
+        }
+    }
+}
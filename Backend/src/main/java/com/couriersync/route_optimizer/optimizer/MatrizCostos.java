@@ -0,0 +1,15 @@
+package com.couriersync.route_optimizer.optimizer;
+
+/**
+ * Costos de viaje entre ubicaciones indexadas de 0 a tamano() - 1: distancia en
+ * km y tiempo en minutos. Las implementaciones deben admitir lecturas
+ * concurrentes, ya que los reinicios del optimizador comparten la matriz.
+ */
+public interface MatrizCostos {
+
+    int tamano();
+
+    double distancia(int desde, int hasta);
+
+    double tiempo(int desde, int hasta);
+}
@@ -0,0 +1,68 @@
+package com.couriersync.route_optimizer.optimizer;
+
+/**
+ * Matriz densa de distancias (km) y tiempos (min) entre ubicaciones, guardada
+ * en arreglos primitivos planos por filas. El índice 0 es el depósito.
+ */
+public final class MatrizDistancias implements MatrizCostos {
+
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+
+    private final int n;
+    private final double[] distancias;
+    private final double[] tiempos;
+
+    public MatrizDistancias(int n, double[] distancias, double[] tiempos) {
+        if (distancias.length != n * n || tiempos.length != n * n) {
+            throw new IllegalArgumentException("Las matrices deben ser de " + n + "x" + n + ".");
+        }
+        this.n = n;
+        this.distancias = distancias;
+        this.tiempos = tiempos;
+    }
+
+    /**
+     * Construye la matriz con distancia de círculo máximo (haversine) y un
+     * tiempo estimado a velocidad constante.
+     */
+    public static MatrizDistancias haversine(double[] latitudes, double[] longitudes, double velocidadKmh) {
+        int n = latitudes.length;
+        double[] distancias = new double[n * n];
+        double[] tiempos = new double[n * n];
+        double minutosPorKm = 60.0 / velocidadKmh;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double d = haversineKm(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+                distancias[i * n + j] = d;
+                distancias[j * n + i] = d;
+                tiempos[i * n + j] = d * minutosPorKm;
+                tiempos[j * n + i] = d * minutosPorKm;
+            }
+        }
+        return new MatrizDistancias(n, distancias, tiempos);
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    @Override
+    public int tamano() {
+        return n;
+    }
+
+    @Override
+    public double distancia(int desde, int hasta) {
+        return distancias[desde * n + hasta];
+    }
+
+    @Override
+    public double tiempo(int desde, int hasta) {
+        return tiempos[desde * n + hasta];
+    }
+}
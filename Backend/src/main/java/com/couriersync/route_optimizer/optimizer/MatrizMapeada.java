@@ -0,0 +1,432 @@
+package com.couriersync.route_optimizer.optimizer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matriz de distancias y tiempos guardada en un archivo mapeado en memoria,
+ * fuera del heap de la JVM. Los valores se codifican como float y se agrupan en
+ * bloques de 64x64 (filas consecutivas dentro del bloque) para que las
+ * ubicaciones con índices cercanos compartan páginas.
+ *
+ * <p>Diseño del archivo (little-endian):
+ * <pre>
+ * [cabecera 4 KB] mágico, versión, capacidad, tamaño, velocidad (km/h)
+ * [coordenadas]   capacidad x (latitud, longitud) en double
+ * [distancias]    bloques de floats, km
+ * [tiempos]       bloques de floats, minutos
+ * </pre>
+ *
+ * <p>Las ubicaciones se agregan de a una y solo se calcula su fila y columna,
+ * así que al reabrir el archivo no hay que recalcular nada. Las lecturas son
+ * seguras entre hilos; las escrituras se serializan.
+ *
+ * <p>Cuando una solicitud no cabe, {@link #vistaDe} compacta el archivo y
+ * conserva las ubicaciones usadas más recientemente. Compactar mueve índices,
+ * así que solo se hace sin vistas abiertas.
+ */
+public final class MatrizMapeada implements MatrizCostos, Closeable {
+
+    private static final int MAGICO = 0x43534D58;
+    private static final int VERSION = 1;
+    private static final int BYTES_CABECERA = 4096;
+    private static final int POS_CAPACIDAD = 8;
+    private static final int POS_TAMANO = 12;
+    private static final int POS_VELOCIDAD = 16;
+
+    private static final int BITS_BLOQUE = 6;
+    private static final int LADO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA_BLOQUE = LADO_BLOQUE - 1;
+    // Un MappedByteBuffer direcciona como máximo 2 GB; cada matriz se parte en segmentos
+    private static final long MAXIMO_BYTES_SEGMENTO = 1L << 30;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer cabecera;
+    private final MappedByteBuffer coordenadas;
+    private final MappedByteBuffer[] distancias;
+    private final MappedByteBuffer[] tiempos;
+    private final int capacidad;
+    private final int bloquesPorFila;
+    private final int bitsFilasPorSegmento;
+    private final double velocidadKmh;
+    private final Map<Long, Integer> indicePorCoordenada = new ConcurrentHashMap<>();
+    private volatile int tamano;
+
+    // Uso más reciente de cada ubicación (solo en memoria; al reabrir todas empatan)
+    private final long[] ultimoUso;
+    private long usos;
+    private int vistasAbiertas;
+    private long compactaciones;
+
+    private MatrizMapeada(FileChannel canal, int capacidad, double velocidadKmh) throws IOException {
+        this.canal = canal;
+        this.capacidad = capacidad;
+        this.velocidadKmh = velocidadKmh;
+        this.ultimoUso = new long[capacidad];
+
+        int ladoRelleno = (capacidad + MASCARA_BLOQUE) & ~MASCARA_BLOQUE;
+        this.bloquesPorFila = ladoRelleno >>> BITS_BLOQUE;
+        long bytesFilaBloque = (long) LADO_BLOQUE * ladoRelleno * Float.BYTES;
+        int filasPorSegmento = Integer.highestOneBit((int) Math.max(1, MAXIMO_BYTES_SEGMENTO / bytesFilaBloque));
+        this.bitsFilasPorSegmento = Integer.numberOfTrailingZeros(filasPorSegmento);
+
+        long bytesCoordenadas = alinear((long) capacidad * 2 * Double.BYTES);
+        long bytesMatriz = bytesFilaBloque * bloquesPorFila;
+        long inicioDistancias = BYTES_CABECERA + bytesCoordenadas;
+
+        this.cabecera = mapear(0, BYTES_CABECERA);
+        this.coordenadas = mapear(BYTES_CABECERA, bytesCoordenadas);
+        this.distancias = mapearSegmentos(inicioDistancias, bytesFilaBloque, filasPorSegmento);
+        this.tiempos = mapearSegmentos(inicioDistancias + bytesMatriz, bytesFilaBloque, filasPorSegmento);
+    }
+
+    /** Crea un archivo vacío con espacio para {@code capacidad} ubicaciones. */
+    public static MatrizMapeada crear(Path archivo, int capacidad, double velocidadKmh) throws IOException {
+        if (capacidad < 1 || velocidadKmh <= 0) {
+            throw new IllegalArgumentException("La capacidad y la velocidad deben ser positivas.");
+        }
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MatrizMapeada matriz = new MatrizMapeada(canal, capacidad, velocidadKmh);
+        matriz.cabecera.putInt(0, MAGICO);
+        matriz.cabecera.putInt(4, VERSION);
+        matriz.cabecera.putInt(POS_CAPACIDAD, capacidad);
+        matriz.cabecera.putInt(POS_TAMANO, 0);
+        matriz.cabecera.putDouble(POS_VELOCIDAD, velocidadKmh);
+        matriz.cabecera.force();
+        return matriz;
+    }
+
+    /** Reabre un archivo existente sin recalcular la matriz. */
+    public static MatrizMapeada abrir(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_ONLY, 0, BYTES_CABECERA);
+            cabecera.order(ByteOrder.LITTLE_ENDIAN);
+            if (cabecera.getInt(0) != MAGICO || cabecera.getInt(4) != VERSION) {
+                throw new IOException("El archivo " + archivo + " no es una matriz de costos válida.");
+            }
+            MatrizMapeada matriz = new MatrizMapeada(canal,
+                    cabecera.getInt(POS_CAPACIDAD), cabecera.getDouble(POS_VELOCIDAD));
+            int guardadas = cabecera.getInt(POS_TAMANO);
+            for (int i = 0; i < guardadas; i++) {
+                matriz.indicePorCoordenada.putIfAbsent(clave(matriz.latitud(i), matriz.longitud(i)), i);
+            }
+            matriz.tamano = guardadas;
+            return matriz;
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    public static MatrizMapeada abrirOCrear(Path archivo, int capacidad, double velocidadKmh) throws IOException {
+        return Files.exists(archivo) ? abrir(archivo) : crear(archivo, capacidad, velocidadKmh);
+    }
+
+    /**
+     * Devuelve el índice de la ubicación, agregándola si no existe. Calcula su
+     * fila y columna con haversine a la velocidad del archivo.
+     */
+    public synchronized int agregar(double latitud, double longitud) {
+        long clave = clave(latitud, longitud);
+        Integer existente = indicePorCoordenada.get(clave);
+        if (existente != null) {
+            ultimoUso[existente] = ++usos;
+            return existente;
+        }
+        int n = tamano;
+        if (n == capacidad) {
+            throw new IllegalStateException("La matriz alcanzó su capacidad de " + capacidad + " ubicaciones.");
+        }
+        coordenadas.putDouble(n * 2 * Double.BYTES, latitud);
+        coordenadas.putDouble((n * 2 + 1) * Double.BYTES, longitud);
+
+        double minutosPorKm = 60.0 / velocidadKmh;
+        for (int j = 0; j < n; j++) {
+            double d = MatrizDistancias.haversineKm(latitud, longitud, latitud(j), longitud(j));
+            escribir(distancias, n, j, (float) d);
+            escribir(distancias, j, n, (float) d);
+            escribir(tiempos, n, j, (float) (d * minutosPorKm));
+            escribir(tiempos, j, n, (float) (d * minutosPorKm));
+        }
+        escribir(distancias, n, n, 0f);
+        escribir(tiempos, n, n, 0f);
+
+        // El tamaño se publica al final para que una lectura nunca vea una fila a medias
+        cabecera.putInt(POS_TAMANO, n + 1);
+        tamano = n + 1;
+        indicePorCoordenada.put(clave, n);
+        ultimoUso[n] = ++usos;
+        return n;
+    }
+
+    /**
+     * Agrega las ubicaciones que falten y abre una vista sobre ellas en el orden
+     * dado. Si las nuevas no caben se compacta el archivo, conservando las
+     * ubicaciones usadas más recientemente (las de esta solicitud primero) hasta
+     * la mitad de la capacidad. Lanza IllegalStateException si no caben y hay
+     * vistas abiertas, o si la solicitud tiene más ubicaciones que la capacidad.
+     */
+    public synchronized Vista vistaDe(double[] latitudes, double[] longitudes, double factorTiempo) {
+        Set<Long> distintas = new HashSet<>();
+        int nuevas = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            long clave = clave(latitudes[i], longitudes[i]);
+            if (distintas.add(clave) && !indicePorCoordenada.containsKey(clave)) {
+                nuevas++;
+            }
+        }
+        if (nuevas > espacioLibre()) {
+            if (distintas.size() > capacidad) {
+                throw new IllegalStateException("La solicitud tiene " + distintas.size()
+                        + " ubicaciones y la matriz admite " + capacidad + ".");
+            }
+            if (vistasAbiertas > 0) {
+                throw new IllegalStateException("La matriz está llena y tiene vistas abiertas.");
+            }
+            // Se marcan antes para que la compactación las conserve
+            for (Long clave : distintas) {
+                Integer existente = indicePorCoordenada.get(clave);
+                if (existente != null) {
+                    ultimoUso[existente] = ++usos;
+                }
+            }
+            int existentes = distintas.size() - nuevas;
+            compactar(Math.max(existentes, Math.min(capacidad / 2, capacidad - nuevas)));
+        }
+        int[] ubicaciones = new int[latitudes.length];
+        for (int i = 0; i < ubicaciones.length; i++) {
+            ubicaciones[i] = agregar(latitudes[i], longitudes[i]);
+        }
+        return vista(ubicaciones, factorTiempo);
+    }
+
+    /** Reemplaza el costo de un tramo, por ejemplo con el de la red vial real. */
+    public synchronized void fijar(int desde, int hasta, double distancia, double tiempo) {
+        validarIndice(desde);
+        validarIndice(hasta);
+        escribir(distancias, desde, hasta, (float) distancia);
+        escribir(tiempos, desde, hasta, (float) tiempo);
+    }
+
+    /** Índice de la ubicación o -1 si no está guardada. */
+    public int indiceDe(double latitud, double longitud) {
+        Integer indice = indicePorCoordenada.get(clave(latitud, longitud));
+        return indice != null ? indice : -1;
+    }
+
+    /**
+     * Vista de solo lectura sobre un subconjunto de ubicaciones, en el orden
+     * dado. Los tiempos se multiplican por {@code factorTiempo} para ajustarlos a
+     * otra velocidad sin tocar el archivo. Mientras esté abierta el archivo no
+     * se compacta.
+     */
+    public synchronized Vista vista(int[] ubicaciones, double factorTiempo) {
+        for (int ubicacion : ubicaciones) {
+            validarIndice(ubicacion);
+        }
+        vistasAbiertas++;
+        return new Vista(ubicaciones.clone(), factorTiempo);
+    }
+
+    /** Subconjunto de la matriz; se cierra al terminar de usarlo para permitir compactar. */
+    public final class Vista implements MatrizCostos, AutoCloseable {
+
+        private final int[] indices;
+        private final double factorTiempo;
+        private boolean cerrada;
+
+        private Vista(int[] indices, double factorTiempo) {
+            this.indices = indices;
+            this.factorTiempo = factorTiempo;
+        }
+
+        @Override
+        public int tamano() {
+            return indices.length;
+        }
+
+        @Override
+        public double distancia(int desde, int hasta) {
+            return leer(distancias, indices[desde], indices[hasta]);
+        }
+
+        @Override
+        public double tiempo(int desde, int hasta) {
+            return leer(tiempos, indices[desde], indices[hasta]) * factorTiempo;
+        }
+
+        @Override
+        public void close() {
+            synchronized (MatrizMapeada.this) {
+                if (!cerrada) {
+                    cerrada = true;
+                    vistasAbiertas--;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int tamano() {
+        return tamano;
+    }
+
+    @Override
+    public double distancia(int desde, int hasta) {
+        return leer(distancias, desde, hasta);
+    }
+
+    @Override
+    public double tiempo(int desde, int hasta) {
+        return leer(tiempos, desde, hasta);
+    }
+
+    public double latitud(int ubicacion) {
+        return coordenadas.getDouble(ubicacion * 2 * Double.BYTES);
+    }
+
+    public double longitud(int ubicacion) {
+        return coordenadas.getDouble((ubicacion * 2 + 1) * Double.BYTES);
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public int espacioLibre() {
+        return capacidad - tamano;
+    }
+
+    public synchronized long getCompactaciones() {
+        return compactaciones;
+    }
+
+    public double getVelocidadKmh() {
+        return velocidadKmh;
+    }
+
+    /** Fuerza a disco las páginas modificadas. */
+    public synchronized void sincronizar() {
+        coordenadas.force();
+        for (MappedByteBuffer segmento : distancias) {
+            segmento.force();
+        }
+        for (MappedByteBuffer segmento : tiempos) {
+            segmento.force();
+        }
+        cabecera.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (canal.isOpen()) {
+            sincronizar();
+            canal.close();
+        }
+    }
+
+    // Mueve al principio las ubicaciones usadas más recientemente, en su orden
+    // actual, con sus costos (también los fijados). Copiar en orden creciente es
+    // seguro en el lugar: cada destino (a, b) solo fue origen de copias ya hechas.
+    // La cabecera dice tamaño 0 mientras tanto; un corte a medias deja el archivo vacío.
+    private void compactar(int conservar) {
+        int n = tamano;
+        Integer[] porUso = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            porUso[i] = i;
+        }
+        Arrays.sort(porUso, (a, b) -> Long.compare(ultimoUso[b], ultimoUso[a]));
+        int[] conservadas = new int[Math.min(conservar, n)];
+        for (int i = 0; i < conservadas.length; i++) {
+            conservadas[i] = porUso[i];
+        }
+        Arrays.sort(conservadas);
+
+        cabecera.putInt(POS_TAMANO, 0);
+        tamano = 0;
+        indicePorCoordenada.clear();
+        for (int a = 0; a < conservadas.length; a++) {
+            for (int b = 0; b < conservadas.length; b++) {
+                escribir(distancias, a, b, leer(distancias, conservadas[a], conservadas[b]));
+                escribir(tiempos, a, b, leer(tiempos, conservadas[a], conservadas[b]));
+            }
+        }
+        for (int a = 0; a < conservadas.length; a++) {
+            double latitud = latitud(conservadas[a]);
+            double longitud = longitud(conservadas[a]);
+            coordenadas.putDouble(a * 2 * Double.BYTES, latitud);
+            coordenadas.putDouble((a * 2 + 1) * Double.BYTES, longitud);
+            ultimoUso[a] = ultimoUso[conservadas[a]];
+            indicePorCoordenada.put(clave(latitud, longitud), a);
+        }
+        cabecera.putInt(POS_TAMANO, conservadas.length);
+        tamano = conservadas.length;
+        compactaciones++;
+    }
+
+    private float leer(MappedByteBuffer[] segmentos, int fila, int columna) {
+        int filaBloque = fila >>> BITS_BLOQUE;
+        int segmento = filaBloque >>> bitsFilasPorSegmento;
+        return segmentos[segmento].getFloat(posicion(filaBloque, fila, columna));
+    }
+
+    private void escribir(MappedByteBuffer[] segmentos, int fila, int columna, float valor) {
+        int filaBloque = fila >>> BITS_BLOQUE;
+        int segmento = filaBloque >>> bitsFilasPorSegmento;
+        segmentos[segmento].putFloat(posicion(filaBloque, fila, columna), valor);
+    }
+
+    private int posicion(int filaBloque, int fila, int columna) {
+        int filaEnSegmento = filaBloque & ((1 << bitsFilasPorSegmento) - 1);
+        int bloque = filaEnSegmento * bloquesPorFila + (columna >>> BITS_BLOQUE);
+        int celda = ((fila & MASCARA_BLOQUE) << BITS_BLOQUE) | (columna & MASCARA_BLOQUE);
+        return ((bloque << (2 * BITS_BLOQUE)) | celda) * Float.BYTES;
+    }
+
+    private void validarIndice(int ubicacion) {
+        if (ubicacion < 0 || ubicacion >= tamano) {
+            throw new IndexOutOfBoundsException("Ubicación fuera de la matriz: " + ubicacion);
+        }
+    }
+
+    private MappedByteBuffer mapear(long inicio, long bytes) throws IOException {
+        MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, inicio, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private MappedByteBuffer[] mapearSegmentos(long inicio, long bytesFilaBloque, int filasPorSegmento)
+            throws IOException {
+        int segmentos = (bloquesPorFila + filasPorSegmento - 1) / filasPorSegmento;
+        MappedByteBuffer[] resultado = new MappedByteBuffer[segmentos];
+        for (int s = 0; s < segmentos; s++) {
+            int filas = Math.min(filasPorSegmento, bloquesPorFila - s * filasPorSegmento);
+            resultado[s] = mapear(inicio + s * filasPorSegmento * bytesFilaBloque, filas * bytesFilaBloque);
+        }
+        return resultado;
+    }
+
+    private static long alinear(long bytes) {
+        return (bytes + BYTES_CABECERA - 1) / BYTES_CABECERA * BYTES_CABECERA;
+    }
+
+    // Coordenadas redondeadas a 1e-6 grados (~11 cm) como clave del índice
+    private static long clave(double latitud, double longitud) {
+        long lat = Math.round(latitud * 1e6);
+        long lon = Math.round(longitud * 1e6);
+        return (lat << 32) | (lon & 0xFFFFFFFFL);
+    }
+}
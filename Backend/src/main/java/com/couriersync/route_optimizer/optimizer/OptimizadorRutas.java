@@ -0,0 +1,97 @@
+package com.couriersync.route_optimizer.optimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Resuelve instancias de ruteo con reinicios independientes en paralelo. Cada
+ * reinicio construye una solución aleatorizada y la mejora con 2-opt y Or-opt
+ * restringidos a las ubicaciones más cercanas; se devuelve la mejor.
+ */
+public class OptimizadorRutas {
+
+    public static final int VECINOS_POR_UBICACION = 24;
+
+    private final ForkJoinPool pool;
+
+    public OptimizadorRutas(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public SolucionRuteo resolver(ProblemaRuteo problema, int reinicios, long semilla) {
+        if (reinicios < 1) {
+            throw new IllegalArgumentException("Se requiere al menos un reinicio.");
+        }
+        int cantidadVecinos = Math.max(0, Math.min(VECINOS_POR_UBICACION, problema.getUbicaciones() - 2));
+        int[] vecinos = calcularVecinos(problema.getMatriz(), cantidadVecinos);
+
+        List<Callable<SolucionRuteo>> tareas = new ArrayList<>(reinicios);
+        for (int i = 0; i < reinicios; i++) {
+            long semillaReinicio = semilla + i;
+            tareas.add(() -> new EspacioBusqueda(problema, vecinos, cantidadVecinos)
+                    .resolver(new SplittableRandom(semillaReinicio)));
+        }
+
+        SolucionRuteo mejor = null;
+        try {
+            for (Future<SolucionRuteo> tarea : pool.invokeAll(tareas)) {
+                SolucionRuteo solucion = tarea.get();
+                if (mejor == null || solucion.getDistanciaTotal() < mejor.getDistanciaTotal()) {
+                    mejor = solucion;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Optimización interrumpida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error al optimizar las rutas.", e.getCause());
+        }
+        return mejor;
+    }
+
+    /**
+     * Para cada ubicación (excepto el depósito), las k ubicaciones más cercanas
+     * en un arreglo plano: vecinos[i * k .. i * k + k - 1].
+     */
+    static int[] calcularVecinos(MatrizCostos matriz, int k) {
+        int n = matriz.tamano();
+        int[] vecinos = new int[n * k];
+        if (k == 0) {
+            return vecinos;
+        }
+        double[] distancias = new double[k];
+        for (int i = 1; i < n; i++) {
+            int base = i * k;
+            int encontrados = 0;
+            for (int j = 1; j < n; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double d = matriz.distancia(i, j);
+                if (encontrados == k && d >= distancias[k - 1]) {
+                    continue;
+                }
+                int p = Math.min(encontrados, k - 1);
+                while (p > 0 && distancias[p - 1] > d) {
+                    distancias[p] = distancias[p - 1];
+                    vecinos[base + p] = vecinos[base + p - 1];
+                    p--;
+                }
+                distancias[p] = d;
+                vecinos[base + p] = j;
+                if (encontrados < k) {
+                    encontrados++;
+                }
+            }
+        }
+        return vecinos;
+    }
+}
@@ -0,0 +1,55 @@
+package com.couriersync.route_optimizer.optimizer;
+
+/**
+ * Instancia de ruteo con capacidad: ubicaciones 1..n-1 a visitar desde el
+ * depósito (0) con una flota de vehículos de capacidad conocida.
+ */
+public final class ProblemaRuteo {
+
+    private final MatrizCostos matriz;
+    private final int[] demandas;
+    private final int[] capacidades;
+
+    public ProblemaRuteo(MatrizCostos matriz, int[] demandas, int[] capacidades) {
+        if (demandas.length != matriz.tamano()) {
+            throw new IllegalArgumentException("Debe haber una demanda por ubicación.");
+        }
+        if (capacidades.length == 0) {
+            throw new IllegalArgumentException("Se requiere al menos un vehículo.");
+        }
+        long demandaTotal = 0;
+        for (int i = 1; i < demandas.length; i++) {
+            demandaTotal += demandas[i];
+        }
+        long capacidadTotal = 0;
+        for (int capacidad : capacidades) {
+            capacidadTotal += capacidad;
+        }
+        if (demandaTotal > capacidadTotal) {
+            throw new IllegalArgumentException("La capacidad de la flota no alcanza para la demanda.");
+        }
+        this.matriz = matriz;
+        this.demandas = demandas;
+        this.capacidades = capacidades;
+    }
+
+    public MatrizCostos getMatriz() {
+        return matriz;
+    }
+
+    public int getUbicaciones() {
+        return matriz.tamano();
+    }
+
+    public int getVehiculos() {
+        return capacidades.length;
+    }
+
+    public int demanda(int ubicacion) {
+        return demandas[ubicacion];
+    }
+
+    public int capacidad(int vehiculo) {
+        return capacidades[vehiculo];
+    }
+}
@@ -0,0 +1,54 @@
+package com.couriersync.route_optimizer.optimizer;
+
+/**
+ * Resultado del optimizador: para cada vehículo, la secuencia de ubicaciones
+ * visitadas (sin el depósito, que se asume al inicio y al final).
+ */
+public final class SolucionRuteo {
+
+    private final int[][] rutas;
+    private final double[] distancias;
+    private final double[] tiempos;
+    private final double distanciaTotal;
+
+    SolucionRuteo(int[][] rutas, MatrizCostos matriz) {
+        this.rutas = rutas;
+        this.distancias = new double[rutas.length];
+        this.tiempos = new double[rutas.length];
+        double total = 0;
+        for (int r = 0; r < rutas.length; r++) {
+            int anterior = 0;
+            for (int ubicacion : rutas[r]) {
+                distancias[r] += matriz.distancia(anterior, ubicacion);
+                tiempos[r] += matriz.tiempo(anterior, ubicacion);
+                anterior = ubicacion;
+            }
+            if (rutas[r].length > 0) {
+                distancias[r] += matriz.distancia(anterior, 0);
+                tiempos[r] += matriz.tiempo(anterior, 0);
+            }
+            total += distancias[r];
+        }
+        this.distanciaTotal = total;
+    }
+
+    public int getVehiculos() {
+        return rutas.length;
+    }
+
+    public int[] ruta(int vehiculo) {
+        return rutas[vehiculo].clone();
+    }
+
+    public double distancia(int vehiculo) {
+        return distancias[vehiculo];
+    }
+
+    public double tiempo(int vehiculo) {
+        return tiempos[vehiculo];
+    }
+
+    public double getDistanciaTotal() {
+        return distanciaTotal;
+    }
+}
@@ -1,9 +1,19 @@
 package com.couriersync.route_optimizer.repository;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
 import com.couriersync.route_optimizer.entity.EstadoRuta;
 
-public interface EstadoRutaRepository extends JpaRepository<EstadoRuta, Integer> {
+import jakarta.persistence.QueryHint;
+
+public interface EstadoRutaRepository extends JpaRepository<EstadoRuta, Integer>, EstadoRutaRepositoryCustom {
     EstadoRuta findByNombreEstado(String nombreEstado);
-}
 
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<EstadoRuta> findAll();
+}
@@ -0,0 +1,8 @@
+package com.couriersync.route_optimizer.repository;
+
+import com.couriersync.route_optimizer.entity.EstadoRuta;
+
+public interface EstadoRutaRepositoryCustom {
+    // Búsqueda por id natural: se resuelve desde la caché de segundo nivel
+    EstadoRuta buscarPorNombre(String nombreEstado);
+}
@@ -0,0 +1,23 @@
+package com.couriersync.route_optimizer.repository;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.couriersync.route_optimizer.entity.EstadoRuta;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class EstadoRutaRepositoryImpl implements EstadoRutaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public EstadoRuta buscarPorNombre(String nombreEstado) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(EstadoRuta.class)
+                .load(nombreEstado);
+    }
+}
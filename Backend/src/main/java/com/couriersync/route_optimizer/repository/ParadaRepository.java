@@ -0,0 +1,36 @@
+package com.couriersync.route_optimizer.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.couriersync.route_optimizer.entity.Parada;
+import com.couriersync.route_optimizer.entity.ParadaId;
+
+import jakarta.persistence.QueryHint;
+
+public interface ParadaRepository extends JpaRepository<Parada, ParadaId> {
+
+    List<Parada> findByIdRutaOrderByOrdenAsc(Integer idRuta);
+
+    List<Parada> findByIdRutaInOrderByIdRutaAscOrdenAsc(Collection<Integer> idsRuta);
+
+    @Modifying
+    @Query("DELETE FROM Parada p WHERE p.idRuta IN :idsRuta")
+    int eliminarPorRutas(@Param("idsRuta") Collection<Integer> idsRuta);
+
+    // Carga del índice espacial; debe consumirse dentro de una transacción
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Parada p ORDER BY p.idRuta, p.orden")
+    Stream<Parada> streamParadas();
+}
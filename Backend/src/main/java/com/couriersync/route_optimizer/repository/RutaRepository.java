@@ -3,16 +3,39 @@ package com.couriersync.route_optimizer.repository;
 
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 
 import com.couriersync.route_optimizer.entity.Ruta;
 
-public interface RutaRepository extends JpaRepository<Ruta, Integer> {
+public interface RutaRepository extends JpaRepository<Ruta, Integer>, JpaSpecificationExecutor<Ruta> {
     Ruta findByIdRuta(Integer idRuta);
     List<Ruta> findByTiempoPromedio(Double tiempoPromedio);
     List<Ruta> findByIdTrafico(Integer idTrafico);
     List<Ruta> findByPrioridad(Short prioridad);
     List<Ruta> findByIdEstado(Integer idEstado);
     List<Ruta> findAllByOrderByIdTraficoAsc();
-}
 
+    // Lectura hacia adelante por lotes del cursor JDBC; debe consumirse dentro de una transacción
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Ruta r WHERE (:idEstado IS NULL OR r.idEstado = :idEstado) "
+            + "AND (:idTrafico IS NULL OR r.idTrafico = :idTrafico) ORDER BY r.idRuta")
+    Stream<Ruta> streamRutas(@Param("idEstado") Integer idEstado, @Param("idTrafico") Integer idTrafico);
+
+    // Un solo DELETE; deleteById antes carga la entidad con un SELECT
+    @Modifying
+    @Query("DELETE FROM Ruta r WHERE r.idRuta = :idRuta")
+    int eliminarPorId(@Param("idRuta") Integer idRuta);
+}
@@ -0,0 +1,46 @@
+package com.couriersync.route_optimizer.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.couriersync.route_optimizer.entity.Ruta;
+
+/**
+ * Filtros reutilizables para consultar rutas con {@link RutaRepository}.
+ */
+public final class RutaSpecifications {
+
+    private RutaSpecifications() {
+    }
+
+    public static Specification<Ruta> conEstado(Integer idEstado) {
+        return (root, query, cb) -> idEstado == null ? null : cb.equal(root.get("idEstado"), idEstado);
+    }
+
+    public static Specification<Ruta> conTrafico(Integer idTrafico) {
+        return (root, query, cb) -> idTrafico == null ? null : cb.equal(root.get("idTrafico"), idTrafico);
+    }
+
+    /**
+     * Condición de keyset: filas estrictamente posteriores a (clave, idRuta)
+     * según el orden indicado, sin OFFSET. El tipo de la clave debe coincidir
+     * con el del atributo (Short para prioridad, Integer para id_trafico).
+     */
+    public static <T extends Comparable<? super T>> Specification<Ruta> despuesDe(
+            String atributo, T clave, Integer ultimoId, boolean descendente) {
+        return (root, query, cb) -> {
+            if ("idRuta".equals(atributo)) {
+                return descendente
+                        ? cb.lessThan(root.get("idRuta"), ultimoId)
+                        : cb.greaterThan(root.get("idRuta"), ultimoId);
+            }
+            if (descendente) {
+                return cb.or(
+                        cb.lessThan(root.<T>get(atributo), clave),
+                        cb.and(cb.equal(root.get(atributo), clave), cb.lessThan(root.get("idRuta"), ultimoId)));
+            }
+            return cb.or(
+                    cb.greaterThan(root.<T>get(atributo), clave),
+                    cb.and(cb.equal(root.get(atributo), clave), cb.greaterThan(root.get("idRuta"), ultimoId)));
+        };
+    }
+}
@@ -2,12 +2,19 @@ package com.couriersync.route_optimizer.repository;
 
 
 import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.couriersync.route_optimizer.entity.TipoTrafico;
 
-public interface TipoTraficoRepository extends JpaRepository<TipoTrafico, Integer> {
+import jakarta.persistence.QueryHint;
+
+public interface TipoTraficoRepository extends JpaRepository<TipoTrafico, Integer>, TipoTraficoRepositoryCustom {
 
     TipoTrafico findByNivelTrafico(String nivelTrafico);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<TipoTrafico> findAllByOrderByNivelTraficoAsc();
 }
@@ -0,0 +1,8 @@
+package com.couriersync.route_optimizer.repository;
+
+import com.couriersync.route_optimizer.entity.TipoTrafico;
+
+public interface TipoTraficoRepositoryCustom {
+    // Búsqueda por id natural: se resuelve desde la caché de segundo nivel
+    TipoTrafico buscarPorNivel(String nivelTrafico);
+}
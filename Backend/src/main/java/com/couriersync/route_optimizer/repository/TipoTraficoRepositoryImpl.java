@@ -0,0 +1,23 @@
+package com.couriersync.route_optimizer.repository;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.couriersync.route_optimizer.entity.TipoTrafico;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class TipoTraficoRepositoryImpl implements TipoTraficoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public TipoTrafico buscarPorNivel(String nivelTrafico) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(TipoTrafico.class)
+                .load(nivelTrafico);
+    }
+}
@@ -0,0 +1,167 @@
+package com.couriersync.route_optimizer.routing;
+
+import java.util.Arrays;
+
+/**
+ * Espacio de trabajo de las consultas sobre la red vial. Los arreglos por nodo
+ * se reutilizan entre consultas marcándolos con un número de generación, así que
+ * una consulta no limpia ni reserva memoria proporcional al grafo. Cada hilo usa
+ * su propia instancia.
+ */
+final class BusquedaVial {
+
+    private final GrafoVial grafo;
+    private final int landmarks;
+    private final int[] tiempo;
+    private final int[] distancia;
+    private final int[] cota;
+    private final int[] alcanzado;
+    private final int[] cerrado;
+    private final int[] esObjetivo;
+    private final int[] desdeObjetivo;
+    private final int[] haciaObjetivo;
+    private final MonticuloLargo monticulo;
+    private int generacion;
+
+    BusquedaVial(GrafoVial grafo) {
+        this.grafo = grafo;
+        int n = grafo.getNodos();
+        this.landmarks = grafo.getLandmarks();
+        this.tiempo = new int[n];
+        this.distancia = new int[n];
+        this.cota = new int[n];
+        this.alcanzado = new int[n];
+        this.cerrado = new int[n];
+        this.esObjetivo = new int[n];
+        this.desdeObjetivo = new int[landmarks];
+        this.haciaObjetivo = new int[landmarks];
+        this.monticulo = new MonticuloLargo(1024);
+    }
+
+    /**
+     * A* con cota ALT sobre el tiempo de viaje. Devuelve {tiempoMs, distanciaDm}
+     * del camino más rápido, o null si el destino no es alcanzable.
+     */
+    long[] puntoAPunto(int origen, int objetivo) {
+        nuevaGeneracion();
+        for (int l = 0; l < landmarks; l++) {
+            desdeObjetivo[l] = grafo.desdeLandmark(l, objetivo);
+            haciaObjetivo[l] = grafo.haciaLandmark(l, objetivo);
+        }
+        alcanzar(origen, 0, 0);
+        cota[origen] = cotaInferior(origen);
+        monticulo.agregar(MonticuloLargo.entrada(cota[origen], origen));
+
+        while (!monticulo.vacio()) {
+            int v = MonticuloLargo.nodo(monticulo.extraer());
+            if (cerrado[v] == generacion) {
+                continue;
+            }
+            cerrado[v] = generacion;
+            if (v == objetivo) {
+                return new long[] {tiempo[v], distancia[v]};
+            }
+            relajar(v, true);
+        }
+        return null;
+    }
+
+    /**
+     * Dijkstra desde el origen hasta cerrar todos los objetivos. Devuelve para
+     * cada objetivo {tiempoMs, distanciaDm}, con -1 si no es alcanzable.
+     */
+    long[][] unoAMuchos(int origen, int[] objetivos) {
+        nuevaGeneracion();
+        int pendientes = 0;
+        for (int objetivo : objetivos) {
+            if (esObjetivo[objetivo] != generacion) {
+                esObjetivo[objetivo] = generacion;
+                pendientes++;
+            }
+        }
+        alcanzar(origen, 0, 0);
+        monticulo.agregar(MonticuloLargo.entrada(0, origen));
+
+        while (!monticulo.vacio() && pendientes > 0) {
+            int v = MonticuloLargo.nodo(monticulo.extraer());
+            if (cerrado[v] == generacion) {
+                continue;
+            }
+            cerrado[v] = generacion;
+            if (esObjetivo[v] == generacion) {
+                pendientes--;
+            }
+            relajar(v, false);
+        }
+
+        long[][] resultado = new long[objetivos.length][];
+        for (int i = 0; i < objetivos.length; i++) {
+            int objetivo = objetivos[i];
+            resultado[i] = cerrado[objetivo] == generacion
+                    ? new long[] {tiempo[objetivo], distancia[objetivo]}
+                    : new long[] {-1, -1};
+        }
+        return resultado;
+    }
+
+    private void relajar(int v, boolean conCota) {
+        int tv = tiempo[v];
+        int dv = distancia[v];
+        int fin = grafo.finAristas(v);
+        for (int e = grafo.primeraArista(v); e < fin; e++) {
+            int w = grafo.destino(e);
+            if (cerrado[w] == generacion) {
+                continue;
+            }
+            long nuevoTiempo = (long) tv + grafo.tiempoMs(e);
+            if (nuevoTiempo >= GrafoVial.INALCANZABLE) {
+                continue;
+            }
+            boolean primeraVez = alcanzado[w] != generacion;
+            if (primeraVez || nuevoTiempo < tiempo[w]) {
+                alcanzar(w, (int) nuevoTiempo, dv + grafo.distanciaDm(e));
+                int prioridad = (int) nuevoTiempo;
+                if (conCota) {
+                    if (primeraVez) {
+                        cota[w] = cotaInferior(w);
+                    }
+                    prioridad = (int) Math.min(GrafoVial.INALCANZABLE - 1L, nuevoTiempo + cota[w]);
+                }
+                monticulo.agregar(MonticuloLargo.entrada(prioridad, w));
+            }
+        }
+    }
+
+    private void alcanzar(int nodo, int t, int d) {
+        alcanzado[nodo] = generacion;
+        tiempo[nodo] = t;
+        distancia[nodo] = d;
+    }
+
+    // max sobre landmarks de d(L, t) - d(L, v) y d(v, L) - d(t, L)
+    private int cotaInferior(int v) {
+        int mejor = 0;
+        for (int l = 0; l < landmarks; l++) {
+            int desdeV = grafo.desdeLandmark(l, v);
+            int haciaV = grafo.haciaLandmark(l, v);
+            if (desdeObjetivo[l] != GrafoVial.INALCANZABLE && desdeV != GrafoVial.INALCANZABLE) {
+                mejor = Math.max(mejor, desdeObjetivo[l] - desdeV);
+            }
+            if (haciaV != GrafoVial.INALCANZABLE && haciaObjetivo[l] != GrafoVial.INALCANZABLE) {
+                mejor = Math.max(mejor, haciaV - haciaObjetivo[l]);
+            }
+        }
+        return mejor;
+    }
+
+    private void nuevaGeneracion() {
+        monticulo.limpiar();
+        generacion++;
+        if (generacion == Integer.MAX_VALUE) {
+            Arrays.fill(alcanzado, 0);
+            Arrays.fill(cerrado, 0);
+            Arrays.fill(esObjetivo, 0);
+            generacion = 1;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.couriersync.route_optimizer.routing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Convierte una red vial en texto al binario que lee {@link GrafoVial} y
+ * precalcula los landmarks. El texto es el resultado de preprocesar un extracto
+ * de OpenStreetMap (o cualquier otra fuente) con una línea por elemento:
+ * <pre>
+ * # comentario
+ * N &lt;id&gt; &lt;latitud&gt; &lt;longitud&gt;
+ * A &lt;desde&gt; &lt;hasta&gt; &lt;metros&gt; &lt;km/h&gt; [U]    U = una sola vía (desde -&gt; hasta)
+ * </pre>
+ * Los nodos se renumeran en orden Z (Morton) para que los vecinos geográficos
+ * queden cerca también en el archivo.
+ *
+ * <p>Uso: {@code ConversorGrafo entrada.txt salida.bin [landmarks]}
+ */
+public final class ConversorGrafo {
+
+    private static final int BITS_NODO = 24;
+
+    private ConversorGrafo() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ConversorGrafo <entrada.txt> <salida.bin> [landmarks]");
+            System.exit(1);
+        }
+        int landmarks = args.length > 2 ? Integer.parseInt(args[2]) : GrafoVial.LANDMARKS_POR_DEFECTO;
+        long inicio = System.nanoTime();
+        int[] tamano = convertir(Path.of(args[0]), Path.of(args[1]), landmarks);
+        System.out.printf("Grafo convertido: %d nodos, %d aristas, %d landmarks en %d ms%n",
+                tamano[0], tamano[1], landmarks, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /** Devuelve {nodos, aristas} del grafo escrito. */
+    public static int[] convertir(Path entrada, Path salida, int landmarks) throws IOException {
+        Map<Long, Integer> indicePorId = new HashMap<>();
+        int[] latitudes = new int[1024];
+        int[] longitudes = new int[1024];
+        int n = 0;
+        int[] desde = new int[4096];
+        int[] hasta = new int[4096];
+        int[] distanciaDm = new int[4096];
+        int[] tiempoMs = new int[4096];
+        int m = 0;
+
+        try (BufferedReader lector = Files.newBufferedReader(entrada, StandardCharsets.UTF_8)) {
+            String linea;
+            int numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                linea = linea.strip();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+                String[] campos = linea.split("\\s+");
+                try {
+                    if (campos[0].equals("N") && campos.length >= 4) {
+                        if (indicePorId.putIfAbsent(Long.parseLong(campos[1]), n) != null) {
+                            throw new IllegalArgumentException("nodo repetido " + campos[1]);
+                        }
+                        if (n == latitudes.length) {
+                            latitudes = Arrays.copyOf(latitudes, n * 2);
+                            longitudes = Arrays.copyOf(longitudes, n * 2);
+                        }
+                        latitudes[n] = (int) Math.round(Double.parseDouble(campos[2]) * 1e6);
+                        longitudes[n] = (int) Math.round(Double.parseDouble(campos[3]) * 1e6);
+                        n++;
+                    } else if (campos[0].equals("A") && campos.length >= 5) {
+                        Integer a = indicePorId.get(Long.parseLong(campos[1]));
+                        Integer b = indicePorId.get(Long.parseLong(campos[2]));
+                        if (a == null || b == null) {
+                            throw new IllegalArgumentException("arista con nodo no declarado");
+                        }
+                        double metros = Double.parseDouble(campos[3]);
+                        double kmh = Double.parseDouble(campos[4]);
+                        if (metros < 0 || kmh <= 0) {
+                            throw new IllegalArgumentException("longitud o velocidad inválida");
+                        }
+                        int dm = (int) Math.round(metros * 10);
+                        int ms = (int) Math.round(metros / (kmh / 3.6) * 1000);
+                        boolean unaVia = campos.length > 5 && campos[5].equalsIgnoreCase("U");
+                        int requeridas = m + (unaVia ? 1 : 2);
+                        if (requeridas > desde.length) {
+                            int nuevo = Math.max(requeridas, desde.length * 2);
+                            desde = Arrays.copyOf(desde, nuevo);
+                            hasta = Arrays.copyOf(hasta, nuevo);
+                            distanciaDm = Arrays.copyOf(distanciaDm, nuevo);
+                            tiempoMs = Arrays.copyOf(tiempoMs, nuevo);
+                        }
+                        desde[m] = a;
+                        hasta[m] = b;
+                        distanciaDm[m] = dm;
+                        tiempoMs[m] = ms;
+                        m++;
+                        if (!unaVia) {
+                            desde[m] = b;
+                            hasta[m] = a;
+                            distanciaDm[m] = dm;
+                            tiempoMs[m] = ms;
+                            m++;
+                        }
+                    } else {
+                        throw new IllegalArgumentException("formato no reconocido");
+                    }
+                } catch (RuntimeException e) {
+                    throw new IOException("Línea " + numero + " de " + entrada + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        if (n == 0) {
+            throw new IOException("El archivo " + entrada + " no contiene nodos.");
+        }
+        if (n > 1 << BITS_NODO) {
+            throw new IOException("El conversor admite hasta " + (1 << BITS_NODO) + " nodos.");
+        }
+
+        // Renumeración en orden Z: código Morton en los bits altos, índice original en los bajos
+        long[] orden = new long[n];
+        for (int v = 0; v < n; v++) {
+            long morton = intercalar((latitudes[v] + 90_000_000) >>> 10) << 1
+                    | intercalar((longitudes[v] + 180_000_000) >>> 10);
+            orden[v] = (morton << BITS_NODO) | v;
+        }
+        Arrays.sort(orden);
+        int[] nuevoIndice = new int[n];
+        int[] latitudesOrdenadas = new int[n];
+        int[] longitudesOrdenadas = new int[n];
+        for (int i = 0; i < n; i++) {
+            int v = (int) (orden[i] & ((1 << BITS_NODO) - 1));
+            nuevoIndice[v] = i;
+            latitudesOrdenadas[i] = latitudes[v];
+            longitudesOrdenadas[i] = longitudes[v];
+        }
+
+        // CSR por nodo de origen
+        int[] primera = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            primera[nuevoIndice[desde[e]] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            primera[v + 1] += primera[v];
+        }
+        int[] siguiente = Arrays.copyOf(primera, n);
+        int[] destinoCsr = new int[m];
+        int[] distanciaCsr = new int[m];
+        int[] tiempoCsr = new int[m];
+        for (int e = 0; e < m; e++) {
+            int k = siguiente[nuevoIndice[desde[e]]]++;
+            destinoCsr[k] = nuevoIndice[hasta[e]];
+            distanciaCsr[k] = distanciaDm[e];
+            tiempoCsr[k] = tiempoMs[e];
+        }
+
+        int[][][] calculados = landmarks > 0
+                ? Landmarks.calcular(n, IntBuffer.wrap(primera), IntBuffer.wrap(destinoCsr),
+                        IntBuffer.wrap(tiempoCsr), landmarks)
+                : new int[][][] {new int[0][], new int[0][]};
+        int cantidadLandmarks = calculados[0].length;
+
+        long bytes = GrafoVial.BYTES_CABECERA + 4L * (2L * n + n + 1 + 3L * m + 2L * cantidadLandmarks * n);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("El grafo resultante supera los 2 GB admitidos.");
+        }
+        Files.deleteIfExists(salida);
+        try (FileChannel canal = FileChannel.open(salida, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            mapa.order(ByteOrder.LITTLE_ENDIAN);
+            mapa.putInt(0, GrafoVial.MAGICO);
+            mapa.putInt(4, GrafoVial.VERSION);
+            mapa.putInt(8, n);
+            mapa.putInt(12, m);
+            mapa.putInt(16, cantidadLandmarks);
+            IntBuffer enteros = mapa.slice(GrafoVial.BYTES_CABECERA, (int) bytes - GrafoVial.BYTES_CABECERA)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            enteros.put(latitudesOrdenadas).put(longitudesOrdenadas).put(primera)
+                    .put(destinoCsr).put(distanciaCsr).put(tiempoCsr);
+            for (int l = 0; l < cantidadLandmarks; l++) {
+                enteros.put(calculados[0][l]).put(calculados[1][l]);
+            }
+            mapa.force();
+        }
+        return new int[] {n, m};
+    }
+
+    // Separa los 19 bits bajos dejando un cero entre cada uno
+    private static long intercalar(int valor) {
+        long x = valor & 0x7FFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+}
@@ -0,0 +1,179 @@
+package com.couriersync.route_optimizer.routing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Red vial dirigida en formato CSR (arreglos de adyacencia comprimidos),
+ * leída de un archivo binario mapeado en memoria y de solo lectura.
+ *
+ * <p>Diseño del archivo (enteros little-endian):
+ * <pre>
+ * cabecera (64 B)  mágico, versión, nodos, aristas, landmarks
+ * latitudesE6[n], longitudesE6[n]      grados x 1e6
+ * primera[n + 1]                       aristas de v: primera[v] .. primera[v + 1] - 1
+ * destino[m], distanciaDm[m], tiempoMs[m]
+ * por cada landmark: desde[n], hacia[n] tiempos en ms (Integer.MAX_VALUE = inalcanzable)
+ * </pre>
+ * El archivo lo genera {@link ConversorGrafo}. Si no trae landmarks se
+ * calculan al abrirlo y quedan en el heap.
+ */
+public final class GrafoVial {
+
+    static final int MAGICO = 0x43534756;
+    static final int VERSION = 1;
+    static final int BYTES_CABECERA = 64;
+    static final int INALCANZABLE = Integer.MAX_VALUE;
+    public static final int LANDMARKS_POR_DEFECTO = 8;
+
+    private final int nodos;
+    private final int aristas;
+    private final IntBuffer latitudesE6;
+    private final IntBuffer longitudesE6;
+    private final IntBuffer primera;
+    private final IntBuffer destino;
+    private final IntBuffer distanciaDm;
+    private final IntBuffer tiempoMs;
+    private final IntBuffer[] desdeLandmark;
+    private final IntBuffer[] haciaLandmark;
+
+    GrafoVial(int nodos, int aristas, IntBuffer latitudesE6, IntBuffer longitudesE6, IntBuffer primera,
+              IntBuffer destino, IntBuffer distanciaDm, IntBuffer tiempoMs,
+              IntBuffer[] desdeLandmark, IntBuffer[] haciaLandmark) {
+        this.nodos = nodos;
+        this.aristas = aristas;
+        this.latitudesE6 = latitudesE6;
+        this.longitudesE6 = longitudesE6;
+        this.primera = primera;
+        this.destino = destino;
+        this.distanciaDm = distanciaDm;
+        this.tiempoMs = tiempoMs;
+        this.desdeLandmark = desdeLandmark;
+        this.haciaLandmark = haciaLandmark;
+    }
+
+    public static GrafoVial abrir(Path archivo) throws IOException {
+        MappedByteBuffer mapa;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("El grafo " + archivo + " supera los 2 GB admitidos.");
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        mapa.order(ByteOrder.LITTLE_ENDIAN);
+        if (mapa.capacity() < BYTES_CABECERA || mapa.getInt(0) != MAGICO || mapa.getInt(4) != VERSION) {
+            throw new IOException("El archivo " + archivo + " no es un grafo vial válido.");
+        }
+        int n = mapa.getInt(8);
+        int m = mapa.getInt(12);
+        int landmarks = mapa.getInt(16);
+        long esperado = BYTES_CABECERA + 4L * (2L * n + n + 1 + 3L * m + 2L * landmarks * n);
+        if (mapa.capacity() != esperado) {
+            throw new IOException("El grafo " + archivo + " está truncado o dañado.");
+        }
+
+        int[] posicion = {BYTES_CABECERA};
+        IntBuffer latitudes = seccion(mapa, posicion, n);
+        IntBuffer longitudes = seccion(mapa, posicion, n);
+        IntBuffer primera = seccion(mapa, posicion, n + 1);
+        IntBuffer destino = seccion(mapa, posicion, m);
+        IntBuffer distancia = seccion(mapa, posicion, m);
+        IntBuffer tiempo = seccion(mapa, posicion, m);
+
+        IntBuffer[] desde;
+        IntBuffer[] hacia;
+        if (landmarks > 0) {
+            desde = new IntBuffer[landmarks];
+            hacia = new IntBuffer[landmarks];
+            for (int l = 0; l < landmarks; l++) {
+                desde[l] = seccion(mapa, posicion, n);
+                hacia[l] = seccion(mapa, posicion, n);
+            }
+        } else {
+            int[][][] calculados = Landmarks.calcular(n, primera, destino, tiempo, LANDMARKS_POR_DEFECTO);
+            desde = envolver(calculados[0]);
+            hacia = envolver(calculados[1]);
+        }
+        return new GrafoVial(n, m, latitudes, longitudes, primera, destino, distancia, tiempo, desde, hacia);
+    }
+
+    private static IntBuffer seccion(ByteBuffer mapa, int[] posicion, int enteros) {
+        IntBuffer resultado = mapa.slice(posicion[0], enteros * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        posicion[0] += enteros * Integer.BYTES;
+        return resultado;
+    }
+
+    static IntBuffer[] envolver(int[][] arreglos) {
+        IntBuffer[] resultado = new IntBuffer[arreglos.length];
+        for (int i = 0; i < arreglos.length; i++) {
+            resultado[i] = IntBuffer.wrap(arreglos[i]);
+        }
+        return resultado;
+    }
+
+    public int getNodos() {
+        return nodos;
+    }
+
+    public int getAristas() {
+        return aristas;
+    }
+
+    public int getLandmarks() {
+        return desdeLandmark.length;
+    }
+
+    public double latitud(int nodo) {
+        return latitudesE6.get(nodo) / 1e6;
+    }
+
+    public double longitud(int nodo) {
+        return longitudesE6.get(nodo) / 1e6;
+    }
+
+    int latitudE6(int nodo) {
+        return latitudesE6.get(nodo);
+    }
+
+    int longitudE6(int nodo) {
+        return longitudesE6.get(nodo);
+    }
+
+    int primeraArista(int nodo) {
+        return primera.get(nodo);
+    }
+
+    int finAristas(int nodo) {
+        return primera.get(nodo + 1);
+    }
+
+    int destino(int arista) {
+        return destino.get(arista);
+    }
+
+    int distanciaDm(int arista) {
+        return distanciaDm.get(arista);
+    }
+
+    int tiempoMs(int arista) {
+        return tiempoMs.get(arista);
+    }
+
+    /** Tiempo mínimo desde el landmark hasta el nodo. */
+    int desdeLandmark(int landmark, int nodo) {
+        return desdeLandmark[landmark].get(nodo);
+    }
+
+    /** Tiempo mínimo desde el nodo hasta el landmark. */
+    int haciaLandmark(int landmark, int nodo) {
+        return haciaLandmark[landmark].get(nodo);
+    }
+}
@@ -0,0 +1,110 @@
+package com.couriersync.route_optimizer.routing;
+
+import java.util.Arrays;
+
+import com.couriersync.route_optimizer.optimizer.MatrizDistancias;
+
+/**
+ * Rejilla de celdas fijas sobre los nodos del grafo para ubicar el nodo más
+ * cercano a una coordenada. Las celdas ocupadas se guardan ordenadas por clave y
+ * se buscan por bisección, sin estructuras por nodo.
+ */
+final class IndiceNodos {
+
+    // ~550 m de lado en latitud
+    private static final int TAMANO_CELDA_E6 = 5000;
+    private static final double KM_POR_GRADO = 111.195;
+    private static final int BITS_NODO = 23;
+    private static final int DESPLAZAMIENTO_CELDA = 1 << 19;
+
+    private final GrafoVial grafo;
+    private final long[] claves;
+    private final int[] inicio;
+    private final int[] nodos;
+
+    IndiceNodos(GrafoVial grafo) {
+        this.grafo = grafo;
+        int n = grafo.getNodos();
+        if (n > 1 << BITS_NODO) {
+            throw new IllegalArgumentException("El índice admite hasta " + (1 << BITS_NODO) + " nodos.");
+        }
+        long[] porNodo = new long[n];
+        for (int v = 0; v < n; v++) {
+            // clave de celda en los bits altos, nodo en los bajos, para ordenar ambos a la vez
+            porNodo[v] = (clave(celda(grafo.latitudE6(v)), celda(grafo.longitudE6(v))) << BITS_NODO) | v;
+        }
+        Arrays.sort(porNodo);
+
+        int distintas = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || (porNodo[i] >>> BITS_NODO) != (porNodo[i - 1] >>> BITS_NODO)) {
+                distintas++;
+            }
+        }
+        this.claves = new long[distintas];
+        this.inicio = new int[distintas + 1];
+        this.nodos = new int[n];
+        int c = -1;
+        for (int i = 0; i < n; i++) {
+            long clave = porNodo[i] >>> BITS_NODO;
+            if (c < 0 || clave != claves[c]) {
+                claves[++c] = clave;
+                inicio[c] = i;
+            }
+            nodos[i] = (int) (porNodo[i] & ((1 << BITS_NODO) - 1));
+        }
+        inicio[distintas] = n;
+    }
+
+    /** Nodo más cercano dentro del radio, o -1 si no hay ninguno. */
+    int masCercano(double latitud, double longitud, double radioKm) {
+        int latE6 = (int) Math.round(latitud * 1e6);
+        int lonE6 = (int) Math.round(longitud * 1e6);
+        int filaCentro = celda(latE6);
+        int columnaCentro = celda(lonE6);
+
+        // Lado mínimo de una celda en km (el de longitud se achica con la latitud)
+        double ladoKm = TAMANO_CELDA_E6 / 1e6 * KM_POR_GRADO
+                * Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitud) + 0.5))));
+        int anillos = (int) Math.ceil(radioKm / ladoKm) + 1;
+
+        int mejor = -1;
+        double mejorKm = radioKm;
+        for (int r = 0; r <= anillos; r++) {
+            // Nada en anillos posteriores puede estar a menos de (r - 1) celdas
+            if (mejor >= 0 && (r - 1) * ladoKm > mejorKm) {
+                break;
+            }
+            for (int df = -r; df <= r; df++) {
+                for (int dc = -r; dc <= r; dc++) {
+                    if (Math.abs(df) != r && Math.abs(dc) != r) {
+                        continue;
+                    }
+                    int k = Arrays.binarySearch(claves, clave(filaCentro + df, columnaCentro + dc));
+                    if (k < 0) {
+                        continue;
+                    }
+                    for (int i = inicio[k]; i < inicio[k + 1]; i++) {
+                        int v = nodos[i];
+                        double d = MatrizDistancias.haversineKm(latitud, longitud, grafo.latitud(v), grafo.longitud(v));
+                        if (d <= mejorKm) {
+                            mejor = v;
+                            mejorKm = d;
+                        }
+                    }
+                }
+            }
+        }
+        return mejor;
+    }
+
+    private static int celda(int coordenadaE6) {
+        return Math.floorDiv(coordenadaE6, TAMANO_CELDA_E6);
+    }
+
+    // Fila y columna desplazadas a 20 bits sin signo (±180 grados / 0.005 cabe de sobra);
+    // con el nodo en 23 bits la combinación no llega al bit de signo
+    private static long clave(int fila, int columna) {
+        return ((long) (fila + DESPLAZAMIENTO_CELDA) << 20) | (columna + DESPLAZAMIENTO_CELDA);
+    }
+}
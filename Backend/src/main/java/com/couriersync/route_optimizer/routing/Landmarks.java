@@ -0,0 +1,105 @@
+package com.couriersync.route_optimizer.routing;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Preprocesamiento ALT: elige landmarks alejados entre sí y guarda el tiempo
+ * mínimo desde y hacia cada uno. Por desigualdad triangular esos tiempos dan una
+ * cota inferior admisible y consistente para A*.
+ */
+final class Landmarks {
+
+    private Landmarks() {
+    }
+
+    /** Devuelve {desde[landmark][nodo], hacia[landmark][nodo]}. */
+    static int[][][] calcular(int n, IntBuffer primera, IntBuffer destino, IntBuffer peso, int cantidad) {
+        int m = destino.limit();
+
+        // Grafo inverso para medir tiempos hacia cada landmark
+        int[] primeraInversa = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            primeraInversa[destino.get(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            primeraInversa[v + 1] += primeraInversa[v];
+        }
+        int[] destinoInverso = new int[m];
+        int[] pesoInverso = new int[m];
+        int[] siguiente = Arrays.copyOf(primeraInversa, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = primera.get(v); e < primera.get(v + 1); e++) {
+                int k = siguiente[destino.get(e)]++;
+                destinoInverso[k] = v;
+                pesoInverso[k] = peso.get(e);
+            }
+        }
+        IntBuffer primeraInv = IntBuffer.wrap(primeraInversa);
+        IntBuffer destinoInv = IntBuffer.wrap(destinoInverso);
+        IntBuffer pesoInv = IntBuffer.wrap(pesoInverso);
+
+        cantidad = Math.min(cantidad, n);
+        int[][] desde = new int[cantidad][];
+        int[][] hacia = new int[cantidad][];
+        MonticuloLargo monticulo = new MonticuloLargo(n);
+
+        // Selección "más lejano": cada landmark maximiza la distancia a los ya elegidos
+        int[] cercania = dijkstra(n, primera, destino, peso, 0, monticulo);
+        int[] minimo = new int[n];
+        Arrays.fill(minimo, GrafoVial.INALCANZABLE);
+        int candidato = masLejano(cercania, null);
+        for (int l = 0; l < cantidad; l++) {
+            desde[l] = dijkstra(n, primera, destino, peso, candidato, monticulo);
+            hacia[l] = dijkstra(n, primeraInv, destinoInv, pesoInv, candidato, monticulo);
+            for (int v = 0; v < n; v++) {
+                minimo[v] = Math.min(minimo[v], desde[l][v]);
+            }
+            candidato = masLejano(minimo, cercania);
+        }
+        return new int[][][] {desde, hacia};
+    }
+
+    // Nodo alcanzable con el mayor valor; con referencia, solo entre los alcanzables desde el origen
+    private static int masLejano(int[] valores, int[] referencia) {
+        int mejor = 0;
+        int mejorValor = -1;
+        for (int v = 0; v < valores.length; v++) {
+            int valor = valores[v];
+            if (referencia != null && referencia[v] == GrafoVial.INALCANZABLE) {
+                continue;
+            }
+            if (valor != GrafoVial.INALCANZABLE && valor > mejorValor) {
+                mejor = v;
+                mejorValor = valor;
+            }
+        }
+        return mejor;
+    }
+
+    static int[] dijkstra(int n, IntBuffer primera, IntBuffer destino, IntBuffer peso, int origen,
+                          MonticuloLargo monticulo) {
+        int[] distancia = new int[n];
+        Arrays.fill(distancia, GrafoVial.INALCANZABLE);
+        distancia[origen] = 0;
+        monticulo.limpiar();
+        monticulo.agregar(MonticuloLargo.entrada(0, origen));
+        while (!monticulo.vacio()) {
+            long entrada = monticulo.extraer();
+            int v = MonticuloLargo.nodo(entrada);
+            int d = MonticuloLargo.prioridad(entrada);
+            if (d > distancia[v]) {
+                continue;
+            }
+            for (int e = primera.get(v); e < primera.get(v + 1); e++) {
+                int w = destino.get(e);
+                long nueva = (long) d + peso.get(e);
+                if (nueva < distancia[w]) {
+                    distancia[w] = (int) nueva;
+                    monticulo.agregar(MonticuloLargo.entrada((int) nueva, w));
+                }
+            }
+        }
+        return distancia;
+    }
+}
@@ -0,0 +1,78 @@
+package com.couriersync.route_optimizer.routing;
+
+import java.util.Arrays;
+
+/**
+ * Montículo binario de mínimos sobre long sin objetos intermedios. Las
+ * búsquedas guardan la prioridad en los 32 bits altos y el nodo en los bajos,
+ * e ignoran las entradas repetidas al extraerlas en lugar de reordenar.
+ */
+final class MonticuloLargo {
+
+    private long[] elementos;
+    private int tamano;
+
+    MonticuloLargo(int capacidadInicial) {
+        elementos = new long[Math.max(16, capacidadInicial)];
+    }
+
+    static long entrada(int prioridad, int nodo) {
+        return ((long) prioridad << 32) | (nodo & 0xFFFFFFFFL);
+    }
+
+    static int nodo(long entrada) {
+        return (int) entrada;
+    }
+
+    static int prioridad(long entrada) {
+        return (int) (entrada >>> 32);
+    }
+
+    boolean vacio() {
+        return tamano == 0;
+    }
+
+    void limpiar() {
+        tamano = 0;
+    }
+
+    void agregar(long valor) {
+        if (tamano == elementos.length) {
+            elementos = Arrays.copyOf(elementos, tamano * 2);
+        }
+        int i = tamano++;
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            long p = elementos[padre];
+            if (p <= valor) {
+                break;
+            }
+            elementos[i] = p;
+            i = padre;
+        }
+        elementos[i] = valor;
+    }
+
+    long extraer() {
+        long minimo = elementos[0];
+        long ultimo = elementos[--tamano];
+        int i = 0;
+        int mitad = tamano >>> 1;
+        while (i < mitad) {
+            int hijo = 2 * i + 1;
+            long c = elementos[hijo];
+            int derecho = hijo + 1;
+            if (derecho < tamano && elementos[derecho] < c) {
+                hijo = derecho;
+                c = elementos[derecho];
+            }
+            if (ultimo <= c) {
+                break;
+            }
+            elementos[i] = c;
+            i = hijo;
+        }
+        elementos[i] = ultimo;
+        return minimo;
+    }
+}
@@ -0,0 +1,109 @@
+package com.couriersync.route_optimizer.routing;
+
+import java.util.List;
+
+import com.couriersync.route_optimizer.dto.Coordenada;
+
+/**
+ * Consultas de camino más rápido sobre la red vial local: punto a punto con A*
+ * y landmarks (ALT), y de uno a muchos con Dijkstra. Las coordenadas se ubican
+ * en el nodo más cercano de la red. Es seguro entre hilos: el grafo es de solo
+ * lectura y cada hilo tiene su propio espacio de búsqueda.
+ */
+public class MotorRuteo {
+
+    // Distancia máxima entre una coordenada y el nodo de la red donde se ubica
+    public static final double RADIO_UBICACION_KM = 1.0;
+
+    private final GrafoVial grafo;
+    private final IndiceNodos indice;
+    private final ThreadLocal<BusquedaVial> busquedas;
+
+    public MotorRuteo(GrafoVial grafo) {
+        this.grafo = grafo;
+        this.indice = new IndiceNodos(grafo);
+        this.busquedas = ThreadLocal.withInitial(() -> new BusquedaVial(grafo));
+    }
+
+    public GrafoVial getGrafo() {
+        return grafo;
+    }
+
+    /** Nodo de la red más cercano a la coordenada, o -1 si está fuera de la red. */
+    public int ubicar(double latitud, double longitud) {
+        return indice.masCercano(latitud, longitud, RADIO_UBICACION_KM);
+    }
+
+    public TramoVial ruta(double latitudOrigen, double longitudOrigen, double latitudDestino, double longitudDestino) {
+        int origen = ubicarOFallar(latitudOrigen, longitudOrigen);
+        int destino = ubicarOFallar(latitudDestino, longitudDestino);
+        TramoVial tramo = entreNodos(origen, destino);
+        if (tramo == null) {
+            throw new IllegalArgumentException("No hay camino por la red vial entre (" + latitudOrigen + ", "
+                    + longitudOrigen + ") y (" + latitudDestino + ", " + longitudDestino + ").");
+        }
+        return tramo;
+    }
+
+    /** Suma de los tramos más rápidos entre puntos consecutivos del trayecto. */
+    public TramoVial recorrido(List<Coordenada> puntos) {
+        if (puntos == null || puntos.size() < 2) {
+            throw new IllegalArgumentException("El trayecto debe tener al menos dos puntos.");
+        }
+        TramoVial total = new TramoVial(0, 0);
+        for (int i = 1; i < puntos.size(); i++) {
+            Coordenada desde = puntos.get(i - 1);
+            Coordenada hasta = puntos.get(i);
+            if (desde == null || hasta == null || desde.getLatitud() == null || desde.getLongitud() == null
+                    || hasta.getLatitud() == null || hasta.getLongitud() == null) {
+                throw new IllegalArgumentException("Todos los puntos del trayecto deben tener latitud y longitud.");
+            }
+            total = total.sumar(ruta(desde.getLatitud(), desde.getLongitud(), hasta.getLatitud(), hasta.getLongitud()));
+        }
+        return total;
+    }
+
+    /**
+     * Tramos desde el origen a cada destino en una sola búsqueda. Los destinos
+     * inalcanzables o fuera de la red quedan en null.
+     */
+    public TramoVial[] unoAMuchos(double latitudOrigen, double longitudOrigen,
+                                  double[] latitudes, double[] longitudes) {
+        int origen = ubicarOFallar(latitudOrigen, longitudOrigen);
+        int[] objetivos = new int[latitudes.length];
+        boolean[] fueraDeRed = new boolean[objetivos.length];
+        for (int i = 0; i < objetivos.length; i++) {
+            int nodo = ubicar(latitudes[i], longitudes[i]);
+            // Un destino fuera de la red se busca como el propio origen y luego se descarta
+            fueraDeRed[i] = nodo < 0;
+            objetivos[i] = fueraDeRed[i] ? origen : nodo;
+        }
+        long[][] crudos = busquedas.get().unoAMuchos(origen, objetivos);
+        TramoVial[] tramos = new TramoVial[objetivos.length];
+        for (int i = 0; i < tramos.length; i++) {
+            tramos[i] = fueraDeRed[i] || crudos[i][0] < 0 ? null : convertir(crudos[i][0], crudos[i][1]);
+        }
+        return tramos;
+    }
+
+    TramoVial entreNodos(int origen, int destino) {
+        if (origen == destino) {
+            return new TramoVial(0, 0);
+        }
+        long[] crudo = busquedas.get().puntoAPunto(origen, destino);
+        return crudo == null ? null : convertir(crudo[0], crudo[1]);
+    }
+
+    private int ubicarOFallar(double latitud, double longitud) {
+        int nodo = ubicar(latitud, longitud);
+        if (nodo < 0) {
+            throw new IllegalArgumentException("La coordenada (" + latitud + ", " + longitud
+                    + ") está fuera de la red vial cargada.");
+        }
+        return nodo;
+    }
+
+    private static TramoVial convertir(long tiempoMs, long distanciaDm) {
+        return new TramoVial(distanciaDm / 10_000.0, tiempoMs / 60_000.0);
+    }
+}
@@ -0,0 +1,9 @@
+package com.couriersync.route_optimizer.routing;
+
+/** Distancia (km) y tiempo (min) de un recorrido por la red vial. */
+public record TramoVial(double distanciaKm, double tiempoMin) {
+
+    TramoVial sumar(TramoVial otro) {
+        return new TramoVial(distanciaKm + otro.distanciaKm, tiempoMin + otro.tiempoMin);
+    }
+}
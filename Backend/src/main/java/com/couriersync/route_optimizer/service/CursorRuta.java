@@ -0,0 +1,38 @@
+package com.couriersync.route_optimizer.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.couriersync.route_optimizer.entity.Ruta;
+
+/**
+ * Posición de la última ruta entregada en una página. Se serializa como
+ * Base64 URL-safe para que el cliente lo trate como un valor opaco.
+ */
+record CursorRuta(OrdenRuta orden, boolean descendente, int clave, int idRuta) {
+
+    static CursorRuta despuesDe(Ruta ruta, OrdenRuta orden, boolean descendente) {
+        int clave = switch (orden) {
+            case ID -> ruta.getIdRuta();
+            case PRIORIDAD -> ruta.getPrioridad();
+            case TRAFICO -> ruta.getIdTrafico();
+        };
+        return new CursorRuta(orden, descendente, clave, ruta.getIdRuta());
+    }
+
+    String codificar() {
+        String plano = orden.name() + ":" + (descendente ? "D" : "A") + ":" + clave + ":" + idRuta;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CursorRuta decodificar(String cursor) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = plano.split(":");
+            return new CursorRuta(OrdenRuta.valueOf(partes[0]), "D".equals(partes[1]),
+                    Integer.parseInt(partes[2]), Integer.parseInt(partes[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.couriersync.route_optimizer.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asigna IDs de ruta por bloques tomados de una secuencia de base de datos.
+ * Cada nodo reserva un rango completo con un solo nextval y lo reparte desde
+ * memoria sin bloqueos; solo se sincroniza cuando el bloque se agota. El
+ * incremento de la secuencia es el tamaño del bloque, igual en todos los nodos.
+ * Los IDs que elige el cliente se apartan con reservarExplicito para que
+ * ningún bloque posterior los vuelva a repartir.
+ */
+@Component
+public class GeneradorIdRuta {
+
+    static final String SECUENCIA = "tbl_rutas_id_seq";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${rutas.id.bloque:50}")
+    private int tamanoBloque;
+
+    private volatile Bloque bloqueActual = Bloque.VACIO;
+    private volatile boolean secuenciaLista = false;
+
+    public Integer siguienteId() {
+        while (true) {
+            Bloque bloque = bloqueActual;
+            long id = bloque.siguiente.getAndIncrement();
+            if (id < bloque.fin) {
+                return Math.toIntExact(id);
+            }
+            reservarBloque(bloque);
+        }
+    }
+
+    /**
+     * Aparta un ID elegido por el cliente. Si cae en el bloque de este nodo se
+     * salta en memoria; si está por delante de los bloques ya reservados, se
+     * adelanta la secuencia dentro de la transacción de la solicitud. Un ID
+     * dentro del bloque vigente de otro nodo no se detecta aquí: ese INSERT
+     * choca con la clave primaria y se informa como conflicto.
+     */
+    public synchronized void reservarExplicito(int id) {
+        if (!secuenciaLista) {
+            prepararSecuencia();
+        }
+        Bloque bloque = bloqueActual;
+        if (id < bloque.fin) {
+            bloque.siguiente.accumulateAndGet(id + 1L, Math::max);
+        } else {
+            adelantarSecuencia(id);
+        }
+    }
+
+    // Solo un hilo reserva el siguiente bloque; los demás reintentan con el nuevo
+    private synchronized void reservarBloque(Bloque agotado) {
+        if (bloqueActual != agotado) {
+            return;
+        }
+        if (!secuenciaLista) {
+            prepararSecuencia();
+            return;
+        }
+        long inicio = jdbcTemplate.queryForObject("SELECT nextval('" + SECUENCIA + "')", Long.class);
+        bloqueActual = new Bloque(inicio, inicio + tamanoBloque);
+    }
+
+    // Un nodo con otro rutas.id.bloque repartiría rangos que se solapan con los de los demás
+    @EventListener(ApplicationReadyEvent.class)
+    public void verificarIncremento() {
+        Long incremento = incrementoSecuencia();
+        if (incremento != null && incremento != tamanoBloque) {
+            throw new IllegalStateException("La secuencia " + SECUENCIA + " avanza de a " + incremento
+                    + " pero rutas.id.bloque es " + tamanoBloque + "; todos los nodos deben usar el mismo bloque.");
+        }
+    }
+
+    /**
+     * Crea la secuencia si no existe y toma el primer bloque. La secuencia nunca
+     * retrocede, porque otros nodos pueden estar repartiendo bloques ya
+     * reservados; solo se adelanta si hay rutas insertadas con IDs explícitos
+     * por encima de su valor.
+     */
+    private void prepararSecuencia() {
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id_ruta), 0) FROM tbl_rutas", Long.class);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SECUENCIA
+                + " START WITH " + (maxId + 1) + " INCREMENT BY " + tamanoBloque);
+        verificarIncremento();
+
+        long inicio = jdbcTemplate.queryForObject("SELECT nextval('" + SECUENCIA + "')", Long.class);
+        if (inicio <= maxId) {
+            adelantarSecuencia(maxId);
+            inicio = jdbcTemplate.queryForObject("SELECT nextval('" + SECUENCIA + "')", Long.class);
+        }
+        bloqueActual = new Bloque(inicio, inicio + tamanoBloque);
+        secuenciaLista = true;
+    }
+
+    // Después de esto ningún nextval devuelve un bloque que contenga a maxId
+    private void adelantarSecuencia(long maxId) {
+        String producto = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(producto)) {
+            // GREATEST: si otro nodo ya la pasó de maxId, se queda donde está
+            jdbcTemplate.queryForObject("SELECT setval('" + SECUENCIA + "', GREATEST((SELECT last_value FROM "
+                    + SECUENCIA + "), ?))", Long.class, maxId);
+        } else {
+            // H2 no tiene setval; solo se usa en las pruebas, con un nodo. base_value es el próximo nextval
+            // y, como tras setval en PostgreSQL, el siguiente bloque empieza un incremento después de maxId
+            Long siguiente = jdbcTemplate.queryForObject(
+                    "SELECT base_value FROM information_schema.sequences WHERE sequence_name = ?", Long.class, SECUENCIA);
+            if (siguiente <= maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + SECUENCIA + " RESTART WITH " + (maxId + tamanoBloque));
+            }
+        }
+    }
+
+    // null si la secuencia todavía no existe; PostgreSQL lo devuelve como texto
+    private Long incrementoSecuencia() {
+        List<String> incremento = jdbcTemplate.queryForList(
+                "SELECT increment FROM information_schema.sequences WHERE sequence_name = ?", String.class, SECUENCIA);
+        return incremento.isEmpty() ? null : Long.valueOf(incremento.get(0));
+    }
+
+    private static final class Bloque {
+        static final Bloque VACIO = new Bloque(0, 0);
+
+        final AtomicLong siguiente;
+        final long fin;
+
+        Bloque(long inicio, long fin) {
+            this.siguiente = new AtomicLong(inicio);
+            this.fin = fin;
+        }
+    }
+}
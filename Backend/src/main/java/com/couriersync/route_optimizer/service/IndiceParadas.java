@@ -0,0 +1,363 @@
+package com.couriersync.route_optimizer.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.couriersync.route_optimizer.entity.Parada;
+import com.couriersync.route_optimizer.optimizer.MatrizDistancias;
+import com.couriersync.route_optimizer.repository.ParadaRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Índice espacial en memoria de las paradas (tbl_paradas) sobre una rejilla de
+ * celdas de 0.01 grados. Cada celda guarda sus paradas en arreglos primitivos, y
+ * las búsquedas recorren anillos de celdas alrededor del punto hasta que ninguna
+ * celda restante puede mejorar el resultado. ParadaService lo mantiene al día.
+ */
+@Component
+public class IndiceParadas {
+
+    // ~1.1 km de lado en latitud
+    private static final double TAMANO_CELDA = 0.01;
+    private static final double KM_POR_GRADO = 111.195;
+
+    @Autowired
+    private ParadaRepository paradaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean cargado = false;
+
+    private final Map<Long, Celda> celdas = new HashMap<>();
+    private final Map<Integer, long[]> celdasPorRuta = new HashMap<>();
+    private int paradas = 0;
+
+    record RutaCercana(int idRuta, double distanciaKm) {
+    }
+
+    /**
+     * Hasta k rutas con alguna parada dentro del radio, ordenadas por la
+     * distancia de su parada más cercana. El filtro descarta rutas (p. ej. inactivas).
+     */
+    List<RutaCercana> cercanas(double latitud, double longitud, int k, double radioKm, IntPredicate filtro) {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            int filaCentro = celda(latitud);
+            int columnaCentro = celda(longitud);
+            double ladoKm = TAMANO_CELDA * KM_POR_GRADO
+                    * Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitud) + TAMANO_CELDA))));
+            int anillos = (int) Math.ceil(radioKm / ladoKm) + 1;
+
+            Map<Integer, Double> mejores = new HashMap<>();
+            Map<Integer, Boolean> admitidas = new HashMap<>();
+            long celdasEnAnillos = (2L * anillos + 1) * (2L * anillos + 1);
+            if (celdasEnAnillos > celdas.size()) {
+                // Radios grandes frente a la rejilla (o cerca de los polos, donde las celdas se
+                // angostan): es más barato recorrer solo las celdas ocupadas de la franja de latitud
+                int filas = (int) Math.ceil(radioKm / (TAMANO_CELDA * KM_POR_GRADO)) + 1;
+                for (Map.Entry<Long, Celda> entrada : celdas.entrySet()) {
+                    if (Math.abs((int) (entrada.getKey() >> 32) - filaCentro) <= filas) {
+                        buscarCercanas(entrada.getValue(), latitud, longitud, radioKm, filtro, admitidas, mejores);
+                    }
+                }
+            } else {
+                for (int r = 0; r <= anillos; r++) {
+                    // Toda parada de este anillo en adelante está a más de (r - 1) celdas
+                    if (mejores.size() >= k && (r - 1) * ladoKm > kEsima(mejores, k)) {
+                        break;
+                    }
+                    for (int df = -r; df <= r; df++) {
+                        for (int dc = -r; dc <= r; dc++) {
+                            if (Math.abs(df) != r && Math.abs(dc) != r) {
+                                continue;
+                            }
+                            buscarCercanas(celdas.get(clave(filaCentro + df, columnaCentro + dc)), latitud, longitud,
+                                    radioKm, filtro, admitidas, mejores);
+                        }
+                    }
+                }
+            }
+
+            List<RutaCercana> resultado = new ArrayList<>(mejores.size());
+            mejores.forEach((idRuta, d) -> resultado.add(new RutaCercana(idRuta, d)));
+            resultado.sort((a, b) -> a.distanciaKm() != b.distanciaKm()
+                    ? Double.compare(a.distanciaKm(), b.distanciaKm())
+                    : Integer.compare(a.idRuta(), b.idRuta()));
+            return resultado.size() > k ? new ArrayList<>(resultado.subList(0, k)) : resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** IDs (ascendentes, hasta el límite) de las rutas con alguna parada dentro del rectángulo. */
+    List<Integer> enArea(double latitudMinima, double longitudMinima, double latitudMaxima, double longitudMaxima,
+                         int limite, IntPredicate filtro) {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            int filaMinima = celda(latitudMinima);
+            int filaMaxima = celda(latitudMaxima);
+            int columnaMinima = celda(longitudMinima);
+            int columnaMaxima = celda(longitudMaxima);
+            TreeSet<Integer> encontradas = new TreeSet<>();
+            Map<Integer, Boolean> admitidas = new HashMap<>();
+
+            long celdasEnArea = (long) (filaMaxima - filaMinima + 1) * (columnaMaxima - columnaMinima + 1);
+            if (celdasEnArea <= celdas.size()) {
+                for (int f = filaMinima; f <= filaMaxima; f++) {
+                    for (int c = columnaMinima; c <= columnaMaxima; c++) {
+                        buscarEnCelda(celdas.get(clave(f, c)), latitudMinima, longitudMinima, latitudMaxima,
+                                longitudMaxima, filtro, admitidas, encontradas);
+                    }
+                }
+            } else {
+                // Rectángulos enormes: es más barato recorrer solo las celdas ocupadas
+                for (Map.Entry<Long, Celda> entrada : celdas.entrySet()) {
+                    int f = (int) (entrada.getKey() >> 32);
+                    int c = (int) (long) entrada.getKey();
+                    if (f >= filaMinima && f <= filaMaxima && c >= columnaMinima && c <= columnaMaxima) {
+                        buscarEnCelda(entrada.getValue(), latitudMinima, longitudMinima, latitudMaxima,
+                                longitudMaxima, filtro, admitidas, encontradas);
+                    }
+                }
+            }
+
+            List<Integer> resultado = new ArrayList<>(Math.min(limite, encontradas.size()));
+            for (Integer idRuta : encontradas) {
+                if (resultado.size() == limite) {
+                    break;
+                }
+                resultado.add(idRuta);
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return paradas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Reemplaza las paradas de cada ruta por las dadas, ya confirmadas en la base de datos. */
+    void reemplazar(Map<Integer, List<Parada>> paradasPorRuta) {
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                return;
+            }
+            for (Map.Entry<Integer, List<Parada>> entrada : paradasPorRuta.entrySet()) {
+                quitarRuta(entrada.getKey());
+                for (Parada parada : entrada.getValue()) {
+                    agregar(parada);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void quitar(Collection<Integer> idsRuta) {
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                return;
+            }
+            for (Integer idRuta : idsRuta) {
+                quitarRuta(idRuta);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Descarta el índice; la siguiente búsqueda vuelve a cargar tbl_paradas. */
+    void invalidarTodo() {
+        lock.writeLock().lock();
+        try {
+            cargado = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void asegurarCargado() {
+        if (cargado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (cargado) {
+                return;
+            }
+            celdas.clear();
+            celdasPorRuta.clear();
+            paradas = 0;
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.executeWithoutResult(estado -> {
+                try (Stream<Parada> todas = paradaRepository.streamParadas()) {
+                    todas.forEach(parada -> {
+                        agregar(parada);
+                        entityManager.detach(parada);
+                    });
+                }
+            });
+            cargado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Requiere el candado de escritura
+    private void agregar(Parada parada) {
+        long clave = clave(celda(parada.getLatitud()), celda(parada.getLongitud()));
+        celdas.computeIfAbsent(clave, k -> new Celda())
+                .agregar(parada.getIdRuta(), parada.getLatitud(), parada.getLongitud());
+        paradas++;
+
+        long[] propias = celdasPorRuta.get(parada.getIdRuta());
+        if (propias == null) {
+            celdasPorRuta.put(parada.getIdRuta(), new long[] {clave});
+        } else {
+            for (long propia : propias) {
+                if (propia == clave) {
+                    return;
+                }
+            }
+            long[] ampliadas = Arrays.copyOf(propias, propias.length + 1);
+            ampliadas[propias.length] = clave;
+            celdasPorRuta.put(parada.getIdRuta(), ampliadas);
+        }
+    }
+
+    private void quitarRuta(int idRuta) {
+        long[] propias = celdasPorRuta.remove(idRuta);
+        if (propias == null) {
+            return;
+        }
+        for (long clave : propias) {
+            Celda c = celdas.get(clave);
+            if (c != null) {
+                paradas -= c.quitarRuta(idRuta);
+                if (c.tamano == 0) {
+                    celdas.remove(clave);
+                }
+            }
+        }
+    }
+
+    private static void buscarCercanas(Celda c, double latitud, double longitud, double radioKm, IntPredicate filtro,
+                                       Map<Integer, Boolean> admitidas, Map<Integer, Double> mejores) {
+        if (c == null) {
+            return;
+        }
+        for (int i = 0; i < c.tamano; i++) {
+            int idRuta = c.rutas[i];
+            if (!admitidas.computeIfAbsent(idRuta, filtro::test)) {
+                continue;
+            }
+            double d = MatrizDistancias.haversineKm(latitud, longitud, c.latitudes[i], c.longitudes[i]);
+            if (d <= radioKm) {
+                mejores.merge(idRuta, d, Math::min);
+            }
+        }
+    }
+
+    private static void buscarEnCelda(Celda c, double latitudMinima, double longitudMinima, double latitudMaxima,
+                                      double longitudMaxima, IntPredicate filtro, Map<Integer, Boolean> admitidas,
+                                      TreeSet<Integer> encontradas) {
+        if (c == null) {
+            return;
+        }
+        for (int i = 0; i < c.tamano; i++) {
+            double lat = c.latitudes[i];
+            double lon = c.longitudes[i];
+            int idRuta = c.rutas[i];
+            if (lat >= latitudMinima && lat <= latitudMaxima && lon >= longitudMinima && lon <= longitudMaxima
+                    && !encontradas.contains(idRuta) && admitidas.computeIfAbsent(idRuta, filtro::test)) {
+                encontradas.add(idRuta);
+            }
+        }
+    }
+
+    private static double kEsima(Map<Integer, Double> distancias, int k) {
+        double[] valores = new double[distancias.size()];
+        int i = 0;
+        for (double d : distancias.values()) {
+            valores[i++] = d;
+        }
+        Arrays.sort(valores);
+        return valores[k - 1];
+    }
+
+    private static int celda(double grados) {
+        return (int) Math.floor(grados / TAMANO_CELDA);
+    }
+
+    private static long clave(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xFFFFFFFFL);
+    }
+
+    /** Paradas de una celda en arreglos paralelos. */
+    private static final class Celda {
+
+        private double[] latitudes = new double[8];
+        private double[] longitudes = new double[8];
+        private int[] rutas = new int[8];
+        private int tamano = 0;
+
+        void agregar(int idRuta, double latitud, double longitud) {
+            if (tamano == rutas.length) {
+                latitudes = Arrays.copyOf(latitudes, tamano * 2);
+                longitudes = Arrays.copyOf(longitudes, tamano * 2);
+                rutas = Arrays.copyOf(rutas, tamano * 2);
+            }
+            latitudes[tamano] = latitud;
+            longitudes[tamano] = longitud;
+            rutas[tamano] = idRuta;
+            tamano++;
+        }
+
+        // Compacta en el lugar; devuelve cuántas paradas se quitaron
+        int quitarRuta(int idRuta) {
+            int escritas = 0;
+            for (int i = 0; i < tamano; i++) {
+                if (rutas[i] != idRuta) {
+                    latitudes[escritas] = latitudes[i];
+                    longitudes[escritas] = longitudes[i];
+                    rutas[escritas] = rutas[i];
+                    escritas++;
+                }
+            }
+            int quitadas = tamano - escritas;
+            tamano = escritas;
+            return quitadas;
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package com.couriersync.route_optimizer.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Copia en memoria de tbl_rutas guardada por columnas primitivas, con índices
+ * de bitmap por estado, tráfico y prioridad. Sirve las lecturas filtradas sin
+ * ir a PostgreSQL; RutaService la mantiene al día en cada escritura.
+ *
+ * Cada ruta ocupa una posición (slot) en los arreglos. Las bajas solo apagan el
+ * bit de la posición y el espacio se recupera al compactar.
+ */
+@Component
+public class ModeloLecturaRutas {
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    // Relecturas de invalidar que se repiten si una escritura local las adelanta
+    private static final int REINTENTOS_RELECTURA = 3;
+
+    // Estado que se asigna por defecto a las rutas nuevas (ver RutaService.validarNuevaRuta)
+    public static final int ESTADO_ACTIVO = 1;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${rutas.modelo-lectura.habilitado:true}")
+    private boolean habilitado;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean cargado = false;
+
+    // Columnas
+    private int[] ids = new int[0];
+    private int[] estados = new int[0];
+    private int[] traficos = new int[0];
+    private short[] prioridades = new short[0];
+    private double[] distancias = new double[0];
+    private double[] tiempos = new double[0];
+    private String[] vehiculos = new String[0];
+    private String[] conductores = new String[0];
+    private int ocupados = 0;
+    private final BitSet vivas = new BitSet();
+
+    // Índices secundarios: valor de la columna -> posiciones con ese valor
+    private final TreeMap<Integer, BitSet> porEstado = new TreeMap<>();
+    private final TreeMap<Integer, BitSet> porTrafico = new TreeMap<>();
+    private final TreeMap<Integer, BitSet> porPrioridad = new TreeMap<>();
+    private final MapaIdPosicion posiciones = new MapaIdPosicion();
+
+    // Escrituras locales anotadas mientras hay relecturas en curso (id_ruta ->
+    // número de cambio), para no pisarlas con una foto leída antes
+    private long cambios = 0;
+    private int relecturas = 0;
+    private final Map<Integer, Long> cambiosDuranteRelectura = new HashMap<>();
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public List<Ruta> todas() {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            return materializar(vivas);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Ruta> porEstado(int idEstado) {
+        return buscar(porEstado, idEstado);
+    }
+
+    public List<Ruta> porTrafico(int idTrafico) {
+        return buscar(porTrafico, idTrafico);
+    }
+
+    public List<Ruta> porPrioridad(short prioridad) {
+        return buscar(porPrioridad, (int) prioridad);
+    }
+
+    // Rutas ordenadas por id_trafico ascendente (recorre el índice en orden)
+    public List<Ruta> ordenadasPorTrafico() {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            List<Ruta> resultado = new ArrayList<>(vivas.cardinality());
+            for (BitSet posicionesTrafico : porTrafico.values()) {
+                agregar(posicionesTrafico, resultado);
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Rutas con los IDs dados, en el mismo orden; se omiten las que no existen. */
+    public List<Ruta> porIds(List<Integer> idsRuta) {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            List<Ruta> resultado = new ArrayList<>(idsRuta.size());
+            for (Integer idRuta : idsRuta) {
+                int pos = posiciones.get(idRuta);
+                if (pos >= 0) {
+                    resultado.add(leer(pos));
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean estaActiva(int idRuta) {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            int pos = posiciones.get(idRuta);
+            return pos >= 0 && estados[pos] == ESTADO_ACTIVO;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return vivas.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Inserta o reemplaza rutas ya confirmadas en la base de datos. */
+    public void registrar(Collection<Ruta> rutas) {
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                // Todavía no se ha leído la tabla: la carga inicial las incluirá
+                return;
+            }
+            for (Ruta ruta : rutas) {
+                escribir(ruta);
+                anotarCambio(ruta.getIdRuta());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void registrar(Ruta ruta) {
+        registrar(List.of(ruta));
+    }
+
+    public void quitar(Collection<Integer> idsRuta) {
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                return;
+            }
+            for (Integer idRuta : idsRuta) {
+                eliminar(idRuta);
+                anotarCambio(idRuta);
+            }
+            compactarSiConviene();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void quitar(Integer idRuta) {
+        quitar(List.of(idRuta));
+    }
+
+    /**
+     * Relee de la base de datos las rutas que otro nodo modificó; las que ya no
+     * existen se quitan. Si el modelo aún no se cargó no hay nada que corregir.
+     *
+     * La lectura se hace sin candado. Si mientras tanto una escritura local
+     * registra o quita alguna de esas rutas, la foto leída puede ser anterior a
+     * ella: esas rutas no se aplican y se vuelven a leer.
+     */
+    public void invalidar(Collection<Integer> idsRuta) {
+        if (!cargado || idsRuta.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            relecturas++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Collection<Integer> pendientes = idsRuta;
+            for (int intento = 0; intento < REINTENTOS_RELECTURA && !pendientes.isEmpty(); intento++) {
+                pendientes = releer(pendientes);
+            }
+            // Si siguen cambiando, las escrituras locales ya dejaron el valor más reciente
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (--relecturas == 0) {
+                    cambiosDuranteRelectura.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Aplica la foto de la base de datos y devuelve las rutas que cambiaron localmente mientras se leía
+    private List<Integer> releer(Collection<Integer> idsRuta) {
+        long desde;
+        lock.writeLock().lock();
+        try {
+            desde = cambios;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        List<Ruta> vigentes = tx.execute(estado -> {
+            List<Ruta> leidas = rutaRepository.findAllById(idsRuta);
+            leidas.forEach(entityManager::detach);
+            return leidas;
+        });
+        Set<Integer> borradas = new HashSet<>(idsRuta);
+        List<Integer> adelantadas = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            if (!cargado) {
+                return adelantadas;
+            }
+            for (Ruta ruta : vigentes) {
+                borradas.remove(ruta.getIdRuta());
+                if (cambiadaDesde(ruta.getIdRuta(), desde)) {
+                    adelantadas.add(ruta.getIdRuta());
+                } else {
+                    escribir(ruta);
+                }
+            }
+            for (Integer idRuta : borradas) {
+                if (cambiadaDesde(idRuta, desde)) {
+                    adelantadas.add(idRuta);
+                } else {
+                    eliminar(idRuta);
+                }
+            }
+            compactarSiConviene();
+            return adelantadas;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Descarta todo; la siguiente lectura vuelve a cargar tbl_rutas. */
+    public void invalidarTodo() {
+        lock.writeLock().lock();
+        try {
+            cargado = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Ruta> buscar(Map<Integer, BitSet> indice, int valor) {
+        asegurarCargado();
+        lock.readLock().lock();
+        try {
+            BitSet coincidencias = indice.get(valor);
+            return coincidencias == null ? new ArrayList<>() : materializar(coincidencias);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void asegurarCargado() {
+        if (cargado) {
+            return;
+        }
+        // La carga se hace con el candado de escritura tomado para que las
+        // escrituras concurrentes esperen y se apliquen encima de la foto inicial
+        lock.writeLock().lock();
+        try {
+            if (cargado) {
+                return;
+            }
+            limpiar(CAPACIDAD_INICIAL);
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.executeWithoutResult(estado -> {
+                try (Stream<Ruta> rutas = rutaRepository.streamRutas(null, null)) {
+                    rutas.forEach(ruta -> {
+                        escribir(ruta);
+                        entityManager.detach(ruta);
+                    });
+                }
+            });
+            cargado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Requiere el candado de escritura
+    private void escribir(Ruta ruta) {
+        int pos = posiciones.get(ruta.getIdRuta());
+        if (pos >= 0) {
+            desindexar(pos);
+        } else {
+            if (ocupados == ids.length) {
+                crecer(Math.max(CAPACIDAD_INICIAL, ids.length * 2));
+            }
+            pos = ocupados++;
+            posiciones.put(ruta.getIdRuta(), pos);
+        }
+        ids[pos] = ruta.getIdRuta();
+        estados[pos] = ruta.getIdEstado();
+        traficos[pos] = ruta.getIdTrafico();
+        prioridades[pos] = ruta.getPrioridad();
+        distancias[pos] = ruta.getDistanciaTotal();
+        tiempos[pos] = ruta.getTiempoPromedio();
+        vehiculos[pos] = ruta.getVehiculoAsociado();
+        conductores[pos] = ruta.getConductorAsignado();
+        vivas.set(pos);
+        porEstado.computeIfAbsent(estados[pos], k -> new BitSet()).set(pos);
+        porTrafico.computeIfAbsent(traficos[pos], k -> new BitSet()).set(pos);
+        porPrioridad.computeIfAbsent((int) prioridades[pos], k -> new BitSet()).set(pos);
+    }
+
+    // Requiere el candado de escritura
+    private void anotarCambio(int idRuta) {
+        cambios++;
+        if (relecturas > 0) {
+            cambiosDuranteRelectura.put(idRuta, cambios);
+        }
+    }
+
+    private boolean cambiadaDesde(int idRuta, long desde) {
+        Long cambio = cambiosDuranteRelectura.get(idRuta);
+        return cambio != null && cambio > desde;
+    }
+
+    private void eliminar(int idRuta) {
+        int pos = posiciones.remove(idRuta);
+        if (pos >= 0) {
+            desindexar(pos);
+        }
+    }
+
+    private void compactarSiConviene() {
+        if (ocupados > CAPACIDAD_INICIAL && vivas.cardinality() < ocupados / 2) {
+            compactar();
+        }
+    }
+
+    private void desindexar(int pos) {
+        vivas.clear(pos);
+        limpiarBit(porEstado, estados[pos], pos);
+        limpiarBit(porTrafico, traficos[pos], pos);
+        limpiarBit(porPrioridad, prioridades[pos], pos);
+        vehiculos[pos] = null;
+        conductores[pos] = null;
+    }
+
+    private static void limpiarBit(Map<Integer, BitSet> indice, int valor, int pos) {
+        BitSet bits = indice.get(valor);
+        if (bits != null) {
+            bits.clear(pos);
+            if (bits.isEmpty()) {
+                indice.remove(valor);
+            }
+        }
+    }
+
+    private List<Ruta> materializar(BitSet seleccion) {
+        List<Ruta> resultado = new ArrayList<>(seleccion.cardinality());
+        agregar(seleccion, resultado);
+        return resultado;
+    }
+
+    private void agregar(BitSet seleccion, List<Ruta> destino) {
+        for (int pos = seleccion.nextSetBit(0); pos >= 0; pos = seleccion.nextSetBit(pos + 1)) {
+            destino.add(leer(pos));
+        }
+    }
+
+    private Ruta leer(int pos) {
+        Ruta ruta = new Ruta();
+        ruta.setIdRuta(ids[pos]);
+        ruta.setIdEstado(estados[pos]);
+        ruta.setIdTrafico(traficos[pos]);
+        ruta.setPrioridad(prioridades[pos]);
+        ruta.setDistanciaTotal(distancias[pos]);
+        ruta.setTiempoPromedio(tiempos[pos]);
+        ruta.setVehiculoAsociado(vehiculos[pos]);
+        ruta.setConductorAsignado(conductores[pos]);
+        return ruta;
+    }
+
+    private void crecer(int capacidad) {
+        ids = Arrays.copyOf(ids, capacidad);
+        estados = Arrays.copyOf(estados, capacidad);
+        traficos = Arrays.copyOf(traficos, capacidad);
+        prioridades = Arrays.copyOf(prioridades, capacidad);
+        distancias = Arrays.copyOf(distancias, capacidad);
+        tiempos = Arrays.copyOf(tiempos, capacidad);
+        vehiculos = Arrays.copyOf(vehiculos, capacidad);
+        conductores = Arrays.copyOf(conductores, capacidad);
+    }
+
+    // Reescribe las filas vivas de forma contigua y reconstruye los índices
+    private void compactar() {
+        List<Ruta> vigentes = materializar(vivas);
+        limpiar(Math.max(CAPACIDAD_INICIAL, vigentes.size() * 2));
+        for (Ruta ruta : vigentes) {
+            escribir(ruta);
+        }
+    }
+
+    private void limpiar(int capacidad) {
+        ids = new int[0];
+        estados = new int[0];
+        traficos = new int[0];
+        prioridades = new short[0];
+        distancias = new double[0];
+        tiempos = new double[0];
+        vehiculos = new String[0];
+        conductores = new String[0];
+        crecer(capacidad);
+        ocupados = 0;
+        vivas.clear();
+        porEstado.clear();
+        porTrafico.clear();
+        porPrioridad.clear();
+        posiciones.clear();
+    }
+
+    /**
+     * Tabla hash de direccionamiento abierto id_ruta -> posición sin objetos
+     * Integer. Las bajas usan borrado por desplazamiento para no dejar lápidas.
+     */
+    static final class MapaIdPosicion {
+        private static final int LIBRE = Integer.MIN_VALUE;
+
+        private int[] claves;
+        private int[] valores;
+        private int tamano;
+
+        MapaIdPosicion() {
+            clear();
+        }
+
+        void clear() {
+            claves = new int[CAPACIDAD_INICIAL * 2];
+            Arrays.fill(claves, LIBRE);
+            valores = new int[claves.length];
+            tamano = 0;
+        }
+
+        int get(int clave) {
+            int mascara = claves.length - 1;
+            for (int i = mezclar(clave) & mascara; ; i = (i + 1) & mascara) {
+                if (claves[i] == clave) {
+                    return valores[i];
+                }
+                if (claves[i] == LIBRE) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(int clave, int valor) {
+            if ((tamano + 1) * 2 > claves.length) {
+                redimensionar();
+            }
+            int mascara = claves.length - 1;
+            int i = mezclar(clave) & mascara;
+            while (claves[i] != LIBRE && claves[i] != clave) {
+                i = (i + 1) & mascara;
+            }
+            if (claves[i] == LIBRE) {
+                tamano++;
+            }
+            claves[i] = clave;
+            valores[i] = valor;
+        }
+
+        int remove(int clave) {
+            int mascara = claves.length - 1;
+            int i = mezclar(clave) & mascara;
+            while (claves[i] != clave) {
+                if (claves[i] == LIBRE) {
+                    return -1;
+                }
+                i = (i + 1) & mascara;
+            }
+            int valor = valores[i];
+            // Desplaza hacia atrás los elementos del mismo grupo de colisiones
+            int hueco = i;
+            for (int j = (i + 1) & mascara; claves[j] != LIBRE; j = (j + 1) & mascara) {
+                int ideal = mezclar(claves[j]) & mascara;
+                if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                    claves[hueco] = claves[j];
+                    valores[hueco] = valores[j];
+                    hueco = j;
+                }
+            }
+            claves[hueco] = LIBRE;
+            tamano--;
+            return valor;
+        }
+
+        private void redimensionar() {
+            int[] viejasClaves = claves;
+            int[] viejosValores = valores;
+            claves = new int[viejasClaves.length * 2];
+            Arrays.fill(claves, LIBRE);
+            valores = new int[claves.length];
+            tamano = 0;
+            for (int i = 0; i < viejasClaves.length; i++) {
+                if (viejasClaves[i] != LIBRE) {
+                    put(viejasClaves[i], viejosValores[i]);
+                }
+            }
+        }
+
+        private static int mezclar(int clave) {
+            int h = clave * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
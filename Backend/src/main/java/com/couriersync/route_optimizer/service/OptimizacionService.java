@@ -0,0 +1,240 @@
+package com.couriersync.route_optimizer.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.couriersync.route_optimizer.dto.OptimizacionRequestDTO;
+import com.couriersync.route_optimizer.dto.OptimizacionResultadoDTO;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.optimizer.MatrizCostos;
+import com.couriersync.route_optimizer.optimizer.MatrizDistancias;
+import com.couriersync.route_optimizer.optimizer.MatrizMapeada;
+import com.couriersync.route_optimizer.optimizer.OptimizadorRutas;
+import com.couriersync.route_optimizer.optimizer.ProblemaRuteo;
+import com.couriersync.route_optimizer.optimizer.SolucionRuteo;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Arma la instancia de ruteo a partir de la solicitud, la resuelve con el
+ * optimizador y guarda distancia y tiempo en las rutas asociadas a cada vehículo.
+ */
+@Service
+public class OptimizacionService {
+
+    public static final int MAXIMO_PARADAS = 2000;
+    public static final int MAXIMO_REINICIOS = 64;
+    private static final double VELOCIDAD_POR_DEFECTO_KMH = 30.0;
+
+    private static final Logger log = LoggerFactory.getLogger(OptimizacionService.class);
+
+    @Autowired
+    private RutaService rutaService;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    private final ForkJoinPool pool;
+    private final OptimizadorRutas optimizador;
+
+    // Matriz persistente compartida entre solicitudes y reinicios; null si no se configuró archivo
+    private final MatrizMapeada matrizMapeada;
+    private final Counter matrizLlena;
+
+    public OptimizacionService(@Value("${optimizador.hilos:0}") int hilos,
+                               @Value("${optimizador.matriz.archivo:}") String archivoMatriz,
+                               @Value("${optimizador.matriz.capacidad:20000}") int capacidadMatriz,
+                               MeterRegistry meterRegistry) {
+        int paralelismo = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(paralelismo);
+        this.optimizador = new OptimizadorRutas(pool);
+        try {
+            this.matrizMapeada = archivoMatriz.isBlank() ? null
+                    : MatrizMapeada.abrirOCrear(Path.of(archivoMatriz), capacidadMatriz, VELOCIDAD_POR_DEFECTO_KMH);
+        } catch (IOException e) {
+            pool.shutdownNow();
+            throw new UncheckedIOException("No se pudo abrir la matriz de costos " + archivoMatriz, e);
+        }
+        this.matrizLlena = Counter.builder("optimizador.matriz.llena")
+                .description("Solicitudes que usaron la matriz en el heap porque el archivo no tenía espacio")
+                .register(meterRegistry);
+        if (matrizMapeada != null) {
+            Gauge.builder("optimizador.matriz.ubicaciones", matrizMapeada, MatrizMapeada::tamano)
+                    .description("Ubicaciones guardadas en el archivo de la matriz")
+                    .register(meterRegistry);
+            FunctionCounter.builder("optimizador.matriz.compactaciones", matrizMapeada,
+                            MatrizMapeada::getCompactaciones)
+                    .description("Veces que se compactó el archivo para hacer espacio")
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        pool.shutdownNow();
+        if (matrizMapeada != null) {
+            matrizMapeada.close();
+        }
+    }
+
+    public OptimizacionResultadoDTO optimizar(OptimizacionRequestDTO solicitud) {
+        validar(solicitud);
+        List<OptimizacionRequestDTO.Parada> paradas = solicitud.getParadas();
+        List<OptimizacionRequestDTO.Vehiculo> vehiculos = solicitud.getVehiculos();
+
+        int n = paradas.size() + 1;
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        int[] demandas = new int[n];
+        latitudes[0] = solicitud.getDeposito().getLatitud();
+        longitudes[0] = solicitud.getDeposito().getLongitud();
+        long demandaTotal = 0;
+        int demandaMaxima = 0;
+        for (int i = 1; i < n; i++) {
+            OptimizacionRequestDTO.Parada parada = paradas.get(i - 1);
+            latitudes[i] = parada.getLatitud();
+            longitudes[i] = parada.getLongitud();
+            demandas[i] = parada.getDemanda() != null ? parada.getDemanda() : 1;
+            demandaTotal += demandas[i];
+            demandaMaxima = Math.max(demandaMaxima, demandas[i]);
+        }
+
+        // Sin capacidad declarada se reparte la demanda con holgura para una parada más
+        int capacidadPorDefecto = (int) Math.min(Integer.MAX_VALUE,
+                (demandaTotal + vehiculos.size() - 1) / vehiculos.size() + demandaMaxima);
+        int[] capacidades = new int[vehiculos.size()];
+        for (int v = 0; v < capacidades.length; v++) {
+            Integer capacidad = vehiculos.get(v).getCapacidad();
+            capacidades[v] = capacidad != null ? capacidad : capacidadPorDefecto;
+        }
+
+        double velocidad = solicitud.getVelocidadKmh() != null ? solicitud.getVelocidadKmh() : VELOCIDAD_POR_DEFECTO_KMH;
+        int reinicios = solicitud.getReinicios() != null ? solicitud.getReinicios() : pool.getParallelism();
+        long semilla = solicitud.getSemilla() != null ? solicitud.getSemilla() : System.nanoTime();
+
+        long inicio = System.nanoTime();
+        MatrizCostos matriz = construirMatriz(latitudes, longitudes, velocidad);
+        SolucionRuteo solucion;
+        try {
+            solucion = optimizador.resolver(new ProblemaRuteo(matriz, demandas, capacidades), reinicios, semilla);
+        } finally {
+            // Una vista abierta impide compactar el archivo
+            if (matriz instanceof MatrizMapeada.Vista vista) {
+                vista.close();
+            }
+        }
+        long tiempoCalculoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        List<OptimizacionResultadoDTO.RecorridoVehiculo> recorridos = new ArrayList<>(capacidades.length);
+        for (int v = 0; v < capacidades.length; v++) {
+            OptimizacionRequestDTO.Vehiculo vehiculo = vehiculos.get(v);
+            int[] orden = solucion.ruta(v);
+            List<String> ids = new ArrayList<>(orden.length);
+            int carga = 0;
+            for (int ubicacion : orden) {
+                ids.add(paradas.get(ubicacion - 1).getId());
+                carga += demandas[ubicacion];
+            }
+            double distancia = redondear(solucion.distancia(v));
+            double tiempo = redondear(solucion.tiempo(v));
+            recorridos.add(new OptimizacionResultadoDTO.RecorridoVehiculo(
+                    vehiculo.getIdRuta(), vehiculo.getPlaca(), ids, carga, distancia, tiempo));
+
+            if (vehiculo.getIdRuta() != null) {
+                Ruta cambios = new Ruta();
+                cambios.setDistanciaTotal(distancia);
+                cambios.setTiempoPromedio(tiempo);
+                cambios.setVehiculoAsociado(vehiculo.getPlaca());
+                rutaService.actualizarRuta(vehiculo.getIdRuta(), cambios);
+            }
+        }
+        return new OptimizacionResultadoDTO(redondear(solucion.getDistanciaTotal()), tiempoCalculoMs, recorridos);
+    }
+
+    // Con archivo configurado solo se calculan las ubicaciones nuevas; si no caben
+    // ni compactando (otra solicitud tiene una vista abierta) se usa la matriz en
+    // el heap para esta solicitud y se cuenta en optimizador.matriz.llena
+    private MatrizCostos construirMatriz(double[] latitudes, double[] longitudes, double velocidad) {
+        if (matrizMapeada == null) {
+            return MatrizDistancias.haversine(latitudes, longitudes, velocidad);
+        }
+        long compactaciones = matrizMapeada.getCompactaciones();
+        try {
+            MatrizCostos vista = matrizMapeada.vistaDe(latitudes, longitudes,
+                    matrizMapeada.getVelocidadKmh() / velocidad);
+            if (matrizMapeada.getCompactaciones() != compactaciones) {
+                log.info("Matriz de costos compactada: quedan {} de {} ubicaciones", matrizMapeada.tamano(),
+                        matrizMapeada.getCapacidad());
+            }
+            return vista;
+        } catch (IllegalStateException e) {
+            matrizLlena.increment();
+            log.warn("Matriz de costos sin espacio, se calcula en el heap: {}", e.getMessage());
+            return MatrizDistancias.haversine(latitudes, longitudes, velocidad);
+        }
+    }
+
+    private void validar(OptimizacionRequestDTO solicitud) {
+        if (solicitud.getDeposito() == null || !coordenadaValida(solicitud.getDeposito().getLatitud(),
+                solicitud.getDeposito().getLongitud())) {
+            throw new IllegalArgumentException("El depósito debe tener latitud y longitud válidas.");
+        }
+        if (solicitud.getParadas() == null || solicitud.getParadas().isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos una parada.");
+        }
+        if (solicitud.getParadas().size() > MAXIMO_PARADAS) {
+            throw new IllegalArgumentException("Se admiten como máximo " + MAXIMO_PARADAS + " paradas.");
+        }
+        if (solicitud.getVehiculos() == null || solicitud.getVehiculos().isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos un vehículo.");
+        }
+        for (OptimizacionRequestDTO.Parada parada : solicitud.getParadas()) {
+            if (parada == null || !coordenadaValida(parada.getLatitud(), parada.getLongitud())) {
+                throw new IllegalArgumentException("Todas las paradas deben tener latitud y longitud válidas.");
+            }
+            if (parada.getDemanda() != null && parada.getDemanda() < 0) {
+                throw new IllegalArgumentException("La demanda de una parada no puede ser negativa.");
+            }
+        }
+        for (OptimizacionRequestDTO.Vehiculo vehiculo : solicitud.getVehiculos()) {
+            if (vehiculo == null || (vehiculo.getCapacidad() != null && vehiculo.getCapacidad() <= 0)) {
+                throw new IllegalArgumentException("La capacidad de cada vehículo debe ser positiva.");
+            }
+            // Se verifica antes de optimizar para no dejar rutas actualizadas a medias
+            if (vehiculo.getIdRuta() != null && !rutaRepository.existsById(vehiculo.getIdRuta())) {
+                throw new IllegalArgumentException("Ruta no encontrada con id: " + vehiculo.getIdRuta());
+            }
+        }
+        if (solicitud.getVelocidadKmh() != null && solicitud.getVelocidadKmh() <= 0) {
+            throw new IllegalArgumentException("La velocidad debe ser positiva.");
+        }
+        if (solicitud.getReinicios() != null
+                && (solicitud.getReinicios() < 1 || solicitud.getReinicios() > MAXIMO_REINICIOS)) {
+            throw new IllegalArgumentException("Los reinicios deben estar entre 1 y " + MAXIMO_REINICIOS + ".");
+        }
+    }
+
+    private static boolean coordenadaValida(Double latitud, Double longitud) {
+        return latitud != null && longitud != null
+                && latitud >= -90 && latitud <= 90 && longitud >= -180 && longitud <= 180;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.couriersync.route_optimizer.service;
+
+/**
+ * Claves de ordenamiento admitidas por la paginación por cursor.
+ * Todas desempatan por id_ruta para que el orden sea total.
+ */
+public enum OrdenRuta {
+    ID,
+    PRIORIDAD,
+    TRAFICO;
+
+    public static OrdenRuta desde(String valor) {
+        try {
+            return OrdenRuta.valueOf(valor.trim().toUpperCase());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Orden no soportado: " + valor);
+        }
+    }
+}
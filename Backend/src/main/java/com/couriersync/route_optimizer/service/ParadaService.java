@@ -0,0 +1,125 @@
+package com.couriersync.route_optimizer.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.couriersync.route_optimizer.entity.Parada;
+import com.couriersync.route_optimizer.repository.ParadaRepository;
+
+/**
+ * Escribe las paradas de las rutas (tbl_paradas) y mantiene el índice espacial
+ * en memoria. El índice solo cambia cuando la transacción se confirma.
+ */
+@Service
+public class ParadaService {
+
+    public static final int MAXIMO_PARADAS_POR_RUTA = 5000;
+
+    @Autowired
+    private ParadaRepository paradaRepository;
+
+    @Autowired
+    private IndiceParadas indiceParadas;
+
+    // Reemplaza las paradas de una ruta por los puntos del trayecto, en orden
+    @Transactional
+    public void reemplazar(Integer idRuta, List<Coordenada> trayecto) {
+        Map<Integer, List<Coordenada>> trayectos = new HashMap<>();
+        trayectos.put(idRuta, trayecto);
+        reemplazar(trayectos);
+    }
+
+    // Un solo DELETE para todas las rutas y los INSERT agrupados en batch
+    @Transactional
+    public void reemplazar(Map<Integer, List<Coordenada>> trayectosPorRuta) {
+        if (trayectosPorRuta.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Parada>> paradasPorRuta = new HashMap<>();
+        List<Parada> todas = new ArrayList<>();
+        for (Map.Entry<Integer, List<Coordenada>> entrada : trayectosPorRuta.entrySet()) {
+            validarTrayecto(entrada.getValue());
+            List<Parada> paradas = new ArrayList<>(entrada.getValue().size());
+            for (Coordenada punto : entrada.getValue()) {
+                paradas.add(new Parada(entrada.getKey(), paradas.size(), punto.getLatitud(), punto.getLongitud()));
+            }
+            paradasPorRuta.put(entrada.getKey(), paradas);
+            todas.addAll(paradas);
+        }
+        paradaRepository.eliminarPorRutas(paradasPorRuta.keySet());
+        paradaRepository.saveAll(todas);
+        alConfirmar(() -> indiceParadas.reemplazar(paradasPorRuta));
+    }
+
+    @Transactional
+    public void eliminarDeRutas(Collection<Integer> idsRuta) {
+        if (idsRuta.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = List.copyOf(idsRuta);
+        paradaRepository.eliminarPorRutas(ids);
+        alConfirmar(() -> indiceParadas.quitar(ids));
+    }
+
+    /** Relee las paradas de rutas que otro nodo modificó y las pasa al índice. */
+    @Transactional(readOnly = true)
+    public void recargar(Collection<Integer> idsRuta) {
+        if (idsRuta.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Parada>> paradasPorRuta = new HashMap<>();
+        for (Integer idRuta : idsRuta) {
+            // Sin paradas, la ruta sale del índice
+            paradasPorRuta.put(idRuta, new ArrayList<>());
+        }
+        for (Parada parada : paradaRepository.findByIdRutaInOrderByIdRutaAscOrdenAsc(idsRuta)) {
+            paradasPorRuta.get(parada.getIdRuta()).add(parada);
+        }
+        alConfirmar(() -> indiceParadas.reemplazar(paradasPorRuta));
+    }
+
+    public void recargarTodo() {
+        indiceParadas.invalidarTodo();
+    }
+
+    static void validarTrayecto(List<Coordenada> trayecto) {
+        if (trayecto == null) {
+            return;
+        }
+        if (trayecto.size() > MAXIMO_PARADAS_POR_RUTA) {
+            throw new IllegalArgumentException("El trayecto supera el máximo de " + MAXIMO_PARADAS_POR_RUTA + " paradas.");
+        }
+        for (Coordenada punto : trayecto) {
+            if (punto == null || punto.getLatitud() == null || punto.getLongitud() == null) {
+                throw new IllegalArgumentException("Todos los puntos del trayecto deben tener latitud y longitud.");
+            }
+            if (Math.abs(punto.getLatitud()) > 90 || Math.abs(punto.getLongitud()) > 180) {
+                throw new IllegalArgumentException("Coordenada fuera de rango: (" + punto.getLatitud() + ", "
+                        + punto.getLongitud() + ").");
+            }
+        }
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
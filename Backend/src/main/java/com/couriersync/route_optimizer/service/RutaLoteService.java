@@ -0,0 +1,207 @@
+package com.couriersync.route_optimizer.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.couriersync.cache.BusInvalidacion;
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.couriersync.route_optimizer.dto.OperacionRutaDTO;
+import com.couriersync.route_optimizer.dto.ResultadoOperacionRutaDTO;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+import com.couriersync.route_optimizer.routing.MotorRuteo;
+
+/**
+ * Aplica lotes de altas, cambios y bajas de rutas en una sola transacción.
+ * Las rutas referenciadas se cargan con una única consulta y las escrituras
+ * se agrupan en sentencias batch de JDBC (ver hibernate.jdbc.batch_size).
+ */
+@Service
+public class RutaLoteService {
+
+    public static final int MAXIMO_OPERACIONES = 5000;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private GeneradorIdRuta generadorIdRuta;
+
+    @Autowired
+    private ModeloLecturaRutas modeloLectura;
+
+    @Autowired
+    private ParadaService paradaService;
+
+    @Autowired
+    private BusInvalidacion busInvalidacion;
+
+    @Autowired(required = false)
+    private MotorRuteo motorRuteo;
+
+    @Transactional
+    public List<ResultadoOperacionRutaDTO> procesarLote(List<OperacionRutaDTO> operaciones) {
+        if (operaciones == null || operaciones.isEmpty()) {
+            throw new IllegalArgumentException("El lote no contiene operaciones.");
+        }
+        if (operaciones.size() > MAXIMO_OPERACIONES) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + MAXIMO_OPERACIONES + " operaciones.");
+        }
+
+        // Una sola consulta para todas las rutas que el lote menciona por ID
+        Set<Integer> idsReferenciados = new HashSet<>();
+        for (OperacionRutaDTO op : operaciones) {
+            if (op != null && op.getIdRuta() != null) {
+                idsReferenciados.add(op.getIdRuta());
+            } else if (op != null && op.getRuta() != null && op.getRuta().getIdRuta() != null) {
+                idsReferenciados.add(op.getRuta().getIdRuta());
+            }
+        }
+        Map<Integer, Ruta> vigentes = new HashMap<>();
+        for (Ruta ruta : rutaRepository.findAllById(idsReferenciados)) {
+            vigentes.put(ruta.getIdRuta(), ruta);
+        }
+
+        List<ResultadoOperacionRutaDTO> resultados = new ArrayList<>(operaciones.size());
+        List<Ruta> nuevas = new ArrayList<>();
+        List<Ruta> eliminadas = new ArrayList<>();
+        Set<Integer> idsEliminados = new HashSet<>();
+        Map<Integer, List<Coordenada>> trayectos = new HashMap<>();
+
+        for (int i = 0; i < operaciones.size(); i++) {
+            OperacionRutaDTO op = operaciones.get(i);
+            if (op == null || op.getTipo() == null) {
+                resultados.add(new ResultadoOperacionRutaDTO(i, null, null,
+                        HttpStatus.BAD_REQUEST.value(), "Error: Tipo de operación obligatorio."));
+                continue;
+            }
+            try {
+                resultados.add(switch (op.getTipo()) {
+                    case CREAR -> crear(i, op, vigentes, idsEliminados, nuevas, trayectos);
+                    case ACTUALIZAR -> actualizar(i, op, vigentes, trayectos);
+                    case ELIMINAR -> eliminar(i, op, vigentes, idsEliminados, nuevas, eliminadas, trayectos);
+                });
+            } catch (IllegalArgumentException e) {
+                resultados.add(new ResultadoOperacionRutaDTO(i, op.getTipo(), op.getIdRuta(),
+                        HttpStatus.BAD_REQUEST.value(), "Error: " + e.getMessage()));
+            }
+        }
+
+        // Las rutas nuevas se insertan con persist (Ruta es Persistable) y las
+        // modificadas ya están gestionadas, así que el flush agrupa todo en batch
+        paradaService.eliminarDeRutas(idsEliminados);
+        rutaRepository.saveAll(nuevas);
+        rutaRepository.deleteAll(eliminadas);
+        rutaRepository.flush();
+        // Las paradas van después de que existan sus rutas (clave foránea)
+        paradaService.reemplazar(trayectos);
+
+        // El modelo en memoria solo refleja el lote una vez confirmado
+        List<Ruta> escritas = new ArrayList<>(vigentes.values());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                modeloLectura.quitar(idsEliminados);
+                modeloLectura.registrar(escritas);
+            }
+        });
+        Set<Integer> modificadas = new HashSet<>(vigentes.keySet());
+        modificadas.addAll(idsEliminados);
+        busInvalidacion.publicar(RutaService.REGION_RUTAS, modificadas);
+        return resultados;
+    }
+
+    private ResultadoOperacionRutaDTO crear(int indice, OperacionRutaDTO op, Map<Integer, Ruta> vigentes,
+                                            Set<Integer> idsEliminados, List<Ruta> nuevas,
+                                            Map<Integer, List<Coordenada>> trayectos) {
+        Ruta ruta = op.getRuta();
+        if (ruta == null) {
+            throw new IllegalArgumentException("Faltan los datos de la ruta.");
+        }
+        Integer idSolicitado = op.getIdRuta() != null ? op.getIdRuta() : ruta.getIdRuta();
+        // Un ID borrado en este lote tampoco se reutiliza: Hibernate ejecuta los
+        // DELETE después de los INSERT al hacer flush
+        if (idSolicitado != null && (vigentes.containsKey(idSolicitado) || idsEliminados.contains(idSolicitado))) {
+            return new ResultadoOperacionRutaDTO(indice, op.getTipo(), idSolicitado,
+                    HttpStatus.CONFLICT.value(), "Error: El ID de la ruta ya existe.");
+        }
+        ParadaService.validarTrayecto(ruta.getTrayecto());
+        RutaService.calcularConRedVial(motorRuteo, ruta);
+        RutaService.validarNuevaRuta(ruta);
+        if (idSolicitado == null) {
+            idSolicitado = generadorIdRuta.siguienteId();
+        } else {
+            generadorIdRuta.reservarExplicito(idSolicitado);
+        }
+        ruta.setIdRuta(idSolicitado);
+        vigentes.put(idSolicitado, ruta);
+        nuevas.add(ruta);
+        if (ruta.getTrayecto() != null) {
+            trayectos.put(idSolicitado, ruta.getTrayecto());
+        }
+        return new ResultadoOperacionRutaDTO(indice, op.getTipo(), idSolicitado,
+                HttpStatus.CREATED.value(), "Ruta creada.");
+    }
+
+    private ResultadoOperacionRutaDTO actualizar(int indice, OperacionRutaDTO op, Map<Integer, Ruta> vigentes,
+                                                 Map<Integer, List<Coordenada>> trayectos) {
+        Ruta existente = buscarVigente(op, vigentes);
+        if (existente == null) {
+            return noEncontrada(indice, op);
+        }
+        if (op.getRuta() == null) {
+            throw new IllegalArgumentException("Faltan los datos de la ruta.");
+        }
+        ParadaService.validarTrayecto(op.getRuta().getTrayecto());
+        RutaService.calcularConRedVial(motorRuteo, op.getRuta());
+        RutaService.aplicarCambios(existente, op.getRuta());
+        if (op.getRuta().getTrayecto() != null) {
+            trayectos.put(existente.getIdRuta(), op.getRuta().getTrayecto());
+        }
+        return new ResultadoOperacionRutaDTO(indice, op.getTipo(), existente.getIdRuta(),
+                HttpStatus.OK.value(), "Ruta actualizada.");
+    }
+
+    private ResultadoOperacionRutaDTO eliminar(int indice, OperacionRutaDTO op, Map<Integer, Ruta> vigentes,
+                                               Set<Integer> idsEliminados, List<Ruta> nuevas,
+                                               List<Ruta> eliminadas, Map<Integer, List<Coordenada>> trayectos) {
+        Ruta existente = buscarVigente(op, vigentes);
+        if (existente == null) {
+            return noEncontrada(indice, op);
+        }
+        vigentes.remove(existente.getIdRuta());
+        trayectos.remove(existente.getIdRuta());
+        if (existente.isNew()) {
+            // Creada en este mismo lote: basta con no insertarla
+            nuevas.removeIf(ruta -> ruta == existente);
+        } else {
+            idsEliminados.add(existente.getIdRuta());
+            eliminadas.add(existente);
+        }
+        return new ResultadoOperacionRutaDTO(indice, op.getTipo(), op.getIdRuta(),
+                HttpStatus.OK.value(), "Ruta eliminada.");
+    }
+
+    private Ruta buscarVigente(OperacionRutaDTO op, Map<Integer, Ruta> vigentes) {
+        if (op.getIdRuta() == null) {
+            throw new IllegalArgumentException("El ID de la ruta es obligatorio.");
+        }
+        return vigentes.get(op.getIdRuta());
+    }
+
+    private ResultadoOperacionRutaDTO noEncontrada(int indice, OperacionRutaDTO op) {
+        return new ResultadoOperacionRutaDTO(indice, op.getTipo(), op.getIdRuta(),
+                HttpStatus.NOT_FOUND.value(), "Error: Ruta no encontrada con id: " + op.getIdRuta());
+    }
+}
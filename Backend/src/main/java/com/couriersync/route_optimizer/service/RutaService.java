@@ -2,21 +2,59 @@ package com.couriersync.route_optimizer.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.couriersync.cache.BusInvalidacion;
+import com.couriersync.diagnostico.PresupuestoConsultas;
+import com.couriersync.route_optimizer.dto.PaginaRutas;
+import com.couriersync.route_optimizer.dto.RutaCercanaDTO;
 import com.couriersync.route_optimizer.entity.Ruta;
 import com.couriersync.route_optimizer.entity.TipoTrafico;
 import com.couriersync.route_optimizer.entity.EstadoRuta;
 import com.couriersync.route_optimizer.repository.RutaRepository;
 import com.couriersync.route_optimizer.repository.EstadoRutaRepository;
 import com.couriersync.route_optimizer.repository.TipoTraficoRepository;
+import com.couriersync.route_optimizer.routing.MotorRuteo;
+import com.couriersync.route_optimizer.routing.TramoVial;
 
-import java.util.Optional;
+import static com.couriersync.route_optimizer.repository.RutaSpecifications.conEstado;
+import static com.couriersync.route_optimizer.repository.RutaSpecifications.conTrafico;
+import static com.couriersync.route_optimizer.repository.RutaSpecifications.despuesDe;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.List;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 
 @Service
 public class RutaService {
 
+    public static final int LIMITE_MAXIMO_PAGINA = 500;
+    public static final int MAXIMO_CERCANAS = 100;
+    public static final double RADIO_MAXIMO_KM = 50.0;
+
+    // Región del bus de invalidación; las claves son id_ruta
+    public static final String REGION_RUTAS = "rutas";
+    public static final int LIMITE_MAXIMO_AREA = 1000;
+
     @Autowired
     private RutaRepository rutaRepository;
 
@@ -25,22 +63,114 @@ public class RutaService {
 
     @Autowired
     private TipoTraficoRepository tipoTraficoRepository;
-    // Crear nueva ruta
+
+    @Autowired
+    private GeneradorIdRuta generadorIdRuta;
+
+    @Autowired
+    private ModeloLecturaRutas modeloLectura;
+
+    @Autowired
+    private ParadaService paradaService;
+
+    @Autowired
+    private IndiceParadas indiceParadas;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BusInvalidacion busInvalidacion;
+
+    // Solo existe si se configuró ruteo.grafo.archivo
+    @Autowired(required = false)
+    private MotorRuteo motorRuteo;
+
+    // Las escrituras de otros nodos llegan por el bus y se releen de la base de datos
+    @PostConstruct
+    void suscribirInvalidaciones() {
+        busInvalidacion.suscribir(REGION_RUTAS, invalidacion -> {
+            if (invalidacion.todas()) {
+                modeloLectura.invalidarTodo();
+                paradaService.recargarTodo();
+                return;
+            }
+            List<Integer> ids = new ArrayList<>(invalidacion.claves().size());
+            for (String clave : invalidacion.claves()) {
+                ids.add(Integer.valueOf(clave));
+            }
+            modeloLectura.invalidar(ids);
+            paradaService.recargar(ids);
+        });
+    }
+
+    // Crear nueva ruta con sus paradas en una transacción: INSERT de la ruta y DELETE
+    // e INSERT de paradas, más el exists si el ID viene en la solicitud
+    @Transactional
+    @PresupuestoConsultas(4)
     public Ruta crearRuta(Ruta ruta) {
-        // Si no se proporciona ID, generar uno automáticamente
-        if (ruta.getIdRuta() == null) {
-            // Obtener el máximo ID existente y sumar 1
-            List<Ruta> todasLasRutas = rutaRepository.findAll();
-            Integer maxId = todasLasRutas.stream()
-                .map(Ruta::getIdRuta)
-                .filter(id -> id != null)
-                .max(Integer::compareTo)
-                .orElse(0);
-            ruta.setIdRuta(maxId + 1);
+        // Si no se proporciona ID, se toma del bloque reservado por este nodo
+        boolean explicito = ruta.getIdRuta() != null;
+        if (!explicito) {
+            ruta.setIdRuta(generadorIdRuta.siguienteId());
         } else if (rutaRepository.existsById(ruta.getIdRuta())) {
             throw new DataIntegrityViolationException("El ID de la ruta ya existe.");
         }
 
+        ParadaService.validarTrayecto(ruta.getTrayecto());
+        calcularConRedVial(motorRuteo, ruta);
+        validarNuevaRuta(ruta);
+        if (explicito) {
+            generadorIdRuta.reservarExplicito(ruta.getIdRuta());
+        }
+
+        // Las paradas van después de que exista su ruta (clave foránea)
+        Ruta guardada = rutaRepository.saveAndFlush(ruta);
+        if (ruta.getTrayecto() != null) {
+            paradaService.reemplazar(guardada.getIdRuta(), ruta.getTrayecto());
+        }
+        alConfirmar(() -> modeloLectura.registrar(guardada));
+        busInvalidacion.publicar(REGION_RUTAS, guardada.getIdRuta());
+        return guardada;
+    }
+
+    // Editar ruta existente; en una transacción save no repite el SELECT del merge
+    // y el UPDATE sale con el flush del commit: SELECT, UPDATE y, con trayecto, DELETE e INSERT de paradas
+    @Transactional
+    @PresupuestoConsultas(4)
+    public Ruta actualizarRuta(Integer idRuta, Ruta rutaActualizada) {
+        // NoSuchElementException distingue la ruta inexistente (404) de los datos inválidos (400)
+        Ruta existente = rutaRepository.findById(idRuta)
+                .orElseThrow(() -> new NoSuchElementException("Ruta no encontrada con id: " + idRuta));
+        ParadaService.validarTrayecto(rutaActualizada.getTrayecto());
+        calcularConRedVial(motorRuteo, rutaActualizada);
+        aplicarCambios(existente, rutaActualizada);
+
+        Ruta guardada = rutaRepository.save(existente);
+        if (rutaActualizada.getTrayecto() != null) {
+            paradaService.reemplazar(idRuta, rutaActualizada.getTrayecto());
+        }
+        alConfirmar(() -> modeloLectura.registrar(guardada));
+        busInvalidacion.publicar(REGION_RUTAS, idRuta);
+        return guardada;
+    }
+
+    // Si la ruta trae trayecto y hay red vial cargada, la distancia y el tiempo se
+    // calculan sobre ella; sin red vial el trayecto solo se guarda como paradas
+    static void calcularConRedVial(MotorRuteo motorRuteo, Ruta ruta) {
+        if (ruta.getTrayecto() == null || ruta.getTrayecto().isEmpty() || motorRuteo == null) {
+            return;
+        }
+        TramoVial tramo = motorRuteo.recorrido(ruta.getTrayecto());
+        ruta.setDistanciaTotal(Math.round(tramo.distanciaKm() * 100.0) / 100.0);
+        ruta.setTiempoPromedio(Math.round(tramo.tiempoMin() * 100.0) / 100.0);
+    }
+
+    // Valida campos obligatorios y completa el estado por defecto de una ruta nueva
+    static void validarNuevaRuta(Ruta ruta) {
         if (ruta.getDistanciaTotal() == null || ruta.getTiempoPromedio() == null ||
             ruta.getIdTrafico() == null || ruta.getPrioridad() == null) {
             throw new IllegalArgumentException("Faltan campos obligatorios en la ruta.");
@@ -49,20 +179,10 @@ public class RutaService {
         if (ruta.getIdEstado() == null) {
             ruta.setIdEstado(1); // estado activo por defecto
         }
-
-        return rutaRepository.save(ruta);
     }
 
-    // Editar ruta existente
-    public Ruta actualizarRuta(Integer idRuta, Ruta rutaActualizada) {
-        Optional<Ruta> existenteOpt = rutaRepository.findById(idRuta);
-        if (existenteOpt.isEmpty()) {
-            throw new IllegalArgumentException("Ruta no encontrada con id: " + idRuta);
-        }
-
-        Ruta existente = existenteOpt.get();
-
-        // Solo se actualizan los campos que se envíen con valor
+    // Solo se actualizan los campos que se envíen con valor
+    static void aplicarCambios(Ruta existente, Ruta rutaActualizada) {
         if (rutaActualizada.getVehiculoAsociado() != null)
             existente.setVehiculoAsociado(rutaActualizada.getVehiculoAsociado());
 
@@ -84,48 +204,254 @@ public class RutaService {
         if (rutaActualizada.getIdEstado() != null)
             existente.setIdEstado(rutaActualizada.getIdEstado());
 
-        return rutaRepository.save(existente);
+        if (rutaActualizada.getTrayecto() != null)
+            existente.setTrayecto(rutaActualizada.getTrayecto());
     }
 
-    // Eliminar ruta por ID
+    // Eliminar ruta por ID: dos DELETE; si la ruta no existía, el de paradas se revierte
+    @Transactional
+    @PresupuestoConsultas(2)
     public void eliminarRuta(Integer idRuta) {
-        if (!rutaRepository.existsById(idRuta)) {
+        paradaService.eliminarDeRutas(List.of(idRuta));
+        if (rutaRepository.eliminarPorId(idRuta) == 0) {
             throw new IllegalArgumentException("Ruta no encontrada con id: " + idRuta);
         }
-        rutaRepository.deleteById(idRuta);
+        alConfirmar(() -> modeloLectura.quitar(idRuta));
+        busInvalidacion.publicar(REGION_RUTAS, idRuta);
+    }
+
+    /**
+     * Hasta k rutas activas con alguna parada dentro del radio, de la más cercana
+     * a la más lejana, según el índice espacial de paradas.
+     */
+    public List<RutaCercanaDTO> buscarRutasCercanas(double latitud, double longitud, int k, double radioKm) {
+        validarCoordenada(latitud, longitud);
+        if (k < 1 || k > MAXIMO_CERCANAS) {
+            throw new IllegalArgumentException("k debe estar entre 1 y " + MAXIMO_CERCANAS + ".");
+        }
+        if (!(radioKm > 0) || radioKm > RADIO_MAXIMO_KM) {
+            throw new IllegalArgumentException("El radio debe ser mayor que 0 y de hasta " + RADIO_MAXIMO_KM + " km.");
+        }
+
+        if (modeloLectura.isHabilitado()) {
+            List<IndiceParadas.RutaCercana> cercanas = indiceParadas.cercanas(latitud, longitud, k, radioKm,
+                    modeloLectura::estaActiva);
+            List<Integer> ids = new ArrayList<>(cercanas.size());
+            cercanas.forEach(c -> ids.add(c.idRuta()));
+            Map<Integer, Ruta> rutas = new HashMap<>();
+            modeloLectura.porIds(ids).forEach(r -> rutas.put(r.getIdRuta(), r));
+            return conRutas(cercanas, rutas, k);
+        }
+
+        // Sin modelo en memoria el estado se filtra después, sobre todas las candidatas del radio
+        List<IndiceParadas.RutaCercana> candidatas = indiceParadas.cercanas(latitud, longitud, Integer.MAX_VALUE,
+                radioKm, idRuta -> true);
+        List<Integer> ids = new ArrayList<>(candidatas.size());
+        candidatas.forEach(c -> ids.add(c.idRuta()));
+        Map<Integer, Ruta> rutas = new HashMap<>();
+        for (Ruta ruta : rutaRepository.findAllById(ids)) {
+            if (ruta.getIdEstado() != null && ruta.getIdEstado() == ModeloLecturaRutas.ESTADO_ACTIVO) {
+                rutas.put(ruta.getIdRuta(), ruta);
+            }
+        }
+        return conRutas(candidatas, rutas, k);
     }
 
+    // Rutas activas con alguna parada dentro del rectángulo, por ID ascendente
+    public List<Ruta> buscarRutasEnArea(double latitudMinima, double longitudMinima,
+                                        double latitudMaxima, double longitudMaxima, int limite) {
+        validarCoordenada(latitudMinima, longitudMinima);
+        validarCoordenada(latitudMaxima, longitudMaxima);
+        if (latitudMinima > latitudMaxima || longitudMinima > longitudMaxima) {
+            throw new IllegalArgumentException("Los mínimos del área no pueden superar a los máximos.");
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO_AREA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_AREA + ".");
+        }
+
+        if (modeloLectura.isHabilitado()) {
+            return modeloLectura.porIds(indiceParadas.enArea(latitudMinima, longitudMinima, latitudMaxima,
+                    longitudMaxima, limite, modeloLectura::estaActiva));
+        }
+        List<Ruta> resultado = new ArrayList<>();
+        for (Ruta ruta : rutaRepository.findAllById(indiceParadas.enArea(latitudMinima, longitudMinima,
+                latitudMaxima, longitudMaxima, Integer.MAX_VALUE, idRuta -> true))) {
+            if (ruta.getIdEstado() != null && ruta.getIdEstado() == ModeloLecturaRutas.ESTADO_ACTIVO) {
+                resultado.add(ruta);
+            }
+        }
+        resultado.sort((a, b) -> Integer.compare(a.getIdRuta(), b.getIdRuta()));
+        return resultado.size() > limite ? new ArrayList<>(resultado.subList(0, limite)) : resultado;
+    }
+
+    private static List<RutaCercanaDTO> conRutas(List<IndiceParadas.RutaCercana> cercanas, Map<Integer, Ruta> rutas,
+                                                 int k) {
+        List<RutaCercanaDTO> resultado = new ArrayList<>(Math.min(k, cercanas.size()));
+        for (IndiceParadas.RutaCercana cercana : cercanas) {
+            Ruta ruta = rutas.get(cercana.idRuta());
+            if (ruta != null && resultado.size() < k) {
+                resultado.add(new RutaCercanaDTO(ruta, Math.round(cercana.distanciaKm() * 1000.0) / 1000.0));
+            }
+        }
+        return resultado;
+    }
+
+    private static void validarCoordenada(double latitud, double longitud) {
+        if (!(Math.abs(latitud) <= 90) || !(Math.abs(longitud) <= 180)) {
+            throw new IllegalArgumentException("Coordenada fuera de rango: (" + latitud + ", " + longitud + ").");
+        }
+    }
+
+    // Las lecturas completas y filtradas se sirven desde el modelo en memoria si está habilitado
     public List<Ruta> obtenerTodasLasRutas() {
+        if (modeloLectura.isHabilitado()) {
+            return modeloLectura.todas();
+        }
         return rutaRepository.findAll();
     }
 
     // Buscar rutas por nombre de estado
     public List<Ruta> buscarRutasPorNombreEstado(String nombreEstado) {
-        EstadoRuta estado = estadoRutaRepository.findByNombreEstado(nombreEstado);
-        if (estado == null) {
-            throw new IllegalArgumentException("Estado no encontrado: " + nombreEstado);
+        Integer idEstado = idEstadoPorNombre(nombreEstado);
+        if (modeloLectura.isHabilitado()) {
+            return modeloLectura.porEstado(idEstado);
         }
-        Integer idEstado = estado.getIdEstado();
         return rutaRepository.findByIdEstado(idEstado);
     }
 
     public List<Ruta> buscarRutasPorTrafico(String nivelTrafico) {
-        TipoTrafico trafico = tipoTraficoRepository.findByNivelTrafico(nivelTrafico);
-        if (trafico == null) {
-            throw new IllegalArgumentException("Trafico no encontrado: " + nivelTrafico);
+        Integer idTrafico = idTraficoPorNivel(nivelTrafico);
+        if (modeloLectura.isHabilitado()) {
+            return modeloLectura.porTrafico(idTrafico);
         }
-        return rutaRepository.findByIdTrafico(trafico.getIdTrafico());
+        return rutaRepository.findByIdTrafico(idTrafico);
     }
 
     public List<Ruta> obtenerRutasPorTraficoAsc() {
+        if (modeloLectura.isHabilitado()) {
+            return modeloLectura.ordenadasPorTrafico();
+        }
         return rutaRepository.findAllByOrderByIdTraficoAsc();
     }
+
+    // Variantes paginadas por cursor de las consultas anteriores
+    public PaginaRutas paginarRutasPorNombreEstado(String nombreEstado, OrdenRuta orden, boolean descendente,
+                                                   String cursor, int limite) {
+        return paginarRutas(idEstadoPorNombre(nombreEstado), null, orden, descendente, cursor, limite);
+    }
+
+    public PaginaRutas paginarRutasPorTrafico(String nivelTrafico, OrdenRuta orden, boolean descendente,
+                                              String cursor, int limite) {
+        return paginarRutas(null, idTraficoPorNivel(nivelTrafico), orden, descendente, cursor, limite);
+    }
+
+    /**
+     * Página de rutas con paginación por cursor (keyset) sobre id_ruta y la clave
+     * de orden elegida. Cada página filtra por la última fila entregada en lugar
+     * de usar OFFSET, así que una página profunda cuesta lo mismo que la primera.
+     */
+    public PaginaRutas paginarRutas(Integer idEstado, Integer idTrafico, OrdenRuta orden, boolean descendente,
+                                    String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA + ".");
+        }
+
+        Specification<Ruta> filtro = Specification.allOf(conEstado(idEstado), conTrafico(idTrafico));
+        if (cursor != null && !cursor.isBlank()) {
+            CursorRuta previo = CursorRuta.decodificar(cursor);
+            if (previo.orden() != orden || previo.descendente() != descendente) {
+                throw new IllegalArgumentException("El cursor no corresponde al orden solicitado.");
+            }
+            filtro = filtro.and(condicionCursor(previo));
+        }
+
+        Sort.Direction direccion = descendente ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = switch (orden) {
+            case ID -> Sort.by(direccion, "idRuta");
+            case PRIORIDAD -> Sort.by(direccion, "prioridad", "idRuta");
+            case TRAFICO -> Sort.by(direccion, "idTrafico", "idRuta");
+        };
+
+        // Se pide una fila extra solo para saber si existe una página siguiente
+        List<Ruta> filas = rutaRepository.findBy(filtro, q -> q.sortBy(sort).limit(limite + 1).all());
+        if (filas.size() <= limite) {
+            return new PaginaRutas(filas, null);
+        }
+        List<Ruta> pagina = filas.subList(0, limite);
+        Ruta ultima = pagina.get(limite - 1);
+        return new PaginaRutas(pagina, CursorRuta.despuesDe(ultima, orden, descendente).codificar());
+    }
+
+    private Specification<Ruta> condicionCursor(CursorRuta cursor) {
+        return switch (cursor.orden()) {
+            case ID -> despuesDe("idRuta", cursor.idRuta(), cursor.idRuta(), cursor.descendente());
+            case PRIORIDAD -> despuesDe("prioridad", (short) cursor.clave(), cursor.idRuta(), cursor.descendente());
+            case TRAFICO -> despuesDe("idTrafico", cursor.clave(), cursor.idRuta(), cursor.descendente());
+        };
+    }
+
+    private Integer idEstadoPorNombre(String nombreEstado) {
+        EstadoRuta estado = estadoRutaRepository.buscarPorNombre(nombreEstado);
+        if (estado == null) {
+            throw new IllegalArgumentException("Estado no encontrado: " + nombreEstado);
+        }
+        return estado.getIdEstado();
+    }
+
+    private Integer idTraficoPorNivel(String nivelTrafico) {
+        TipoTrafico trafico = tipoTraficoRepository.buscarPorNivel(nivelTrafico);
+        if (trafico == null) {
+            throw new IllegalArgumentException("Trafico no encontrado: " + nivelTrafico);
+        }
+        return trafico.getIdTrafico();
+    }
+
+    /**
+     * Escribe las rutas como JSON delimitado por saltos de línea (NDJSON) directamente
+     * en la salida, leyendo la tabla con un cursor hacia adelante. Cada ruta se
+     * desvincula del contexto de persistencia al escribirse, así que el heap usado
+     * no crece con el tamaño de la tabla.
+     *
+     * @return cantidad de rutas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportarRutas(Integer idEstado, Integer idTrafico, OutputStream salida) throws IOException {
+        ObjectWriter escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exportadas = 0;
+        try (Stream<Ruta> rutas = rutaRepository.streamRutas(idEstado, idTrafico);
+             JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<Ruta> it = rutas.iterator();
+            while (it.hasNext()) {
+                Ruta ruta = it.next();
+                escritor.writeValue(generador, ruta);
+                generador.writeRaw('\n');
+                entityManager.detach(ruta);
+                // Vaciar por lotes para que el cliente reciba datos desde el inicio
+                if (++exportadas % 500 == 0) {
+                    generador.flush();
+                }
+            }
+            generador.flush();
+        }
+        return exportadas;
+    }
+
     // Obtener todos los estados disponibles
     public List<EstadoRuta> obtenerTodosLosEstados() {
         return estadoRutaRepository.findAll();
     }
-    
-    
-    
-}
 
+    private static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
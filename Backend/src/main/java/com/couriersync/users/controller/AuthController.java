@@ -3,7 +3,9 @@ package com.couriersync.users.controller;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -20,8 +22,13 @@ import com.couriersync.users.dto.UsuarioRegistroDTO;
 import com.couriersync.users.entity.Usuario;
 import com.couriersync.users.repository.UsuarioRepository;
 import com.couriersync.users.service.AuthService;
+import com.couriersync.users.service.BitacoraSeguridad;
+import com.couriersync.users.service.DesafiosMfa;
 import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RevocacionTokens;
+import com.couriersync.users.service.ServicioSaturadoException;
 import com.couriersync.users.service.SignUpService;
+import com.couriersync.users.service.TokenVerificado;
 
 import jakarta.validation.Valid;
 
@@ -32,12 +39,19 @@ public class AuthController {
     private final AuthService authService;
     private final SignUpService signUpService;
     private final JwtService jwtService;
+    private final RevocacionTokens revocacionTokens;
+    private final DesafiosMfa desafiosMfa;
+    private final BitacoraSeguridad bitacora;
 
     @Autowired
-    public AuthController(AuthService authService, UsuarioRepository usuarioRepository, SignUpService signUpService, JwtService jwtService) {
+    public AuthController(AuthService authService, UsuarioRepository usuarioRepository, SignUpService signUpService, JwtService jwtService,
+                          RevocacionTokens revocacionTokens, DesafiosMfa desafiosMfa, BitacoraSeguridad bitacora) {
         this.authService = authService;
         this.signUpService = signUpService;
         this.jwtService = jwtService;
+        this.revocacionTokens = revocacionTokens;
+        this.desafiosMfa = desafiosMfa;
+        this.bitacora = bitacora;
     }
 
     @GetMapping("/user")
@@ -47,24 +61,32 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody UsuarioLoginDTO usuarioLoginDTO) {
-        boolean success = authService.authenticate(usuarioLoginDTO.getUsername(),
-            usuarioLoginDTO.getContraseña(),
-            usuarioLoginDTO.getRol());
-       
-        if (!success) {
+        Usuario usuario;
+        String desafio = null;
+        try {
+            usuario = authService.authenticate(usuarioLoginDTO.getUsername(),
+                usuarioLoginDTO.getContraseña(),
+                usuarioLoginDTO.getRol());
+            if (usuario != null && usuario.isMfaEnabled()) {
+                desafio = desafiosMfa.emitir(usuario);
+            }
+        } catch (ServicioSaturadoException e) {
+            bitacora.registrar(BitacoraSeguridad.Tipo.LOGIN_SATURADO, "usuario", usuarioLoginDTO.getUsername());
+            return saturado(e);
+        }
+
+        if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
         }
 
-        // Obtener información del usuario
-        Usuario usuario = authService.findByUsuario(usuarioLoginDTO.getUsername());
-    
-        System.out.println("Usuario: " + usuario);
-        // Verificar si el usuario tiene MFA habilitado
-        if (usuario.isMfaEnabled()) {
+        // Con MFA activo, /api/mfa/verify recibe el desafío y emite el token sin volver a la BD
+        if (desafio != null) {
+            bitacora.registrar(BitacoraSeguridad.Tipo.MFA_REQUERIDO, "cedula", usuario.getCedula());
             return ResponseEntity.ok(Map.of(
                 "message", "Se requiere verificación MFA",
                 "requiresMfa", true,
-                "cedula", usuario.getCedula()
+                "cedula", usuario.getCedula(),
+                "desafio", desafio
             ));
         }
 
@@ -74,6 +96,7 @@ public class AuthController {
             usuario.getUsuario(),
             usuario.getRol()
         );
+        bitacora.registrar(BitacoraSeguridad.Tipo.LOGIN_EXITOSO, "cedula", usuario.getCedula(), "rol", usuario.getRol());
 
         return ResponseEntity.ok(Map.of(
             "token", token,
@@ -92,6 +115,9 @@ public class AuthController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
 
+        } catch (ServicioSaturadoException e) {
+            return saturado(e);
+
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: datos duplicados o inválidos");
 
@@ -112,22 +138,35 @@ public class AuthController {
             String token = authHeader.substring(7); // Remover "Bearer "
             
             // Validar el token
-            String cedula = jwtService.extractCedula(token);
+            TokenVerificado verificado = jwtService.verificar(token);
+            String cedula = verificado.cedula();
             if (!jwtService.validateToken(token, cedula)) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                                    .body("Token inválido");
             }
 
-            // En un sistema más robusto, aquí agregarías el token a una blacklist
-            // Por ahora, simplemente confirmamos que el logout fue exitoso
+            // El token queda rechazado por JwtAuthenticationFilter hasta su expiración
+            revocacionTokens.revocar(verificado);
+            bitacora.registrar(BitacoraSeguridad.Tipo.LOGOUT, "cedula", cedula);
             return ResponseEntity.ok(Map.of(
                 "message", "Logout exitoso",
                 "cedula", cedula
             ));
             
+        } catch (DataAccessException e) {
+            // Esta instancia ya rechaza el token, pero las demás no se enteran hasta que se guarde
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                               .body("Error: no se pudo registrar el cierre de sesión, intente de nuevo.");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                                .body("Token inválido o expirado");
         }
     }
+
+    // 429 con el tiempo estimado para que se vacíe la cola de BCrypt
+    private static ResponseEntity<String> saturado(ServicioSaturadoException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getReintentarEnSegundos()))
+                .body("Error: " + e.getMessage());
+    }
 }
@@ -3,8 +3,6 @@ package com.couriersync.users.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,6 +11,8 @@ import org.springframework.web.bind.annotation.RestController;
 import com.couriersync.users.dto.MfaRequest;
 import com.couriersync.users.entity.Usuario;
 import com.couriersync.users.service.AuthService;
+import com.couriersync.users.service.BitacoraSeguridad;
+import com.couriersync.users.service.DesafiosMfa;
 import com.couriersync.users.service.JwtService;
 import com.couriersync.users.service.MfaService;
 
@@ -25,12 +25,17 @@ public class MfaController {
     private final MfaService mfaService;
     private final AuthService authService;
     private final JwtService jwtService;
+    private final DesafiosMfa desafiosMfa;
+    private final BitacoraSeguridad bitacora;
 
     @Autowired
-    public MfaController(MfaService mfaService, AuthService authService, JwtService jwtService) {
+    public MfaController(MfaService mfaService, AuthService authService, JwtService jwtService, DesafiosMfa desafiosMfa,
+                         BitacoraSeguridad bitacora) {
         this.mfaService = mfaService;
         this.authService = authService;
         this.jwtService = jwtService;
+        this.desafiosMfa = desafiosMfa;
+        this.bitacora = bitacora;
     }
 
     @PostMapping("/generate-secret")
@@ -45,25 +50,12 @@ public class MfaController {
             }
             
             String secret = mfaService.generateSecret();
-            
-            // Logging temporal para debugging
-            System.out.println("=== MFA SECRET GENERATION ===");
-            System.out.println("Secret generado: " + secret);
-            System.out.println("Secret length: " + secret.length());
-            
+
             usuario.setMfaSecret(secret);
             usuario.setMfaEnabled(true);
             authService.saveUsuario(usuario);
-            
-            // Verificar que se guardó correctamente
-            Usuario usuarioVerificado = authService.findByCedula(cedula);
-            if (usuarioVerificado != null) {
-                System.out.println("Secret guardado en BD: " + usuarioVerificado.getMfaSecret());
-                System.out.println("Secret guardado length: " + (usuarioVerificado.getMfaSecret() != null ? usuarioVerificado.getMfaSecret().length() : 0));
-                System.out.println("¿Coinciden?: " + secret.equals(usuarioVerificado.getMfaSecret()));
-            }
-            System.out.println("=============================");
-            
+            bitacora.registrar(BitacoraSeguridad.Tipo.MFA_CONFIGURADO, "cedula", cedula);
+
             return ResponseEntity.ok(Map.of("secret", secret, "message", "MFA configurado exitosamente"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -71,90 +63,35 @@ public class MfaController {
         }
     }
 
-    @GetMapping("/test-code/{cedula}")
-    public ResponseEntity<?> testCode(@PathVariable String cedula) {
-        try {
-            Usuario usuario = authService.findByCedula(cedula);
-            if (usuario == null || usuario.getMfaSecret() == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                                     .body("Usuario no encontrado o sin MFA configurado");
-            }
-            
-            // Generar código de prueba con el secret actual
-            long currentTime = System.currentTimeMillis() / 1000;
-            String testCode = mfaService.generateTestCode(usuario.getMfaSecret());
-            
-            return ResponseEntity.ok(Map.of(
-                "secret", usuario.getMfaSecret(),
-                "testCode", testCode,
-                "currentTime", currentTime,
-                "message", "Este es el código que DEBERÍA mostrar Authy ahora mismo"
-            ));
-        } catch (dev.samstevens.totp.exceptions.CodeGenerationException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                 .body("Error al generar código: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                 .body("Error: " + e.getMessage());
-        }
-    }
-
+    // Login con MFA en dos pasos: todo lo necesario viene del desafío emitido por /login,
+    // así que sin desafío no hay token aunque el código TOTP sea válido
     @PostMapping("/verify")
-public ResponseEntity<?> verifyMfa(@RequestBody MfaRequest request) {
-    try {
-        Usuario usuario = authService.findByCedula(request.getCedula());
-        
-        if (usuario == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                                 .body("Usuario no encontrado");
-        }
-
-        if (usuario.getMfaSecret() == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                                 .body("Usuario no tiene MFA configurado");
-        }
-
-        // Logging detallado del secret que se va a usar
-        System.out.println("=== SECRET RECUPERADO DE BD ===");
-        System.out.println("Secret completo: " + usuario.getMfaSecret());
-        System.out.println("Secret length: " + (usuario.getMfaSecret() != null ? usuario.getMfaSecret().length() : 0));
-        System.out.println("Secret bytes: " + java.util.Arrays.toString(usuario.getMfaSecret().getBytes()));
-        System.out.println("===============================");
-        
-        // Generar código de prueba para comparar
-        try {
-            String testCode = mfaService.generateTestCode(usuario.getMfaSecret());
-            System.out.println("\n🔍 CÓDIGO QUE DEBERÍA SER AHORA: " + testCode);
-            System.out.println("CÓDIGO QUE INGRESASTE: " + request.getCode());
-            System.out.println("¿Coinciden? " + testCode.equals(request.getCode()));
-            System.out.println("⚠️ Si NO coinciden, el secret en Authy es DIFERENTE al de la BD\n");
-        } catch (dev.samstevens.totp.exceptions.CodeGenerationException e) {
-            System.err.println("Error generando código de prueba: " + e.getMessage());
+    public ResponseEntity<?> verifyMfa(@RequestBody MfaRequest request) {
+        DesafiosMfa.Desafio desafio = request.getDesafio() == null ? null : desafiosMfa.buscar(request.getDesafio());
+        if (desafio == null || (request.getCedula() != null && !request.getCedula().equals(desafio.cedula()))) {
+            bitacora.registrar(BitacoraSeguridad.Tipo.MFA_FALLIDO, "cedula", request.getCedula(), "motivo", "desafio");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("Desafío MFA inválido o vencido");
         }
-
-        if (mfaService.verifyCode(usuario.getMfaSecret(), request.getCode())) {
-            // Generar JWT token real
-            String token = jwtService.generateToken(
-                usuario.getCedula(),
-                usuario.getUsuario(),
-                usuario.getRol()
-            );
-            
-            return ResponseEntity.ok(Map.of(
-                "token", token,
-                "message", "MFA verificado exitosamente",
-                "cedula", usuario.getCedula(),
-                "rol", usuario.getRol()
-            ));
-        } else {
+        if (desafio.mfaSecret() == null || request.getCode() == null
+                || !mfaService.verifyCode(desafio.mfaSecret(), request.getCode())) {
+            desafiosMfa.registrarFallo(request.getDesafio());
+            bitacora.registrar(BitacoraSeguridad.Tipo.MFA_FALLIDO, "cedula", desafio.cedula(), "motivo", "codigo");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                                  .body("Código TOTP inválido");
         }
-    } catch (Exception e) {
-        System.err.println("Error en verificación MFA: " + e.getMessage());
-        e.printStackTrace();
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                             .body("Error interno del servidor");
-    }
+        if (!desafiosMfa.completar(request.getDesafio())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("Desafío MFA inválido o vencido");
+        }
+
+        String token = jwtService.generateToken(desafio.cedula(), desafio.usuario(), desafio.rol());
+        bitacora.registrar(BitacoraSeguridad.Tipo.MFA_EXITOSO, "cedula", desafio.cedula());
+        return ResponseEntity.ok(Map.of(
+            "token", token,
+            "message", "MFA verificado exitosamente",
+            "cedula", desafio.cedula(),
+            "rol", desafio.rol()
+        ));
     }
-}
\ No newline at end of file
+}
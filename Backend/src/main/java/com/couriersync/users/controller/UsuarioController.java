@@ -1,18 +1,27 @@
 package com.couriersync.users.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.couriersync.users.dto.ResultadoImportacionDTO;
+import com.couriersync.users.service.ImportacionUsuarios;
 import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.TokenVerificado;
 import com.couriersync.users.service.UsuarioService;
 
 @RestController
@@ -25,17 +34,24 @@ public class UsuarioController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private ImportacionUsuarios importacionUsuarios;
+
     @PatchMapping("/{cedula}/rol")
     public ResponseEntity<?> cambiarRol(
         @PathVariable String cedula,
         @RequestBody Map<String, Integer> body,
-        @RequestHeader("Authorization") String tokenHeader
+        @RequestHeader("Authorization") String tokenHeader,
+        @RequestAttribute(value = JwtService.ATRIBUTO_TOKEN, required = false) TokenVerificado autenticado
     ) {
         try {
-            String token = tokenHeader.replace("Bearer ", "").trim();
+            // El filtro ya verificó el token; solo se analiza si la solicitud no pasó por él
+            if (autenticado == null) {
+                autenticado = jwtService.verificar(tokenHeader.replace("Bearer ", "").trim());
+            }
 
-            String cedulaAuth = jwtService.extractCedula(token);
-            Integer rolAuth = jwtService.extractRol(token);
+            String cedulaAuth = autenticado.cedula();
+            Integer rolAuth = autenticado.rol();
 
             if (rolAuth == null || (rolAuth != 1 && rolAuth != 2)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -53,7 +69,7 @@ public class UsuarioController {
                         .body("Rol inválido. Debe ser 1 (Admin), 2 (Gestor de rutas) o 3 (Conductor).");
             }
 
-            usuarioService.cambiarRolDesdeToken(token, cedula, nuevoRol);
+            usuarioService.cambiarRolDesdeToken(autenticado, cedula, nuevoRol);
 
             return ResponseEntity.ok("Rol actualizado correctamente para el usuario " + cedula);
 
@@ -63,4 +79,25 @@ public class UsuarioController {
                                  .body("Error inesperado: " + e.getMessage());
         }
     }
+
+    // Alta masiva desde CSV con encabezado o NDJSON; devuelve el error de cada fila rechazada
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoContenido,
+                                      InputStream cuerpo) {
+        ImportacionUsuarios.Formato formato = tipoContenido.startsWith("text/csv")
+                ? ImportacionUsuarios.Formato.CSV
+                : ImportacionUsuarios.Formato.NDJSON;
+        try {
+            ResultadoImportacionDTO resultado = importacionUsuarios.importar(cuerpo, formato);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: No se pudo leer el archivo.");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error inesperado. Intente más tarde.");
+        }
+    }
 }
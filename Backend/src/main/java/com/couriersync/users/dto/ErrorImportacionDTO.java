@@ -0,0 +1,19 @@
+package com.couriersync.users.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ErrorImportacionDTO {
+
+    // Línea del archivo recibido, contando el encabezado del CSV
+    private int fila;
+
+    private String cedula;
+
+    // Código HTTP equivalente al que devolvería /register
+    private int estado;
+
+    private String mensaje;
+}
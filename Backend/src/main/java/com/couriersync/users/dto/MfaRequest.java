@@ -6,6 +6,8 @@ import lombok.Data;
 public class MfaRequest {
     private String cedula;
     private String code;
+    // Desafío devuelto por /login; si viene, no se consulta al usuario en la BD
+    private String desafio;
     
     public MfaRequest() {}
     
@@ -0,0 +1,18 @@
+package com.couriersync.users.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ResultadoImportacionDTO {
+
+    private int filas;
+
+    private int creados;
+
+    private long milisegundos;
+
+    private List<ErrorImportacionDTO> errores = new ArrayList<>();
+}
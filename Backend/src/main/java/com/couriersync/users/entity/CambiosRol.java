@@ -0,0 +1,41 @@
+package com.couriersync.users.entity;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.couriersync.users.service.RolService;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Refresca los roles de RolService cuando un Rol cambia desde la aplicación,
+ * una vez confirmada la transacción. Hibernate obtiene esta clase del contenedor de Spring.
+ */
+@Component
+public class CambiosRol {
+
+    @Autowired
+    @Lazy
+    private RolService rolService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void alCambiar(Rol rol) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rolService.refrescarCache();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rolService.refrescarCache();
+            }
+        });
+    }
+}
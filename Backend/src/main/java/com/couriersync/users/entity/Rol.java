@@ -1,9 +1,20 @@
 package com.couriersync.users.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import jakarta.persistence.*;
 import lombok.Data;
 
+import com.couriersync.cache.InvalidacionHibernate;
+
 @Entity
+@EntityListeners({CambiosRol.class, InvalidacionHibernate.CambiosEntidad.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Table(name = "tbl_roles")
 @Data
 public class Rol {
@@ -12,6 +23,7 @@ public class Rol {
     @Column(name = "id_rol")
     private Integer idRol;
     
+    @NaturalId
     @Column(name = "nombre_rol", nullable = false, unique = true)
     private String nombreRol;
     
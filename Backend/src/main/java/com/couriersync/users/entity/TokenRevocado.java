@@ -0,0 +1,75 @@
+package com.couriersync.users.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Token cerrado con /logout antes de expirar, identificado por el resumen
+ * SHA-256 (Base64) del JWT. En PostgreSQL:
+ *
+ * <pre>
+ * CREATE TABLE tbl_tokens_revocados (
+ *     resumen   VARCHAR(44) PRIMARY KEY,
+ *     expira_en TIMESTAMPTZ NOT NULL
+ * );
+ * CREATE INDEX idx_tokens_revocados_expira ON tbl_tokens_revocados (expira_en);
+ * </pre>
+ */
+@Entity
+@Table(name = "tbl_tokens_revocados")
+@Data
+@NoArgsConstructor
+public class TokenRevocado implements Persistable<String> {
+
+    @Id
+    @Column(name = "resumen", length = 44)
+    private String resumen;
+
+    @Column(name = "expira_en", nullable = false)
+    private Instant expiraEn;
+
+    // Cada revocación es un INSERT nuevo; se evita el SELECT previo de save()
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean nueva = true;
+
+    public TokenRevocado(String resumen, Instant expiraEn) {
+        this.resumen = resumen;
+        this.expiraEn = expiraEn;
+    }
+
+    @Override
+    public String getId() {
+        return resumen;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        this.nueva = false;
+    }
+}
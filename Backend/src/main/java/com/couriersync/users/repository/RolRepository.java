@@ -1,12 +1,28 @@
 package com.couriersync.users.repository;
 
 import com.couriersync.users.entity.Rol;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RolRepository extends JpaRepository<Rol, Integer> {
     Optional<Rol> findByNombreRol(String nombreRol);
-}
\ No newline at end of file
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Rol> findAll();
+
+    // Directo a tbl_roles, sin la caché de segundo nivel ni la de consultas
+    @Query("select r from Rol r")
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.retrieveMode", value = "BYPASS"))
+    List<Rol> leerSinCache();
+}
@@ -0,0 +1,22 @@
+package com.couriersync.users.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.couriersync.users.entity.TokenRevocado;
+
+public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, String> {
+
+    List<TokenRevocado> findByExpiraEnAfter(Instant instante);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocado t WHERE t.expiraEn <= :instante")
+    int eliminarVencidos(@Param("instante") Instant instante);
+}
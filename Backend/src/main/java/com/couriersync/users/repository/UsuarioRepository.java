@@ -1,12 +1,29 @@
 package com.couriersync.users.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.couriersync.users.entity.Usuario;
 
-public interface UsuarioRepository extends JpaRepository<Usuario, String> {   
+public interface UsuarioRepository extends JpaRepository<Usuario, String>, UsuarioRepositoryCustom {   
     Usuario findByCedula(String cedula);
     Usuario findByUsuario(String usuario);
     boolean existsByCedula(String cedula);
     boolean existsByUsuario(String usuario);
+
+    // Los que ya ocupan la cédula o el nombre de un alta; una consulta en lugar de dos exists
+    List<Usuario> findByCedulaOrUsuario(String cedula, String usuario);
+
+    // Usuarios que ya ocupan alguno de los valores únicos de un lote de altas; una sola consulta
+    @Query("select u from Usuario u where u.cedula in :cedulas or u.usuario in :usuarios"
+            + " or u.email in :emails or u.celular in :celulares or u.nombre in :nombres")
+    List<Usuario> buscarConflictos(@Param("cedulas") Collection<String> cedulas,
+                                   @Param("usuarios") Collection<String> usuarios,
+                                   @Param("emails") Collection<String> emails,
+                                   @Param("celulares") Collection<String> celulares,
+                                   @Param("nombres") Collection<String> nombres);
 }
@@ -0,0 +1,10 @@
+package com.couriersync.users.repository;
+
+import java.util.List;
+
+import com.couriersync.users.entity.Usuario;
+
+public interface UsuarioRepositoryCustom {
+    // Inserta usuarios nuevos con persist, sin el SELECT previo que hace save con ID asignado
+    void insertarTodos(List<Usuario> usuarios);
+}
@@ -0,0 +1,27 @@
+package com.couriersync.users.repository;
+
+import java.util.List;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.couriersync.users.entity.Usuario;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void insertarTodos(List<Usuario> usuarios) {
+        for (Usuario usuario : usuarios) {
+            entityManager.persist(usuario);
+        }
+        // Los INSERT salen agrupados en batch JDBC (hibernate.jdbc.batch_size)
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
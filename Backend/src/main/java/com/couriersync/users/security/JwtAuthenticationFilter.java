@@ -1,6 +1,9 @@
 package com.couriersync.users.security;
 
 import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,12 +17,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import com.couriersync.diagnostico.TiemposSolicitud;
+import com.couriersync.users.service.BitacoraSeguridad;
 import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RevocacionTokens;
 import com.couriersync.users.service.RolService;
+import com.couriersync.users.service.TokenVerificado;
 
 import java.io.IOException;
-import java.util.Collections; 
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -30,43 +37,95 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private RolService rolService;
 
+    @Autowired
+    private RevocacionTokens revocacionTokens;
+
+    @Autowired
+    private BitacoraSeguridad bitacora;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Tiempo del propio filtro por resultado, sin contar el resto de la cadena
+    private Timer sinToken;
+    private Timer valido;
+    private Timer expirado;
+    private Timer invalido;
+    private Timer revocado;
+
+    @PostConstruct
+    void registrarMetricas() {
+        sinToken = temporizador("sin_token");
+        valido = temporizador("valido");
+        expirado = temporizador("expirado");
+        invalido = temporizador("invalido");
+        revocado = temporizador("revocado");
+    }
+
+    // Al temporizador de Micrometer y al desglose de la solicitud (Server-Timing)
+    private static void medir(Timer timer, long inicio) {
+        long nanos = System.nanoTime() - inicio;
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        TiemposSolicitud.sumar(TiemposSolicitud.Fase.JWT, nanos);
+    }
+
+    private Timer temporizador(String resultado) {
+        return Timer.builder("seguridad.jwt.filtro")
+                .description("Verificación del token JWT en cada solicitud")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
+        final long inicio = System.nanoTime();
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String cedula;
+        final TokenVerificado verificado;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            medir(sinToken, inicio);
             filterChain.doFilter(request, response);
             return;
         }
 
         jwt = authHeader.substring(7);
         try {
-            cedula = jwtService.extractCedula(jwt);
+            // Una sola verificación por solicitud; los controladores la leen del atributo
+            verificado = jwtService.verificar(jwt);
         } catch (ExpiredJwtException e) {
+            bitacora.registrar(BitacoraSeguridad.Tipo.TOKEN_RECHAZADO, "motivo", "expirado", "ruta", request.getRequestURI());
+            medir(expirado, inicio);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Token expirado");
             return;
         } catch (Exception e) {
+            bitacora.registrar(BitacoraSeguridad.Tipo.TOKEN_RECHAZADO, "motivo", "invalido", "ruta", request.getRequestURI());
+            medir(invalido, inicio);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Token inválido");
             return;
         }
 
+        if (revocacionTokens.estaRevocado(verificado.resumen())) {
+            bitacora.registrar(BitacoraSeguridad.Tipo.TOKEN_RECHAZADO, "motivo", "revocado", "cedula", verificado.cedula());
+            medir(revocado, inicio);
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.getWriter().write("Token revocado");
+            return;
+        }
+
+        request.setAttribute(JwtService.ATRIBUTO_TOKEN, verificado);
+        String cedula = verificado.cedula();
+
         if (cedula != null && SecurityContextHolder.getContext().getAuthentication() == null) {
         
-            Integer rolId = jwtService.extractRol(jwt);
-            String roleString = rolService.obtenerNombreRolPorId(rolId);
-
-            
-            List<SimpleGrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority(roleString)
-            );
+            // Lista precalculada y compartida por RolService
+            List<SimpleGrantedAuthority> authorities = rolService.autoridadesPorId(verificado.rol());
             User userDetails = new User(cedula, "", authorities);
             UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(
@@ -79,6 +138,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
+        medir(valido, inicio);
         filterChain.doFilter(request, response);
     }
 
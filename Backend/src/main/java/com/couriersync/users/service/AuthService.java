@@ -1,51 +1,61 @@
 package com.couriersync.users.service;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.couriersync.users.entity.Usuario;
-import com.couriersync.users.repository.UsuarioRepository;
 
 @Service
 public class AuthService {
  
-    private final UsuarioRepository usuarioRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final CacheUsuarios cacheUsuarios;
+    private final HashContrasenas hashContrasenas;
+    private final BitacoraSeguridad bitacora;
 
     @Autowired
-    public AuthService(UsuarioRepository usuarioRepository) {
-        this.usuarioRepository = usuarioRepository;
+    public AuthService(CacheUsuarios cacheUsuarios, HashContrasenas hashContrasenas,
+                       BitacoraSeguridad bitacora) {
+        this.cacheUsuarios = cacheUsuarios;
+        this.hashContrasenas = hashContrasenas;
+        this.bitacora = bitacora;
     }
 
-    public boolean authenticate(String username, String contraseña, int rol) {
+    // Devuelve el usuario si la contraseña y el rol coinciden, o null; es la única consulta del login
+    // y no llega a la base si el usuario (o su inexistencia) ya está en CacheUsuarios
+    public Usuario authenticate(String username, String contraseña, int rol) {
         Usuario usuario = null;
         try {
-            usuario = usuarioRepository.findByUsuario(username);
+            usuario = cacheUsuarios.porUsuario(username);
         } catch (Exception e) {
-            e.printStackTrace();
+            bitacora.registrar(BitacoraSeguridad.Tipo.ERROR, "operacion", "login", "error", e.toString());
         }
 
         if (usuario == null) {
-            System.out.println("Usuario no encontrado" + username);
-            return false;
-        }        
-        // Comparar contraseña (hash vs lo que mandó el usuario)
-        boolean passwordMatches = passwordEncoder.matches(contraseña, usuario.getContraseña());
+            bitacora.registrar(BitacoraSeguridad.Tipo.LOGIN_FALLIDO, "usuario", username, "motivo", "usuario_inexistente");
+            return null;
+        }
+
+        // Comparar contraseña (hash vs lo que mandó el usuario) en el pool de BCrypt
+        boolean passwordMatches = hashContrasenas.verificar(contraseña, usuario.getContraseña());
 
         // Comparar rol
         boolean roleMatches = usuario.getRol() == rol;
 
-        return passwordMatches && roleMatches;
+        if (!passwordMatches || !roleMatches) {
+            bitacora.registrar(BitacoraSeguridad.Tipo.LOGIN_FALLIDO, "usuario", username, "cedula", usuario.getCedula(),
+                    "motivo", passwordMatches ? "rol" : "contraseña");
+            return null;
+        }
+        return usuario;
     }
 
     public Usuario findByCedula(String cedula) {
-        return usuarioRepository.findByCedula(cedula);
+        return cacheUsuarios.porCedula(cedula);
     }
     public Usuario findByUsuario(String usuario) {
-        return usuarioRepository.findByUsuario(usuario);
+        return cacheUsuarios.porUsuario(usuario);
     }
 
     public Usuario saveUsuario(Usuario usuario) {
-        return usuarioRepository.save(usuario);
+        return cacheUsuarios.guardar(usuario);
     }
 }
@@ -0,0 +1,334 @@
+package com.couriersync.users.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bitácora de eventos de seguridad (login, MFA, logout, tokens rechazados). Los
+ * hilos de las solicitudes solo encolan el evento en un buffer circular sin
+ * candados; si está lleno, el evento se descarta y se cuenta. Un único hilo de
+ * fondo lo vacía por lotes en archivos JSON de una línea por evento, que rotan
+ * por tamaño (seguridad.log, seguridad.1.log, ...). Cada tipo tiene su tasa de
+ * muestreo, y los valores de claves sensibles o con forma de JWT se ocultan.
+ */
+@Component
+public class BitacoraSeguridad {
+
+    public enum Tipo {
+        LOGIN_EXITOSO, LOGIN_FALLIDO, LOGIN_SATURADO, MFA_REQUERIDO, MFA_CONFIGURADO, MFA_EXITOSO,
+        MFA_FALLIDO, LOGOUT, TOKEN_RECHAZADO, ROLES_CARGADOS, USUARIOS_IMPORTADOS, ERROR
+    }
+
+    private static final Set<String> CLAVES_SENSIBLES = Set.of("secreto", "secret", "mfasecret", "contraseña",
+            "contrasena", "password", "token", "codigo", "code", "desafio");
+    private static final String REDACTADO = "[REDACTADO]";
+    private static final int MAXIMO_VALOR = 256;
+    private static final int LOTE = 512;
+    private static final long ESPERA_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private record Evento(long instanteMs, Tipo tipo, Object[] datos) {
+    }
+
+    // Cola acotada de varios productores y un consumidor: cada ranura lleva un
+    // número de secuencia que indica si está libre para la vuelta actual o ya escrita
+    private final int mascara;
+    private final AtomicReferenceArray<Evento> ranuras;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong siguienteEscritura = new AtomicLong();
+    private long siguienteLectura = 0;
+
+    private final double[] tasas = new double[Tipo.values().length];
+    private final Path directorio;
+    private final long tamanoMaximoBytes;
+    private final int archivos;
+
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder omitidos = new LongAdder();
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong erroresEscritura = new AtomicLong();
+    private final AtomicLong rotaciones = new AtomicLong();
+
+    private final Thread escritor;
+    private volatile boolean cerrando = false;
+    private OutputStream salida;
+    private long tamanoActual;
+
+    public BitacoraSeguridad(@Value("${seguridad.bitacora.directorio:logs/seguridad}") String directorio,
+                             @Value("${seguridad.bitacora.capacidad:8192}") int capacidad,
+                             @Value("${seguridad.bitacora.tamano-maximo-bytes:10485760}") long tamanoMaximoBytes,
+                             @Value("${seguridad.bitacora.archivos:5}") int archivos,
+                             @Value("${seguridad.bitacora.muestreo:}") String muestreo) {
+        int tamano = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.mascara = tamano - 1;
+        this.ranuras = new AtomicReferenceArray<>(tamano);
+        this.secuencias = new AtomicLongArray(tamano);
+        for (int i = 0; i < tamano; i++) {
+            secuencias.set(i, i);
+        }
+        this.directorio = Paths.get(directorio);
+        this.tamanoMaximoBytes = Math.max(1024, tamanoMaximoBytes);
+        this.archivos = Math.max(1, archivos);
+        leerMuestreo(muestreo);
+
+        escritor = new Thread(this::escribirEnFondo, "bitacora-seguridad");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola un evento con pares clave-valor; nunca bloquea ni hace E/S. El
+     * evento se descarta si el muestreo de su tipo no lo elige o si la cola está llena.
+     */
+    public void registrar(Tipo tipo, Object... claveValor) {
+        double tasa = tasas[tipo.ordinal()];
+        if (tasa < 1.0 && ThreadLocalRandom.current().nextDouble() >= tasa) {
+            omitidos.increment();
+            return;
+        }
+        Evento evento = new Evento(System.currentTimeMillis(), tipo, claveValor);
+        while (true) {
+            long posicion = siguienteEscritura.get();
+            int indice = (int) posicion & mascara;
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (siguienteEscritura.compareAndSet(posicion, posicion + 1)) {
+                    ranuras.lazySet(indice, evento);
+                    secuencias.set(indice, posicion + 1);
+                    return;
+                }
+            } else if (diferencia < 0) {
+                // El escritor no alcanzó a vaciar la vuelta anterior
+                descartados.increment();
+                return;
+            }
+        }
+    }
+
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("capacidad", mascara + 1);
+        datos.put("encolados", siguienteEscritura.get());
+        datos.put("escritos", escritos.get());
+        datos.put("descartados", descartados.sum());
+        datos.put("omitidosPorMuestreo", omitidos.sum());
+        datos.put("erroresEscritura", erroresEscritura.get());
+        datos.put("rotaciones", rotaciones.get());
+        datos.put("archivo", archivo(0).toAbsolutePath().toString());
+        return datos;
+    }
+
+    /** Escribe lo pendiente y detiene el hilo de fondo. */
+    @PreDestroy
+    public void cerrar() {
+        cerrando = true;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void escribirEnFondo() {
+        StringBuilder linea = new StringBuilder(256);
+        while (true) {
+            boolean terminar = cerrando;
+            int escritosEnLote = 0;
+            Evento evento;
+            while (escritosEnLote < LOTE && (evento = siguiente()) != null) {
+                linea.setLength(0);
+                aJson(evento, linea);
+                escribir(linea);
+                escritosEnLote++;
+            }
+            if (escritosEnLote > 0) {
+                escritos.addAndGet(escritosEnLote);
+                vaciarSalida();
+                continue;
+            }
+            if (terminar) {
+                break;
+            }
+            LockSupport.parkNanos(this, ESPERA_NANOS);
+        }
+        cerrarSalida();
+    }
+
+    // Solo el hilo escritor consume
+    private Evento siguiente() {
+        int indice = (int) siguienteLectura & mascara;
+        if (secuencias.get(indice) != siguienteLectura + 1) {
+            return null;
+        }
+        Evento evento = ranuras.get(indice);
+        ranuras.lazySet(indice, null);
+        secuencias.set(indice, siguienteLectura + mascara + 1);
+        siguienteLectura++;
+        return evento;
+    }
+
+    private void escribir(StringBuilder linea) {
+        byte[] bytes = linea.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            if (salida == null || tamanoActual + bytes.length > tamanoMaximoBytes) {
+                rotar();
+            }
+            salida.write(bytes);
+            tamanoActual += bytes.length;
+        } catch (IOException e) {
+            if (erroresEscritura.getAndIncrement() == 0) {
+                System.err.println("No se pudo escribir la bitácora de seguridad: " + e.getMessage());
+            }
+            cerrarSalida();
+        }
+    }
+
+    // Abre el archivo actual; si ya tiene el tamaño máximo, desplaza los anteriores
+    private void rotar() throws IOException {
+        Files.createDirectories(directorio);
+        boolean abierto = salida != null;
+        cerrarSalida();
+        Path actual = archivo(0);
+        if (abierto || (Files.exists(actual) && Files.size(actual) >= tamanoMaximoBytes)) {
+            Files.deleteIfExists(archivo(archivos - 1));
+            for (int i = archivos - 2; i >= 0; i--) {
+                if (Files.exists(archivo(i))) {
+                    Files.move(archivo(i), archivo(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (archivos == 1) {
+                Files.deleteIfExists(actual);
+            }
+            rotaciones.incrementAndGet();
+        }
+        salida = new BufferedOutputStream(Files.newOutputStream(actual, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND), 64 * 1024);
+        tamanoActual = Files.size(actual);
+    }
+
+    private void vaciarSalida() {
+        if (salida == null) {
+            return;
+        }
+        try {
+            salida.flush();
+        } catch (IOException e) {
+            erroresEscritura.incrementAndGet();
+            cerrarSalida();
+        }
+    }
+
+    private void cerrarSalida() {
+        if (salida == null) {
+            return;
+        }
+        try {
+            salida.close();
+        } catch (IOException e) {
+            erroresEscritura.incrementAndGet();
+        }
+        salida = null;
+    }
+
+    private Path archivo(int numero) {
+        return directorio.resolve(numero == 0 ? "seguridad.log" : "seguridad." + numero + ".log");
+    }
+
+    private static void aJson(Evento evento, StringBuilder linea) {
+        linea.append("{\"ts\":\"").append(Instant.ofEpochMilli(evento.instanteMs()))
+                .append("\",\"tipo\":\"").append(evento.tipo().name()).append('"');
+        Object[] datos = evento.datos();
+        for (int i = 0; i + 1 < datos.length; i += 2) {
+            String clave = String.valueOf(datos[i]);
+            Object valor = datos[i + 1];
+            linea.append(",\"");
+            escapar(clave, linea);
+            linea.append("\":");
+            if (valor == null) {
+                linea.append("null");
+            } else if (esSensible(clave, valor)) {
+                linea.append('"').append(REDACTADO).append('"');
+            } else if (valor instanceof Number || valor instanceof Boolean) {
+                linea.append(valor);
+            } else {
+                String texto = valor.toString();
+                linea.append('"');
+                escapar(texto.length() > MAXIMO_VALOR ? texto.substring(0, MAXIMO_VALOR) : texto, linea);
+                linea.append('"');
+            }
+        }
+        linea.append("}\n");
+    }
+
+    private static boolean esSensible(String clave, Object valor) {
+        if (CLAVES_SENSIBLES.contains(clave.toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        // Un JWT siempre empieza por la cabecera {"...} en Base64URL
+        return valor instanceof String texto && texto.startsWith("eyJ") && texto.indexOf('.') > 0;
+    }
+
+    private static void escapar(String texto, StringBuilder linea) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"' -> linea.append("\\\"");
+                case '\\' -> linea.append("\\\\");
+                case '\n' -> linea.append("\\n");
+                case '\r' -> linea.append("\\r");
+                case '\t' -> linea.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        linea.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        linea.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    // Formato "TIPO=tasa,TIPO=tasa"; los tipos no listados se registran siempre
+    private void leerMuestreo(String muestreo) {
+        Arrays.fill(tasas, 1.0);
+        if (muestreo == null || muestreo.isBlank()) {
+            return;
+        }
+        for (String parte : muestreo.split(",")) {
+            String[] claveValor = parte.trim().split("=");
+            if (claveValor.length != 2) {
+                throw new IllegalArgumentException("Muestreo de bitácora inválido: " + parte);
+            }
+            double tasa = Double.parseDouble(claveValor[1].trim());
+            if (tasa < 0 || tasa > 1) {
+                throw new IllegalArgumentException("La tasa de muestreo debe estar entre 0 y 1: " + parte);
+            }
+            tasas[Tipo.valueOf(claveValor[0].trim()).ordinal()] = tasa;
+        }
+    }
+}
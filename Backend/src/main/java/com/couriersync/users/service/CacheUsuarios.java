@@ -0,0 +1,328 @@
+package com.couriersync.users.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.couriersync.cache.BusInvalidacion;
+import com.couriersync.cache.Invalidacion;
+import com.couriersync.users.entity.Usuario;
+import com.couriersync.users.repository.UsuarioRepository;
+
+/**
+ * Caché en proceso de Usuario por cédula y por nombre de usuario, delante de
+ * UsuarioRepository. Las entradas vencen a los usuarios.cache.ttl-ms y el
+ * tamaño está acotado. Los nombres de usuario que no existen se recuerdan
+ * durante usuarios.cache.negativos-ttl-ms para que un ataque de credenciales
+ * con nombres inventados no llegue a la base de datos en cada intento.
+ *
+ * Toda escritura de usuarios pasa por guardar(): la entrada se reemplaza al
+ * confirmarse la transacción y los demás nodos la descartan por
+ * BusInvalidacion. Se guardan copias, así que modificar el Usuario devuelto no
+ * altera la caché hasta que se guarda.
+ */
+@Component
+public class CacheUsuarios {
+
+    // Región del bus de invalidación; las claves son cédulas
+    public static final String REGION_USUARIOS = "usuarios";
+
+    private final UsuarioRepository usuarioRepository;
+    private final BusInvalidacion busInvalidacion;
+    private final int maximo;
+    private final long ttlMs;
+    private final int maximoNegativos;
+    private final long ttlNegativosMs;
+
+    private record Entrada(Usuario usuario, long venceEn) {
+    }
+
+    private final ConcurrentHashMap<String, Entrada> porCedula = new ConcurrentHashMap<>();
+    // Nombre de usuario -> cédula; se comprueba contra la entrada al leer
+    private final ConcurrentHashMap<String, String> porUsuario = new ConcurrentHashMap<>();
+    // Nombres de usuario inexistentes -> instante en que vence el negativo
+    private final ConcurrentHashMap<String, Long> negativos = new ConcurrentHashMap<>();
+
+    // Cambia con cada escritura o invalidación: una lectura de la base que se
+    // cruzó con una de ellas no se guarda, porque podría traer datos anteriores
+    private final AtomicLong generacion = new AtomicLong();
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong aciertosNegativos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong desalojos = new AtomicLong();
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    public CacheUsuarios(UsuarioRepository usuarioRepository, BusInvalidacion busInvalidacion,
+                         @Value("${usuarios.cache.maximo:10000}") int maximo,
+                         @Value("${usuarios.cache.ttl-ms:300000}") long ttlMs,
+                         @Value("${usuarios.cache.negativos-maximo:10000}") int maximoNegativos,
+                         @Value("${usuarios.cache.negativos-ttl-ms:60000}") long ttlNegativosMs) {
+        this.usuarioRepository = usuarioRepository;
+        this.busInvalidacion = busInvalidacion;
+        this.maximo = Math.max(1, maximo);
+        this.ttlMs = ttlMs;
+        this.maximoNegativos = Math.max(1, maximoNegativos);
+        this.ttlNegativosMs = ttlNegativosMs;
+        busInvalidacion.suscribir(REGION_USUARIOS, this::invalidar);
+    }
+
+    public Usuario porCedula(String cedula) {
+        if (cedula == null) {
+            return null;
+        }
+        long ahora = System.currentTimeMillis();
+        Entrada entrada = vigente(cedula, ahora);
+        if (entrada != null) {
+            aciertos.incrementAndGet();
+            return copiar(entrada.usuario());
+        }
+        fallos.incrementAndGet();
+        long leida = generacion.get();
+        Usuario usuario = usuarioRepository.findByCedula(cedula);
+        if (usuario != null) {
+            colocarSiVigente(usuario, leida, ahora);
+        }
+        return usuario;
+    }
+
+    public Usuario porUsuario(String nombreUsuario) {
+        if (nombreUsuario == null) {
+            return null;
+        }
+        long ahora = System.currentTimeMillis();
+        String cedula = porUsuario.get(nombreUsuario);
+        Entrada entrada = cedula == null ? null : vigente(cedula, ahora);
+        if (entrada != null && nombreUsuario.equals(entrada.usuario().getUsuario())) {
+            aciertos.incrementAndGet();
+            return copiar(entrada.usuario());
+        }
+        Long negativoVence = negativos.get(nombreUsuario);
+        if (negativoVence != null) {
+            if (negativoVence > ahora) {
+                aciertosNegativos.incrementAndGet();
+                return null;
+            }
+            negativos.remove(nombreUsuario, negativoVence);
+        }
+        fallos.incrementAndGet();
+        long leida = generacion.get();
+        Usuario usuario = usuarioRepository.findByUsuario(nombreUsuario);
+        if (usuario != null) {
+            colocarSiVigente(usuario, leida, ahora);
+        } else if (generacion.get() == leida) {
+            if (negativos.size() >= maximoNegativos) {
+                podarNegativos(ahora);
+            }
+            negativos.put(nombreUsuario, ahora + ttlNegativosMs);
+        }
+        return usuario;
+    }
+
+    /**
+     * Guarda el usuario y, al confirmarse la transacción, deja su nueva versión
+     * en la caché y avisa a los demás nodos. Si la transacción se revierte, la
+     * caché no cambia.
+     */
+    public Usuario guardar(Usuario usuario) {
+        generacion.incrementAndGet();
+        return guardado(usuarioRepository.save(usuario));
+    }
+
+    /**
+     * Como guardar(), para un usuario que aún no existe: lo inserta con persist,
+     * sin el SELECT que hace save antes de cada INSERT por tener la cédula
+     * asignada. Si la cédula ya existe falla con DataIntegrityViolationException.
+     */
+    public Usuario registrar(Usuario nuevo) {
+        generacion.incrementAndGet();
+        usuarioRepository.insertarTodos(List.of(nuevo));
+        return guardado(nuevo);
+    }
+
+    private Usuario guardado(Usuario guardado) {
+        Usuario copia = copiar(guardado);
+        alConfirmar(() -> {
+            generacion.incrementAndGet();
+            colocar(copia, System.currentTimeMillis());
+        });
+        busInvalidacion.publicar(REGION_USUARIOS, guardado.getCedula());
+        return guardado;
+    }
+
+    /**
+     * Usuarios insertados sin guardar(), como en la importación masiva. No se
+     * cargan en la caché para no desplazar a los que están en uso; solo se
+     * quitan sus nombres de los negativos aquí y en los demás nodos.
+     */
+    public void registrados(Collection<Usuario> usuarios) {
+        if (usuarios.isEmpty()) {
+            return;
+        }
+        generacion.incrementAndGet();
+        List<String> cedulas = new ArrayList<>(usuarios.size());
+        List<String> nombres = new ArrayList<>(usuarios.size());
+        for (Usuario usuario : usuarios) {
+            cedulas.add(usuario.getCedula());
+            nombres.add(usuario.getUsuario());
+        }
+        alConfirmar(() -> {
+            generacion.incrementAndGet();
+            nombres.forEach(negativos::remove);
+        });
+        busInvalidacion.publicar(REGION_USUARIOS, cedulas);
+    }
+
+    public Map<String, Object> estadisticas() {
+        long a = aciertos.get();
+        long n = aciertosNegativos.get();
+        long f = fallos.get();
+        long total = a + n + f;
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("entradas", porCedula.size());
+        datos.put("negativos", negativos.size());
+        datos.put("aciertos", a);
+        datos.put("aciertosNegativos", n);
+        datos.put("fallos", f);
+        datos.put("tasaAciertos", total == 0 ? 0.0 : (double) (a + n) / total);
+        datos.put("desalojos", desalojos.get());
+        datos.put("invalidaciones", invalidaciones.get());
+        return datos;
+    }
+
+    // Quita entradas y negativos vencidos aunque nadie los vuelva a pedir
+    @Scheduled(fixedDelayString = "${usuarios.cache.ttl-ms:300000}")
+    public void podar() {
+        long ahora = System.currentTimeMillis();
+        porCedula.forEach((cedula, entrada) -> {
+            if (entrada.venceEn() <= ahora) {
+                quitar(cedula, entrada);
+            }
+        });
+        negativos.values().removeIf(vence -> vence <= ahora);
+    }
+
+    // Aviso de otro nodo: un usuario nuevo pudo tomar un nombre marcado como inexistente
+    private void invalidar(Invalidacion invalidacion) {
+        generacion.incrementAndGet();
+        invalidaciones.incrementAndGet();
+        if (invalidacion.todas()) {
+            porCedula.clear();
+            porUsuario.clear();
+        } else {
+            for (String cedula : invalidacion.claves()) {
+                Entrada entrada = porCedula.get(cedula);
+                if (entrada != null) {
+                    quitar(cedula, entrada);
+                }
+            }
+        }
+        negativos.clear();
+    }
+
+    private Entrada vigente(String cedula, long ahora) {
+        Entrada entrada = porCedula.get(cedula);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.venceEn() <= ahora) {
+            quitar(cedula, entrada);
+            return null;
+        }
+        return entrada;
+    }
+
+    private void colocarSiVigente(Usuario usuario, long leida, long ahora) {
+        // Sin candado: una escritura concurrente vuelve a colocar su versión al confirmar
+        if (generacion.get() == leida) {
+            colocar(copiar(usuario), ahora);
+        }
+    }
+
+    private void colocar(Usuario copia, long ahora) {
+        if (porCedula.size() >= maximo) {
+            podarEntradas(ahora);
+        }
+        Entrada anterior = porCedula.put(copia.getCedula(), new Entrada(copia, ahora + ttlMs));
+        if (anterior != null && !anterior.usuario().getUsuario().equals(copia.getUsuario())) {
+            porUsuario.remove(anterior.usuario().getUsuario(), copia.getCedula());
+        }
+        porUsuario.put(copia.getUsuario(), copia.getCedula());
+        negativos.remove(copia.getUsuario());
+    }
+
+    private void quitar(String cedula, Entrada entrada) {
+        if (porCedula.remove(cedula, entrada)) {
+            porUsuario.remove(entrada.usuario().getUsuario(), cedula);
+        }
+    }
+
+    // Quita los vencidos y, si no alcanza, descarta entradas hasta dejar un cuarto libre
+    private synchronized void podarEntradas(long ahora) {
+        if (porCedula.size() < maximo) {
+            return;
+        }
+        Iterator<Map.Entry<String, Entrada>> it = porCedula.entrySet().iterator();
+        int objetivo = maximo * 3 / 4;
+        while (it.hasNext()) {
+            Map.Entry<String, Entrada> e = it.next();
+            if (e.getValue().venceEn() <= ahora || porCedula.size() > objetivo) {
+                it.remove();
+                porUsuario.remove(e.getValue().usuario().getUsuario(), e.getKey());
+                desalojos.incrementAndGet();
+            }
+        }
+    }
+
+    private synchronized void podarNegativos(long ahora) {
+        if (negativos.size() < maximoNegativos) {
+            return;
+        }
+        negativos.values().removeIf(vence -> vence <= ahora);
+        Iterator<String> it = negativos.keySet().iterator();
+        int objetivo = maximoNegativos * 3 / 4;
+        while (negativos.size() > objetivo && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    static Usuario copiar(Usuario origen) {
+        Usuario copia = new Usuario();
+        copia.setCedula(origen.getCedula());
+        copia.setUsuario(origen.getUsuario());
+        copia.setNombre(origen.getNombre());
+        copia.setApellido(origen.getApellido());
+        copia.setEmail(origen.getEmail());
+        copia.setCelular(origen.getCelular());
+        copia.setContraseña(origen.getContraseña());
+        copia.setRol(origen.getRol());
+        copia.setMfaEnabled(origen.isMfaEnabled());
+        copia.setMfaSecret(origen.getMfaSecret());
+        return copia;
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
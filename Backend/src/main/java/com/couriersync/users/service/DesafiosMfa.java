@@ -0,0 +1,154 @@
+package com.couriersync.users.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.couriersync.users.entity.Usuario;
+
+/**
+ * Desafíos MFA emitidos por /login para usuarios con MFA activo. El desafío
+ * guarda lo necesario para emitir el JWT tras verificar el código TOTP, así que
+ * /api/mfa/verify no vuelve a consultar la base de datos. El identificador que
+ * recibe el cliente va firmado con HMAC y con su expiración, de modo que uno
+ * alterado o vencido se descarta sin buscarlo. Los desafíos viven solo en la
+ * memoria de la instancia que los emitió.
+ */
+@Component
+public class DesafiosMfa {
+
+    public static final int MAXIMO_INTENTOS = 5;
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    public record Desafio(String cedula, String usuario, int rol, String mfaSecret, long expiraEnMs) {
+    }
+
+    private record Pendiente(Desafio desafio, int intentos) {
+    }
+
+    private final ConcurrentHashMap<String, Pendiente> pendientes = new ConcurrentHashMap<>();
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final SecretKeySpec clave;
+    private final long vigenciaMs;
+    private final int maximo;
+
+    public DesafiosMfa(@Value("${seguridad.mfa.desafio-ms:300000}") long vigenciaMs,
+                       @Value("${seguridad.mfa.desafios-maximo:10000}") int maximo) {
+        this.vigenciaMs = vigenciaMs;
+        this.maximo = maximo;
+        byte[] bytes = new byte[32];
+        aleatorio.nextBytes(bytes);
+        this.clave = new SecretKeySpec(bytes, "HmacSHA256");
+    }
+
+    /** Emite un desafío para el usuario ya autenticado con contraseña. */
+    public String emitir(Usuario usuario) {
+        long ahora = System.currentTimeMillis();
+        if (pendientes.size() >= maximo) {
+            podar();
+            if (pendientes.size() >= maximo) {
+                throw new ServicioSaturadoException("Demasiados desafíos MFA pendientes.", 1 + vigenciaMs / 10_000);
+            }
+        }
+        byte[] bytesId = new byte[16];
+        aleatorio.nextBytes(bytesId);
+        String id = BASE64.encodeToString(bytesId);
+        long expiraEn = ahora + vigenciaMs;
+        pendientes.put(id, new Pendiente(new Desafio(usuario.getCedula(), usuario.getUsuario(), usuario.getRol(),
+                usuario.getMfaSecret(), expiraEn), 0));
+        String cuerpo = id + "." + Long.toString(expiraEn, 36);
+        return cuerpo + "." + firmar(cuerpo);
+    }
+
+    /** Desafío vigente con ese identificador, o null si es inválido, vencido o ya se usó. */
+    public Desafio buscar(String handle) {
+        String id = validar(handle);
+        if (id == null) {
+            return null;
+        }
+        Pendiente pendiente = pendientes.get(id);
+        if (pendiente == null) {
+            return null;
+        }
+        if (pendiente.desafio().expiraEnMs() <= System.currentTimeMillis()) {
+            pendientes.remove(id, pendiente);
+            return null;
+        }
+        return pendiente.desafio();
+    }
+
+    /**
+     * El código fue correcto: consume el desafío. Devuelve false si otra
+     * solicitud ya lo consumió, para emitir un solo token por desafío.
+     */
+    public boolean completar(String handle) {
+        String id = validar(handle);
+        return id != null && pendientes.remove(id) != null;
+    }
+
+    /** Código incorrecto; al llegar a MAXIMO_INTENTOS el desafío se descarta. */
+    public void registrarFallo(String handle) {
+        String id = validar(handle);
+        if (id != null) {
+            pendientes.computeIfPresent(id, (k, p) ->
+                    p.intentos() + 1 >= MAXIMO_INTENTOS ? null : new Pendiente(p.desafio(), p.intentos() + 1));
+        }
+    }
+
+    public int pendientes() {
+        return pendientes.size();
+    }
+
+    @Scheduled(fixedDelayString = "${seguridad.mfa.desafio-ms:300000}")
+    public void podar() {
+        long ahora = System.currentTimeMillis();
+        pendientes.values().removeIf(p -> p.desafio().expiraEnMs() <= ahora);
+    }
+
+    // Devuelve el id si la firma es válida y no venció; null en otro caso
+    private String validar(String handle) {
+        if (handle == null) {
+            return null;
+        }
+        int punto = handle.lastIndexOf('.');
+        int primero = handle.indexOf('.');
+        if (primero <= 0 || punto <= primero) {
+            return null;
+        }
+        String cuerpo = handle.substring(0, punto);
+        byte[] esperada = firmar(cuerpo).getBytes(StandardCharsets.US_ASCII);
+        byte[] recibida = handle.substring(punto + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(esperada, recibida)) {
+            return null;
+        }
+        try {
+            if (Long.parseLong(cuerpo.substring(primero + 1), 36) <= System.currentTimeMillis()) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return cuerpo.substring(0, primero);
+    }
+
+    private String firmar(String cuerpo) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(clave);
+            return BASE64.encodeToString(mac.doFinal(cuerpo.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.couriersync.users.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre cadenas con ~1% de falsos positivos a la capacidad
+ * indicada. Agregar es seguro entre hilos; no admite borrar, así que para
+ * quitar elementos se construye uno nuevo.
+ */
+final class FiltroBloom {
+
+    // 7 funciones y 9.6 bits por elemento dan ~1% de falsos positivos
+    private static final int FUNCIONES = 7;
+    private static final double BITS_POR_ELEMENTO = 9.6;
+
+    private final AtomicLongArray palabras;
+    private final long bits;
+
+    FiltroBloom(int capacidad) {
+        long deseados = (long) Math.ceil(Math.max(1, capacidad) * BITS_POR_ELEMENTO);
+        int cantidadPalabras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (deseados + 63) / 64));
+        this.palabras = new AtomicLongArray(cantidadPalabras);
+        this.bits = cantidadPalabras * 64L;
+    }
+
+    void agregar(String clave) {
+        long h = fnv(clave);
+        long h1 = mezclar(h);
+        long h2 = mezclar(h ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < FUNCIONES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            long mascara = 1L << bit;
+            palabras.getAndAccumulate((int) (bit >>> 6), mascara, (a, b) -> a | b);
+        }
+    }
+
+    boolean podriaContener(String clave) {
+        long h = fnv(clave);
+        long h1 = mezclar(h);
+        long h2 = mezclar(h ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < FUNCIONES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((palabras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres, sin copiar la cadena
+    private static long fnv(String clave) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < clave.length(); i++) {
+            h ^= clave.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+
+    // Finalizador de SplitMix64
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,132 @@
+package com.couriersync.users.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cifrado y verificación BCrypt en un pool propio de tamaño fijo con cola
+ * acotada, fuera de los hilos de Tomcat. Una ráfaga de logins ocupa a lo sumo
+ * esos hilos de CPU; si la cola se llena, la solicitud se rechaza de inmediato
+ * con ServicioSaturadoException en lugar de esperar.
+ */
+@Service
+public class HashContrasenas {
+
+    // El encoder no guarda estado entre llamadas y es seguro entre hilos
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    private final ThreadPoolExecutor pool;
+    private final int hilos;
+    private final long esperaMaximaMs;
+
+    private final AtomicLong completadas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final AtomicLong nanosTotales = new AtomicLong();
+    private final AtomicLong nanosMaximos = new AtomicLong();
+
+    public HashContrasenas(@Value("${seguridad.bcrypt.hilos:0}") int hilos,
+                           @Value("${seguridad.bcrypt.cola:64}") int capacidadCola,
+                           @Value("${seguridad.bcrypt.espera-ms:5000}") long esperaMaximaMs) {
+        this.hilos = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.esperaMaximaMs = esperaMaximaMs;
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(this.hilos, this.hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, capacidadCola)), tarea -> {
+                    Thread hilo = new Thread(tarea, "bcrypt-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdownNow();
+    }
+
+    public String cifrar(String contrasena) {
+        return ejecutar(() -> encoder.encode(contrasena));
+    }
+
+    // En el hilo que llama, sin pasar por el pool; para procesos por lotes que ya tienen sus hilos
+    public String cifrarEnHiloActual(String contrasena) {
+        return encoder.encode(contrasena);
+    }
+
+    public boolean verificar(String contrasena, String hash) {
+        return ejecutar(() -> encoder.matches(contrasena, hash));
+    }
+
+    public Map<String, Object> estadisticas() {
+        long hechas = completadas.get();
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("hilos", hilos);
+        datos.put("activos", pool.getActiveCount());
+        datos.put("enCola", pool.getQueue().size());
+        datos.put("capacidadLibreCola", pool.getQueue().remainingCapacity());
+        datos.put("completadas", hechas);
+        datos.put("rechazadas", rechazadas.get());
+        datos.put("promedioMs", hechas == 0 ? 0.0 : nanosTotales.get() / 1e6 / hechas);
+        datos.put("maximoMs", nanosMaximos.get() / 1e6);
+        return datos;
+    }
+
+    private <T> T ejecutar(Callable<T> operacion) {
+        Future<T> futuro;
+        try {
+            futuro = pool.submit(() -> {
+                long inicio = System.nanoTime();
+                try {
+                    return operacion.call();
+                } finally {
+                    long nanos = System.nanoTime() - inicio;
+                    completadas.incrementAndGet();
+                    nanosTotales.addAndGet(nanos);
+                    nanosMaximos.accumulateAndGet(nanos, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rechazadas.incrementAndGet();
+            throw new ServicioSaturadoException("Demasiadas solicitudes de autenticación en curso.", reintentarEn());
+        }
+
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazadas.incrementAndGet();
+            throw new ServicioSaturadoException("La autenticación tardó demasiado.", reintentarEn());
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el cifrado de la contraseña.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Tiempo estimado para vaciar la cola actual con el promedio observado
+    private long reintentarEn() {
+        long hechas = completadas.get();
+        double promedioMs = hechas == 0 ? 100.0 : nanosTotales.get() / 1e6 / hechas;
+        double ms = (pool.getQueue().size() + pool.getActiveCount()) * promedioMs / hilos;
+        return Math.max(1, (long) Math.ceil(ms / 1000.0));
+    }
+}
@@ -0,0 +1,414 @@
+package com.couriersync.users.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.couriersync.users.dto.ErrorImportacionDTO;
+import com.couriersync.users.dto.ResultadoImportacionDTO;
+import com.couriersync.users.dto.UsuarioRegistroDTO;
+import com.couriersync.users.entity.Usuario;
+import com.couriersync.users.repository.UsuarioRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Alta masiva de usuarios desde un CSV con encabezado o desde NDJSON (un
+ * UsuarioRegistroDTO por línea), leído del cuerpo de la solicitud sin cargarlo
+ * entero en memoria. Las filas se procesan en lotes: las reglas de /register se
+ * validan por fila, la unicidad contra tbl_usuarios se comprueba con una sola
+ * consulta por lote, las contraseñas se cifran en paralelo en un pool propio y
+ * los usuarios se insertan en batch JDBC. Cada lote se confirma por separado;
+ * si el batch choca con un alta concurrente se reintenta por mitades, así que
+ * solo se rechazan las filas en conflicto. Las filas rechazadas se informan
+ * con su línea y no detienen la importación.
+ */
+@Service
+public class ImportacionUsuarios {
+
+    public enum Formato { CSV, NDJSON }
+
+    private static final List<String> COLUMNAS_OBLIGATORIAS =
+            List.of("usuario", "cedula", "nombre", "apellido", "email", "celular", "contraseña", "rol");
+
+    private final UsuarioRepository usuarioRepository;
+    private final HashContrasenas hashContrasenas;
+    private final CacheUsuarios cacheUsuarios;
+    private final BitacoraSeguridad bitacora;
+    private final ObjectMapper objectMapper;
+    private final int tamanoLote;
+    private final int maximoFilas;
+    private final ExecutorService pool;
+
+    private record Fila(int linea, UsuarioRegistroDTO datos) {
+    }
+
+    // Valores únicos ya vistos en el archivo, para detectar repetidos entre lotes
+    private static final class Vistos {
+        final Set<String> cedulas = new HashSet<>();
+        final Set<String> usuarios = new HashSet<>();
+        final Set<String> emails = new HashSet<>();
+        final Set<String> celulares = new HashSet<>();
+        final Set<String> nombres = new HashSet<>();
+    }
+
+    public ImportacionUsuarios(UsuarioRepository usuarioRepository, HashContrasenas hashContrasenas,
+                               CacheUsuarios cacheUsuarios, BitacoraSeguridad bitacora, ObjectMapper objectMapper,
+                               @Value("${usuarios.importacion.lote:500}") int tamanoLote,
+                               @Value("${usuarios.importacion.maximo-filas:50000}") int maximoFilas,
+                               @Value("${usuarios.importacion.hilos:0}") int hilos) {
+        this.usuarioRepository = usuarioRepository;
+        this.hashContrasenas = hashContrasenas;
+        this.cacheUsuarios = cacheUsuarios;
+        this.bitacora = bitacora;
+        this.objectMapper = objectMapper;
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.maximoFilas = maximoFilas;
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors(),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "importacion-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdownNow();
+    }
+
+    public ResultadoImportacionDTO importar(InputStream entrada, Formato formato) throws IOException {
+        long inicio = System.currentTimeMillis();
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+        Vistos vistos = new Vistos();
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+
+        Map<String, Integer> columnas = null;
+        int numeroLinea = 0;
+        if (formato == Formato.CSV) {
+            String encabezado = siguienteNoVacia(lector);
+            if (encabezado == null) {
+                throw new IllegalArgumentException("El archivo está vacío.");
+            }
+            numeroLinea = 1;
+            columnas = columnas(encabezado);
+        }
+
+        List<Fila> lote = new ArrayList<>(tamanoLote);
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            if (resultado.getFilas() == maximoFilas) {
+                resultado.getErrores().add(new ErrorImportacionDTO(numeroLinea, null, HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                        "Error: El archivo supera el máximo de " + maximoFilas + " filas; no se procesó el resto."));
+                break;
+            }
+            resultado.setFilas(resultado.getFilas() + 1);
+            try {
+                UsuarioRegistroDTO datos = formato == Formato.CSV
+                        ? desdeCsv(linea, columnas)
+                        : objectMapper.readValue(linea, UsuarioRegistroDTO.class);
+                lote.add(new Fila(numeroLinea, datos));
+            } catch (IllegalArgumentException | JsonProcessingException e) {
+                resultado.getErrores().add(new ErrorImportacionDTO(numeroLinea, null, HttpStatus.BAD_REQUEST.value(),
+                        "Error: Fila con formato inválido."));
+            }
+            if (lote.size() == tamanoLote) {
+                procesarLote(lote, vistos, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesarLote(lote, vistos, resultado);
+        }
+
+        resultado.getErrores().sort(Comparator.comparingInt(ErrorImportacionDTO::getFila));
+        resultado.setMilisegundos(System.currentTimeMillis() - inicio);
+        bitacora.registrar(BitacoraSeguridad.Tipo.USUARIOS_IMPORTADOS, "filas", resultado.getFilas(),
+                "creados", resultado.getCreados(), "errores", resultado.getErrores().size());
+        return resultado;
+    }
+
+    private void procesarLote(List<Fila> lote, Vistos vistos, ResultadoImportacionDTO resultado) {
+        List<Fila> validas = new ArrayList<>(lote.size());
+        for (Fila fila : lote) {
+            String error = validar(fila.datos());
+            if (error == null) {
+                error = repetidaEnArchivo(fila.datos(), vistos);
+                if (error != null) {
+                    rechazar(resultado, fila, HttpStatus.CONFLICT, error);
+                    continue;
+                }
+                validas.add(fila);
+            } else {
+                rechazar(resultado, fila, HttpStatus.BAD_REQUEST, error);
+            }
+        }
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        validas = sinConflictos(validas, resultado);
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        List<Usuario> insertados = insertar(validas, usuarios(validas), resultado);
+        cacheUsuarios.registrados(insertados);
+        resultado.setCreados(resultado.getCreados() + insertados.size());
+    }
+
+    // Si otro registro tomó alguno de los valores después de la consulta falla el batch
+    // entero: se reintenta por mitades hasta aislar las filas en conflicto
+    private List<Usuario> insertar(List<Fila> filas, List<Usuario> usuarios, ResultadoImportacionDTO resultado) {
+        try {
+            usuarioRepository.insertarTodos(usuarios);
+            return usuarios;
+        } catch (DataIntegrityViolationException e) {
+            if (filas.size() == 1) {
+                // Se vuelve a consultar para informar qué valor ya está tomado
+                if (!sinConflictos(filas, resultado).isEmpty()) {
+                    rechazar(resultado, filas.get(0), HttpStatus.CONFLICT, "datos duplicados o inválidos");
+                }
+                return List.of();
+            }
+            int mitad = filas.size() / 2;
+            List<Usuario> insertados = new ArrayList<>(usuarios.size());
+            insertados.addAll(insertar(filas.subList(0, mitad), usuarios.subList(0, mitad), resultado));
+            insertados.addAll(insertar(filas.subList(mitad, filas.size()), usuarios.subList(mitad, usuarios.size()),
+                    resultado));
+            return insertados;
+        }
+    }
+
+    // Una consulta por lote contra tbl_usuarios para los cinco valores únicos
+    private List<Fila> sinConflictos(List<Fila> validas, ResultadoImportacionDTO resultado) {
+        Vistos lote = new Vistos();
+        for (Fila fila : validas) {
+            agregar(lote, fila.datos());
+        }
+        Vistos existentes = new Vistos();
+        for (Usuario usuario : usuarioRepository.buscarConflictos(lote.cedulas, lote.usuarios, lote.emails,
+                lote.celulares, lote.nombres)) {
+            existentes.cedulas.add(usuario.getCedula());
+            existentes.usuarios.add(usuario.getUsuario());
+            existentes.emails.add(usuario.getEmail());
+            existentes.celulares.add(usuario.getCelular());
+            existentes.nombres.add(usuario.getNombre());
+        }
+
+        List<Fila> libres = new ArrayList<>(validas.size());
+        for (Fila fila : validas) {
+            UsuarioRegistroDTO datos = fila.datos();
+            String error = existentes.cedulas.contains(datos.getCedula()) ? "La cédula ya está registrada."
+                    : existentes.usuarios.contains(datos.getUsuario()) ? "El nombre de usuario ya está en uso."
+                    : existentes.emails.contains(datos.getEmail()) ? "El email ya está registrado."
+                    : existentes.celulares.contains(datos.getCelular()) ? "El celular ya está registrado."
+                    : existentes.nombres.contains(datos.getNombre()) ? "El nombre ya está registrado."
+                    : null;
+            if (error != null) {
+                rechazar(resultado, fila, HttpStatus.CONFLICT, error);
+            } else {
+                libres.add(fila);
+            }
+        }
+        return libres;
+    }
+
+    // BCrypt en paralelo: es lo que más tarda de cada fila
+    private List<Usuario> usuarios(List<Fila> filas) {
+        List<Callable<String>> tareas = new ArrayList<>(filas.size());
+        for (Fila fila : filas) {
+            String contrasena = fila.datos().getContraseña();
+            tareas.add(() -> hashContrasenas.cifrarEnHiloActual(contrasena));
+        }
+        List<Future<String>> hashes;
+        try {
+            hashes = pool.invokeAll(tareas);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido cifrando las contraseñas.", e);
+        }
+
+        List<Usuario> usuarios = new ArrayList<>(filas.size());
+        for (int i = 0; i < filas.size(); i++) {
+            UsuarioRegistroDTO datos = filas.get(i).datos();
+            Usuario usuario = new Usuario();
+            usuario.setUsuario(datos.getUsuario());
+            usuario.setCedula(datos.getCedula());
+            usuario.setNombre(datos.getNombre());
+            usuario.setApellido(datos.getApellido());
+            usuario.setEmail(datos.getEmail());
+            usuario.setCelular(datos.getCelular());
+            try {
+                usuario.setContraseña(hashes.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido cifrando las contraseñas.", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            usuario.setRol(datos.getRol());
+            usuarios.add(usuario);
+        }
+        return usuarios;
+    }
+
+    // Las mismas reglas que SignUpService.registrarUsuario; la confirmación es opcional
+    private static String validar(UsuarioRegistroDTO datos) {
+        if (vacio(datos.getUsuario()) || vacio(datos.getCedula()) || vacio(datos.getNombre())
+                || vacio(datos.getApellido()) || vacio(datos.getEmail()) || vacio(datos.getCelular())
+                || vacio(datos.getContraseña())) {
+            return "Faltan campos obligatorios.";
+        }
+        if (datos.getRol() < 1 || datos.getRol() > 3) {
+            return "Rol inválido.";
+        }
+        if (datos.getConfirmarContraseña() != null && !datos.getContraseña().equals(datos.getConfirmarContraseña())) {
+            return "Las contraseñas no coinciden.";
+        }
+        if (!SignUpService.validarPassword(datos.getContraseña())) {
+            return "La contraseña no cumple con los requisitos de seguridad.";
+        }
+        return null;
+    }
+
+    private static String repetidaEnArchivo(UsuarioRegistroDTO datos, Vistos vistos) {
+        String error = vistos.cedulas.contains(datos.getCedula()) ? "La cédula está repetida en el archivo."
+                : vistos.usuarios.contains(datos.getUsuario()) ? "El nombre de usuario está repetido en el archivo."
+                : vistos.emails.contains(datos.getEmail()) ? "El email está repetido en el archivo."
+                : vistos.celulares.contains(datos.getCelular()) ? "El celular está repetido en el archivo."
+                : vistos.nombres.contains(datos.getNombre()) ? "El nombre está repetido en el archivo."
+                : null;
+        if (error == null) {
+            agregar(vistos, datos);
+        }
+        return error;
+    }
+
+    private static void agregar(Vistos vistos, UsuarioRegistroDTO datos) {
+        vistos.cedulas.add(datos.getCedula());
+        vistos.usuarios.add(datos.getUsuario());
+        vistos.emails.add(datos.getEmail());
+        vistos.celulares.add(datos.getCelular());
+        vistos.nombres.add(datos.getNombre());
+    }
+
+    private static void rechazar(ResultadoImportacionDTO resultado, Fila fila, HttpStatus estado, String mensaje) {
+        resultado.getErrores().add(new ErrorImportacionDTO(fila.linea(), fila.datos().getCedula(), estado.value(),
+                "Error: " + mensaje));
+    }
+
+    private static boolean vacio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+
+    private static String siguienteNoVacia(BufferedReader lector) throws IOException {
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            if (!linea.isBlank()) {
+                return linea;
+            }
+        }
+        return null;
+    }
+
+    // Nombre de columna -> posición, sin BOM inicial; admite "contrasena" sin eñe y la columna opcional de confirmación
+    static Map<String, Integer> columnas(String encabezado) {
+        if (!encabezado.isEmpty() && encabezado.charAt(0) == '\uFEFF') {
+            encabezado = encabezado.substring(1);
+        }
+        List<String> nombres = camposCsv(encabezado);
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < nombres.size(); i++) {
+            String nombre = nombres.get(i).trim().toLowerCase(Locale.ROOT).replace("contrasena", "contraseña");
+            columnas.put(nombre, i);
+        }
+        for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+            if (!columnas.containsKey(obligatoria)) {
+                throw new IllegalArgumentException("Falta la columna " + obligatoria + " en el encabezado.");
+            }
+        }
+        return columnas;
+    }
+
+    private static UsuarioRegistroDTO desdeCsv(String linea, Map<String, Integer> columnas) {
+        List<String> campos = camposCsv(linea);
+        UsuarioRegistroDTO datos = new UsuarioRegistroDTO();
+        datos.setUsuario(campo(campos, columnas, "usuario"));
+        datos.setCedula(campo(campos, columnas, "cedula"));
+        datos.setNombre(campo(campos, columnas, "nombre"));
+        datos.setApellido(campo(campos, columnas, "apellido"));
+        datos.setEmail(campo(campos, columnas, "email"));
+        datos.setCelular(campo(campos, columnas, "celular"));
+        datos.setContraseña(campo(campos, columnas, "contraseña"));
+        datos.setConfirmarContraseña(campo(campos, columnas, "confirmarcontraseña"));
+        String rol = campo(campos, columnas, "rol");
+        datos.setRol(vacio(rol) ? 0 : Integer.parseInt(rol.trim()));
+        return datos;
+    }
+
+    private static String campo(List<String> campos, Map<String, Integer> columnas, String nombre) {
+        Integer posicion = columnas.get(nombre);
+        return posicion == null || posicion >= campos.size() ? null : campos.get(posicion);
+    }
+
+    // Campos separados por comas; entre comillas dobles admite comas y "" como comilla. Sin saltos de línea en los campos
+    static List<String> camposCsv(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c != '"') {
+                    actual.append(c);
+                } else if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = false;
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar.");
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+}
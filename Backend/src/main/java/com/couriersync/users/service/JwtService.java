@@ -1,6 +1,7 @@
 package com.couriersync.users.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -8,23 +9,108 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    // Atributo de la solicitud donde JwtAuthenticationFilter deja el token ya verificado
+    public static final String ATRIBUTO_TOKEN = "com.couriersync.users.TOKEN_VERIFICADO";
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private int jwtExpiration;
 
+    @Value("${jwt.cache.maximo:10000}")
+    private int maximoCache;
+
+    // La clave y el parser son inmutables y seguros entre hilos: se construyen una vez
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Tokens ya verificados, por resumen SHA-256, hasta su expiración
+    private final ConcurrentHashMap<String, TokenVerificado> verificados = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void inicializar() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+        return signingKey;
+    }
+
+    /**
+     * Verifica firma y expiración del token y devuelve sus datos. Un token ya
+     * verificado y aún vigente se resuelve con una búsqueda en memoria; si no es
+     * válido se lanza la misma JwtException que al analizarlo.
+     */
+    public TokenVerificado verificar(String token) {
+        String resumen = resumen(token);
+        TokenVerificado cacheado = verificados.get(resumen);
+        long ahora = System.currentTimeMillis();
+        if (cacheado != null) {
+            if (cacheado.vigente(ahora)) {
+                return cacheado;
+            }
+            verificados.remove(resumen, cacheado);
+        }
+
+        Claims claims = extractAllClaims(token);
+        Date expiracion = claims.getExpiration();
+        TokenVerificado verificado = new TokenVerificado(resumen, claims.getSubject(),
+                claims.get("username", String.class), claims.get("rol", Integer.class),
+                expiracion != null ? expiracion.getTime() : ahora);
+        // Sin expiración no se guarda: cada uso vuelve a verificar la firma
+        if (expiracion != null) {
+            if (verificados.size() >= maximoCache) {
+                podar(ahora);
+            }
+            verificados.put(resumen, verificado);
+        }
+        return verificado;
+    }
+
+    // Quita los vencidos y, si no alcanza, descarta entradas hasta dejar un cuarto libre
+    private synchronized void podar(long ahora) {
+        if (verificados.size() < maximoCache) {
+            return;
+        }
+        verificados.values().removeIf(t -> !t.vigente(ahora));
+        Iterator<String> it = verificados.keySet().iterator();
+        int objetivo = maximoCache * 3 / 4;
+        while (verificados.size() > objetivo && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static String resumen(String token) {
+        MessageDigest sha = SHA256.get();
+        return Base64.getEncoder().encodeToString(sha.digest(token.getBytes(StandardCharsets.US_ASCII)));
     }
 
     public String generateToken(String cedula, String username, int rol) {
@@ -46,16 +132,16 @@ public class JwtService {
     }
 
     public Boolean validateToken(String token, String cedula) {
-        final String username = extractCedula(token);
-        return (username.equals(cedula) && !isTokenExpired(token));
+        TokenVerificado verificado = verificar(token);
+        return verificado.cedula().equals(cedula) && verificado.vigente(System.currentTimeMillis());
     }
 
     public String extractCedula(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verificar(token).cedula();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return new Date(verificar(token).expiraEnMs());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -64,22 +150,14 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, claims -> claims.get("username", String.class));
+        return verificar(token).username();
     }
 
     public Integer extractRol(String token) {
-        return extractClaim(token, claims -> claims.get("rol", Integer.class));
+        return verificar(token).rol();
     }
 }
@@ -0,0 +1,129 @@
+package com.couriersync.users.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.couriersync.users.entity.TokenRevocado;
+import com.couriersync.users.repository.TokenRevocadoRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Tokens revocados con /logout. JwtAuthenticationFilter consulta cada solicitud
+ * sin ir a la base de datos: un filtro de Bloom descarta casi todos los tokens
+ * y solo los positivos se confirman en el mapa de revocados, que guarda la
+ * expiración de cada token para podarlo cuando ya no sirve. Las revocaciones se
+ * persisten en tbl_tokens_revocados y se recargan al iniciar y periódicamente,
+ * así que una revocación hecha en otra instancia se aplica en la siguiente sincronización.
+ */
+@Service
+public class RevocacionTokens {
+
+    @Autowired
+    private TokenRevocadoRepository tokenRevocadoRepository;
+
+    @Value("${jwt.revocacion.capacidad:100000}")
+    private int capacidad;
+
+    // resumen del token -> expiración en ms
+    private final ConcurrentHashMap<String, Long> revocados = new ConcurrentHashMap<>();
+    // Revocados aquí que no se pudieron guardar; se reintentan al sincronizar
+    private final ConcurrentHashMap<String, Long> pendientes = new ConcurrentHashMap<>();
+    private volatile FiltroBloom filtro;
+
+    @PostConstruct
+    public void cargar() {
+        filtro = new FiltroBloom(capacidad);
+        sincronizar();
+    }
+
+    public boolean estaRevocado(String resumen) {
+        return filtro.podriaContener(resumen) && revocados.containsKey(resumen);
+    }
+
+    /**
+     * Revoca el token primero en esta instancia y después lo persiste para las
+     * demás. Si la base de datos falla, la DataAccessException llega al
+     * llamador con el token ya rechazado aquí, y la próxima sincronización
+     * vuelve a intentar guardarlo.
+     */
+    public void revocar(TokenVerificado token) {
+        long ahora = System.currentTimeMillis();
+        if (!token.vigente(ahora)) {
+            return;
+        }
+        synchronized (this) {
+            if (revocados.put(token.resumen(), token.expiraEnMs()) != null) {
+                return;
+            }
+            filtro.agregar(token.resumen());
+        }
+        try {
+            persistir(token.resumen(), token.expiraEnMs());
+        } catch (DataAccessException e) {
+            pendientes.put(token.resumen(), token.expiraEnMs());
+            throw e;
+        }
+    }
+
+    private void persistir(String resumen, long expiraEnMs) {
+        try {
+            tokenRevocadoRepository.save(new TokenRevocado(resumen, Instant.ofEpochMilli(expiraEnMs)));
+        } catch (DataIntegrityViolationException e) {
+            // Otra solicitud u otra instancia ya lo revocó
+        }
+    }
+
+    public int cantidad() {
+        return revocados.size();
+    }
+
+    /**
+     * Guarda las revocaciones que quedaron pendientes, incorpora las de otras
+     * instancias, quita las vencidas y
+     * reconstruye el filtro de Bloom, que no admite borrados.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocacion.sincronizacion-ms:30000}",
+               initialDelayString = "${jwt.revocacion.sincronizacion-ms:30000}")
+    public void sincronizar() {
+        long ahora = System.currentTimeMillis();
+        guardarPendientes(ahora);
+        List<TokenRevocado> vigentes = tokenRevocadoRepository.findByExpiraEnAfter(Instant.ofEpochMilli(ahora));
+        synchronized (this) {
+            revocados.values().removeIf(expiraEn -> expiraEn <= ahora);
+            for (TokenRevocado token : vigentes) {
+                revocados.putIfAbsent(token.getResumen(), token.getExpiraEn().toEpochMilli());
+            }
+            FiltroBloom nuevo = new FiltroBloom(Math.max(capacidad, revocados.size() * 2));
+            revocados.keySet().forEach(nuevo::agregar);
+            filtro = nuevo;
+        }
+        try {
+            tokenRevocadoRepository.eliminarVencidos(Instant.ofEpochMilli(ahora));
+        } catch (DataAccessException e) {
+            System.err.println("No se pudieron eliminar los tokens revocados vencidos: " + e.getMessage());
+        }
+    }
+
+    private void guardarPendientes(long ahora) {
+        for (var pendiente : pendientes.entrySet()) {
+            if (pendiente.getValue() > ahora) {
+                try {
+                    persistir(pendiente.getKey(), pendiente.getValue());
+                } catch (DataAccessException e) {
+                    System.err.println("No se pudieron guardar los tokens revocados pendientes: " + e.getMessage());
+                    return;
+                }
+            }
+            pendientes.remove(pendiente.getKey(), pendiente.getValue());
+        }
+    }
+}
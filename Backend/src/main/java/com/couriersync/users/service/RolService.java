@@ -1,47 +1,83 @@
 package com.couriersync.users.service;
 
+import com.couriersync.cache.BusInvalidacion;
 import com.couriersync.users.entity.Rol;
 import com.couriersync.users.repository.RolRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.annotation.PostConstruct;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
 
+/**
+ * Roles por ID para JwtAuthenticationFilter. Se guardan en una instantánea
+ * inmutable (arreglo indexado por ID con la lista de autoridades ya construida)
+ * que se reemplaza de forma atómica: las lecturas no toman candados ni crean
+ * objetos y un refresco nunca deja ver la caché vacía. Se refresca al cambiar
+ * un Rol desde la aplicación, cuando otro nodo avisa por BusInvalidacion y
+ * periódicamente para cambios hechos en tbl_roles desde fuera.
+ */
 @Service
 public class RolService {
-    
+
+    public static final String REGION_ROLES = "roles";
+
+    // IDs mayores se guardan en un mapa aparte en lugar de agrandar el arreglo
+    private static final int MAXIMO_ID_INDEXADO = 1024;
+    private static final Pattern SEPARADORES = Pattern.compile("[\\s\\-_]");
+    private static final String ROL_POR_DEFECTO = "ROLE_USER";
+    private static final List<SimpleGrantedAuthority> AUTORIDADES_POR_DEFECTO =
+            List.of(new SimpleGrantedAuthority(ROL_POR_DEFECTO));
+
     @Autowired
     private RolRepository rolRepository;
-    
-    // Caché en memoria para evitar consultas a BD en cada request
-    private Map<Integer, String> rolesCache = new HashMap<>();
-    
+
+    @Autowired
+    private BitacoraSeguridad bitacora;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BusInvalidacion busInvalidacion;
+
+    private volatile Instantanea instantanea = Instantanea.VACIA;
+
+    // Una consulta por solicitud autenticada: LongAdder evita contención entre hilos
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder desconocidos = new LongAdder();
+    private final AtomicLong publicaciones = new AtomicLong();
+
     /**
      * Carga los roles en memoria al iniciar la aplicación
      */
     @PostConstruct
     public void cargarRolesEnCache() {
-        List<Rol> roles = rolRepository.findAll();
-        for (Rol rol : roles) {
-            String nombreRol = normalizarNombreRol(rol.getNombreRol());
-            rolesCache.put(rol.getIdRol(), nombreRol);
-        }
-        System.out.println("✅ Roles cargados en caché: " + rolesCache);
+        publicar(rolRepository.findAll());
+        // El aviso de otro nodo solo recarga; volver a publicarlo crearía un ciclo
+        busInvalidacion.suscribir(REGION_ROLES, invalidacion -> recargar());
     }
-    
-    private String normalizarNombreRol(String nombreRol) {
+
+    // Nombre normalizado, sin espacios ni guiones y con prefijo ROLE_; se calcula solo al cargar
+    static String normalizarNombreRol(String nombreRol) {
         if (nombreRol == null || nombreRol.isEmpty()) {
-            return "ROLE_USER";
+            return ROL_POR_DEFECTO;
         }
-        
-        // Normalizar: convertir a mayúsculas, eliminar espacios y caracteres especiales
-        String rolNormalizado = nombreRol.toUpperCase().trim();
-        // Eliminar espacios, guiones y caracteres especiales
-        rolNormalizado = rolNormalizado.replaceAll("[\\s\\-_]", "");
-        
+
+        String rolNormalizado = SEPARADORES.matcher(nombreRol.toUpperCase().trim()).replaceAll("");
+
         // Mapeo de nombres comunes a nombres normalizados
         if (rolNormalizado.contains("ADMIN")) {
             rolNormalizado = "ADMIN";
@@ -52,20 +88,109 @@ public class RolService {
         } else if (rolNormalizado.contains("AUDITOR")) {
             rolNormalizado = "AUDITOR";
         }
-        
+
         if (!rolNormalizado.startsWith("ROLE_")) {
             rolNormalizado = "ROLE_" + rolNormalizado;
         }
-        
+
         return rolNormalizado;
     }
 
     public String obtenerNombreRolPorId(Integer idRol) {
-        return rolesCache.getOrDefault(idRol, "ROLE_USER");
+        return autoridadesPorId(idRol).get(0).getAuthority();
+    }
+
+    /** Lista inmutable de autoridades del rol, compartida entre solicitudes. */
+    public List<SimpleGrantedAuthority> autoridadesPorId(Integer idRol) {
+        consultas.increment();
+        List<SimpleGrantedAuthority> autoridades =
+                idRol == null ? AUTORIDADES_POR_DEFECTO : instantanea.autoridades(idRol);
+        if (autoridades == AUTORIDADES_POR_DEFECTO) {
+            desconocidos.increment();
+        }
+        return autoridades;
     }
-    
+
+    /** Roles cargados, consultas, consultas de IDs sin rol y veces que cambió la instantánea. */
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("roles", instantanea.nombres.size());
+        datos.put("consultas", consultas.sum());
+        datos.put("desconocidos", desconocidos.sum());
+        datos.put("publicaciones", publicaciones.get());
+        return datos;
+    }
+
+    /**
+     * Relee tbl_roles sin pasar por la caché de Hibernate y publica la nueva
+     * instantánea si cambió; en ese caso avisa a los demás nodos.
+     */
+    @Scheduled(fixedDelayString = "${seguridad.roles.refresco-ms:300000}",
+               initialDelayString = "${seguridad.roles.refresco-ms:300000}")
     public void refrescarCache() {
-        rolesCache.clear();
-        cargarRolesEnCache();
+        if (recargar()) {
+            busInvalidacion.publicarTodo(REGION_ROLES);
+        }
+    }
+
+    private boolean recargar() {
+        // Puede llamarse al confirmar otra transacción: se lee en una nueva
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.setReadOnly(true);
+        return publicar(tx.execute(estado -> rolRepository.leerSinCache()));
+    }
+
+    private synchronized boolean publicar(List<Rol> roles) {
+        Map<Integer, String> nombres = new TreeMap<>();
+        for (Rol rol : roles) {
+            nombres.put(rol.getIdRol(), normalizarNombreRol(rol.getNombreRol()));
+        }
+        if (nombres.equals(instantanea.nombres)) {
+            return false;
+        }
+        instantanea = new Instantanea(nombres);
+        publicaciones.incrementAndGet();
+        bitacora.registrar(BitacoraSeguridad.Tipo.ROLES_CARGADOS, "roles", nombres.toString());
+        return true;
+    }
+
+    private static final class Instantanea {
+
+        static final Instantanea VACIA = new Instantanea(Map.of());
+
+        private final Map<Integer, String> nombres;
+        private final List<SimpleGrantedAuthority>[] porId;
+        private final Map<Integer, List<SimpleGrantedAuthority>> dispersos = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        Instantanea(Map<Integer, String> nombres) {
+            this.nombres = Map.copyOf(nombres);
+            int maximo = -1;
+            for (Integer id : nombres.keySet()) {
+                if (id >= 0 && id < MAXIMO_ID_INDEXADO) {
+                    maximo = Math.max(maximo, id);
+                }
+            }
+            porId = new List[maximo + 1];
+            // Roles con el mismo nombre comparten la lista
+            Map<String, List<SimpleGrantedAuthority>> listas = new HashMap<>();
+            nombres.forEach((id, nombre) -> {
+                List<SimpleGrantedAuthority> autoridades =
+                        listas.computeIfAbsent(nombre, n -> List.of(new SimpleGrantedAuthority(n)));
+                if (id >= 0 && id < MAXIMO_ID_INDEXADO) {
+                    porId[id] = autoridades;
+                } else {
+                    dispersos.put(id, autoridades);
+                }
+            });
+        }
+
+        List<SimpleGrantedAuthority> autoridades(int idRol) {
+            List<SimpleGrantedAuthority> autoridades = idRol >= 0 && idRol < porId.length
+                    ? porId[idRol]
+                    : dispersos.get(idRol);
+            return autoridades != null ? autoridades : AUTORIDADES_POR_DEFECTO;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.couriersync.users.service;
+
+/**
+ * La cola del servicio está llena; el cliente debe reintentar más tarde
+ * (los controladores responden 429 con Retry-After).
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public ServicioSaturadoException(String mensaje, long reintentarEnSegundos) {
+        super(mensaje);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
@@ -1,31 +1,40 @@
 package com.couriersync.users.service;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.couriersync.diagnostico.PresupuestoConsultas;
 import com.couriersync.users.dto.UsuarioRegistroDTO;
 import com.couriersync.users.entity.Usuario;
 import com.couriersync.users.repository.UsuarioRepository;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-
 @Service
 public class SignUpService {
 	private final UsuarioRepository usuarioRepository;
+	private final HashContrasenas hashContrasenas;
+	private final CacheUsuarios cacheUsuarios;
 
 	@Autowired
-	public SignUpService(UsuarioRepository usuarioRepository) {
+	public SignUpService(UsuarioRepository usuarioRepository, HashContrasenas hashContrasenas,
+			CacheUsuarios cacheUsuarios) {
 		this.usuarioRepository = usuarioRepository;
+		this.hashContrasenas = hashContrasenas;
+		this.cacheUsuarios = cacheUsuarios;
 	}
 
+	// Una consulta para los duplicados y el INSERT; los mensajes conservan su orden
+	@PresupuestoConsultas(2)
 	public Usuario registrarUsuario(UsuarioRegistroDTO dto) {
-		if (usuarioRepository.existsByCedula(dto.getCedula())) {
+		List<Usuario> ocupados = usuarioRepository.findByCedulaOrUsuario(dto.getCedula(), dto.getUsuario());
+		if (ocupados.stream().anyMatch(u -> u.getCedula().equals(dto.getCedula()))) {
 			throw new IllegalArgumentException("La cédula ya está registrada.");
 		}
 		if (!dto.getContraseña().equals(dto.getConfirmarContraseña())) {
 			throw new IllegalArgumentException("Las contraseñas no coinciden.");
 		}
-		if (usuarioRepository.existsByUsuario(dto.getUsuario())) {
+		if (ocupados.stream().anyMatch(u -> u.getUsuario().equals(dto.getUsuario()))) {
 			throw new IllegalArgumentException("El nombre de usuario ya está en uso.");
 		}
 		if (!validarPassword(dto.getContraseña())) {
@@ -39,13 +48,13 @@ public class SignUpService {
 		usuario.setEmail(dto.getEmail());
 		usuario.setCelular(dto.getCelular());
 		// Encriptar la contraseña antes de guardar
-		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-		usuario.setContraseña(encoder.encode(dto.getContraseña()));
+		usuario.setContraseña(hashContrasenas.cifrar(dto.getContraseña()));
 		usuario.setRol(dto.getRol());
-		return usuarioRepository.save(usuario);
+		// También quita el nombre de los negativos de CacheUsuarios
+		return cacheUsuarios.registrar(usuario);
 	}
 
-	private boolean validarPassword(String password) {
+	public static boolean validarPassword(String password) {
     if (password.length() < 12) {
         return false;
     }
@@ -0,0 +1,12 @@
+package com.couriersync.users.service;
+
+/**
+ * Datos de un JWT cuya firma y vigencia ya se comprobaron. El resumen es el
+ * SHA-256 del token en Base64 e identifica al token en caché y en revocaciones.
+ */
+public record TokenVerificado(String resumen, String cedula, String username, Integer rol, long expiraEnMs) {
+
+    public boolean vigente(long ahoraMs) {
+        return expiraEnMs > ahoraMs;
+    }
+}
@@ -4,20 +4,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.couriersync.users.entity.Usuario;
-import com.couriersync.users.repository.UsuarioRepository;
 
 @Service
 public class UsuarioService {
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private CacheUsuarios cacheUsuarios;
 
-    @Autowired
-    private JwtService jwtService;
-
-    public void cambiarRolDesdeToken(String token, String cedulaObjetivo, Integer nuevoRol) {
-        Integer rolUsuarioAuth = jwtService.extractRol(token);
-        String cedulaAuth = jwtService.extractCedula(token);
+    public void cambiarRolDesdeToken(TokenVerificado autenticado, String cedulaObjetivo, Integer nuevoRol) {
+        Integer rolUsuarioAuth = autenticado.rol();
+        String cedulaAuth = autenticado.cedula();
 
         if (rolUsuarioAuth == null || (rolUsuarioAuth != 1 && rolUsuarioAuth != 2)) {
             throw new SecurityException("No tiene permisos para cambiar roles.");
@@ -27,7 +23,7 @@ public class UsuarioService {
             throw new SecurityException("No puede modificar su propio rol.");
         }
 
-        Usuario usuarioDestino = usuarioRepository.findByCedula(cedulaObjetivo);
+        Usuario usuarioDestino = cacheUsuarios.porCedula(cedulaObjetivo);
         if (usuarioDestino == null) {
             throw new IllegalArgumentException("El usuario destino no existe.");
         }
@@ -37,6 +33,7 @@ public class UsuarioService {
         }
 
         usuarioDestino.setRol(nuevoRol);
-        usuarioRepository.save(usuarioDestino);
+        // Actualiza la caché de este nodo y avisa a los demás
+        cacheUsuarios.guardar(usuarioDestino);
     }
 }
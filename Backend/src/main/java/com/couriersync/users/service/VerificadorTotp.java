@@ -0,0 +1,187 @@
+package com.couriersync.users.service;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verificación TOTP (RFC 6238, HMAC-SHA1, 6 dígitos, períodos de 30 s). El
+ * secreto Base32 se decodifica una vez y la clave queda en caché; cada hilo
+ * reutiliza su Mac. Se calculan todos los períodos de la ventana sin salir
+ * antes y se comparan en tiempo constante. Un código aceptado se registra por
+ * (secreto, período) hasta que sale de la ventana, así que no se puede reutilizar.
+ */
+@Component
+public class VerificadorTotp {
+
+    public static final int PERIODO_SEGUNDOS = 30;
+    private static final int DIGITOS = 6;
+    private static final int MODULO = 1_000_000;
+
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance("HmacSHA1");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final int ventana;
+    private final int maximoClaves;
+
+    // Secreto Base32 -> clave decodificada
+    private final ConcurrentHashMap<String, SecretKeySpec> claves = new ConcurrentHashMap<>();
+
+    // Códigos ya usados -> segundo epoch en que salen de la ventana
+    private final ConcurrentHashMap<Usado, Long> usados = new ConcurrentHashMap<>();
+
+    private record Usado(String secreto, long periodo) {
+    }
+
+    public VerificadorTotp(@Value("${seguridad.mfa.ventana:1}") int ventana,
+                           @Value("${seguridad.mfa.claves-maximo:10000}") int maximoClaves) {
+        this.ventana = Math.max(0, ventana);
+        this.maximoClaves = maximoClaves;
+    }
+
+    public boolean verificar(String secreto, String codigo) {
+        return verificar(secreto, codigo, System.currentTimeMillis() / 1000);
+    }
+
+    boolean verificar(String secreto, String codigo, long segundosEpoch) {
+        int esperado = leerCodigo(codigo);
+        SecretKeySpec clave = secreto == null ? null : clave(secreto);
+        if (esperado < 0 || clave == null) {
+            return false;
+        }
+
+        long actual = Math.floorDiv(segundosEpoch, PERIODO_SEGUNDOS);
+        long coincidente = Long.MIN_VALUE;
+        for (long periodo = actual - ventana; periodo <= actual + ventana; periodo++) {
+            // Sin ramas que dependan del código: se recorre toda la ventana
+            int diferencia = generar(clave, periodo) ^ esperado;
+            long coincide = ((long) (diferencia - 1) >> 63) & 1;
+            coincidente = coincide == 1 ? periodo : coincidente;
+        }
+        if (coincidente == Long.MIN_VALUE) {
+            return false;
+        }
+
+        // Repetido: el mismo código ya abrió una sesión en este período. Se recuerda hasta que
+        // el período que coincidió sale de la ventana, que puede ser después que el actual
+        long venceEn = (coincidente + ventana + 1) * PERIODO_SEGUNDOS;
+        return usados.putIfAbsent(new Usado(secreto, coincidente), venceEn) == null;
+    }
+
+    /** Código de 6 dígitos para el período actual; solo para pruebas y diagnóstico. */
+    public String codigoActual(String secreto) {
+        SecretKeySpec clave = clave(secreto);
+        if (clave == null) {
+            throw new IllegalArgumentException("El secreto no es Base32 válido.");
+        }
+        long periodo = Math.floorDiv(System.currentTimeMillis() / 1000, PERIODO_SEGUNDOS);
+        return String.format("%0" + DIGITOS + "d", generar(clave, periodo));
+    }
+
+    @Scheduled(fixedDelay = PERIODO_SEGUNDOS * 1000L)
+    public void podar() {
+        podar(System.currentTimeMillis() / 1000);
+    }
+
+    void podar(long ahora) {
+        usados.values().removeIf(venceEn -> venceEn <= ahora);
+    }
+
+    private SecretKeySpec clave(String secreto) {
+        SecretKeySpec clave = claves.get(secreto);
+        if (clave != null) {
+            return clave;
+        }
+        byte[] bytes = decodificarBase32(secreto);
+        if (bytes == null) {
+            return null;
+        }
+        if (claves.size() >= maximoClaves) {
+            claves.clear();
+        }
+        clave = new SecretKeySpec(bytes, "HmacSHA1");
+        claves.put(secreto, clave);
+        return clave;
+    }
+
+    // HOTP (RFC 4226) sobre el número de período
+    private static int generar(SecretKeySpec clave, long periodo) {
+        Mac mac = MAC.get();
+        try {
+            mac.init(clave);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int desplazamiento = 56; desplazamiento >= 0; desplazamiento -= 8) {
+            mac.update((byte) (periodo >>> desplazamiento));
+        }
+        byte[] hash = mac.doFinal();
+        int inicio = hash[hash.length - 1] & 0x0F;
+        int binario = ((hash[inicio] & 0x7F) << 24)
+                | ((hash[inicio + 1] & 0xFF) << 16)
+                | ((hash[inicio + 2] & 0xFF) << 8)
+                | (hash[inicio + 3] & 0xFF);
+        return binario % MODULO;
+    }
+
+    // Seis dígitos ASCII a entero; -1 si el formato no es válido
+    private static int leerCodigo(String codigo) {
+        if (codigo == null || codigo.length() != DIGITOS) {
+            return -1;
+        }
+        int valor = 0;
+        for (int i = 0; i < DIGITOS; i++) {
+            char c = codigo.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    // RFC 4648 sin relleno, mayúsculas; null si hay caracteres fuera de A-Z2-7
+    static byte[] decodificarBase32(String texto) {
+        int longitud = texto.length();
+        while (longitud > 0 && texto.charAt(longitud - 1) == '=') {
+            longitud--;
+        }
+        if (longitud == 0) {
+            return null;
+        }
+        byte[] salida = new byte[longitud * 5 / 8];
+        int acumulado = 0;
+        int bits = 0;
+        int escritos = 0;
+        for (int i = 0; i < longitud; i++) {
+            char c = texto.charAt(i);
+            int valor;
+            if (c >= 'A' && c <= 'Z') {
+                valor = c - 'A';
+            } else if (c >= '2' && c <= '7') {
+                valor = c - '2' + 26;
+            } else {
+                return null;
+            }
+            acumulado = (acumulado << 5) | valor;
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                salida[escritos++] = (byte) (acumulado >>> bits);
+                acumulado &= (1 << bits) - 1;
+            }
+        }
+        return salida;
+    }
+}
@@ -0,0 +1,82 @@
+package com.couriersync.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compara dos archivos de resultados JMH en JSON (el de referencia y el
+ * nuevo) y muestra la variación de cada benchmark con sus parámetros. Termina
+ * con código 1 si alguno empeoró más que el umbral, en porcentaje (10 por
+ * defecto). En modo Throughput empeorar es bajar; en los demás, subir.
+ *
+ * mvn -B test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.couriersync.benchmark.CompararResultados
+ *     -Dexec.args="referencia.json target/jmh-resultados.json 10"
+ */
+public final class CompararResultados {
+
+    private record Resultado(String modo, double valor, String unidad) {
+    }
+
+    private CompararResultados() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararResultados <referencia.json> <nuevo.json> [umbral %]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Resultado> referencia = leer(new File(args[0]));
+        Map<String, Resultado> nuevo = leer(new File(args[1]));
+
+        int regresiones = 0;
+        for (Map.Entry<String, Resultado> entrada : nuevo.entrySet()) {
+            Resultado antes = referencia.get(entrada.getKey());
+            Resultado ahora = entrada.getValue();
+            if (antes == null || antes.valor() == 0) {
+                System.out.printf("%-80s %14.3f %-8s (nuevo)%n", entrada.getKey(), ahora.valor(), ahora.unidad());
+                continue;
+            }
+            double cambio = (ahora.valor() - antes.valor()) / antes.valor() * 100;
+            double empeora = "thrpt".equals(ahora.modo()) ? -cambio : cambio;
+            boolean regresion = empeora > umbral;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-80s %14.3f -> %14.3f %-8s %+7.1f%%%s%n", entrada.getKey(), antes.valor(),
+                    ahora.valor(), ahora.unidad(), cambio, regresion ? "  REGRESIÓN" : "");
+        }
+        for (String clave : referencia.keySet()) {
+            if (!nuevo.containsKey(clave)) {
+                System.out.printf("%-80s (ya no se mide)%n", clave);
+            }
+        }
+        System.out.println(regresiones + " regresiones por encima del " + umbral + "%");
+        if (regresiones > 0) {
+            System.exit(1);
+        }
+    }
+
+    // "Clase.metodo param=valor ..." -> resultado principal
+    private static Map<String, Resultado> leer(File archivo) throws IOException {
+        Map<String, Resultado> resultados = new TreeMap<>();
+        for (JsonNode corrida : new ObjectMapper().readTree(archivo)) {
+            StringBuilder clave = new StringBuilder(corrida.path("benchmark").asText()
+                    .replace("com.couriersync.benchmark.", ""));
+            Map<String, String> parametros = new LinkedHashMap<>();
+            corrida.path("params").properties().forEach(p -> parametros.put(p.getKey(), p.getValue().asText()));
+            parametros.forEach((nombre, valor) -> clave.append(' ').append(nombre).append('=').append(valor));
+            JsonNode metrica = corrida.path("primaryMetric");
+            resultados.put(clave.toString(), new Resultado(corrida.path("mode").asText(),
+                    metrica.path("score").asDouble(), metrica.path("scoreUnit").asText()));
+        }
+        return resultados;
+    }
+}
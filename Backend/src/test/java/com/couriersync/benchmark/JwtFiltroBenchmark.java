@@ -0,0 +1,143 @@
+package com.couriersync.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.couriersync.users.repository.TokenRevocadoRepository;
+import com.couriersync.users.security.JwtAuthenticationFilter;
+import com.couriersync.users.service.BitacoraSeguridad;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RevocacionTokens;
+import com.couriersync.users.service.RolService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.ServletException;
+
+/**
+ * Costo del filtro JWT por solicitud. "verificacionAnterior" reproduce lo que
+ * hacía el filtro antes: dos análisis completos del token, cada uno con clave y
+ * parser nuevos. "filtro" ejecuta JwtAuthenticationFilter completo, que verifica
+ * una vez y reutiliza los tokens ya vistos; con más tokens distintos que el tamaño
+ * de la caché, todos los accesos son fallos y se mide el análisis con parser único.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFiltroBenchmark {
+
+    private static final String SECRETO = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Param({"1", "5000"})
+    public int tokensDistintos;
+
+    @Param({"1000"})
+    public int maximoCache;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filtro;
+    private BitacoraSeguridad bitacora;
+    private String[] tokens;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRETO);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000);
+        ReflectionTestUtils.setField(jwtService, "maximoCache", maximoCache);
+        ReflectionTestUtils.invokeMethod(jwtService, "inicializar");
+
+        filtro = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filtro, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filtro, "rolService", new RolService());
+        ReflectionTestUtils.setField(filtro, "revocacionTokens", revocacionSinTokens());
+        bitacora = new BitacoraSeguridad("target/bitacora-benchmark", 8192, 10_485_760, 2, "");
+        ReflectionTestUtils.setField(filtro, "bitacora", bitacora);
+
+        tokens = new String[tokensDistintos];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = jwtService.generateToken(String.valueOf(1_000_000 + i), "usuario" + i, 1 + i % 3);
+        }
+    }
+
+    @TearDown
+    public void cerrar() {
+        bitacora.cerrar();
+    }
+
+    // Sin base de datos: ningún token está revocado
+    private static RevocacionTokens revocacionSinTokens() {
+        TokenRevocadoRepository repositorio = (TokenRevocadoRepository) Proxy.newProxyInstance(
+                TokenRevocadoRepository.class.getClassLoader(), new Class<?>[] {TokenRevocadoRepository.class},
+                (proxy, metodo, argumentos) -> metodo.getReturnType() == int.class ? 0 : List.of());
+        RevocacionTokens revocacion = new RevocacionTokens();
+        ReflectionTestUtils.setField(revocacion, "tokenRevocadoRepository", repositorio);
+        ReflectionTestUtils.setField(revocacion, "capacidad", 1000);
+        revocacion.cargar();
+        return revocacion;
+    }
+
+    private String siguienteToken() {
+        String token = tokens[siguiente];
+        siguiente = siguiente + 1 == tokens.length ? 0 : siguiente + 1;
+        return token;
+    }
+
+    @Benchmark
+    public void verificacionAnterior(Blackhole bh) {
+        String token = siguienteToken();
+        bh.consume(analizarComoAntes(token).getSubject());
+        bh.consume(analizarComoAntes(token).get("rol", Integer.class));
+    }
+
+    @Benchmark
+    public void verificacionActual(Blackhole bh) {
+        bh.consume(jwtService.verificar(siguienteToken()));
+    }
+
+    @Benchmark
+    public int filtro() throws ServletException, IOException {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("GET", "/routes/get/all");
+        solicitud.addHeader("Authorization", "Bearer " + siguienteToken());
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        try {
+            filtro.doFilter(solicitud, respuesta, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return respuesta.getStatus();
+    }
+
+    private static Claims analizarComoAntes(String token) {
+        SecretKey clave = Keys.hmacShaKeyFor(SECRETO.getBytes());
+        return Jwts.parserBuilder().setSigningKey(clave).build().parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,106 @@
+package com.couriersync.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.couriersync.route_optimizer.optimizer.MatrizCostos;
+import com.couriersync.route_optimizer.optimizer.MatrizDistancias;
+import com.couriersync.route_optimizer.optimizer.MatrizMapeada;
+import com.couriersync.route_optimizer.optimizer.OptimizadorRutas;
+import com.couriersync.route_optimizer.optimizer.ProblemaRuteo;
+import com.couriersync.route_optimizer.optimizer.SolucionRuteo;
+
+/**
+ * Tiempo de resolución del optimizador según el tamaño de la instancia.
+ * Paradas aleatorias alrededor de Bogotá con demanda 1 y un vehículo por cada
+ * 50 paradas. La matriz puede estar en el heap o en un archivo mapeado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OptimizadorBenchmark {
+
+    @Param({"100", "250", "500", "1000"})
+    public int paradas;
+
+    @Param({"8"})
+    public int reinicios;
+
+    @Param({"heap", "mapeada"})
+    public String matriz;
+
+    private ForkJoinPool pool;
+    private Path archivo;
+    private MatrizMapeada matrizMapeada;
+    private OptimizadorRutas optimizador;
+    private ProblemaRuteo problema;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        optimizador = new OptimizadorRutas(pool);
+
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        int n = paradas + 1;
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        latitudes[0] = 4.6097;
+        longitudes[0] = -74.0817;
+        for (int i = 1; i < n; i++) {
+            latitudes[i] = 4.45 + aleatorio.nextDouble() * 0.35;
+            longitudes[i] = -74.20 + aleatorio.nextDouble() * 0.25;
+        }
+        int[] demandas = new int[n];
+        Arrays.fill(demandas, 1, n, 1);
+        int vehiculos = Math.max(1, paradas / 50);
+        int[] capacidades = new int[vehiculos];
+        Arrays.fill(capacidades, (paradas + vehiculos - 1) / vehiculos + 1);
+
+        MatrizCostos costos = MatrizDistancias.haversine(latitudes, longitudes, 30.0);
+        if ("mapeada".equals(matriz)) {
+            archivo = Files.createTempFile("matriz-benchmark", ".bin");
+            matrizMapeada = MatrizMapeada.crear(archivo, n, 30.0);
+            for (int i = 0; i < n; i++) {
+                matrizMapeada.agregar(latitudes[i], longitudes[i]);
+            }
+            costos = matrizMapeada;
+        }
+        problema = new ProblemaRuteo(costos, demandas, capacidades);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        pool.shutdownNow();
+        if (matrizMapeada != null) {
+            matrizMapeada.close();
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    @Benchmark
+    public SolucionRuteo resolver() {
+        return optimizador.resolver(problema, reinicios, 7L);
+    }
+}
@@ -0,0 +1,109 @@
+package com.couriersync.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.couriersync.RouteOptimizerApplication;
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.couriersync.route_optimizer.dto.OperacionRutaDTO;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.service.RutaLoteService;
+import com.couriersync.route_optimizer.service.RutaService;
+
+/**
+ * Alta de N rutas con su trayecto por /routes/bulk (RutaLoteService, una
+ * transacción con INSERT en batch) frente a N llamadas a RutaService.crearRuta,
+ * lo que hace un cliente con /routes/create. Misma aplicación sobre H2 en
+ * memoria que RutaServiceBenchmark; las rutas creadas se acumulan entre
+ * invocaciones, igual para los dos casos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RutaLoteBenchmark {
+
+    private static final double LATITUD = 4.65;
+    private static final double LONGITUD = -74.10;
+
+    @Param({"100", "1000"})
+    public int rutasPorLote;
+
+    private ConfigurableApplicationContext contexto;
+    private RutaService rutaService;
+    private RutaLoteService rutaLoteService;
+    private SplittableRandom aleatorio;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(RouteOptimizerApplication.class)
+                .properties(
+                        "server.port=0",
+                        "management.server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "seguridad.bitacora.directorio=target/bitacora-benchmark")
+                .run();
+        rutaService = contexto.getBean(RutaService.class);
+        rutaLoteService = contexto.getBean(RutaLoteService.class);
+        aleatorio = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    private Ruta nuevaRuta() {
+        Ruta ruta = new Ruta();
+        ruta.setDistanciaTotal(1.0 + aleatorio.nextDouble(50.0));
+        ruta.setTiempoPromedio(5.0 + aleatorio.nextDouble(120.0));
+        ruta.setIdTrafico(1 + aleatorio.nextInt(3));
+        ruta.setPrioridad((short) (1 + aleatorio.nextInt(5)));
+        ruta.setTrayecto(List.of(new Coordenada(LATITUD + aleatorio.nextDouble(-0.2, 0.2),
+                LONGITUD + aleatorio.nextDouble(-0.2, 0.2))));
+        return ruta;
+    }
+
+    @Benchmark
+    public Object lote() {
+        List<OperacionRutaDTO> operaciones = new ArrayList<>(rutasPorLote);
+        for (int i = 0; i < rutasPorLote; i++) {
+            OperacionRutaDTO operacion = new OperacionRutaDTO();
+            operacion.setTipo(OperacionRutaDTO.Tipo.CREAR);
+            operacion.setRuta(nuevaRuta());
+            operaciones.add(operacion);
+        }
+        return rutaLoteService.procesarLote(operaciones);
+    }
+
+    @Benchmark
+    public Object individual() {
+        Ruta ultima = null;
+        for (int i = 0; i < rutasPorLote; i++) {
+            ultima = rutaService.crearRuta(nuevaRuta());
+        }
+        return ultima;
+    }
+}
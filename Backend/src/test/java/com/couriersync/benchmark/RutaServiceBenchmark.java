@@ -0,0 +1,122 @@
+package com.couriersync.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.couriersync.RouteOptimizerApplication;
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.couriersync.route_optimizer.dto.OperacionRutaDTO;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.service.OrdenRuta;
+import com.couriersync.route_optimizer.service.RutaLoteService;
+import com.couriersync.route_optimizer.service.RutaService;
+
+/**
+ * Lecturas y altas de RutaService con la aplicación completa sobre H2 en
+ * memoria (la configuración de src/test/resources). Se cargan las rutas
+ * iniciales en lotes, cada una con una parada cerca de Bogotá, y se miden la
+ * primera página por cursor, la búsqueda de cercanas, el listado completo y
+ * la creación de una ruta con su trayecto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RutaServiceBenchmark {
+
+    private static final double LATITUD = 4.65;
+    private static final double LONGITUD = -74.10;
+
+    @Param({"10000"})
+    public int rutasIniciales;
+
+    private ConfigurableApplicationContext contexto;
+    private RutaService rutaService;
+    private SplittableRandom aleatorio;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(RouteOptimizerApplication.class)
+                .properties(
+                        // SecurityConfig necesita el contexto web; se levanta en un puerto libre
+                        "server.port=0",
+                        "management.server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "seguridad.bitacora.directorio=target/bitacora-benchmark")
+                .run();
+        rutaService = contexto.getBean(RutaService.class);
+        RutaLoteService rutaLoteService = contexto.getBean(RutaLoteService.class);
+
+        aleatorio = new SplittableRandom(42);
+        List<OperacionRutaDTO> lote = new ArrayList<>();
+        for (int i = 0; i < rutasIniciales; i++) {
+            OperacionRutaDTO operacion = new OperacionRutaDTO();
+            operacion.setTipo(OperacionRutaDTO.Tipo.CREAR);
+            operacion.setRuta(nuevaRuta());
+            lote.add(operacion);
+            if (lote.size() == RutaLoteService.MAXIMO_OPERACIONES || i == rutasIniciales - 1) {
+                rutaLoteService.procesarLote(lote);
+                lote = new ArrayList<>();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    private Ruta nuevaRuta() {
+        Ruta ruta = new Ruta();
+        ruta.setDistanciaTotal(1.0 + aleatorio.nextDouble(50.0));
+        ruta.setTiempoPromedio(5.0 + aleatorio.nextDouble(120.0));
+        ruta.setIdTrafico(1 + aleatorio.nextInt(3));
+        ruta.setPrioridad((short) (1 + aleatorio.nextInt(5)));
+        ruta.setTrayecto(List.of(new Coordenada(LATITUD + aleatorio.nextDouble(-0.2, 0.2),
+                LONGITUD + aleatorio.nextDouble(-0.2, 0.2))));
+        return ruta;
+    }
+
+    @Benchmark
+    public Object primeraPagina() {
+        return rutaService.paginarRutas(null, null, OrdenRuta.PRIORIDAD, false, null, 50);
+    }
+
+    @Benchmark
+    public Object cercanas() {
+        return rutaService.buscarRutasCercanas(LATITUD + aleatorio.nextDouble(-0.1, 0.1),
+                LONGITUD + aleatorio.nextDouble(-0.1, 0.1), 10, 5.0);
+    }
+
+    @Benchmark
+    public Object todas() {
+        return rutaService.obtenerTodasLasRutas();
+    }
+
+    @Benchmark
+    public Object crear() {
+        return rutaService.crearRuta(nuevaRuta());
+    }
+}
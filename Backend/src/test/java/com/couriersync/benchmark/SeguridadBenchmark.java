@@ -0,0 +1,113 @@
+package com.couriersync.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.service.BitacoraSeguridad;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.MfaService;
+import com.couriersync.users.service.RolService;
+import com.couriersync.users.service.SignUpService;
+import com.couriersync.users.service.VerificadorTotp;
+
+/**
+ * Operaciones de seguridad que corren en cada login o solicitud autenticada,
+ * sin base de datos. extraerCedula y extraerRol pasan por la caché de tokens
+ * ya verificados de JwtService, como ocurre tras la primera solicitud con un
+ * token; el análisis sin caché se mide en JwtFiltroBenchmark. El código MFA
+ * nunca es válido, así que siempre se recorre la ventana completa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeguridadBenchmark {
+
+    private static final String SECRETO = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final String[] CONTRASENAS = {"Contrasena#2025", "corta", "SinNumerosNiSimbolos", "Larga9999999999"};
+
+    private JwtService jwtService;
+    private RolService rolService;
+    private MfaService mfaService;
+    private BitacoraSeguridad bitacora;
+    private String token;
+    private String secretoMfa;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRETO);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000);
+        ReflectionTestUtils.setField(jwtService, "maximoCache", 1000);
+        ReflectionTestUtils.invokeMethod(jwtService, "inicializar");
+        token = jwtService.generateToken("1000000", "usuario", 2);
+
+        bitacora = new BitacoraSeguridad("target/bitacora-benchmark", 8192, 10_485_760, 2, "");
+        rolService = new RolService();
+        ReflectionTestUtils.setField(rolService, "bitacora", bitacora);
+        ReflectionTestUtils.invokeMethod(rolService, "publicar",
+                List.of(rol(1, "Administrador"), rol(2, "Gestor de rutas"), rol(3, "Conductor")));
+
+        mfaService = new MfaService(new VerificadorTotp(1, 10_000));
+        secretoMfa = mfaService.generateSecret();
+    }
+
+    @TearDown
+    public void cerrar() {
+        bitacora.cerrar();
+    }
+
+    private static Rol rol(int id, String nombre) {
+        Rol rol = new Rol();
+        rol.setIdRol(id);
+        rol.setNombreRol(nombre);
+        return rol;
+    }
+
+    @Benchmark
+    public String generarToken() {
+        return jwtService.generateToken("1000000", "usuario", 2);
+    }
+
+    @Benchmark
+    public String extraerCedula() {
+        return jwtService.extractCedula(token);
+    }
+
+    @Benchmark
+    public Integer extraerRol() {
+        return jwtService.extractRol(token);
+    }
+
+    @Benchmark
+    public String nombreRol() {
+        return rolService.obtenerNombreRolPorId(1 + (siguiente++ & 3));
+    }
+
+    @Benchmark
+    public boolean verificarCodigoMfa() {
+        return mfaService.verifyCode(secretoMfa, "000000");
+    }
+
+    @Benchmark
+    public boolean validarContrasena() {
+        return SignUpService.validarPassword(CONTRASENAS[siguiente++ & 3]);
+    }
+}
@@ -0,0 +1,72 @@
+package com.couriersync.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialización JSON de List<Ruta> como la devuelven /routes/get/all y las
+ * búsquedas, con un ObjectMapper configurado igual que el de Spring. "bytes"
+ * arma el arreglo completo en memoria; "flujo" escribe directo a la salida,
+ * como hace el conversor HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionRutasBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rutas;
+
+    private ObjectMapper mapper;
+    private List<Ruta> lista;
+
+    @Setup
+    public void preparar() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        lista = new ArrayList<>(rutas);
+        for (int i = 0; i < rutas; i++) {
+            Ruta ruta = new Ruta();
+            ruta.setIdRuta(i + 1);
+            ruta.setVehiculoAsociado("VEH-" + (i % 500));
+            ruta.setConductorAsignado(String.valueOf(1_000_000 + i % 2000));
+            ruta.setIdEstado(1 + i % 3);
+            ruta.setDistanciaTotal(1.0 + i % 97);
+            ruta.setTiempoPromedio(5.0 + i % 113);
+            ruta.setIdTrafico(1 + i % 3);
+            ruta.setPrioridad((short) (1 + i % 5));
+            lista.add(ruta);
+        }
+    }
+
+    @Benchmark
+    public byte[] bytes() throws IOException {
+        return mapper.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public void flujo() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), lista);
+    }
+}
@@ -0,0 +1,92 @@
+package com.couriersync.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.couriersync.users.service.VerificadorTotp;
+
+import dev.samstevens.totp.code.DefaultCodeGenerator;
+import dev.samstevens.totp.code.DefaultCodeVerifier;
+import dev.samstevens.totp.code.HashingAlgorithm;
+import dev.samstevens.totp.secret.DefaultSecretGenerator;
+import dev.samstevens.totp.time.SystemTimeProvider;
+
+/**
+ * Verificaciones TOTP por segundo en un solo hilo (es decir, por núcleo).
+ * "verificacionAnterior" repite el trabajo de MfaService antes del cambio, sin
+ * los println: regex sobre el secreto, cinco códigos generados a mano y luego
+ * DefaultCodeVerifier, que decodifica el secreto y genera los suyos otra vez.
+ * Los códigos nunca son válidos, así que la protección contra repetición no
+ * altera la medición y siempre se recorre la ventana completa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class TotpBenchmark {
+
+    private static final int SECRETOS = 64;
+
+    private VerificadorTotp verificador;
+    private DefaultCodeGenerator generador;
+    private DefaultCodeVerifier verificadorAnterior;
+    private SystemTimeProvider reloj;
+    private String[] secretos;
+    private String[] codigos;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        verificador = new VerificadorTotp(1, 10_000);
+        reloj = new SystemTimeProvider();
+        generador = new DefaultCodeGenerator(HashingAlgorithm.SHA1, 6);
+        verificadorAnterior = new DefaultCodeVerifier(generador, reloj);
+
+        DefaultSecretGenerator secretosAleatorios = new DefaultSecretGenerator();
+        secretos = new String[SECRETOS];
+        codigos = new String[SECRETOS];
+        for (int i = 0; i < SECRETOS; i++) {
+            secretos[i] = secretosAleatorios.generate();
+            codigos[i] = String.format("%06d", (i * 7919) % 1_000_000);
+        }
+    }
+
+    @Benchmark
+    public boolean verificacionActual() {
+        int i = siguiente++ & (SECRETOS - 1);
+        return verificador.verificar(secretos[i], codigos[i]);
+    }
+
+    @Benchmark
+    public boolean verificacionAnterior(Blackhole bh) throws Exception {
+        int i = siguiente++ & (SECRETOS - 1);
+        String secreto = secretos[i];
+        String codigo = codigos[i];
+        if (!secreto.matches("^[A-Z2-7]+$")) {
+            return false;
+        }
+        long ahora = reloj.getTime();
+        boolean coincide = codigo.equals(generador.generate(secreto, ahora))
+                | codigo.equals(generador.generate(secreto, ahora - 30))
+                | codigo.equals(generador.generate(secreto, ahora - 60))
+                | codigo.equals(generador.generate(secreto, ahora + 30))
+                | codigo.equals(generador.generate(secreto, ahora + 60));
+        bh.consume(coincide);
+        return verificadorAnterior.isValidCode(secreto, codigo);
+    }
+}
@@ -0,0 +1,71 @@
+package com.couriersync.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class BusInvalidacionTests {
+
+	@Test
+	void agrupaRafagasYNoSeEntregaASiMismo() throws Exception {
+		TransporteLocal transporte = new TransporteLocal();
+		BusInvalidacion nodoA = new BusInvalidacion(transporte, 30);
+		BusInvalidacion nodoB = new BusInvalidacion(transporte, 30);
+		LinkedBlockingQueue<Invalidacion> enA = new LinkedBlockingQueue<>();
+		LinkedBlockingQueue<Invalidacion> enB = new LinkedBlockingQueue<>();
+		nodoA.suscribir("rutas", enA::add);
+		nodoB.suscribir("rutas", enB::add);
+		try {
+			for (int id = 1; id <= 500; id++) {
+				nodoA.publicar("rutas", id);
+				nodoA.publicar("rutas", id);
+			}
+			Invalidacion recibida = enB.poll(5, TimeUnit.SECONDS);
+			assertEquals(500, recibida.claves().size());
+			assertTrue(recibida.claves().contains("250"));
+			assertEquals(1L, nodoA.estadisticas().get("mensajesEnviados"));
+
+			nodoB.publicar("rutas", List.of(7, 8));
+			nodoB.publicarTodo("rutas");
+			Invalidacion todas = enA.poll(5, TimeUnit.SECONDS);
+			assertTrue(todas.todas());
+
+			// Al reconectarse, el transporte pide invalidar todo lo suscrito
+			nodoB.recibir(TransporteInvalidacion.RESINCRONIZAR);
+			assertTrue(enB.poll(5, TimeUnit.SECONDS).todas());
+
+			Thread.sleep(100);
+			assertTrue(enA.isEmpty() && enB.isEmpty());
+		} finally {
+			nodoA.cerrar();
+			nodoB.cerrar();
+		}
+	}
+
+	@Test
+	void divideMensajesLargosYProtegeSeparadores() {
+		Set<String> claves = new HashSet<>();
+		for (int i = 0; i < 5000; i++) {
+			claves.add(String.valueOf(1_000_000 + i));
+		}
+		List<String> mensajes = BusInvalidacion.mensajes("nodo", "rutas", claves);
+		assertTrue(mensajes.size() > 1);
+		Set<String> recompuestas = new HashSet<>();
+		for (String mensaje : mensajes) {
+			assertTrue(mensaje.getBytes(StandardCharsets.UTF_8).length <= BusInvalidacion.MAXIMO_MENSAJE_BYTES);
+			assertTrue(mensaje.startsWith("nodo|rutas|"));
+			recompuestas.addAll(List.of(mensaje.substring("nodo|rutas|".length()).split(",")));
+		}
+		assertEquals(claves, recompuestas);
+
+		assertEquals(List.of("nodo|usuarios|*"), BusInvalidacion.mensajes("nodo", "usuarios", Set.of("a,b")));
+	}
+}
@@ -0,0 +1,296 @@
+package com.couriersync.carga;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.couriersync.route_optimizer.service.ModeloLecturaRutas;
+import com.couriersync.route_optimizer.service.ParadaService;
+import com.couriersync.users.service.HashContrasenas;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.MfaService;
+import com.couriersync.users.service.RolService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Prueba de carga de extremo a extremo: levanta la aplicación completa en un
+ * puerto libre, siembra una flota sintética y lanza una mezcla de operaciones
+ * en lazo abierto (login con y sin MFA, listados, páginas filtradas, búsqueda
+ * de cercanas, altas y ediciones). Escribe reporte.json y reporte.html con
+ * percentiles y rendimiento por operación, y falla si alguna supera la tasa de
+ * error permitida. Queda fuera de "mvn test"; se corre con el perfil carga:
+ *
+ * mvn -B -Pcarga test -Dcarga.rutas=1000000 -Dcarga.duracion-s=120
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=false",
+		"logging.level.root=WARN",
+		"seguridad.bitacora.directorio=target/carga/bitacora"})
+class CargaMixtaTests {
+
+	private static final String TASAS = "login=4,login_mfa=2,rutas_todas=0.2,rutas_pagina=20,rutas_estado=10,"
+			+ "rutas_trafico=10,rutas_cercanas=20,crear_ruta=5,actualizar_ruta=5";
+
+	@LocalServerPort
+	private int puerto;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private HashContrasenas hashContrasenas;
+
+	@Autowired
+	private MfaService mfaService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private RolService rolService;
+
+	@Autowired
+	private ModeloLecturaRutas modeloLectura;
+
+	@Autowired
+	private ParadaService paradaService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Value("${carga.rutas:100000}")
+	private int rutas;
+
+	@Value("${carga.paradas-por-ruta:2}")
+	private int paradasPorRuta;
+
+	@Value("${carga.usuarios:600}")
+	private int usuarios;
+
+	@Value("${carga.fraccion-mfa:0.34}")
+	private double fraccionMfa;
+
+	@Value("${carga.duracion-s:30}")
+	private int duracion;
+
+	@Value("${carga.calentamiento-s:5}")
+	private int calentamiento;
+
+	@Value("${carga.tasas:" + TASAS + "}")
+	private String tasas;
+
+	@Value("${carga.maximo-en-curso:256}")
+	private int maximoEnCurso;
+
+	@Value("${carga.error-maximo:0.01}")
+	private double errorMaximo;
+
+	@Value("${carga.directorio:target/carga}")
+	private String directorio;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(10)).build();
+
+	@Test
+	void mezclaDeOperacionesDentroDelPresupuestoDeErrores() throws Exception {
+		long inicioSiembra = System.nanoTime();
+		FlotaSintetica.Flota flota = new FlotaSintetica(jdbc, 42).sembrar(usuarios, fraccionMfa, rutas,
+				paradasPorRuta, hashContrasenas.cifrar(FlotaSintetica.CONTRASENA), mfaService::generateSecret);
+		rolService.refrescarCache();
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		modeloLectura.invalidarTodo();
+		paradaService.recargarTodo();
+		double segundosSiembra = (System.nanoTime() - inicioSiembra) / 1e9;
+
+		List<GeneradorCarga.Operacion> operaciones = operaciones(flota);
+		if (calentamiento > 0) {
+			new GeneradorCarga(operaciones, maximoEnCurso).ejecutar(Duration.ofSeconds(calentamiento));
+		}
+		Map<String, GeneradorCarga.Medicion> mediciones = new GeneradorCarga(operaciones, maximoEnCurso)
+				.ejecutar(Duration.ofSeconds(duracion));
+
+		Map<String, Object> configuracion = new LinkedHashMap<>();
+		configuracion.put("rutas", rutas);
+		configuracion.put("paradasPorRuta", paradasPorRuta);
+		configuracion.put("usuarios", usuarios);
+		configuracion.put("usuariosConMfa", flota.conMfa().size());
+		configuracion.put("siembraSegundos", Math.round(segundosSiembra * 10) / 10.0);
+		configuracion.put("calentamientoSegundos", calentamiento);
+		configuracion.put("duracionSegundos", duracion);
+		configuracion.put("tasas", tasas);
+		configuracion.put("maximoEnCurso", maximoEnCurso);
+		configuracion.put("procesadores", Runtime.getRuntime().availableProcessors());
+		configuracion.put("memoriaMaximaMb", Runtime.getRuntime().maxMemory() >> 20);
+		ReporteCarga reporte = new ReporteCarga(configuracion, mediciones, duracion);
+		reporte.escribir(Path.of(directorio));
+
+		reporte.operaciones().forEach((nombre, resumen) -> System.out.printf(Locale.ROOT,
+				"%-16s %8d ok %6d err %6d desc  p50 %8.2f  p99 %8.2f  p999 %8.2f ms  %8.1f/s%n", nombre,
+				resumen.get("exitosas"), resumen.get("errores"), resumen.get("descartadas"), resumen.get("p50Ms"),
+				resumen.get("p99Ms"), resumen.get("p999Ms"), resumen.get("rendimiento")));
+		reporte.operaciones().forEach((nombre, resumen) -> assertTrue(
+				(Double) resumen.get("tasaError") <= errorMaximo, nombre + ": " + resumen.get("erroresPorCodigo")));
+	}
+
+	private List<GeneradorCarga.Operacion> operaciones(FlotaSintetica.Flota flota) {
+		FlotaSintetica.UsuarioCarga gestor = flota.sinMfa().stream()
+				.filter(u -> u.rol() == FlotaSintetica.ROL_GESTOR).findFirst().orElseThrow();
+		String tokenGestor = jwtService.generateToken(gestor.cedula(), gestor.usuario(), gestor.rol());
+		String tokenAuditor = jwtService.generateToken("800000001", "auditorcarga", FlotaSintetica.ROL_AUDITOR);
+		// Cada secreto TOTP acepta un código por periodo, así que los usuarios con MFA se recorren en orden
+		AtomicInteger siguienteMfa = new AtomicInteger();
+
+		Map<String, Supplier<CompletableFuture<Integer>>> porNombre = new LinkedHashMap<>();
+		porNombre.put("login", () -> {
+			FlotaSintetica.UsuarioCarga usuario = flota.sinMfa()
+					.get(ThreadLocalRandom.current().nextInt(flota.sinMfa().size()));
+			return enviar(post("/login", login(usuario), null)).thenApply(HttpResponse::statusCode);
+		});
+		porNombre.put("login_mfa", () -> {
+			FlotaSintetica.UsuarioCarga usuario = flota.conMfa()
+					.get(Math.floorMod(siguienteMfa.getAndIncrement(), flota.conMfa().size()));
+			return enviar(post("/login", login(usuario), null)).thenCompose(respuesta -> {
+				if (respuesta.statusCode() != 200) {
+					return CompletableFuture.completedFuture(respuesta.statusCode());
+				}
+				String desafio = leer(respuesta.body()).get("desafio").toString();
+				Map<String, Object> verificacion = Map.of("desafio", desafio,
+						"code", mfaService.generateTestCode(usuario.secretoMfa()));
+				return enviar(post("/api/mfa/verify", verificacion, null)).thenApply(HttpResponse::statusCode);
+			});
+		});
+		porNombre.put("rutas_todas", () -> descartar(get("/routes/get/all", tokenAuditor)));
+		porNombre.put("rutas_pagina", () -> descartar(get("/routes/get/all/page?limite=100&orden="
+				+ (ThreadLocalRandom.current().nextBoolean() ? "prioridad" : "id"), tokenAuditor)));
+		porNombre.put("rutas_estado", () -> {
+			String estado = FlotaSintetica.ESTADOS[FlotaSintetica.elegir(ThreadLocalRandom.current(),
+					FlotaSintetica.PESOS_ESTADO)];
+			return descartar(get("/routes/by-estado/page?limite=100&estado=" + estado.replace(" ", "%20"),
+					tokenGestor));
+		});
+		porNombre.put("rutas_trafico", () -> {
+			String trafico = FlotaSintetica.TRAFICOS[FlotaSintetica.elegir(ThreadLocalRandom.current(),
+					FlotaSintetica.PESOS_TRAFICO)];
+			return descartar(get("/routes/trafico/" + trafico + "/page?limite=100", tokenGestor));
+		});
+		porNombre.put("rutas_cercanas", () -> {
+			ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+			double[] ciudad = FlotaSintetica.CIUDADES[aleatorio.nextInt(FlotaSintetica.CIUDADES.length)];
+			return descartar(get(String.format(Locale.ROOT, "/routes/near?lat=%.5f&lon=%.5f&k=10&radioKm=3",
+					ciudad[0] + aleatorio.nextDouble(-0.15, 0.15), ciudad[1] + aleatorio.nextDouble(-0.15, 0.15)),
+					tokenAuditor));
+		});
+		porNombre.put("crear_ruta", () -> descartar(post("/routes/create", nuevaRuta(), tokenGestor)));
+		porNombre.put("actualizar_ruta", () -> {
+			ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+			int id = aleatorio.nextInt(flota.primeraRuta(), flota.ultimaRuta() + 1);
+			Map<String, Object> cambios = Map.of("prioridad", 1 + aleatorio.nextInt(5),
+					"idEstado", 1 + FlotaSintetica.elegir(aleatorio, FlotaSintetica.PESOS_ESTADO));
+			return descartar(HttpRequest.newBuilder(uri("/routes/update/" + id))
+					.header("Content-Type", "application/json").header("Authorization", "Bearer " + tokenGestor)
+					.PUT(HttpRequest.BodyPublishers.ofString(json(cambios))).build());
+		});
+
+		Map<String, Double> tasaPorNombre = new LinkedHashMap<>();
+		for (String par : tasas.split(",")) {
+			String[] partes = par.trim().split("=");
+			if (!porNombre.containsKey(partes[0])) {
+				throw new IllegalArgumentException("Operación desconocida en carga.tasas: " + partes[0]);
+			}
+			tasaPorNombre.put(partes[0], Double.parseDouble(partes[1]));
+		}
+		List<GeneradorCarga.Operacion> operaciones = new ArrayList<>();
+		tasaPorNombre.forEach((nombre, tasa) -> operaciones.add(
+				new GeneradorCarga.Operacion(nombre, tasa, porNombre.get(nombre))));
+		return operaciones;
+	}
+
+	private Map<String, Object> nuevaRuta() {
+		ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+		double[] ciudad = FlotaSintetica.CIUDADES[aleatorio.nextInt(FlotaSintetica.CIUDADES.length)];
+		double latitud = ciudad[0] + aleatorio.nextDouble(-0.15, 0.15);
+		double longitud = ciudad[1] + aleatorio.nextDouble(-0.15, 0.15);
+		Map<String, Object> ruta = new LinkedHashMap<>();
+		ruta.put("vehiculoAsociado", "VEH-N" + aleatorio.nextInt(1000));
+		ruta.put("distanciaTotal", 1.0 + aleatorio.nextDouble(40));
+		ruta.put("tiempoPromedio", 5.0 + aleatorio.nextDouble(90));
+		ruta.put("idTrafico", 1 + FlotaSintetica.elegir(aleatorio, FlotaSintetica.PESOS_TRAFICO));
+		ruta.put("prioridad", 1 + FlotaSintetica.elegir(aleatorio, FlotaSintetica.PESOS_PRIORIDAD));
+		ruta.put("trayecto", List.of(Map.of("latitud", latitud, "longitud", longitud),
+				Map.of("latitud", latitud + 0.01, "longitud", longitud + 0.01)));
+		return ruta;
+	}
+
+	private Map<String, Object> login(FlotaSintetica.UsuarioCarga usuario) {
+		return Map.of("username", usuario.usuario(), "contraseña", FlotaSintetica.CONTRASENA, "rol", usuario.rol());
+	}
+
+	private HttpRequest get(String ruta, String token) {
+		return HttpRequest.newBuilder(uri(ruta)).header("Authorization", "Bearer " + token).GET().build();
+	}
+
+	private HttpRequest post(String ruta, Object cuerpo, String token) {
+		HttpRequest.Builder solicitud = HttpRequest.newBuilder(uri(ruta)).header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json(cuerpo)));
+		if (token != null) {
+			solicitud.header("Authorization", "Bearer " + token);
+		}
+		return solicitud.build();
+	}
+
+	private URI uri(String ruta) {
+		return URI.create("http://localhost:" + puerto + "/CourierSync/api" + ruta);
+	}
+
+	private CompletableFuture<HttpResponse<String>> enviar(HttpRequest solicitud) {
+		return cliente.sendAsync(solicitud, HttpResponse.BodyHandlers.ofString());
+	}
+
+	// Los listados grandes no se guardan en memoria: solo interesa el código y el tiempo hasta el último byte
+	private CompletableFuture<Integer> descartar(HttpRequest solicitud) {
+		return cliente.sendAsync(solicitud, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+	}
+
+	private String json(Object valor) {
+		try {
+			return mapper.writeValueAsString(valor);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Map<?, ?> leer(String cuerpo) {
+		try {
+			return mapper.readValue(cuerpo, Map.class);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.couriersync.carga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Siembra una flota sintética directamente por JDBC en lotes, sin pasar por
+ * los servicios: catálogos de estados, tráfico y roles, usuarios de los cuatro
+ * roles (una parte con MFA) y rutas con sus paradas alrededor de tres
+ * ciudades. Las proporciones imitan una operación real: la mayoría de rutas
+ * activas o en curso, tráfico medio dominante y prioridad concentrada en 3.
+ * Debe correr antes de crear rutas por la API, porque la secuencia de IDs se
+ * inicializa con el máximo existente en su primer uso.
+ */
+final class FlotaSintetica {
+
+	static final String CONTRASENA = "Contrasena#2025";
+
+	static final String[] ESTADOS = {"Activa", "En curso", "Completada", "Cancelada"};
+	static final double[] PESOS_ESTADO = {0.55, 0.25, 0.15, 0.05};
+	static final String[] TRAFICOS = {"Bajo", "Medio", "Alto"};
+	static final double[] PESOS_TRAFICO = {0.35, 0.45, 0.20};
+	static final double[] PESOS_PRIORIDAD = {0.10, 0.20, 0.40, 0.20, 0.10};
+
+	static final int ROL_ADMIN = 1;
+	static final int ROL_GESTOR = 2;
+	static final int ROL_CONDUCTOR = 3;
+	static final int ROL_AUDITOR = 4;
+	private static final String[] ROLES = {"Administrador", "Gestor de rutas", "Conductor", "Auditor"};
+	private static final double[] PESOS_ROL = {0.02, 0.10, 0.80, 0.08};
+
+	// Bogotá, Medellín y Cali
+	static final double[][] CIUDADES = {{4.65, -74.10}, {6.25, -75.58}, {3.44, -76.52}};
+	private static final double[] PESOS_CIUDAD = {0.60, 0.25, 0.15};
+
+	private static final int LOTE = 5000;
+
+	record UsuarioCarga(String cedula, String usuario, int rol, String secretoMfa) {
+	}
+
+	record Flota(List<UsuarioCarga> sinMfa, List<UsuarioCarga> conMfa, int primeraRuta, int ultimaRuta) {
+	}
+
+	private final JdbcTemplate jdbc;
+	private final SplittableRandom aleatorio;
+
+	FlotaSintetica(JdbcTemplate jdbc, long semilla) {
+		this.jdbc = jdbc;
+		this.aleatorio = new SplittableRandom(semilla);
+	}
+
+	Flota sembrar(int usuarios, double fraccionMfa, int rutas, int paradasPorRuta, String hashContrasena,
+			Supplier<String> secretos) {
+		sembrarCatalogos();
+		List<UsuarioCarga> sinMfa = new ArrayList<>();
+		List<UsuarioCarga> conMfa = new ArrayList<>();
+		List<String> conductores = new ArrayList<>();
+		sembrarUsuarios(usuarios, fraccionMfa, hashContrasena, secretos, sinMfa, conMfa, conductores);
+		int primera = 1 + jdbc.queryForObject("SELECT COALESCE(MAX(id_ruta), 0) FROM tbl_rutas", Integer.class);
+		sembrarRutas(primera, rutas, paradasPorRuta, conductores);
+		return new Flota(sinMfa, conMfa, primera, primera + rutas - 1);
+	}
+
+	private void sembrarCatalogos() {
+		for (int i = 0; i < ESTADOS.length; i++) {
+			jdbc.update("INSERT INTO tbl_estado_ruta (id_estado, nombre_estado) SELECT ?, ? "
+					+ "WHERE NOT EXISTS (SELECT 1 FROM tbl_estado_ruta WHERE id_estado = ?)", i + 1, ESTADOS[i], i + 1);
+		}
+		for (int i = 0; i < TRAFICOS.length; i++) {
+			jdbc.update("INSERT INTO tbl_trafico_promedio (id_trafico, nivel_trafico, descripcion) SELECT ?, ?, ? "
+					+ "WHERE NOT EXISTS (SELECT 1 FROM tbl_trafico_promedio WHERE id_trafico = ?)",
+					i + 1, TRAFICOS[i], "Tráfico " + TRAFICOS[i].toLowerCase(), i + 1);
+		}
+		for (int i = 0; i < ROLES.length; i++) {
+			jdbc.update("INSERT INTO tbl_roles (id_rol, nombre_rol) SELECT ?, ? "
+					+ "WHERE NOT EXISTS (SELECT 1 FROM tbl_roles WHERE id_rol = ?)", i + 1, ROLES[i], i + 1);
+		}
+	}
+
+	private void sembrarUsuarios(int usuarios, double fraccionMfa, String hashContrasena, Supplier<String> secretos,
+			List<UsuarioCarga> sinMfa, List<UsuarioCarga> conMfa, List<String> conductores) {
+		List<Object[]> filas = new ArrayList<>();
+		for (int i = 0; i < usuarios; i++) {
+			// Los cuatro primeros cubren un rol cada uno; el resto sigue la distribución
+			int rol = i < ROLES.length ? i + 1 : 1 + elegir(aleatorio, PESOS_ROL);
+			String cedula = String.valueOf(900_000_000L + i);
+			String usuario = "carga" + i;
+			String secreto = aleatorio.nextDouble() < fraccionMfa ? secretos.get() : null;
+			UsuarioCarga registro = new UsuarioCarga(cedula, usuario, rol, secreto);
+			(secreto != null ? conMfa : sinMfa).add(registro);
+			if (rol == ROL_CONDUCTOR) {
+				conductores.add(cedula);
+			}
+			filas.add(new Object[] {cedula, usuario, "Nombre " + i, "Carga", usuario + "@carga.test",
+					String.valueOf(3_000_000_000L + i), hashContrasena, rol, secreto != null, secreto});
+			if (filas.size() == LOTE || i == usuarios - 1) {
+				jdbc.batchUpdate("INSERT INTO tbl_usuarios (cedula, usuario, nombres, apellidos, email, celular, "
+						+ "contraseña, rol, mfa_active, mfa_secreto) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", filas);
+				filas.clear();
+			}
+		}
+		if (conductores.isEmpty()) {
+			conductores.add(sinMfa.isEmpty() ? conMfa.get(0).cedula() : sinMfa.get(0).cedula());
+		}
+	}
+
+	private void sembrarRutas(int primera, int rutas, int paradasPorRuta, List<String> conductores) {
+		List<Object[]> filas = new ArrayList<>(LOTE);
+		List<Object[]> paradas = new ArrayList<>(LOTE * Math.max(1, paradasPorRuta));
+		int vehiculos = Math.max(1, rutas / 20);
+		for (int i = 0; i < rutas; i++) {
+			int id = primera + i;
+			int trafico = 1 + elegir(aleatorio, PESOS_TRAFICO);
+			// Distancia log-normal con mediana cercana a 10 km
+			double distancia = Math.min(200, Math.max(0.5, Math.exp(2.3 + 0.6 * aleatorio.nextGaussian())));
+			double tiempo = distancia * (1.5 + trafico * 0.75) + aleatorio.nextDouble(5);
+			filas.add(new Object[] {id, "VEH-" + aleatorio.nextInt(vehiculos),
+					conductores.get(aleatorio.nextInt(conductores.size())), 1 + elegir(aleatorio, PESOS_ESTADO),
+					distancia, tiempo, trafico, (short) (1 + elegir(aleatorio, PESOS_PRIORIDAD))});
+			double[] ciudad = CIUDADES[elegir(aleatorio, PESOS_CIUDAD)];
+			double latitud = ciudad[0] + aleatorio.nextDouble(-0.15, 0.15);
+			double longitud = ciudad[1] + aleatorio.nextDouble(-0.15, 0.15);
+			for (int orden = 1; orden <= paradasPorRuta; orden++) {
+				paradas.add(new Object[] {id, orden, latitud, longitud});
+				latitud += aleatorio.nextDouble(-0.01, 0.01);
+				longitud += aleatorio.nextDouble(-0.01, 0.01);
+			}
+			if (filas.size() == LOTE || i == rutas - 1) {
+				jdbc.batchUpdate("INSERT INTO tbl_rutas (id_ruta, vehiculo_asociado, conductor_asignado, id_estado, "
+						+ "distancia_total, tiempo_promedio, id_trafico, prioridad) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", filas);
+				if (!paradas.isEmpty()) {
+					jdbc.batchUpdate("INSERT INTO tbl_paradas (id_ruta, orden, latitud, longitud) VALUES (?, ?, ?, ?)",
+							paradas);
+				}
+				filas.clear();
+				paradas.clear();
+			}
+		}
+	}
+
+	static int elegir(RandomGenerator aleatorio, double[] pesos) {
+		double valor = aleatorio.nextDouble();
+		for (int i = 0; i < pesos.length - 1; i++) {
+			valor -= pesos[i];
+			if (valor < 0) {
+				return i;
+			}
+		}
+		return pesos.length - 1;
+	}
+}
@@ -0,0 +1,123 @@
+package com.couriersync.carga;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Carga de lazo abierto: cada operación tiene su tasa de llegada y un hilo que
+ * lanza solicitudes en instantes con distribución de Poisson, sin esperar a que
+ * terminen las anteriores. La latencia se mide desde el instante programado, no
+ * desde el envío real, para que un servidor lento no reduzca la carga ni oculte
+ * la espera (omisión coordinada). Si hay demasiadas solicitudes en curso, las
+ * nuevas se cuentan como descartadas en lugar de acumularse en memoria.
+ */
+final class GeneradorCarga {
+
+	/** Una operación devuelve el código HTTP final (el último si encadena varias solicitudes). */
+	record Operacion(String nombre, double tasaPorSegundo, Supplier<CompletableFuture<Integer>> ejecutar) {
+	}
+
+	static final class Medicion {
+		final HistogramaLatencias latencias = new HistogramaLatencias();
+		final LongAdder programadas = new LongAdder();
+		final LongAdder exitosas = new LongAdder();
+		final LongAdder descartadas = new LongAdder();
+		final Map<String, LongAdder> errores = new ConcurrentHashMap<>();
+
+		long totalErrores() {
+			return errores.values().stream().mapToLong(LongAdder::sum).sum();
+		}
+	}
+
+	private final List<Operacion> operaciones;
+	private final int maximoEnCurso;
+	private final AtomicInteger enCurso = new AtomicInteger();
+
+	GeneradorCarga(List<Operacion> operaciones, int maximoEnCurso) {
+		this.operaciones = operaciones;
+		this.maximoEnCurso = maximoEnCurso;
+	}
+
+	Map<String, Medicion> ejecutar(Duration duracion) throws InterruptedException {
+		Map<String, Medicion> mediciones = new LinkedHashMap<>();
+		long inicio = System.nanoTime();
+		long fin = inicio + duracion.toNanos();
+		List<Thread> hilos = new ArrayList<>();
+		SplittableRandom semilla = new SplittableRandom(7);
+		for (Operacion operacion : operaciones) {
+			Medicion medicion = new Medicion();
+			mediciones.put(operacion.nombre(), medicion);
+			if (operacion.tasaPorSegundo() <= 0) {
+				continue;
+			}
+			SplittableRandom aleatorio = semilla.split();
+			Thread hilo = new Thread(() -> lanzar(operacion, medicion, aleatorio, inicio, fin),
+					"carga-" + operacion.nombre());
+			hilo.setDaemon(true);
+			hilo.start();
+			hilos.add(hilo);
+		}
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+		// Las solicitudes aún en curso se esperan un tiempo acotado
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (enCurso.get() > 0 && System.nanoTime() < limite) {
+			Thread.sleep(50);
+		}
+		return mediciones;
+	}
+
+	private void lanzar(Operacion operacion, Medicion medicion, SplittableRandom aleatorio, long inicio, long fin) {
+		double mediaNanos = 1e9 / operacion.tasaPorSegundo();
+		long siguiente = inicio + (long) (-Math.log(1 - aleatorio.nextDouble()) * mediaNanos);
+		while (siguiente < fin) {
+			long espera = siguiente - System.nanoTime();
+			if (espera > 0) {
+				LockSupport.parkNanos(espera);
+			}
+			long programado = siguiente;
+			siguiente += (long) (-Math.log(1 - aleatorio.nextDouble()) * mediaNanos);
+			medicion.programadas.increment();
+			if (enCurso.incrementAndGet() > maximoEnCurso) {
+				enCurso.decrementAndGet();
+				medicion.descartadas.increment();
+				continue;
+			}
+			CompletableFuture<Integer> futuro;
+			try {
+				futuro = operacion.ejecutar().get();
+			} catch (RuntimeException e) {
+				futuro = CompletableFuture.failedFuture(e);
+			}
+			futuro.whenComplete((estado, error) -> {
+				enCurso.decrementAndGet();
+				medicion.latencias.registrar((System.nanoTime() - programado) / 1000);
+				if (error == null && estado >= 200 && estado < 300) {
+					medicion.exitosas.increment();
+				} else {
+					String clave = error != null ? causa(error).getClass().getSimpleName() : String.valueOf(estado);
+					medicion.errores.computeIfAbsent(clave, c -> new LongAdder()).increment();
+				}
+			});
+		}
+	}
+
+	private static Throwable causa(Throwable error) {
+		while (error.getCause() != null && error.getCause() != error) {
+			error = error.getCause();
+		}
+		return error;
+	}
+}
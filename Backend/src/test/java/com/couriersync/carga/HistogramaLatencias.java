@@ -0,0 +1,79 @@
+package com.couriersync.carga;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en microsegundos con cubetas log-lineales: cada
+ * potencia de dos se divide en 64 cubetas, así que un percentil se informa con
+ * un error relativo menor al 1,6 %. Se registra sin candados desde cualquier
+ * hilo y ocupa lo mismo sin importar cuántas muestras reciba.
+ */
+final class HistogramaLatencias {
+
+	private static final int SUBCUBETAS = 64;
+	private static final int BITS_SUBCUBETA = 6;
+	private static final int POTENCIAS = 58;
+
+	private final AtomicLongArray cuentas = new AtomicLongArray(POTENCIAS * SUBCUBETAS);
+	private final LongAdder total = new LongAdder();
+	private final LongAdder suma = new LongAdder();
+	private final AtomicLong maximo = new AtomicLong();
+
+	void registrar(long micros) {
+		long valor = Math.max(0, micros);
+		cuentas.incrementAndGet(indice(valor));
+		total.increment();
+		suma.add(valor);
+		maximo.accumulateAndGet(valor, Math::max);
+	}
+
+	long total() {
+		return total.sum();
+	}
+
+	double media() {
+		long n = total.sum();
+		return n == 0 ? 0 : (double) suma.sum() / n;
+	}
+
+	long maximo() {
+		return maximo.get();
+	}
+
+	/** Límite superior de la cubeta que contiene el percentil (0 < p <= 1). */
+	long percentil(double p) {
+		long n = total.sum();
+		if (n == 0) {
+			return 0;
+		}
+		long objetivo = Math.max(1, (long) Math.ceil(p * n));
+		long acumulado = 0;
+		for (int i = 0; i < cuentas.length(); i++) {
+			acumulado += cuentas.get(i);
+			if (acumulado >= objetivo) {
+				return Math.min(limiteSuperior(i), maximo.get());
+			}
+		}
+		return maximo.get();
+	}
+
+	static int indice(long valor) {
+		if (valor < SUBCUBETAS) {
+			return (int) valor;
+		}
+		int exponente = 63 - Long.numberOfLeadingZeros(valor);
+		int sub = (int) (valor >>> (exponente - BITS_SUBCUBETA)) - SUBCUBETAS;
+		return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + sub;
+	}
+
+	static long limiteSuperior(int indice) {
+		if (indice < SUBCUBETAS) {
+			return indice;
+		}
+		int exponente = indice / SUBCUBETAS + BITS_SUBCUBETA - 1;
+		int sub = indice % SUBCUBETAS;
+		return ((SUBCUBETAS + sub + 1L) << (exponente - BITS_SUBCUBETA)) - 1;
+	}
+}
@@ -0,0 +1,107 @@
+package com.couriersync.carga;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.web.util.HtmlUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Resume las mediciones de una corrida por operación (solicitudes programadas,
+ * exitosas, errores por código, descartadas, rendimiento y percentiles en
+ * milisegundos) y lo escribe como reporte.json y reporte.html en el
+ * directorio indicado. El JSON es estable para compararlo entre corridas.
+ */
+final class ReporteCarga {
+
+	private static final double[] PERCENTILES = {0.50, 0.90, 0.99, 0.999};
+	private static final String[] NOMBRES = {"p50", "p90", "p99", "p999"};
+
+	private final Map<String, Object> configuracion;
+	private final Map<String, Map<String, Object>> operaciones = new LinkedHashMap<>();
+
+	ReporteCarga(Map<String, Object> configuracion, Map<String, GeneradorCarga.Medicion> mediciones,
+			double segundos) {
+		this.configuracion = configuracion;
+		mediciones.forEach((nombre, medicion) -> operaciones.put(nombre, resumir(medicion, segundos)));
+	}
+
+	Map<String, Map<String, Object>> operaciones() {
+		return operaciones;
+	}
+
+	private static Map<String, Object> resumir(GeneradorCarga.Medicion medicion, double segundos) {
+		Map<String, Object> resumen = new LinkedHashMap<>();
+		HistogramaLatencias latencias = medicion.latencias;
+		long exitosas = medicion.exitosas.sum();
+		long errores = medicion.totalErrores();
+		// Una solicitud descartada es carga que el servidor no alcanzó a atender
+		long programadas = medicion.programadas.sum();
+		resumen.put("programadas", programadas);
+		resumen.put("completadas", latencias.total());
+		resumen.put("exitosas", exitosas);
+		resumen.put("errores", errores);
+		resumen.put("descartadas", medicion.descartadas.sum());
+		resumen.put("tasaError", programadas == 0 ? 0.0 : (double) (errores + medicion.descartadas.sum()) / programadas);
+		resumen.put("rendimiento", exitosas / segundos);
+		resumen.put("mediaMs", latencias.media() / 1000.0);
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			resumen.put(NOMBRES[i] + "Ms", latencias.percentil(PERCENTILES[i]) / 1000.0);
+		}
+		resumen.put("maximoMs", latencias.maximo() / 1000.0);
+		Map<String, Long> porCodigo = new TreeMap<>();
+		medicion.errores.forEach((codigo, cuenta) -> porCodigo.put(codigo, cuenta.sum()));
+		resumen.put("erroresPorCodigo", porCodigo);
+		return resumen;
+	}
+
+	void escribir(Path directorio) throws IOException {
+		Files.createDirectories(directorio);
+		Map<String, Object> documento = new LinkedHashMap<>();
+		documento.put("configuracion", configuracion);
+		documento.put("operaciones", operaciones);
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(directorio.resolve("reporte.json").toFile(), documento);
+		Files.writeString(directorio.resolve("reporte.html"), html(), StandardCharsets.UTF_8);
+	}
+
+	private String html() {
+		StringBuilder html = new StringBuilder(4096);
+		html.append("<!DOCTYPE html>\n<html lang=\"es\"><head><meta charset=\"utf-8\"><title>Prueba de carga</title>\n")
+				.append("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse}")
+				.append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}")
+				.append("td:first-child,th:first-child{text-align:left}.error{color:#b00}</style></head><body>\n")
+				.append("<h1>Prueba de carga</h1>\n<h2>Configuración</h2>\n<table>\n");
+		configuracion.forEach((clave, valor) -> html.append("<tr><td>").append(escapar(clave)).append("</td><td>")
+				.append(escapar(String.valueOf(valor))).append("</td></tr>\n"));
+		html.append("</table>\n<h2>Operaciones</h2>\n<table>\n<tr><th>Operación</th><th>Programadas</th>")
+				.append("<th>Exitosas</th><th>Errores</th><th>Descartadas</th><th>Solicitudes/s</th>")
+				.append("<th>Media ms</th><th>p50 ms</th><th>p90 ms</th><th>p99 ms</th><th>p99.9 ms</th>")
+				.append("<th>Máx ms</th><th>Errores por código</th></tr>\n");
+		operaciones.forEach((nombre, resumen) -> {
+			boolean conErrores = ((Long) resumen.get("errores")) > 0;
+			html.append(conErrores ? "<tr class=\"error\">" : "<tr>").append("<td>").append(escapar(nombre))
+					.append("</td>");
+			for (String clave : new String[] {"programadas", "exitosas", "errores", "descartadas"}) {
+				html.append("<td>").append(resumen.get(clave)).append("</td>");
+			}
+			for (String clave : new String[] {"rendimiento", "mediaMs", "p50Ms", "p90Ms", "p99Ms", "p999Ms",
+					"maximoMs"}) {
+				html.append("<td>").append(String.format("%.2f", (Double) resumen.get(clave))).append("</td>");
+			}
+			html.append("<td>").append(escapar(String.valueOf(resumen.get("erroresPorCodigo")))).append("</td></tr>\n");
+		});
+		return html.append("</table>\n</body></html>\n").toString();
+	}
+
+	private static String escapar(String texto) {
+		return HtmlUtils.htmlEscape(texto);
+	}
+}
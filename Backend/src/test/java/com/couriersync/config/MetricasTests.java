@@ -0,0 +1,66 @@
+package com.couriersync.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.couriersync.users.service.JwtService;
+
+// Las pruebas desactivan la exportación de métricas salvo que se pida
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MetricasTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@LocalServerPort
+	private int puerto;
+
+	@LocalManagementPort
+	private int puertoAdministracion;
+
+	@Test
+	void publicaMetricasPrometheusSoloEnElPuertoDeAdministracion() {
+		HttpHeaders cabeceras = new HttpHeaders();
+		cabeceras.setBearerAuth(jwtService.generateToken("7001", "metricas", 1));
+		restTemplate.exchange("/routes/get/all", HttpMethod.GET, new HttpEntity<>(cabeceras), String.class);
+		restTemplate.getForEntity("/routes/estados", String.class);
+
+		ResponseEntity<String> respuesta = restTemplate.getForEntity(
+				"http://localhost:" + puertoAdministracion + "/actuator/prometheus", String.class);
+		assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+		String metricas = respuesta.getBody();
+		assertTrue(metricas.contains("http_server_requests_seconds_bucket{"));
+		assertTrue(metricas.contains("uri=\"/routes/estados\""));
+		assertTrue(metricas.contains("le=\"0.25\""));
+		assertTrue(metricas.contains("spring_data_repository_invocations_seconds_bucket{"));
+		assertTrue(metricas.contains("seguridad_jwt_filtro_seconds_bucket{"));
+		assertTrue(metricas.contains("resultado=\"valido\""));
+		assertTrue(metricas.contains("cache_roles_consultas_total"));
+		assertTrue(metricas.contains("cache_usuarios_consultas_total"));
+		assertTrue(metricas.contains("hikaricp_connections_active"));
+		assertTrue(metricas.contains("jvm_memory_used_bytes"));
+		assertTrue(metricas.contains("jvm_gc_"));
+
+		// El puerto de la API no expone Actuator
+		ResponseEntity<String> publica = restTemplate.getForEntity(
+				"http://localhost:" + puerto + "/actuator/prometheus", String.class);
+		assertTrue(publica.getStatusCode().is4xxClientError());
+	}
+}
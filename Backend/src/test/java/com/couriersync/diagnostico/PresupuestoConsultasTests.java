@@ -0,0 +1,210 @@
+package com.couriersync.diagnostico;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.repository.EstadoRutaRepository;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+import com.couriersync.route_optimizer.service.ModeloLecturaRutas;
+import com.couriersync.route_optimizer.service.ParadaService;
+import com.couriersync.route_optimizer.service.RutaService;
+import com.couriersync.users.dto.UsuarioRegistroDTO;
+import com.couriersync.users.repository.UsuarioRepository;
+import com.couriersync.users.service.SignUpService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+class PresupuestoConsultasTests {
+
+	// Zona propia para no cruzarse con rutas de otras pruebas
+	private static final double LATITUD = 5.10;
+	private static final double LONGITUD = -74.50;
+
+	@Autowired
+	private RutaService rutaService;
+
+	@Autowired
+	private RutaRepository rutaRepository;
+
+	@Autowired
+	private ModeloLecturaRutas modeloLectura;
+
+	@Autowired
+	private SignUpService signUpService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private ConsultasDePrueba consultasDePrueba;
+
+	@Autowired
+	private ExcesosConsultas excesosConsultas;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void crearActualizarYEliminarRutaSinConsultasDeMas() {
+		rutaService.crearRuta(ruta());
+		long marca = ContadorSentencias.total();
+		// INSERT de la ruta y DELETE e INSERT de paradas, con el bloque de IDs ya reservado
+		Integer id = rutaService.crearRuta(ruta()).getIdRuta();
+		assertEquals(3, ContadorSentencias.total() - marca, String.join("\n", ContadorSentencias.desde(marca)));
+
+		Ruta cambios = new Ruta();
+		cambios.setPrioridad((short) 3);
+		cambios.setTrayecto(List.of(new Coordenada(LATITUD, LONGITUD), new Coordenada(LATITUD + 0.01, LONGITUD)));
+		marca = ContadorSentencias.total();
+		rutaService.actualizarRuta(id, cambios);
+		// SELECT de la ruta, DELETE e INSERT de paradas y el UPDATE del commit; sin el SELECT del merge
+		assertEquals(4, ContadorSentencias.total() - marca, String.join("\n", ContadorSentencias.desde(marca)));
+		assertEquals((short) 3, rutaRepository.findById(id).orElseThrow().getPrioridad());
+
+		marca = ContadorSentencias.total();
+		rutaService.eliminarRuta(id);
+		assertEquals(2, ContadorSentencias.total() - marca, String.join("\n", ContadorSentencias.desde(marca)));
+		assertFalse(rutaRepository.existsById(id));
+		IllegalArgumentException inexistente = assertThrows(IllegalArgumentException.class,
+				() -> rutaService.eliminarRuta(id));
+		assertEquals("Ruta no encontrada con id: " + id, inexistente.getMessage());
+	}
+
+	@Test
+	void crearRutaRevierteLaRutaSiFallanSusParadas() {
+		Object paradaService = ReflectionTestUtils.getField(rutaService, "paradaService");
+		ParadaService fallido = mock(ParadaService.class);
+		doThrow(new DataAccessResourceFailureException("sin conexión")).when(fallido).reemplazar(anyInt(), any());
+		ReflectionTestUtils.setField(rutaService, "paradaService", fallido);
+		Ruta nueva = ruta();
+		try {
+			assertThrows(DataAccessResourceFailureException.class, () -> rutaService.crearRuta(nueva));
+		} finally {
+			ReflectionTestUtils.setField(rutaService, "paradaService", paradaService);
+		}
+		// La ruta ya tenía ID y se había insertado; el rollback la quita y el modelo nunca la vio
+		assertFalse(rutaRepository.existsById(nueva.getIdRuta()));
+		assertTrue(modeloLectura.porIds(List.of(nueva.getIdRuta())).isEmpty());
+	}
+
+	@Test
+	void registroHaceUnaConsultaYElInsert() {
+		long marca = ContadorSentencias.total();
+		signUpService.registrarUsuario(registro("5001", "presupuesto"));
+		assertEquals(2, ContadorSentencias.total() - marca, String.join("\n", ContadorSentencias.desde(marca)));
+		assertTrue(usuarioRepository.existsByCedula("5001"));
+
+		assertEquals("La cédula ya está registrada.", assertThrows(IllegalArgumentException.class,
+				() -> signUpService.registrarUsuario(registro("5001", "otro"))).getMessage());
+		assertEquals("El nombre de usuario ya está en uso.", assertThrows(IllegalArgumentException.class,
+				() -> signUpService.registrarUsuario(registro("5002", "presupuesto"))).getMessage());
+	}
+
+	@Test
+	void excederElPresupuestoFallaEnModoEstricto() {
+		double excedidos = meterRegistry.counter("diagnostico.consultas.excedidas", "origen", "metodo").count();
+		assertEquals(2, consultasDePrueba.dosConsultas(2));
+		IllegalStateException exceso = assertThrows(IllegalStateException.class,
+				() -> consultasDePrueba.dosConsultasConUna());
+		assertTrue(exceso.getMessage().contains("ConsultasDePrueba.dosConsultasConUna: 2 sentencias, máximo 1"),
+				exceso.getMessage());
+		assertTrue(exceso.getMessage().contains("tbl_estado_ruta"), exceso.getMessage());
+		// El aviso se cuenta aparte del error; fuera del modo estricto es lo único que queda
+		assertEquals(excedidos + 1,
+				meterRegistry.counter("diagnostico.consultas.excedidas", "origen", "metodo").count());
+		ExcesosConsultas.Exceso ultimo = excesosConsultas.recientes().get(0);
+		assertEquals("metodo", ultimo.origen());
+		assertTrue(ultimo.metodo().endsWith("ConsultasDePrueba.dosConsultasConUna"), ultimo.metodo());
+		assertEquals(2, ultimo.sentencias());
+		assertEquals(1, ultimo.maximo());
+	}
+
+	@Test
+	void contadorRecuerdaSoloLasUltimasSentencias() {
+		long marca = ContadorSentencias.total();
+		for (int i = 0; i < ContadorSentencias.RECIENTES + 5; i++) {
+			ContadorSentencias.sentencia("select " + i);
+		}
+		List<String> recientes = ContadorSentencias.desde(marca);
+		assertEquals(ContadorSentencias.RECIENTES, recientes.size());
+		assertEquals("select 5", recientes.get(0));
+		assertEquals("select " + (ContadorSentencias.RECIENTES + 4), recientes.get(recientes.size() - 1));
+	}
+
+	static class ConsultasDePrueba {
+
+		private final EstadoRutaRepository estadoRutaRepository;
+
+		ConsultasDePrueba(EstadoRutaRepository estadoRutaRepository) {
+			this.estadoRutaRepository = estadoRutaRepository;
+		}
+
+		@PresupuestoConsultas(2)
+		public long dosConsultas(int veces) {
+			long total = 0;
+			for (int i = 0; i < veces; i++) {
+				estadoRutaRepository.count();
+				total++;
+			}
+			return total;
+		}
+
+		@PresupuestoConsultas(1)
+		public void dosConsultasConUna() {
+			estadoRutaRepository.count();
+			estadoRutaRepository.count();
+		}
+	}
+
+	@TestConfiguration
+	static class Configuracion {
+
+		@Bean
+		ConsultasDePrueba consultasDePrueba(EstadoRutaRepository estadoRutaRepository) {
+			return new ConsultasDePrueba(estadoRutaRepository);
+		}
+	}
+
+	private static Ruta ruta() {
+		Ruta ruta = new Ruta();
+		ruta.setDistanciaTotal(5.0);
+		ruta.setTiempoPromedio(12.0);
+		ruta.setIdTrafico(1);
+		ruta.setPrioridad((short) 1);
+		ruta.setTrayecto(List.of(new Coordenada(LATITUD, LONGITUD)));
+		return ruta;
+	}
+
+	private static UsuarioRegistroDTO registro(String cedula, String nombreUsuario) {
+		UsuarioRegistroDTO dto = new UsuarioRegistroDTO();
+		dto.setCedula(cedula);
+		dto.setUsuario(nombreUsuario);
+		dto.setNombre("Nombre " + cedula);
+		dto.setApellido("Apellido");
+		dto.setEmail(nombreUsuario + cedula + "@couriersync.test");
+		dto.setCelular("300" + cedula);
+		dto.setContraseña("Contrasena#2025");
+		dto.setConfirmarContraseña("Contrasena#2025");
+		dto.setRol(3);
+		return dto;
+	}
+}
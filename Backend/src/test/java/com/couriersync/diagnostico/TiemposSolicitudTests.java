@@ -0,0 +1,94 @@
+package com.couriersync.diagnostico;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"diagnostico.lentas.umbral-ms=1", "diagnostico.lentas.capacidad=3",
+				"diagnostico.server-timing.habilitado=true"})
+class TiemposSolicitudTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private SolicitudesLentas solicitudesLentas;
+
+	@Autowired
+	private ExcesosConsultas excesosConsultas;
+
+	@Test
+	void desglosaFasesEnServerTimingYGuardaLasLentasConSuSql() {
+		HttpHeaders cabeceras = new HttpHeaders();
+		cabeceras.set(FiltroTiemposSolicitud.SOLICITAR_ENCABEZADO, "1");
+		// La primera lectura de estados no está en la caché de consultas: va a la BD
+		ResponseEntity<String> conTiempos = restTemplate.exchange("/routes/estados", HttpMethod.GET,
+				new HttpEntity<>(cabeceras), String.class);
+		assertEquals(HttpStatus.OK, conTiempos.getStatusCode());
+		String serverTiming = conTiempos.getHeaders().getFirst(FiltroTiemposSolicitud.SERVER_TIMING);
+		assertNotNull(serverTiming);
+		assertTrue(serverTiming.contains("sql;dur="), serverTiming);
+		assertTrue(serverTiming.contains("hidratacion;dur="), serverTiming);
+		assertTrue(serverTiming.contains("json;dur="), serverTiming);
+		assertTrue(serverTiming.contains("total;dur="), serverTiming);
+		assertFalse(serverTiming.contains("\"0 sentencias\""), serverTiming);
+
+		// Sin pedirlo no se agrega, tampoco en respuestas que no son JSON
+		ResponseEntity<String> sinTiempos = restTemplate.getForEntity("/routes/estados", String.class);
+		assertNull(sinTiempos.getHeaders().getFirst(FiltroTiemposSolicitud.SERVER_TIMING));
+		ResponseEntity<String> texto = restTemplate.exchange("/routes/by-estado?estado=x", HttpMethod.GET,
+				new HttpEntity<>(cabeceras), String.class);
+		assertNotNull(texto.getHeaders().getFirst(FiltroTiemposSolicitud.SERVER_TIMING));
+
+		List<SolicitudesLentas.SolicitudLenta> lentas = solicitudesLentas.recientes();
+		assertTrue(lentas.size() <= 3);
+		SolicitudesLentas.SolicitudLenta estados = lentas.stream()
+				.filter(s -> s.ruta().endsWith("/routes/estados") && s.totalSentencias() > 0)
+				.findFirst().orElseThrow();
+		assertEquals("GET", estados.metodo());
+		assertEquals(200, estados.estado());
+		assertTrue(estados.sentencias().stream().anyMatch(sql -> sql.contains("tbl_estado_ruta")));
+		assertTrue(estados.fases().containsKey("sql"));
+	}
+
+	// Con la configuración por defecto un cliente anónimo no obtiene tiempos internos, ni siquiera en /login
+	@Test
+	void sinHabilitarloElEncabezadoDelClienteSeIgnora() throws Exception {
+		FiltroTiemposSolicitud porDefecto = new FiltroTiemposSolicitud(solicitudesLentas, excesosConsultas,
+				false, false, 0);
+		MockHttpServletRequest solicitud = new MockHttpServletRequest("POST", "/login");
+		solicitud.addHeader(FiltroTiemposSolicitud.SOLICITAR_ENCABEZADO, "1");
+		MockHttpServletResponse respuesta = new MockHttpServletResponse();
+		porDefecto.doFilter(solicitud, respuesta, new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+				resp.getWriter().write("ok");
+			}
+		}));
+		assertEquals("ok", respuesta.getContentAsString());
+		assertNull(respuesta.getHeader(FiltroTiemposSolicitud.SERVER_TIMING));
+	}
+}
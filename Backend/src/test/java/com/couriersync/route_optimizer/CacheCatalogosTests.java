@@ -0,0 +1,146 @@
+package com.couriersync.route_optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.couriersync.diagnostico.ContadorSentencias;
+import com.couriersync.route_optimizer.entity.EstadoRuta;
+import com.couriersync.route_optimizer.entity.TipoTrafico;
+import com.couriersync.route_optimizer.repository.EstadoRutaRepository;
+import com.couriersync.route_optimizer.repository.TipoTraficoRepository;
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.repository.RolRepository;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RolService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CacheCatalogosTests {
+
+	// IDs propios, fuera de los catálogos que siembran otras pruebas
+	private static final int ID_ESTADO = 90;
+	private static final int ID_TRAFICO = 90;
+
+	@Autowired
+	private EstadoRutaRepository estadoRutaRepository;
+
+	@Autowired
+	private TipoTraficoRepository tipoTraficoRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private RolRepository rolRepository;
+
+	@Autowired
+	private RolService rolService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Test
+	void busquedasRepetidasNoVuelvenABaseDeDatos() {
+		EstadoRuta estado = new EstadoRuta();
+		estado.setIdEstado(ID_ESTADO);
+		estado.setNombreEstado("En cache");
+		estadoRutaRepository.save(estado);
+		try {
+			estadoRutaRepository.buscarPorNombre("En cache");
+			estadoRutaRepository.findAll();
+			Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+			long aciertosIdNatural = stats.getNaturalIdCacheHitCount();
+			long aciertosConsultas = stats.getQueryCacheHitCount();
+
+			long marca = ContadorSentencias.total();
+			for (int i = 0; i < 20; i++) {
+				assertEquals(ID_ESTADO, estadoRutaRepository.buscarPorNombre("En cache").getIdEstado());
+				assertTrue(estadoRutaRepository.findAll().stream().anyMatch(e -> e.getIdEstado() == ID_ESTADO));
+			}
+			assertEquals(0, ContadorSentencias.total() - marca, String.join("\n", ContadorSentencias.desde(marca)));
+			assertEquals(aciertosIdNatural + 20, stats.getNaturalIdCacheHitCount());
+			assertEquals(aciertosConsultas + 20, stats.getQueryCacheHitCount());
+
+			// /admin/stats/cache refleja los aciertos de la región
+			Rol admin = new Rol();
+			admin.setIdRol(1);
+			admin.setNombreRol("Administrador");
+			rolRepository.save(admin);
+			rolService.refrescarCache();
+			HttpHeaders headers = new HttpHeaders();
+			headers.setBearerAuth(jwtService.generateToken("1000", "admin", 1));
+			ResponseEntity<Map<String, Object>> respuesta = restTemplate.exchange("/admin/stats/cache",
+					HttpMethod.GET, new HttpEntity<>(headers), new ParameterizedTypeReference<Map<String, Object>>() { });
+			assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+			assertEquals(true, respuesta.getBody().get("estadisticasHabilitadas"));
+			Map<?, ?> region = (Map<?, ?>) ((Map<?, ?>) respuesta.getBody().get("regiones")).get("EstadoRuta");
+			assertTrue(((Number) region.get("aciertos")).longValue() >= 20, region.toString());
+			Map<?, ?> idNatural = (Map<?, ?>) respuesta.getBody().get("idNatural");
+			assertTrue(((Number) idNatural.get("aciertos")).longValue() >= aciertosIdNatural + 20, idNatural.toString());
+		} finally {
+			estadoRutaRepository.deleteById(ID_ESTADO);
+		}
+
+		// Al borrar se desaloja la entrada y la consulta cacheada
+		assertNull(estadoRutaRepository.buscarPorNombre("En cache"));
+		assertTrue(estadoRutaRepository.findAll().stream().noneMatch(e -> e.getIdEstado() == ID_ESTADO));
+	}
+
+	@Test
+	void actualizarUnCatalogoDesalojaLoCacheado() {
+		TipoTrafico trafico = new TipoTrafico();
+		trafico.setIdTrafico(ID_TRAFICO);
+		trafico.setNivelTrafico("Cacheado");
+		trafico.setDescripcion("antes");
+		tipoTraficoRepository.save(trafico);
+		try {
+			assertEquals("antes", tipoTraficoRepository.buscarPorNivel("Cacheado").getDescripcion());
+			assertEquals("antes", descripcion(tipoTraficoRepository.findAllByOrderByNivelTraficoAsc()));
+			long marca = ContadorSentencias.total();
+			tipoTraficoRepository.buscarPorNivel("Cacheado");
+			tipoTraficoRepository.findAllByOrderByNivelTraficoAsc();
+			assertEquals(0, ContadorSentencias.total() - marca, String.join("\n", ContadorSentencias.desde(marca)));
+
+			TipoTrafico cambio = tipoTraficoRepository.findById(ID_TRAFICO).orElseThrow();
+			cambio.setDescripcion("despues");
+			tipoTraficoRepository.save(cambio);
+
+			// La consulta cacheada se invalida y se vuelve a ejecutar una vez; la entidad ya sale actualizada
+			marca = ContadorSentencias.total();
+			assertEquals("despues", tipoTraficoRepository.buscarPorNivel("Cacheado").getDescripcion());
+			assertEquals("despues", descripcion(tipoTraficoRepository.findAllByOrderByNivelTraficoAsc()));
+			assertEquals(1, ContadorSentencias.total() - marca, String.join("\n", ContadorSentencias.desde(marca)));
+			marca = ContadorSentencias.total();
+			assertEquals("despues", descripcion(tipoTraficoRepository.findAllByOrderByNivelTraficoAsc()));
+			assertEquals(0, ContadorSentencias.total() - marca, String.join("\n", ContadorSentencias.desde(marca)));
+		} finally {
+			tipoTraficoRepository.deleteById(ID_TRAFICO);
+		}
+	}
+
+	private static String descripcion(List<TipoTrafico> traficos) {
+		return traficos.stream().filter(t -> t.getIdTrafico() == ID_TRAFICO).findFirst().orElseThrow()
+				.getDescripcion();
+	}
+}
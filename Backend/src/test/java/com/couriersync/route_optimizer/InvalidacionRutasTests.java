@@ -0,0 +1,74 @@
+package com.couriersync.route_optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.couriersync.cache.TransporteInvalidacion;
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.service.ModeloLecturaRutas;
+import com.couriersync.route_optimizer.service.RutaService;
+
+@SpringBootTest
+class InvalidacionRutasTests {
+
+	// Zona propia para no cruzarse con rutas de otras pruebas
+	private static final double LATITUD = 4.90;
+	private static final double LONGITUD = -74.30;
+
+	@Autowired
+	private RutaService rutaService;
+
+	@Autowired
+	private ModeloLecturaRutas modeloLectura;
+
+	@Autowired
+	private TransporteInvalidacion transporte;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void cambioDeOtroNodoSeReleeAlRecibirElAviso() throws Exception {
+		Ruta ruta = new Ruta();
+		ruta.setDistanciaTotal(5.0);
+		ruta.setTiempoPromedio(12.0);
+		ruta.setIdTrafico(1);
+		ruta.setPrioridad((short) 1);
+		ruta.setTrayecto(List.of(new Coordenada(LATITUD, LONGITUD)));
+		Integer id = rutaService.crearRuta(ruta).getIdRuta();
+		assertEquals(1, modeloLectura.porIds(List.of(id)).get(0).getIdEstado());
+		assertTrue(cercanas().contains(id));
+
+		// Otro nodo desactiva la ruta y le quita las paradas, y avisa por el bus
+		jdbcTemplate.update("update tbl_rutas set id_estado = 2 where id_ruta = ?", id);
+		jdbcTemplate.update("delete from tbl_paradas where id_ruta = ?", id);
+		transporte.enviar("otronodo|" + RutaService.REGION_RUTAS + "|" + id);
+		esperar(() -> modeloLectura.porIds(List.of(id)).get(0).getIdEstado() == 2);
+		assertTrue(!cercanas().contains(id));
+
+		jdbcTemplate.update("delete from tbl_rutas where id_ruta = ?", id);
+		transporte.enviar("otronodo|" + RutaService.REGION_RUTAS + "|" + id);
+		esperar(() -> modeloLectura.porIds(List.of(id)).isEmpty());
+	}
+
+	private List<Integer> cercanas() {
+		return rutaService.buscarRutasCercanas(LATITUD, LONGITUD, 10, 1.0).stream()
+				.map(c -> c.getRuta().getIdRuta()).toList();
+	}
+
+	private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+		for (int i = 0; i < 100 && !condicion.getAsBoolean(); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(condicion.getAsBoolean());
+	}
+}
@@ -0,0 +1,252 @@
+package com.couriersync.route_optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.couriersync.route_optimizer.dto.OperacionRutaDTO;
+import com.couriersync.route_optimizer.dto.ResultadoOperacionRutaDTO;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+import com.couriersync.route_optimizer.service.ModeloLecturaRutas;
+import com.couriersync.route_optimizer.service.RutaLoteService;
+import com.couriersync.route_optimizer.service.RutaService;
+
+@SpringBootTest
+class ModeloLecturaRutasTests {
+
+	@Autowired
+	private ModeloLecturaRutas modeloLectura;
+
+	@Autowired
+	private RutaLoteService rutaLoteService;
+
+	@Autowired
+	private RutaService rutaService;
+
+	@Autowired
+	private RutaRepository rutaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void indicesCoincidenConLaBaseDeDatosTrasAltasCambiosBajasYCompactacion() {
+		// Se parte de una foto fresca de la tabla, que otras pruebas tocan por JDBC
+		modeloLectura.invalidarTodo();
+		modeloLectura.todas();
+		long previas = rutaRepository.count();
+
+		// Suficientes altas para que, al borrar casi todas, quede menos de la mitad de posiciones vivas
+		int nuevas = (int) (2 * previas + 1500);
+		List<Integer> ids = new ArrayList<>(nuevas);
+		for (int desde = 0; desde < nuevas; desde += RutaLoteService.MAXIMO_OPERACIONES) {
+			List<OperacionRutaDTO> lote = new ArrayList<>();
+			for (int i = desde; i < Math.min(nuevas, desde + RutaLoteService.MAXIMO_OPERACIONES); i++) {
+				lote.add(operacion(OperacionRutaDTO.Tipo.CREAR, null, ruta(1 + i % 4, 1 + i % 3, 1 + i % 5)));
+			}
+			rutaLoteService.procesarLote(lote).forEach(r -> ids.add(r.getIdRuta()));
+		}
+		comparar();
+
+		// Cambios de estado y prioridad por lote y uno a uno
+		List<OperacionRutaDTO> cambios = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Ruta cambio = new Ruta();
+			cambio.setIdEstado(1 + (i + 1) % 4);
+			cambio.setPrioridad((short) (1 + (i + 2) % 5));
+			cambios.add(operacion(OperacionRutaDTO.Tipo.ACTUALIZAR, ids.get(i), cambio));
+		}
+		rutaLoteService.procesarLote(cambios);
+		Ruta cambio = new Ruta();
+		cambio.setIdTrafico(3);
+		cambio.setIdEstado(4);
+		rutaService.actualizarRuta(ids.get(100), cambio);
+		comparar();
+
+		int ocupadasAntes = (Integer) ReflectionTestUtils.getField(modeloLectura, "ocupados");
+		List<OperacionRutaDTO> bajas = new ArrayList<>();
+		for (Integer id : ids.subList(0, nuevas - 100)) {
+			bajas.add(operacion(OperacionRutaDTO.Tipo.ELIMINAR, id, null));
+			if (bajas.size() == RutaLoteService.MAXIMO_OPERACIONES) {
+				rutaLoteService.procesarLote(bajas);
+				bajas = new ArrayList<>();
+			}
+		}
+		if (!bajas.isEmpty()) {
+			rutaLoteService.procesarLote(bajas);
+		}
+		rutaService.eliminarRuta(ids.get(nuevas - 1));
+		int ocupadasDespues = (Integer) ReflectionTestUtils.getField(modeloLectura, "ocupados");
+		assertTrue(ocupadasDespues < ocupadasAntes / 2, ocupadasAntes + " -> " + ocupadasDespues);
+		comparar();
+
+		// Después de compactar las posiciones se reutilizan bien
+		Integer otra = rutaService.crearRuta(ruta(2, 2, 2)).getIdRuta();
+		rutaService.actualizarRuta(ids.get(nuevas - 2), cambio);
+		comparar();
+		assertEquals(List.of(otra), modeloLectura.porIds(List.of(otra)).stream().map(Ruta::getIdRuta).toList());
+	}
+
+	@Test
+	void lecturasConcurrentesVenSiempreIndicesConsistentes() throws Exception {
+		List<OperacionRutaDTO> lote = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			lote.add(operacion(OperacionRutaDTO.Tipo.CREAR, null, ruta(1 + i % 2, 1 + i % 3, 1 + i % 5)));
+		}
+		List<Integer> ids = rutaLoteService.procesarLote(lote).stream().map(ResultadoOperacionRutaDTO::getIdRuta)
+				.toList();
+		int total = modeloLectura.todas().size();
+
+		AtomicBoolean escribiendo = new AtomicBoolean(true);
+		ExecutorService lectores = Executors.newFixedThreadPool(3);
+		List<Future<Integer>> lecturas = new ArrayList<>();
+		for (int h = 0; h < 3; h++) {
+			lecturas.add(lectores.submit(() -> {
+				int vueltas = 0;
+				while (escribiendo.get() || vueltas == 0) {
+					for (short prioridad = 1; prioridad <= 5; prioridad++) {
+						for (Ruta ruta : modeloLectura.porPrioridad(prioridad)) {
+							assertEquals(prioridad, ruta.getPrioridad());
+						}
+					}
+					for (int estado = 1; estado <= 2; estado++) {
+						for (Ruta ruta : modeloLectura.porEstado(estado)) {
+							assertEquals(estado, ruta.getIdEstado());
+						}
+					}
+					// Los cambios mueven rutas entre índices, nunca las duplican ni las pierden
+					List<Ruta> todas = modeloLectura.todas();
+					assertEquals(total, todas.size());
+					assertEquals(total, ids(todas).size());
+					int porTrafico = 0;
+					for (int trafico = 1; trafico <= 3; trafico++) {
+						porTrafico += modeloLectura.porTrafico(trafico).size();
+					}
+					assertTrue(porTrafico <= total);
+					vueltas++;
+				}
+				return vueltas;
+			}));
+		}
+		try {
+			for (int i = 0; i < 300; i++) {
+				Ruta cambio = new Ruta();
+				cambio.setPrioridad((short) (1 + i % 5));
+				cambio.setIdEstado(1 + i % 2);
+				rutaService.actualizarRuta(ids.get(i % ids.size()), cambio);
+			}
+		} finally {
+			escribiendo.set(false);
+		}
+		for (Future<Integer> lectura : lecturas) {
+			assertTrue(lectura.get() > 0);
+		}
+		lectores.shutdown();
+		comparar();
+	}
+
+	@Test
+	void invalidarNoPisaEscriturasLocalesPosterioresASuLectura() {
+		modeloLectura.todas();
+		Ruta cambiada = rutaService.crearRuta(ruta(1, 1, 1));
+		Ruta borrada = rutaService.crearRuta(ruta(1, 1, 1));
+		Ruta nueva = rutaService.crearRuta(ruta(1, 1, 1));
+
+		// Entre la lectura de invalidar y su candado se confirma una escritura local de cada ruta
+		AtomicBoolean primeraLectura = new AtomicBoolean(true);
+		RutaRepository espia = mock(RutaRepository.class, AdditionalAnswers.delegatesTo(rutaRepository));
+		doAnswer(invocacion -> {
+			List<Ruta> foto = rutaRepository.findAllById(invocacion.getArgument(0));
+			if (primeraLectura.getAndSet(false)) {
+				jdbcTemplate.update("UPDATE tbl_rutas SET prioridad = 4 WHERE id_ruta = ?", cambiada.getIdRuta());
+				Ruta confirmada = rutaRepository.findById(cambiada.getIdRuta()).orElseThrow();
+				confirmada.setPrioridad((short) 4);
+				modeloLectura.registrar(confirmada);
+				jdbcTemplate.update("DELETE FROM tbl_rutas WHERE id_ruta = ?", borrada.getIdRuta());
+				modeloLectura.quitar(borrada.getIdRuta());
+			}
+			return foto;
+		}).when(espia).findAllById(anyIterable());
+		ReflectionTestUtils.setField(modeloLectura, "rutaRepository", espia);
+		try {
+			jdbcTemplate.update("UPDATE tbl_rutas SET prioridad = 5 WHERE id_ruta = ?", nueva.getIdRuta());
+			modeloLectura.invalidar(List.of(cambiada.getIdRuta(), borrada.getIdRuta(), nueva.getIdRuta()));
+		} finally {
+			ReflectionTestUtils.setField(modeloLectura, "rutaRepository", rutaRepository);
+		}
+
+		// La foto vieja no revive la borrada ni devuelve la prioridad anterior; el cambio remoto sí se aplica
+		List<Ruta> vistas = modeloLectura.porIds(List.of(cambiada.getIdRuta(), borrada.getIdRuta(), nueva.getIdRuta()));
+		assertEquals(List.of(cambiada.getIdRuta(), nueva.getIdRuta()), vistas.stream().map(Ruta::getIdRuta).toList());
+		assertEquals((short) 4, vistas.get(0).getPrioridad());
+		assertEquals((short) 5, vistas.get(1).getPrioridad());
+		rutaService.eliminarRuta(cambiada.getIdRuta());
+		rutaService.eliminarRuta(nueva.getIdRuta());
+	}
+
+	// Cada consulta del modelo devuelve exactamente lo que devuelve el repositorio
+	private void comparar() {
+		assertEquals(new HashSet<>(rutaRepository.findAll()), new HashSet<>(modeloLectura.todas()));
+		assertEquals(rutaRepository.count(), modeloLectura.tamano());
+		for (int estado = 1; estado <= 4; estado++) {
+			assertEquals(new HashSet<>(rutaRepository.findByIdEstado(estado)),
+					new HashSet<>(modeloLectura.porEstado(estado)), "estado " + estado);
+		}
+		for (int trafico = 1; trafico <= 3; trafico++) {
+			assertEquals(new HashSet<>(rutaRepository.findByIdTrafico(trafico)),
+					new HashSet<>(modeloLectura.porTrafico(trafico)), "tráfico " + trafico);
+		}
+		for (short prioridad = 1; prioridad <= 5; prioridad++) {
+			assertEquals(new HashSet<>(rutaRepository.findByPrioridad(prioridad)),
+					new HashSet<>(modeloLectura.porPrioridad(prioridad)), "prioridad " + prioridad);
+		}
+		List<Ruta> ordenadas = modeloLectura.ordenadasPorTrafico();
+		for (int i = 1; i < ordenadas.size(); i++) {
+			assertTrue(ordenadas.get(i - 1).getIdTrafico() <= ordenadas.get(i).getIdTrafico());
+		}
+		assertEquals(ids(rutaRepository.findAll()), ids(ordenadas));
+	}
+
+	private static Set<Integer> ids(List<Ruta> rutas) {
+		Set<Integer> ids = new HashSet<>();
+		rutas.forEach(r -> ids.add(r.getIdRuta()));
+		return ids;
+	}
+
+	private static Ruta ruta(int estado, int trafico, int prioridad) {
+		Ruta ruta = new Ruta();
+		ruta.setDistanciaTotal(4.0 + prioridad);
+		ruta.setTiempoPromedio(10.0 + trafico);
+		ruta.setIdEstado(estado);
+		ruta.setIdTrafico(trafico);
+		ruta.setPrioridad((short) prioridad);
+		return ruta;
+	}
+
+	private static OperacionRutaDTO operacion(OperacionRutaDTO.Tipo tipo, Integer idRuta, Ruta ruta) {
+		OperacionRutaDTO operacion = new OperacionRutaDTO();
+		operacion.setTipo(tipo);
+		operacion.setIdRuta(idRuta);
+		operacion.setRuta(ruta);
+		return operacion;
+	}
+}
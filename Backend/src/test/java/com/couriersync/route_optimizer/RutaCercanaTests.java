@@ -0,0 +1,165 @@
+package com.couriersync.route_optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.couriersync.route_optimizer.dto.RutaCercanaDTO;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.optimizer.MatrizDistancias;
+import com.couriersync.route_optimizer.service.RutaService;
+
+@SpringBootTest
+class RutaCercanaTests {
+
+	// Zona propia para no cruzarse con rutas de otras pruebas
+	private static final double LATITUD_BASE = 6.20;
+	private static final double LONGITUD_BASE = -75.60;
+
+	@Autowired
+	private RutaService rutaService;
+
+	@Test
+	void cercanasYAreaCoincidenConFuerzaBruta() {
+		Random aleatorio = new Random(11);
+		Map<Integer, List<Coordenada>> trayectos = new HashMap<>();
+		Map<Integer, Integer> estados = new HashMap<>();
+		for (int i = 0; i < 300; i++) {
+			List<Coordenada> trayecto = new ArrayList<>();
+			for (int p = 0; p < 4; p++) {
+				trayecto.add(new Coordenada(LATITUD_BASE + aleatorio.nextDouble() * 0.2,
+						LONGITUD_BASE + aleatorio.nextDouble() * 0.2));
+			}
+			Ruta ruta = nuevaRuta(trayecto, i % 10 == 0 ? 2 : 1);
+			Ruta creada = rutaService.crearRuta(ruta);
+			trayectos.put(creada.getIdRuta(), trayecto);
+			estados.put(creada.getIdRuta(), creada.getIdEstado());
+		}
+
+		// La primera consulta carga el índice; la ruta siguiente entra de forma incremental
+		rutaService.buscarRutasCercanas(LATITUD_BASE, LONGITUD_BASE, 1, 1.0);
+		List<Coordenada> cercaDelCentro = List.of(new Coordenada(LATITUD_BASE + 0.1, LONGITUD_BASE + 0.1));
+		Ruta tardia = rutaService.crearRuta(nuevaRuta(cercaDelCentro, 1));
+		trayectos.put(tardia.getIdRuta(), cercaDelCentro);
+		estados.put(tardia.getIdRuta(), 1);
+
+		for (int consulta = 0; consulta < 20; consulta++) {
+			double latitud = LATITUD_BASE + aleatorio.nextDouble() * 0.2;
+			double longitud = LONGITUD_BASE + aleatorio.nextDouble() * 0.2;
+			List<RutaCercanaDTO> obtenidas = rutaService.buscarRutasCercanas(latitud, longitud, 15, 4.0);
+
+			List<double[]> esperadas = new ArrayList<>();
+			trayectos.forEach((idRuta, trayecto) -> {
+				double minima = Double.MAX_VALUE;
+				for (Coordenada punto : trayecto) {
+					minima = Math.min(minima, MatrizDistancias.haversineKm(latitud, longitud,
+							punto.getLatitud(), punto.getLongitud()));
+				}
+				if (minima <= 4.0 && estados.get(idRuta) == 1) {
+					esperadas.add(new double[] {idRuta, minima});
+				}
+			});
+			esperadas.sort((a, b) -> Double.compare(a[1], b[1]));
+
+			assertEquals(Math.min(15, esperadas.size()), obtenidas.size());
+			for (int i = 0; i < obtenidas.size(); i++) {
+				assertEquals(esperadas.get(i)[1], obtenidas.get(i).getDistanciaKm(), 0.001);
+			}
+		}
+
+		double latitudMinima = LATITUD_BASE + 0.05, latitudMaxima = LATITUD_BASE + 0.12;
+		double longitudMinima = LONGITUD_BASE + 0.03, longitudMaxima = LONGITUD_BASE + 0.09;
+		TreeSet<Integer> esperadasArea = new TreeSet<>();
+		trayectos.forEach((idRuta, trayecto) -> {
+			for (Coordenada punto : trayecto) {
+				if (estados.get(idRuta) == 1 && punto.getLatitud() >= latitudMinima
+						&& punto.getLatitud() <= latitudMaxima && punto.getLongitud() >= longitudMinima
+						&& punto.getLongitud() <= longitudMaxima) {
+					esperadasArea.add(idRuta);
+				}
+			}
+		});
+		List<Integer> obtenidasArea = new ArrayList<>();
+		rutaService.buscarRutasEnArea(latitudMinima, longitudMinima, latitudMaxima, longitudMaxima, 1000)
+				.forEach(ruta -> obtenidasArea.add(ruta.getIdRuta()));
+		assertEquals(new ArrayList<>(esperadasArea), obtenidasArea);
+
+		// Al borrar o mover la ruta deja de aparecer en su posición anterior
+		rutaService.eliminarRuta(tardia.getIdRuta());
+		assertFalse(idsCercanos(LATITUD_BASE + 0.1, LONGITUD_BASE + 0.1).contains(tardia.getIdRuta()));
+		Integer movida = obtenidasArea.get(0);
+		Ruta cambio = new Ruta();
+		cambio.setTrayecto(List.of(new Coordenada(LATITUD_BASE - 1.0, LONGITUD_BASE)));
+		rutaService.actualizarRuta(movida, cambio);
+		assertTrue(idsCercanos(LATITUD_BASE - 1.0, LONGITUD_BASE).contains(movida));
+		assertFalse(rutaService.buscarRutasEnArea(latitudMinima, longitudMinima, latitudMaxima, longitudMaxima, 1000)
+				.stream().anyMatch(ruta -> ruta.getIdRuta().equals(movida)));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> rutaService.buscarRutasCercanas(LATITUD_BASE, LONGITUD_BASE, 0, 1.0));
+		assertThrows(IllegalArgumentException.class,
+				() -> rutaService.buscarRutasEnArea(1.0, 0.0, 0.0, 1.0, 10));
+	}
+
+	@Test
+	void cercaDelPoloRecorreLasCeldasOcupadasYCoincideConFuerzaBruta() {
+		// Cerca del polo las celdas miden metros de ancho: 50 km serían miles de anillos
+		Random aleatorio = new Random(23);
+		Map<Integer, Coordenada> paradas = new HashMap<>();
+		for (int i = 0; i < 40; i++) {
+			Coordenada punto = new Coordenada(89.3 + aleatorio.nextDouble() * 0.6, -180 + aleatorio.nextDouble() * 360);
+			paradas.put(rutaService.crearRuta(nuevaRuta(List.of(punto), 1)).getIdRuta(), punto);
+		}
+
+		double latitud = 89.8;
+		double longitud = 10.0;
+		List<double[]> esperadas = new ArrayList<>();
+		paradas.forEach((idRuta, punto) -> {
+			double d = MatrizDistancias.haversineKm(latitud, longitud, punto.getLatitud(), punto.getLongitud());
+			if (d <= RutaService.RADIO_MAXIMO_KM) {
+				esperadas.add(new double[] {idRuta, d});
+			}
+		});
+		esperadas.sort((a, b) -> Double.compare(a[1], b[1]));
+		assertFalse(esperadas.isEmpty());
+
+		List<RutaCercanaDTO> obtenidas = rutaService.buscarRutasCercanas(latitud, longitud, 100,
+				RutaService.RADIO_MAXIMO_KM);
+		assertEquals(esperadas.size(), obtenidas.size());
+		for (int i = 0; i < obtenidas.size(); i++) {
+			assertEquals((int) esperadas.get(i)[0], obtenidas.get(i).getRuta().getIdRuta());
+			assertEquals(esperadas.get(i)[1], obtenidas.get(i).getDistanciaKm(), 0.001);
+		}
+		paradas.keySet().forEach(rutaService::eliminarRuta);
+	}
+
+	private List<Integer> idsCercanos(double latitud, double longitud) {
+		List<Integer> ids = new ArrayList<>();
+		rutaService.buscarRutasCercanas(latitud, longitud, 100, 0.5).forEach(c -> ids.add(c.getRuta().getIdRuta()));
+		return ids;
+	}
+
+	private static Ruta nuevaRuta(List<Coordenada> trayecto, int idEstado) {
+		Ruta ruta = new Ruta();
+		ruta.setDistanciaTotal(10.0);
+		ruta.setTiempoPromedio(20.0);
+		ruta.setIdTrafico(1);
+		ruta.setPrioridad((short) 1);
+		ruta.setIdEstado(idEstado);
+		ruta.setTrayecto(trayecto);
+		return ruta;
+	}
+}
@@ -0,0 +1,199 @@
+package com.couriersync.route_optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.couriersync.route_optimizer.dto.OperacionRutaDTO;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+import com.couriersync.route_optimizer.service.GeneradorIdRuta;
+import com.couriersync.route_optimizer.service.RutaLoteService;
+import com.couriersync.route_optimizer.service.RutaService;
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.repository.RolRepository;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RolService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RutaConcurrenciaTests {
+
+	private static final int HILOS = 16;
+	private static final int RUTAS_POR_HILO = 25;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private RutaRepository rutaRepository;
+
+	@Autowired
+	private RolRepository rolRepository;
+
+	@Autowired
+	private RolService rolService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private RutaService rutaService;
+
+	@Autowired
+	private RutaLoteService rutaLoteService;
+
+	@Test
+	void crearRutasConcurrentesNoRepiteIds() throws Exception {
+		Rol admin = new Rol();
+		admin.setIdRol(1);
+		admin.setNombreRol("Administrador");
+		rolRepository.save(admin);
+		rolService.refrescarCache();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setBearerAuth(jwtService.generateToken("1000", "admin", 1));
+		HttpEntity<Map<String, Object>> peticion = new HttpEntity<>(Map.of(
+				"distanciaTotal", 12.5,
+				"tiempoPromedio", 30.0,
+				"idTrafico", 1,
+				"prioridad", 2), headers);
+
+		long rutasPrevias = rutaRepository.count();
+		Set<Integer> ids = ConcurrentHashMap.newKeySet();
+		CountDownLatch salida = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+		List<Future<?>> tareas = new ArrayList<>();
+		for (int h = 0; h < HILOS; h++) {
+			tareas.add(pool.submit(() -> {
+				salida.await();
+				for (int i = 0; i < RUTAS_POR_HILO; i++) {
+					ResponseEntity<Map> respuesta = restTemplate.postForEntity("/routes/create", peticion, Map.class);
+					assertEquals(HttpStatus.CREATED, respuesta.getStatusCode());
+					Integer id = (Integer) respuesta.getBody().get("idRuta");
+					assertTrue(ids.add(id), "ID repetido: " + id);
+				}
+				return null;
+			}));
+		}
+		salida.countDown();
+		for (Future<?> tarea : tareas) {
+			tarea.get();
+		}
+		pool.shutdown();
+
+		assertEquals(HILOS * RUTAS_POR_HILO, ids.size());
+		assertEquals(rutasPrevias + HILOS * RUTAS_POR_HILO, rutaRepository.count());
+	}
+
+	@Test
+	void otroNodoRecibeRangosDisjuntos() {
+		GeneradorIdRuta nodoB = nodo(50);
+		GeneradorIdRuta nodoC = nodo(50);
+
+		Set<Integer> ids = ConcurrentHashMap.newKeySet();
+		for (int i = 0; i < 500; i++) {
+			assertTrue(ids.add(nodoB.siguienteId()));
+			assertTrue(ids.add(nodoC.siguienteId()));
+		}
+	}
+
+	@Test
+	void reiniciarUnNodoNoRetrocedeLaSecuencia() {
+		GeneradorIdRuta nodoA = nodo(50);
+		Set<Integer> ids = ConcurrentHashMap.newKeySet();
+		int primero = nodoA.siguienteId();
+		ids.add(primero);
+		// Una ruta con ID explícito por encima de la secuencia obliga a adelantarla al reiniciar
+		int explicito = primero + 120;
+		jdbcTemplate.update("INSERT INTO tbl_rutas (id_ruta, id_estado, distancia_total, tiempo_promedio, id_trafico, "
+				+ "prioridad) VALUES (?, 1, 1.0, 1.0, 1, 1)", explicito);
+		try {
+			// El nodo B reinicia mientras A todavía reparte su bloque
+			GeneradorIdRuta nodoB = nodo(50);
+			for (int i = 0; i < 200; i++) {
+				assertTrue(ids.add(nodoA.siguienteId()));
+				int id = nodoB.siguienteId();
+				assertTrue(ids.add(id));
+				assertTrue(id > explicito, "ID por debajo de la ruta explícita: " + id);
+			}
+			assertTrue(!ids.contains(explicito));
+		} finally {
+			jdbcTemplate.update("DELETE FROM tbl_rutas WHERE id_ruta = ?", explicito);
+		}
+	}
+
+	@Test
+	void idsExplicitosNoSeVuelvenARepartir() {
+		int primero = rutaService.crearRuta(ruta()).getIdRuta();
+		// Uno por delante de la secuencia y otro, por lote, junto al último repartido
+		int adelante = primero + 100;
+		Ruta conId = ruta();
+		conId.setIdRuta(adelante);
+		assertEquals(adelante, rutaService.crearRuta(conId).getIdRuta());
+		int cercano = primero + 1;
+		OperacionRutaDTO operacion = new OperacionRutaDTO();
+		operacion.setTipo(OperacionRutaDTO.Tipo.CREAR);
+		operacion.setIdRuta(cercano);
+		operacion.setRuta(ruta());
+		assertEquals(201, rutaLoteService.procesarLote(List.of(operacion)).get(0).getEstado());
+
+		int generado;
+		do {
+			// Un ID repetido fallaría aquí con violación de clave primaria
+			generado = rutaService.crearRuta(ruta()).getIdRuta();
+			assertNotEquals(adelante, generado);
+			assertNotEquals(cercano, generado);
+		} while (generado <= adelante);
+	}
+
+	@Test
+	void unNodoConOtroBloqueNoArranca() {
+		nodo(50).siguienteId();
+		GeneradorIdRuta distinto = nodo(10);
+		assertThrows(IllegalStateException.class, distinto::verificarIncremento);
+		assertThrows(IllegalStateException.class, distinto::siguienteId);
+	}
+
+	private static Ruta ruta() {
+		Ruta ruta = new Ruta();
+		ruta.setDistanciaTotal(7.0);
+		ruta.setTiempoPromedio(15.0);
+		ruta.setIdTrafico(1);
+		ruta.setPrioridad((short) 1);
+		return ruta;
+	}
+
+	private GeneradorIdRuta nodo(int tamanoBloque) {
+		GeneradorIdRuta nodo = new GeneradorIdRuta();
+		ReflectionTestUtils.setField(nodo, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(nodo, "tamanoBloque", tamanoBloque);
+		return nodo;
+	}
+}
@@ -0,0 +1,143 @@
+package com.couriersync.route_optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+import com.couriersync.route_optimizer.service.RutaService;
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.repository.RolRepository;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RolService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RutaExportacionTests {
+
+	// IDs explícitos lejos de los que reparte la secuencia; más filas que el fetch size de streamRutas (1000)
+	private static final int PRIMER_ID = 8_100_000;
+	private static final int RUTAS = 2500;
+
+	@Autowired
+	private RutaService rutaService;
+
+	@Autowired
+	private RutaRepository rutaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private RolRepository rolRepository;
+
+	@Autowired
+	private RolService rolService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@BeforeEach
+	void sembrar() {
+		List<Object[]> filas = new ArrayList<>();
+		for (int i = 0; i < RUTAS; i++) {
+			filas.add(new Object[] {PRIMER_ID + i, 1 + i % 2, 1 + i % 3, (short) (1 + i % 5)});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO tbl_rutas (id_ruta, id_estado, distancia_total, tiempo_promedio, "
+				+ "id_trafico, prioridad) VALUES (?, ?, 1.0, 1.0, ?, ?)", filas);
+	}
+
+	@AfterEach
+	void limpiar() {
+		jdbcTemplate.update("DELETE FROM tbl_rutas WHERE id_ruta >= ? AND id_ruta < ?", PRIMER_ID, PRIMER_ID + RUTAS);
+	}
+
+	@Test
+	void exportaUnObjetoPorLineaConTodasLasRutas() throws Exception {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		long exportadas = rutaService.exportarRutas(null, null, salida);
+
+		List<Ruta> todas = rutaRepository.findAll();
+		assertTrue(todas.size() >= RUTAS);
+		assertEquals(todas.size(), exportadas);
+		List<JsonNode> lineas = lineas(salida.toString(StandardCharsets.UTF_8));
+		assertEquals(exportadas, lineas.size());
+		// En orden de ID y sin repetidas
+		for (int i = 1; i < lineas.size(); i++) {
+			assertTrue(lineas.get(i - 1).get("idRuta").asInt() < lineas.get(i).get("idRuta").asInt());
+		}
+		assertEquals(todas.stream().map(Ruta::getIdRuta).sorted().toList(),
+				lineas.stream().map(l -> l.get("idRuta").asInt()).toList());
+
+		// Cada línea es la ruta completa, igual que en /routes/get/all
+		Ruta primera = rutaRepository.findById(PRIMER_ID).orElseThrow();
+		JsonNode exportada = lineas.stream().filter(l -> l.get("idRuta").asInt() == PRIMER_ID).findFirst().orElseThrow();
+		assertEquals(primera, objectMapper.treeToValue(exportada, Ruta.class));
+	}
+
+	@Test
+	void aplicaLosFiltrosEnElServicioYEnElEndpoint() throws Exception {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		long exportadas = rutaService.exportarRutas(2, 3, salida);
+		List<JsonNode> lineas = lineas(salida.toString(StandardCharsets.UTF_8));
+		long esperadas = rutaRepository.findByIdEstado(2).stream().filter(r -> r.getIdTrafico() == 3).count();
+		assertEquals(esperadas, exportadas);
+		assertEquals(esperadas, lineas.size());
+		for (JsonNode linea : lineas) {
+			assertEquals(2, linea.get("idEstado").asInt());
+			assertEquals(3, linea.get("idTrafico").asInt());
+		}
+
+		Rol admin = new Rol();
+		admin.setIdRol(1);
+		admin.setNombreRol("Administrador");
+		rolRepository.save(admin);
+		rolService.refrescarCache();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(jwtService.generateToken("1000", "admin", 1));
+		ResponseEntity<String> respuesta = restTemplate.exchange("/routes/export?idEstado=1", HttpMethod.GET,
+				new HttpEntity<>(headers), String.class);
+		assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+		assertTrue(respuesta.getHeaders().getContentType().toString().startsWith("application/x-ndjson"));
+		List<JsonNode> porEstado = lineas(respuesta.getBody());
+		assertEquals(rutaRepository.findByIdEstado(1).size(), porEstado.size());
+		assertTrue(porEstado.size() > 1000);
+		assertTrue(porEstado.stream().allMatch(l -> l.get("idEstado").asInt() == 1));
+	}
+
+	private List<JsonNode> lineas(String contenido) throws Exception {
+		assertTrue(contenido.endsWith("\n"));
+		List<JsonNode> lineas = new ArrayList<>();
+		for (String linea : contenido.split("\n")) {
+			JsonNode nodo = objectMapper.readTree(linea);
+			assertTrue(nodo.isObject(), linea);
+			lineas.add(nodo);
+		}
+		return lineas;
+	}
+}
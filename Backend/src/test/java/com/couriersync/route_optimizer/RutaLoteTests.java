@@ -0,0 +1,183 @@
+package com.couriersync.route_optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.couriersync.route_optimizer.dto.Coordenada;
+import com.couriersync.route_optimizer.dto.OperacionRutaDTO;
+import com.couriersync.route_optimizer.dto.ResultadoOperacionRutaDTO;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.repository.ParadaRepository;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+import com.couriersync.route_optimizer.service.RutaLoteService;
+import com.couriersync.route_optimizer.service.RutaService;
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.repository.RolRepository;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RolService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RutaLoteTests {
+
+	// IDs explícitos lejos de los que reparte la secuencia
+	private static final int ID_CREADA_Y_BORRADA = 7_000_001;
+	private static final int ID_INEXISTENTE = 7_000_002;
+
+	@Autowired
+	private RutaLoteService rutaLoteService;
+
+	@Autowired
+	private RutaService rutaService;
+
+	@Autowired
+	private RutaRepository rutaRepository;
+
+	@Autowired
+	private ParadaRepository paradaRepository;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private RolRepository rolRepository;
+
+	@Autowired
+	private RolService rolService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Test
+	void loteMixtoInformaCadaOperacionSinRevertirLasDemas() {
+		Integer actualizada = rutaService.crearRuta(ruta(2)).getIdRuta();
+		Integer borrada = rutaService.crearRuta(ruta(2)).getIdRuta();
+
+		Ruta incompleta = new Ruta();
+		incompleta.setDistanciaTotal(3.0);
+		Ruta cambios = new Ruta();
+		cambios.setPrioridad((short) 5);
+		Ruta conTrayecto = ruta(1);
+		conTrayecto.setTrayecto(List.of(new Coordenada(5.30, -74.70), new Coordenada(5.31, -74.70)));
+
+		List<OperacionRutaDTO> lote = new ArrayList<>();
+		lote.add(operacion(OperacionRutaDTO.Tipo.CREAR, null, conTrayecto));
+		lote.add(operacion(OperacionRutaDTO.Tipo.ACTUALIZAR, actualizada, cambios));
+		lote.add(operacion(OperacionRutaDTO.Tipo.ACTUALIZAR, ID_INEXISTENTE, cambios));
+		lote.add(operacion(OperacionRutaDTO.Tipo.CREAR, actualizada, ruta(1)));
+		lote.add(operacion(OperacionRutaDTO.Tipo.CREAR, null, incompleta));
+		lote.add(operacion(null, null, ruta(1)));
+		lote.add(operacion(OperacionRutaDTO.Tipo.CREAR, ID_CREADA_Y_BORRADA, ruta(1)));
+		lote.add(operacion(OperacionRutaDTO.Tipo.ELIMINAR, ID_CREADA_Y_BORRADA, null));
+		lote.add(operacion(OperacionRutaDTO.Tipo.ELIMINAR, borrada, null));
+		lote.add(operacion(OperacionRutaDTO.Tipo.ELIMINAR, null, null));
+		// Un ID borrado en el mismo lote no se puede volver a crear
+		lote.add(operacion(OperacionRutaDTO.Tipo.CREAR, borrada, ruta(1)));
+
+		List<ResultadoOperacionRutaDTO> resultados = rutaLoteService.procesarLote(lote);
+		assertEquals(List.of(201, 200, 404, 409, 400, 400, 201, 200, 200, 400, 409),
+				resultados.stream().map(ResultadoOperacionRutaDTO::getEstado).toList());
+		for (int i = 0; i < resultados.size(); i++) {
+			assertEquals(i, resultados.get(i).getIndice());
+		}
+		assertEquals("Error: Ruta no encontrada con id: " + ID_INEXISTENTE, resultados.get(2).getMensaje());
+		assertEquals("Error: Faltan campos obligatorios en la ruta.", resultados.get(4).getMensaje());
+
+		// Las operaciones válidas quedaron confirmadas pese a las fallidas
+		Integer creada = resultados.get(0).getIdRuta();
+		assertTrue(rutaRepository.existsById(creada));
+		assertEquals(2, paradaRepository.findByIdRutaInOrderByIdRutaAscOrdenAsc(List.of(creada)).size());
+		assertEquals((short) 5, rutaRepository.findById(actualizada).orElseThrow().getPrioridad());
+		assertFalse(rutaRepository.existsById(borrada));
+		assertFalse(rutaRepository.existsById(ID_CREADA_Y_BORRADA));
+		assertFalse(rutaRepository.existsById(ID_INEXISTENTE));
+	}
+
+	@Test
+	void endpointDevuelveLosResultadosYRechazaLotesVacios() {
+		Rol admin = new Rol();
+		admin.setIdRol(1);
+		admin.setNombreRol("Administrador");
+		rolRepository.save(admin);
+		rolService.refrescarCache();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setBearerAuth(jwtService.generateToken("1000", "admin", 1));
+
+		List<Map<String, Object>> lote = List.of(
+				Map.of("tipo", "CREAR", "ruta", Map.of("distanciaTotal", 8.0, "tiempoPromedio", 20.0,
+						"idTrafico", 2, "prioridad", 3)),
+				Map.of("tipo", "ELIMINAR", "idRuta", ID_INEXISTENTE));
+		ResponseEntity<List<ResultadoOperacionRutaDTO>> respuesta = restTemplate.exchange("/routes/bulk",
+				HttpMethod.POST, new HttpEntity<>(lote, headers),
+				new ParameterizedTypeReference<List<ResultadoOperacionRutaDTO>>() { });
+		assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+		assertEquals(201, respuesta.getBody().get(0).getEstado());
+		assertEquals(OperacionRutaDTO.Tipo.CREAR, respuesta.getBody().get(0).getTipo());
+		assertTrue(rutaRepository.existsById(respuesta.getBody().get(0).getIdRuta()));
+		assertEquals(404, respuesta.getBody().get(1).getEstado());
+
+		ResponseEntity<String> vacio = restTemplate.exchange("/routes/bulk", HttpMethod.POST,
+				new HttpEntity<>(List.of(), headers), String.class);
+		assertEquals(HttpStatus.BAD_REQUEST, vacio.getStatusCode());
+		assertEquals("Error: El lote no contiene operaciones.", vacio.getBody());
+	}
+
+	@Test
+	void actualizarDistingueRutaInexistenteDeDatosInvalidos() {
+		Rol admin = new Rol();
+		admin.setIdRol(1);
+		admin.setNombreRol("Administrador");
+		rolRepository.save(admin);
+		rolService.refrescarCache();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setBearerAuth(jwtService.generateToken("1000", "admin", 1));
+		Integer existente = rutaService.crearRuta(ruta(2)).getIdRuta();
+
+		Map<String, Object> fueraDeRango = Map.of("trayecto", List.of(Map.of("latitud", 95.0, "longitud", -74.0)));
+		ResponseEntity<String> invalida = restTemplate.exchange("/routes/update/" + existente, HttpMethod.PUT,
+				new HttpEntity<>(fueraDeRango, headers), String.class);
+		assertEquals(HttpStatus.BAD_REQUEST, invalida.getStatusCode());
+		assertTrue(invalida.getBody().startsWith("Error: Coordenada fuera de rango"), invalida.getBody());
+
+		ResponseEntity<String> inexistente = restTemplate.exchange("/routes/update/" + ID_INEXISTENTE,
+				HttpMethod.PUT, new HttpEntity<>(Map.of("prioridad", 1), headers), String.class);
+		assertEquals(HttpStatus.NOT_FOUND, inexistente.getStatusCode());
+		assertEquals("Error: Ruta no encontrada con id: " + ID_INEXISTENTE, inexistente.getBody());
+		rutaService.eliminarRuta(existente);
+	}
+
+	private static Ruta ruta(int prioridad) {
+		Ruta ruta = new Ruta();
+		ruta.setDistanciaTotal(10.0);
+		ruta.setTiempoPromedio(25.0);
+		ruta.setIdTrafico(1);
+		ruta.setPrioridad((short) prioridad);
+		return ruta;
+	}
+
+	private static OperacionRutaDTO operacion(OperacionRutaDTO.Tipo tipo, Integer idRuta, Ruta ruta) {
+		OperacionRutaDTO operacion = new OperacionRutaDTO();
+		operacion.setTipo(tipo);
+		operacion.setIdRuta(idRuta);
+		operacion.setRuta(ruta);
+		return operacion;
+	}
+}
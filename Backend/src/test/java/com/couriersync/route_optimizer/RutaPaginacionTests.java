@@ -0,0 +1,173 @@
+package com.couriersync.route_optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.couriersync.route_optimizer.dto.PaginaRutas;
+import com.couriersync.route_optimizer.entity.Ruta;
+import com.couriersync.route_optimizer.repository.RutaRepository;
+import com.couriersync.route_optimizer.service.OrdenRuta;
+import com.couriersync.route_optimizer.service.RutaService;
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.repository.RolRepository;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RolService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RutaPaginacionTests {
+
+	// IDs explícitos lejos de los que reparte la secuencia
+	private static final int PRIMER_ID = 8_000_000;
+	private static final int RUTAS = 150;
+	private static final int LIMITE = 7;
+
+	@Autowired
+	private RutaService rutaService;
+
+	@Autowired
+	private RutaRepository rutaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private RolRepository rolRepository;
+
+	@Autowired
+	private RolService rolService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@BeforeEach
+	void sembrar() {
+		// Solo dos valores de prioridad y de tráfico: casi todas las filas empatan en la clave
+		List<Object[]> filas = new ArrayList<>();
+		for (int i = 0; i < RUTAS; i++) {
+			filas.add(new Object[] {PRIMER_ID + i, 1 + i % 2, 1 + (i / 3) % 2, (short) (1 + (i / 5) % 2)});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO tbl_rutas (id_ruta, id_estado, distancia_total, tiempo_promedio, "
+				+ "id_trafico, prioridad) VALUES (?, ?, 1.0, 1.0, ?, ?)", filas);
+	}
+
+	@AfterEach
+	void limpiar() {
+		jdbcTemplate.update("DELETE FROM tbl_rutas WHERE id_ruta >= ? AND id_ruta < ?", PRIMER_ID, PRIMER_ID + RUTAS);
+	}
+
+	@Test
+	void recorrerTodasLasPaginasDevuelveCadaRutaUnaVezEnOrden() {
+		List<Ruta> todas = rutaRepository.findAll();
+		for (OrdenRuta orden : OrdenRuta.values()) {
+			for (boolean descendente : new boolean[] {false, true}) {
+				List<Ruta> recorridas = recorrer(null, null, orden, descendente);
+				String caso = orden + (descendente ? " desc" : " asc");
+				assertEquals(todas.size(), recorridas.size(), caso);
+				assertEquals(ids(todas), ids(recorridas), caso);
+
+				Comparator<Ruta> esperado = Comparator.comparingInt(clave(orden))
+						.thenComparingInt(Ruta::getIdRuta);
+				List<Ruta> ordenadas = new ArrayList<>(todas);
+				ordenadas.sort(descendente ? esperado.reversed() : esperado);
+				assertEquals(ordenadas.stream().map(Ruta::getIdRuta).toList(),
+						recorridas.stream().map(Ruta::getIdRuta).toList(), caso);
+			}
+		}
+
+		// Con filtro, la unión son exactamente las rutas que lo cumplen
+		List<Ruta> filtradas = recorrer(2, 1, OrdenRuta.PRIORIDAD, true);
+		assertEquals(ids(todas.stream().filter(r -> r.getIdEstado() == 2 && r.getIdTrafico() == 1).toList()),
+				ids(filtradas));
+		assertEquals(filtradas.size(), ids(filtradas).size());
+	}
+
+	@Test
+	void cursorDeOtroOrdenOAlteradoEsRechazado() {
+		PaginaRutas primera = rutaService.paginarRutas(null, null, OrdenRuta.PRIORIDAD, false, null, LIMITE);
+		String cursor = primera.getSiguienteCursor();
+		assertNotNull(cursor);
+
+		assertEquals("El cursor no corresponde al orden solicitado.", assertThrows(IllegalArgumentException.class,
+				() -> rutaService.paginarRutas(null, null, OrdenRuta.TRAFICO, false, cursor, LIMITE)).getMessage());
+		assertThrows(IllegalArgumentException.class,
+				() -> rutaService.paginarRutas(null, null, OrdenRuta.PRIORIDAD, true, cursor, LIMITE));
+
+		for (String alterado : new String[] {"no es base64!", cursor.substring(0, cursor.length() / 2),
+				codificar("OTRO:A:1:1"), codificar("PRIORIDAD:A:uno:1"), codificar("PRIORIDAD:A")}) {
+			assertEquals("Cursor inválido.", assertThrows(IllegalArgumentException.class,
+					() -> rutaService.paginarRutas(null, null, OrdenRuta.PRIORIDAD, false, alterado, LIMITE))
+					.getMessage(), alterado);
+		}
+
+		Rol admin = new Rol();
+		admin.setIdRol(1);
+		admin.setNombreRol("Administrador");
+		rolRepository.save(admin);
+		rolService.refrescarCache();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(jwtService.generateToken("1000", "admin", 1));
+		ResponseEntity<String> otroOrden = restTemplate.exchange("/routes/get/all/page?orden=trafico&cursor=" + cursor,
+				HttpMethod.GET, new HttpEntity<>(headers), String.class);
+		assertEquals(HttpStatus.BAD_REQUEST, otroOrden.getStatusCode());
+		ResponseEntity<String> invalido = restTemplate.exchange("/routes/get/all/page?orden=prioridad&cursor="
+				+ codificar("PRIORIDAD:A:x:1"), HttpMethod.GET, new HttpEntity<>(headers), String.class);
+		assertEquals(HttpStatus.BAD_REQUEST, invalido.getStatusCode());
+		assertEquals("Error: Cursor inválido.", invalido.getBody());
+	}
+
+	private List<Ruta> recorrer(Integer idEstado, Integer idTrafico, OrdenRuta orden, boolean descendente) {
+		List<Ruta> recorridas = new ArrayList<>();
+		String cursor = null;
+		do {
+			PaginaRutas pagina = rutaService.paginarRutas(idEstado, idTrafico, orden, descendente, cursor, LIMITE);
+			assertTrue(pagina.getRutas().size() <= LIMITE);
+			recorridas.addAll(pagina.getRutas());
+			cursor = pagina.getSiguienteCursor();
+		} while (cursor != null);
+		return recorridas;
+	}
+
+	private static ToIntFunction<Ruta> clave(OrdenRuta orden) {
+		return switch (orden) {
+			case ID -> Ruta::getIdRuta;
+			case PRIORIDAD -> Ruta::getPrioridad;
+			case TRAFICO -> Ruta::getIdTrafico;
+		};
+	}
+
+	private static HashSet<Integer> ids(List<Ruta> rutas) {
+		HashSet<Integer> ids = new HashSet<>();
+		rutas.forEach(r -> ids.add(r.getIdRuta()));
+		return ids;
+	}
+
+	private static String codificar(String plano) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,120 @@
+package com.couriersync.route_optimizer.optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MatrizMapeadaTests {
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void coincideConLaMatrizEnHeapYSobreviveAlReabrir() throws Exception {
+		// 150 ubicaciones cruzan dos bordes de bloque (64 y 128)
+		int n = 150;
+		SplittableRandom aleatorio = new SplittableRandom(5);
+		double[] latitudes = new double[n];
+		double[] longitudes = new double[n];
+		for (int i = 0; i < n; i++) {
+			latitudes[i] = 4.5 + aleatorio.nextDouble() * 0.3;
+			longitudes[i] = -74.2 + aleatorio.nextDouble() * 0.3;
+		}
+		MatrizDistancias referencia = MatrizDistancias.haversine(latitudes, longitudes, 30.0);
+		Path archivo = directorio.resolve("matriz.bin");
+
+		try (MatrizMapeada matriz = MatrizMapeada.crear(archivo, 200, 30.0)) {
+			for (int i = 0; i < n; i++) {
+				assertEquals(i, matriz.agregar(latitudes[i], longitudes[i]));
+			}
+			assertEquals(7, matriz.agregar(latitudes[7], longitudes[7]));
+			compararCon(referencia, matriz);
+		}
+
+		try (MatrizMapeada matriz = MatrizMapeada.abrir(archivo)) {
+			assertEquals(n, matriz.tamano());
+			assertEquals(42, matriz.indiceDe(latitudes[42], longitudes[42]));
+			compararCon(referencia, matriz);
+
+			// Vista en otro orden y a la mitad de velocidad
+			MatrizCostos vista = matriz.vista(new int[] {149, 3, 64}, 2.0);
+			assertEquals(referencia.distancia(149, 64), vista.distancia(0, 2), 1e-4);
+			assertEquals(referencia.tiempo(3, 64) * 2.0, vista.tiempo(1, 2), 1e-3);
+
+			assertEquals(n, matriz.agregar(4.0, -74.0));
+			assertEquals(MatrizDistancias.haversineKm(4.0, -74.0, latitudes[0], longitudes[0]),
+					matriz.distancia(n, 0), 1e-4);
+		}
+	}
+
+	@Test
+	void rechazaAltasSinCapacidad() throws Exception {
+		try (MatrizMapeada matriz = MatrizMapeada.crear(directorio.resolve("llena.bin"), 2, 30.0)) {
+			matriz.agregar(4.0, -74.0);
+			matriz.agregar(4.1, -74.0);
+			assertThrows(IllegalStateException.class, () -> matriz.agregar(4.2, -74.0));
+		}
+	}
+
+	@Test
+	void compactaConservandoLasUbicacionesRecientesYSusCostos() throws Exception {
+		try (MatrizMapeada matriz = MatrizMapeada.crear(directorio.resolve("compacta.bin"), 8, 30.0)) {
+			double[] viejas = {4.0, 4.1, 4.2, 4.3, 4.4};
+			double[] recientes = {4.5, 4.6, 4.7};
+			matriz.vistaDe(viejas, longitudes(viejas), 1.0).close();
+			matriz.vistaDe(recientes, longitudes(recientes), 1.0).close();
+			int desde = matriz.indiceDe(4.5, -74.0);
+			int hasta = matriz.indiceDe(4.7, -74.0);
+			// Un costo fijado (red vial) sobrevive a la compactación
+			matriz.fijar(desde, hasta, 99.0, 120.0);
+			assertEquals(0, matriz.espacioLibre());
+
+			// No caben: se conservan las cuatro más recientes (la mitad) y se agregan las dos nuevas
+			double[] nuevas = {4.5, 4.7, 5.0, 5.1};
+			try (MatrizMapeada.Vista vista = matriz.vistaDe(nuevas, longitudes(nuevas), 2.0)) {
+				assertEquals(1, matriz.getCompactaciones());
+				assertEquals(6, matriz.tamano());
+				assertEquals(-1, matriz.indiceDe(4.3, -74.0));
+				assertTrue(matriz.indiceDe(4.4, -74.0) >= 0);
+				assertTrue(matriz.indiceDe(4.6, -74.0) >= 0);
+				assertEquals(99.0, vista.distancia(0, 1), 1e-4);
+				assertEquals(240.0, vista.tiempo(0, 1), 1e-3);
+				assertEquals(MatrizDistancias.haversineKm(4.5, -74.0, 5.1, -74.0), vista.distancia(0, 3), 1e-4);
+
+				// Con una vista abierta no se mueven índices: se rechaza en lugar de compactar
+				double[] otras = {6.0, 6.1, 6.2, 6.3};
+				assertThrows(IllegalStateException.class, () -> matriz.vistaDe(otras, longitudes(otras), 1.0));
+			}
+			double[] otras = {6.0, 6.1, 6.2, 6.3};
+			matriz.vistaDe(otras, longitudes(otras), 1.0).close();
+			assertEquals(2, matriz.getCompactaciones());
+		}
+		try (MatrizMapeada matriz = MatrizMapeada.abrir(directorio.resolve("compacta.bin"))) {
+			assertEquals(8, matriz.tamano());
+			assertEquals(MatrizDistancias.haversineKm(6.0, -74.0, 6.3, -74.0),
+					matriz.distancia(matriz.indiceDe(6.0, -74.0), matriz.indiceDe(6.3, -74.0)), 1e-4);
+		}
+	}
+
+	private static double[] longitudes(double[] latitudes) {
+		double[] longitudes = new double[latitudes.length];
+		Arrays.fill(longitudes, -74.0);
+		return longitudes;
+	}
+
+	private static void compararCon(MatrizDistancias referencia, MatrizCostos matriz) {
+		for (int i = 0; i < referencia.tamano(); i++) {
+			for (int j = 0; j < referencia.tamano(); j++) {
+				assertEquals(referencia.distancia(i, j), matriz.distancia(i, j), 1e-4);
+				assertEquals(referencia.tiempo(i, j), matriz.tiempo(i, j), 1e-3);
+			}
+		}
+	}
+}
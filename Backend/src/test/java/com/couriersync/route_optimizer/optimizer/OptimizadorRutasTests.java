@@ -0,0 +1,65 @@
+package com.couriersync.route_optimizer.optimizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class OptimizadorRutasTests {
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@AfterEach
+	void cerrar() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void visitaCadaParadaUnaVezSinExcederCapacidad() {
+		int n = 301;
+		SplittableRandom aleatorio = new SplittableRandom(1);
+		double[] latitudes = new double[n];
+		double[] longitudes = new double[n];
+		int[] demandas = new int[n];
+		for (int i = 1; i < n; i++) {
+			latitudes[i] = aleatorio.nextDouble() * 0.3;
+			longitudes[i] = aleatorio.nextDouble() * 0.3;
+			demandas[i] = 1 + aleatorio.nextInt(4);
+		}
+		int[] capacidades = new int[6];
+		Arrays.fill(capacidades, 160);
+		ProblemaRuteo problema = new ProblemaRuteo(
+				MatrizDistancias.haversine(latitudes, longitudes, 30.0), demandas, capacidades);
+
+		SolucionRuteo construida = new EspacioBusqueda(problema, new int[0], 0)
+				.resolver(new SplittableRandom(3));
+		SolucionRuteo solucion = new OptimizadorRutas(pool).resolver(problema, 4, 3);
+
+		boolean[] visitada = new boolean[n];
+		for (int v = 0; v < solucion.getVehiculos(); v++) {
+			int carga = 0;
+			for (int ubicacion : solucion.ruta(v)) {
+				assertTrue(ubicacion > 0 && !visitada[ubicacion], "Parada repetida: " + ubicacion);
+				visitada[ubicacion] = true;
+				carga += demandas[ubicacion];
+			}
+			assertTrue(carga <= capacidades[v]);
+		}
+		for (int i = 1; i < n; i++) {
+			assertTrue(visitada[i], "Parada sin visitar: " + i);
+		}
+
+		// La búsqueda local debe mejorar la construcción sin vecinos
+		assertTrue(solucion.getDistanciaTotal() < construida.getDistanciaTotal());
+		double suma = 0;
+		for (int v = 0; v < solucion.getVehiculos(); v++) {
+			suma += solucion.distancia(v);
+		}
+		assertEquals(suma, solucion.getDistanciaTotal(), 1e-6);
+	}
+}
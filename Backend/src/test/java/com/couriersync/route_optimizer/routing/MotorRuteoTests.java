@@ -0,0 +1,75 @@
+package com.couriersync.route_optimizer.routing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.couriersync.route_optimizer.dto.Coordenada;
+
+class MotorRuteoTests {
+
+	private static final Path RED_PRUEBA = Path.of("src/test/resources/grafo/red-prueba.txt");
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void aEstrellaCoincideConDijkstra() throws Exception {
+		// Con landmarks precalculados en el archivo y calculados al abrirlo
+		for (int landmarks : new int[] {8, 0}) {
+			Path binario = directorio.resolve("red-" + landmarks + ".bin");
+			assertArrayEquals(new int[] {402, 1218}, ConversorGrafo.convertir(RED_PRUEBA, binario, landmarks));
+			GrafoVial grafo = GrafoVial.abrir(binario);
+			assertEquals(GrafoVial.LANDMARKS_POR_DEFECTO, grafo.getLandmarks());
+
+			BusquedaVial aEstrella = new BusquedaVial(grafo);
+			BusquedaVial dijkstra = new BusquedaVial(grafo);
+			SplittableRandom aleatorio = new SplittableRandom(11);
+			for (int i = 0; i < 300; i++) {
+				int origen = aleatorio.nextInt(grafo.getNodos());
+				int destino = aleatorio.nextInt(grafo.getNodos());
+				long[] esperado = dijkstra.unoAMuchos(origen, new int[] {destino})[0];
+				long[] obtenido = aEstrella.puntoAPunto(origen, destino);
+				if (esperado[0] < 0) {
+					assertNull(obtenido);
+				} else {
+					assertEquals(esperado[0], obtenido[0], "tiempo " + origen + " -> " + destino);
+				}
+			}
+		}
+	}
+
+	@Test
+	void calculaTramosPorCoordenadas() throws Exception {
+		Path binario = directorio.resolve("red.bin");
+		ConversorGrafo.convertir(RED_PRUEBA, binario, 4);
+		MotorRuteo motor = new MotorRuteo(GrafoVial.abrir(binario));
+
+		// Cinco cuadras por la calle de la fila 0, doble vía a 30 km/h
+		TramoVial tramo = motor.ruta(4.6000, -74.1000, 4.6001, -74.0950);
+		assertEquals(0.554, tramo.distanciaKm(), 0.002);
+		assertEquals(tramo.distanciaKm() / 30 * 60, tramo.tiempoMin(), 0.01);
+
+		TramoVial idaYVuelta = motor.recorrido(List.of(
+				new Coordenada(4.6000, -74.1000), new Coordenada(4.6000, -74.0950), new Coordenada(4.6000, -74.1000)));
+		assertEquals(2 * tramo.distanciaKm(), idaYVuelta.distanciaKm(), 1e-9);
+
+		TramoVial[] tramos = motor.unoAMuchos(4.6000, -74.1000,
+				new double[] {4.6000, 4.5980, 10.0}, new double[] {-74.0950, -74.1025, -74.0});
+		assertEquals(tramo, tramos[0]);
+		assertNull(tramos[1]);
+		assertNull(tramos[2]);
+
+		// Nodos aislados y coordenadas fuera de la red
+		assertThrows(IllegalArgumentException.class, () -> motor.ruta(4.6000, -74.1000, 4.5980, -74.1025));
+		assertThrows(IllegalArgumentException.class, () -> motor.ruta(4.6000, -74.1000, 4.7000, -74.1000));
+	}
+}
@@ -0,0 +1,74 @@
+package com.couriersync.users;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.couriersync.users.service.BitacoraSeguridad;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BitacoraSeguridadTests {
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void escribeRotaMuestreaYOcultaSecretos() throws Exception {
+		BitacoraSeguridad bitacora = new BitacoraSeguridad(directorio.toString(), 1 << 16, 64 * 1024, 50,
+				"MFA_EXITOSO=0");
+		int hilos = 4;
+		int porHilo = 2000;
+		List<Thread> productores = new ArrayList<>();
+		for (int h = 0; h < hilos; h++) {
+			int hilo = h;
+			Thread productor = new Thread(() -> {
+				for (int i = 0; i < porHilo; i++) {
+					bitacora.registrar(BitacoraSeguridad.Tipo.LOGIN_FALLIDO, "usuario", "u\"" + hilo + "\n" + i,
+							"contraseña", "Secreta#1", "sesion", "eyJhbGciOiJIUzI1NiJ9.e30.firma", "intento", i);
+					bitacora.registrar(BitacoraSeguridad.Tipo.MFA_EXITOSO, "cedula", "1");
+				}
+			});
+			productores.add(productor);
+			productor.start();
+		}
+		for (Thread productor : productores) {
+			productor.join();
+		}
+		bitacora.cerrar();
+
+		Map<String, Object> estadisticas = bitacora.estadisticas();
+		assertEquals((long) hilos * porHilo, estadisticas.get("omitidosPorMuestreo"));
+		assertEquals(0L, estadisticas.get("descartados"));
+		assertTrue((Long) estadisticas.get("rotaciones") > 0);
+
+		ObjectMapper json = new ObjectMapper();
+		List<String> lineas = new ArrayList<>();
+		try (Stream<Path> archivos = Files.list(directorio)) {
+			for (Path archivo : archivos.toList()) {
+				assertTrue(Files.size(archivo) <= 64 * 1024);
+				lineas.addAll(Files.readAllLines(archivo, StandardCharsets.UTF_8));
+			}
+		}
+		assertEquals(hilos * porHilo, lineas.size());
+		assertEquals(estadisticas.get("escritos"), (long) lineas.size());
+		for (String linea : lineas) {
+			assertFalse(linea.contains("Secreta#1") || linea.contains("eyJ"));
+			JsonNode evento = json.readTree(linea);
+			assertEquals("LOGIN_FALLIDO", evento.get("tipo").asText());
+			assertEquals("[REDACTADO]", evento.get("contraseña").asText());
+			assertTrue(evento.get("usuario").asText().startsWith("u\""));
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.couriersync.users;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.couriersync.cache.TransporteInvalidacion;
+import com.couriersync.users.dto.UsuarioRegistroDTO;
+import com.couriersync.users.entity.Usuario;
+import com.couriersync.users.service.AuthService;
+import com.couriersync.users.service.CacheUsuarios;
+import com.couriersync.users.service.SignUpService;
+import com.couriersync.users.service.TokenVerificado;
+import com.couriersync.users.service.UsuarioService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class CacheUsuariosTests {
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private SignUpService signUpService;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private TransporteInvalidacion transporte;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void registroRolYAvisosMantienenLaCacheAlDia() throws Exception {
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		// Nombre inexistente: la segunda búsqueda no llega a la base
+		assertNull(authService.findByUsuario("cacheado"));
+		estadisticas.clear();
+		assertNull(authService.findByUsuario("cacheado"));
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+
+		// El registro quita el negativo y deja al usuario en la caché
+		signUpService.registrarUsuario(registro("4001", "cacheado"));
+		estadisticas.clear();
+		Usuario usuario = authService.findByUsuario("cacheado");
+		assertNotNull(usuario);
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+
+		// Modificar la copia devuelta no altera la caché
+		usuario.setRol(1);
+		assertEquals(3, authService.findByCedula("4001").getRol());
+
+		usuarioService.cambiarRolDesdeToken(new TokenVerificado("x", "9999", "admin", 1, Long.MAX_VALUE), "4001", 2);
+		estadisticas.clear();
+		assertEquals(2, authService.findByUsuario("cacheado").getRol());
+		assertEquals(2, authService.findByCedula("4001").getRol());
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+
+		// Otro nodo cambia el usuario y avisa por el bus
+		jdbcTemplate.update("update tbl_usuarios set rol = 1 where cedula = ?", "4001");
+		transporte.enviar("otronodo|" + CacheUsuarios.REGION_USUARIOS + "|4001");
+		for (int i = 0; i < 100 && authService.findByCedula("4001").getRol() != 1; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(1, authService.findByCedula("4001").getRol());
+		assertEquals(1, authService.findByUsuario("cacheado").getRol());
+	}
+
+	private static UsuarioRegistroDTO registro(String cedula, String nombreUsuario) {
+		UsuarioRegistroDTO dto = new UsuarioRegistroDTO();
+		dto.setCedula(cedula);
+		dto.setUsuario(nombreUsuario);
+		dto.setNombre("Nombre " + cedula);
+		dto.setApellido("Apellido");
+		dto.setEmail(nombreUsuario + "@couriersync.test");
+		dto.setCelular("300" + cedula);
+		dto.setContraseña("Contrasena#2025");
+		dto.setConfirmarContraseña("Contrasena#2025");
+		dto.setRol(3);
+		return dto;
+	}
+}
@@ -0,0 +1,65 @@
+package com.couriersync.users;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.couriersync.users.service.HashContrasenas;
+import com.couriersync.users.service.ServicioSaturadoException;
+
+class HashContrasenasTests {
+
+	@Test
+	void rechazaCuandoLaColaEstaLlena() throws Exception {
+		HashContrasenas hash = new HashContrasenas(1, 1, 10_000);
+		try {
+			String cifrada = hash.cifrar("Contrasena#2025");
+			assertTrue(hash.verificar("Contrasena#2025", cifrada));
+			assertFalse(hash.verificar("otra", cifrada));
+
+			int solicitudes = 8;
+			ExecutorService clientes = Executors.newFixedThreadPool(solicitudes);
+			CountDownLatch salida = new CountDownLatch(1);
+			List<Future<Boolean>> resultados = new ArrayList<>();
+			for (int i = 0; i < solicitudes; i++) {
+				resultados.add(clientes.submit(() -> {
+					salida.await();
+					return hash.verificar("Contrasena#2025", cifrada);
+				}));
+			}
+			salida.countDown();
+
+			int aceptadas = 0;
+			int rechazadas = 0;
+			for (Future<Boolean> resultado : resultados) {
+				try {
+					assertTrue(resultado.get());
+					aceptadas++;
+				} catch (ExecutionException e) {
+					assertTrue(e.getCause() instanceof ServicioSaturadoException);
+					assertTrue(((ServicioSaturadoException) e.getCause()).getReintentarEnSegundos() >= 1);
+					rechazadas++;
+				}
+			}
+			clientes.shutdown();
+
+			// Un hilo ocupado y un lugar en cola: al menos dos pasan y el resto se rechaza al instante
+			assertTrue(aceptadas >= 2);
+			assertTrue(rechazadas >= 1);
+			assertEquals(solicitudes, aceptadas + rechazadas);
+			assertEquals((long) rechazadas, hash.estadisticas().get("rechazadas"));
+		} finally {
+			hash.cerrar();
+		}
+	}
+}
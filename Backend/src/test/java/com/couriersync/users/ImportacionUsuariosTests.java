@@ -0,0 +1,148 @@
+package com.couriersync.users;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.couriersync.users.dto.ErrorImportacionDTO;
+import com.couriersync.users.dto.ResultadoImportacionDTO;
+import com.couriersync.users.entity.Usuario;
+import com.couriersync.users.repository.UsuarioRepository;
+import com.couriersync.users.service.AuthService;
+import com.couriersync.users.service.HashContrasenas;
+import com.couriersync.users.service.ImportacionUsuarios;
+
+@SpringBootTest(properties = "usuarios.importacion.lote=2")
+class ImportacionUsuariosTests {
+
+	private static final String CONTRASENA = "Contrasena#2025";
+
+	@Autowired
+	private ImportacionUsuarios importacion;
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private HashContrasenas hashContrasenas;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Test
+	void importaCsvYNdjsonInformandoCadaFilaRechazada() throws Exception {
+		// Queda como negativo en la caché antes de importarlo
+		assertNull(authService.findByUsuario("imp1"));
+
+		String csv = String.join("\n",
+				"usuario,cedula,nombre,apellido,email,celular,contraseña,rol",
+				fila("imp1", "5001", 3),
+				fila("imp2", "5002", 3),
+				"imp3,5003,\"Nombre, 5003\",Apellido,imp3@couriersync.test,3005003,corta,3",
+				fila("imp4", "5001", 3),
+				"",
+				fila("imp5", "5005", 7),
+				"imp6,5006,\"sin cerrar,Apellido");
+		ResultadoImportacionDTO resultado = importar(csv, ImportacionUsuarios.Formato.CSV);
+
+		assertEquals(6, resultado.getFilas());
+		assertEquals(2, resultado.getCreados());
+		List<ErrorImportacionDTO> errores = resultado.getErrores();
+		assertEquals(List.of(4, 5, 7, 8), errores.stream().map(ErrorImportacionDTO::getFila).toList());
+		assertEquals(400, errores.get(0).getEstado());
+		assertEquals(409, errores.get(1).getEstado());
+		assertEquals("Error: La cédula está repetida en el archivo.", errores.get(1).getMensaje());
+		assertEquals("Error: Rol inválido.", errores.get(2).getMensaje());
+		assertEquals(400, errores.get(3).getEstado());
+
+		// El negativo se quitó y la contraseña quedó cifrada con BCrypt
+		var usuario = authService.findByUsuario("imp1");
+		assertNotNull(usuario);
+		assertTrue(hashContrasenas.verificar(CONTRASENA, usuario.getContraseña()));
+
+		String ndjson = String.join("\n",
+				json("imp2", "5102"),
+				json("imp7", "5107"),
+				"{no es json");
+		resultado = importar(ndjson, ImportacionUsuarios.Formato.NDJSON);
+		assertEquals(3, resultado.getFilas());
+		assertEquals(1, resultado.getCreados());
+		assertEquals("Error: El nombre de usuario ya está en uso.", resultado.getErrores().get(0).getMensaje());
+		assertEquals(1, resultado.getErrores().get(0).getFila());
+		assertEquals(3, resultado.getErrores().get(1).getFila());
+		assertNotNull(authService.findByCedula("5107"));
+	}
+
+	@Test
+	void altaConcurrenteSoloRechazaLaFilaEnConflicto() throws Exception {
+		// Otro registro toma la cédula 5209 justo después de la consulta de conflictos del lote
+		AtomicBoolean registrado = new AtomicBoolean();
+		UsuarioRepository concurrente = mock(UsuarioRepository.class, AdditionalAnswers.delegatesTo(usuarioRepository));
+		doAnswer(invocacion -> {
+			Object existentes = invocacion.getMethod().invoke(usuarioRepository, invocacion.getArguments());
+			if (registrado.compareAndSet(false, true)) {
+				Usuario usuario = new Usuario();
+				usuario.setCedula("5209");
+				usuario.setUsuario("concurrente");
+				usuario.setNombre("Nombre concurrente");
+				usuario.setApellido("Apellido");
+				usuario.setEmail("concurrente@couriersync.test");
+				usuario.setCelular("3005209");
+				usuario.setContraseña(hashContrasenas.cifrar(CONTRASENA));
+				usuario.setRol(3);
+				usuarioRepository.save(usuario);
+			}
+			return existentes;
+		}).when(concurrente).buscarConflictos(any(), any(), any(), any(), any());
+
+		ReflectionTestUtils.setField(importacion, "usuarioRepository", concurrente);
+		ResultadoImportacionDTO resultado;
+		try {
+			resultado = importar(String.join("\n",
+					"usuario,cedula,nombre,apellido,email,celular,contraseña,rol",
+					fila("imp8", "5208", 3),
+					fila("imp9", "5209", 3)), ImportacionUsuarios.Formato.CSV);
+		} finally {
+			ReflectionTestUtils.setField(importacion, "usuarioRepository", usuarioRepository);
+		}
+
+		assertEquals(1, resultado.getCreados());
+		assertEquals(1, resultado.getErrores().size());
+		ErrorImportacionDTO error = resultado.getErrores().get(0);
+		assertEquals(3, error.getFila());
+		assertEquals(409, error.getEstado());
+		assertEquals("Error: La cédula ya está registrada.", error.getMensaje());
+		assertNotNull(authService.findByCedula("5208"));
+		assertEquals("concurrente", authService.findByCedula("5209").getUsuario());
+	}
+
+	private ResultadoImportacionDTO importar(String contenido, ImportacionUsuarios.Formato formato) throws Exception {
+		return importacion.importar(new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)), formato);
+	}
+
+	private static String fila(String usuario, String cedula, int rol) {
+		return String.join(",", usuario, cedula, "Nombre " + usuario, "Apellido", usuario + "@couriersync.test",
+				"300" + usuario, CONTRASENA, String.valueOf(rol));
+	}
+
+	private static String json(String usuario, String cedula) {
+		return "{\"usuario\":\"" + usuario + "\",\"cedula\":\"" + cedula + "\",\"nombre\":\"Nombre " + cedula
+				+ "\",\"apellido\":\"Apellido\",\"email\":\"" + usuario + cedula + "@couriersync.test\",\"celular\":\"31"
+				+ cedula + "\",\"contraseña\":\"" + CONTRASENA + "\",\"rol\":3}";
+	}
+}
@@ -0,0 +1,99 @@
+package com.couriersync.users;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.couriersync.users.entity.Usuario;
+import com.couriersync.users.repository.UsuarioRepository;
+import com.couriersync.users.service.HashContrasenas;
+import com.couriersync.users.service.MfaService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoginConsultasTests {
+
+	private static final String CONTRASENA = "Contrasena#2025";
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private HashContrasenas hashContrasenas;
+
+	@Autowired
+	private MfaService mfaService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void loginConMfaHaceUnaSolaConsulta() throws Exception {
+		String secreto = mfaService.generateSecret();
+		usuarioRepository.save(usuario("3001", "conmfa", secreto));
+		usuarioRepository.save(usuario("3002", "sinmfa", null));
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		estadisticas.clear();
+		ResponseEntity<Map> login = restTemplate.postForEntity("/login",
+				Map.of("username", "conmfa", "contraseña", CONTRASENA, "rol", 3), Map.class);
+		assertEquals(HttpStatus.OK, login.getStatusCode());
+		String desafio = (String) login.getBody().get("desafio");
+		assertNotNull(desafio);
+
+		ResponseEntity<Map> verificacion = restTemplate.postForEntity("/api/mfa/verify",
+				Map.of("desafio", desafio, "code", mfaService.generateTestCode(secreto)), Map.class);
+		assertEquals(HttpStatus.OK, verificacion.getStatusCode());
+		assertNotNull(verificacion.getBody().get("token"));
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+
+		// Sin desafío no hay token, aunque la cédula y el código sean correctos
+		ResponseEntity<String> sinDesafio = restTemplate.postForEntity("/api/mfa/verify",
+				Map.of("cedula", "3001", "code", mfaService.generateTestCode(secreto)), String.class);
+		assertEquals(HttpStatus.UNAUTHORIZED, sinDesafio.getStatusCode());
+		assertTrue(restTemplate.getForEntity("/api/mfa/test-code/3001", String.class).getStatusCode().is4xxClientError());
+
+		// El desafío ya se consumió
+		ResponseEntity<String> repetida = restTemplate.postForEntity("/api/mfa/verify",
+				Map.of("desafio", desafio, "code", mfaService.generateTestCode(secreto)), String.class);
+		assertEquals(HttpStatus.UNAUTHORIZED, repetida.getStatusCode());
+
+		estadisticas.clear();
+		ResponseEntity<Map> directo = restTemplate.postForEntity("/login",
+				Map.of("username", "sinmfa", "contraseña", CONTRASENA, "rol", 3), Map.class);
+		assertEquals(HttpStatus.OK, directo.getStatusCode());
+		assertNotNull(directo.getBody().get("token"));
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+	}
+
+	private Usuario usuario(String cedula, String nombreUsuario, String secreto) {
+		Usuario usuario = new Usuario();
+		usuario.setCedula(cedula);
+		usuario.setUsuario(nombreUsuario);
+		usuario.setNombre("Nombre " + cedula);
+		usuario.setApellido("Apellido");
+		usuario.setEmail(nombreUsuario + "@couriersync.test");
+		usuario.setCelular("300" + cedula);
+		usuario.setContraseña(hashContrasenas.cifrar(CONTRASENA));
+		usuario.setRol(3);
+		usuario.setMfaEnabled(secreto != null);
+		usuario.setMfaSecret(secreto);
+		return usuario;
+	}
+}
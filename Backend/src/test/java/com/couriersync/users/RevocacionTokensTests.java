@@ -0,0 +1,93 @@
+package com.couriersync.users;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.couriersync.users.repository.TokenRevocadoRepository;
+import com.couriersync.users.service.JwtService;
+import com.couriersync.users.service.RevocacionTokens;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RevocacionTokensTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private RevocacionTokens revocacionTokens;
+
+	@Autowired
+	private TokenRevocadoRepository tokenRevocadoRepository;
+
+	@Test
+	void logoutRevocaSoloEseTokenYSobreviveAReinicio() {
+		String cerrado = jwtService.generateToken("2001", "conductor", 3);
+		String otro = jwtService.generateToken("2002", "conductor2", 3);
+		assertEquals(HttpStatus.FORBIDDEN, consultar(otro).getStatusCode());
+
+		ResponseEntity<String> logout = restTemplate.exchange("/logout", HttpMethod.POST,
+				new HttpEntity<>(cabeceras(cerrado)), String.class);
+		assertEquals(HttpStatus.OK, logout.getStatusCode());
+
+		ResponseEntity<String> rechazada = consultar(cerrado);
+		assertEquals(HttpStatus.UNAUTHORIZED, rechazada.getStatusCode());
+		assertEquals("Token revocado", rechazada.getBody());
+		assertEquals(HttpStatus.FORBIDDEN, consultar(otro).getStatusCode());
+
+		// Se recarga desde tbl_tokens_revocados como al iniciar otra instancia
+		assertTrue(tokenRevocadoRepository.existsById(jwtService.verificar(cerrado).resumen()));
+		revocacionTokens.cargar();
+		assertEquals(HttpStatus.UNAUTHORIZED, consultar(cerrado).getStatusCode());
+	}
+
+	@Test
+	void siNoSePuedeGuardarResponde503PeroEstaInstanciaYaLoRechaza() {
+		String token = jwtService.generateToken("2003", "conductor3", 3);
+		TokenRevocadoRepository fallido = mock(TokenRevocadoRepository.class);
+		doThrow(new DataAccessResourceFailureException("sin conexión")).when(fallido).save(any());
+		ReflectionTestUtils.setField(revocacionTokens, "tokenRevocadoRepository", fallido);
+		try {
+			ResponseEntity<String> logout = restTemplate.exchange("/logout", HttpMethod.POST,
+					new HttpEntity<>(cabeceras(token)), String.class);
+			assertEquals(HttpStatus.SERVICE_UNAVAILABLE, logout.getStatusCode());
+			assertEquals(HttpStatus.UNAUTHORIZED, consultar(token).getStatusCode());
+		} finally {
+			ReflectionTestUtils.setField(revocacionTokens, "tokenRevocadoRepository", tokenRevocadoRepository);
+		}
+
+		// La siguiente sincronización lo guarda para las demás instancias
+		revocacionTokens.sincronizar();
+		assertTrue(tokenRevocadoRepository.existsById(jwtService.verificar(token).resumen()));
+		assertEquals(HttpStatus.UNAUTHORIZED, consultar(token).getStatusCode());
+	}
+
+	// Un conductor autenticado no puede listar rutas: 403 si el token es aceptado
+	private ResponseEntity<String> consultar(String token) {
+		return restTemplate.exchange("/routes/get/all", HttpMethod.GET, new HttpEntity<>(cabeceras(token)),
+				String.class);
+	}
+
+	private static HttpHeaders cabeceras(String token) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(token);
+		return headers;
+	}
+}
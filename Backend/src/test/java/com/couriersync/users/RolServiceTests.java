@@ -0,0 +1,54 @@
+package com.couriersync.users;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.couriersync.users.entity.Rol;
+import com.couriersync.users.repository.RolRepository;
+import com.couriersync.users.service.RolService;
+
+@SpringBootTest
+class RolServiceTests {
+
+	private static final int ID_ROL = 7;
+
+	@Autowired
+	private RolService rolService;
+
+	@Autowired
+	private RolRepository rolRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void seRefrescaAlCambiarTblRoles() {
+		Rol rol = new Rol();
+		rol.setIdRol(ID_ROL);
+		rol.setNombreRol("Gestor de Ruta");
+		rolRepository.save(rol);
+
+		// Sin refresco explícito: el cambio se publica al confirmar
+		List<SimpleGrantedAuthority> autoridades = rolService.autoridadesPorId(ID_ROL);
+		assertEquals("ROLE_GESTORRUTA", autoridades.get(0).getAuthority());
+		assertSame(autoridades, rolService.autoridadesPorId(ID_ROL));
+
+		// Cambio hecho fuera de la aplicación: lo toma el refresco periódico
+		jdbcTemplate.update("update tbl_roles set nombre_rol = 'Auditor externo' where id_rol = ?", ID_ROL);
+		assertEquals("ROLE_GESTORRUTA", rolService.obtenerNombreRolPorId(ID_ROL));
+		rolService.refrescarCache();
+		assertEquals("ROLE_AUDITOR", rolService.obtenerNombreRolPorId(ID_ROL));
+
+		rolRepository.deleteById(ID_ROL);
+		assertEquals("ROLE_USER", rolService.obtenerNombreRolPorId(ID_ROL));
+		assertEquals("ROLE_USER", rolService.obtenerNombreRolPorId(null));
+	}
+}
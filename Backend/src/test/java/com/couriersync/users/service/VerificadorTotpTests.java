@@ -0,0 +1,54 @@
+package com.couriersync.users.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class VerificadorTotpTests {
+
+	// Vector de prueba del RFC 6238 (SHA-1): "12345678901234567890" en Base32
+	private static final String SECRETO = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+	@Test
+	void aceptaLaVentanaYRechazaRepeticiones() {
+		VerificadorTotp verificador = new VerificadorTotp(1, 10);
+		assertArrayEquals("12345678901234567890".getBytes(StandardCharsets.US_ASCII),
+				VerificadorTotp.decodificarBase32(SECRETO));
+
+		// T = 59 s -> 94287082 en 8 dígitos, 287082 en 6
+		assertTrue(verificador.verificar(SECRETO, "287082", 59));
+		assertFalse(verificador.verificar(SECRETO, "287082", 59));
+		// El mismo período sigue usado aunque llegue desde el período siguiente
+		assertFalse(verificador.verificar(SECRETO, "287082", 75));
+
+		// T = 1111111109 -> 07081804; se acepta un período antes y después, no dos
+		assertTrue(verificador.verificar(SECRETO, "081804", 1111111109L + 30));
+		assertFalse(new VerificadorTotp(1, 10).verificar(SECRETO, "081804", 1111111109L + 60));
+		assertFalse(new VerificadorTotp(0, 10).verificar(SECRETO, "081804", 1111111109L - 30));
+
+		assertFalse(verificador.verificar(SECRETO, "000000", 59));
+		assertFalse(verificador.verificar(SECRETO, "28708", 59));
+		assertFalse(verificador.verificar(SECRETO, "28708a", 59));
+		assertFalse(verificador.verificar("gezdgnbv1", "287082", 59));
+		assertFalse(verificador.verificar(null, "287082", 59));
+		assertNull(VerificadorTotp.decodificarBase32("ABC#"));
+	}
+
+	@Test
+	void codigoDeUnPeriodoFuturoNoSeRepiteTrasPodar() {
+		VerificadorTotp verificador = new VerificadorTotp(1, 10);
+		long periodo = 1111111109L / VerificadorTotp.PERIODO_SEGUNDOS;
+		// Aceptado un período antes del suyo: sigue en la ventana hasta el final del período siguiente
+		assertTrue(verificador.verificar(SECRETO, "081804", 1111111109L - 30));
+
+		// Pasada la ventana del período en que se usó, pero no la del período del código
+		long despues = (periodo + 1) * VerificadorTotp.PERIODO_SEGUNDOS;
+		verificador.podar(despues);
+		assertFalse(verificador.verificar(SECRETO, "081804", despues));
+	}
+}
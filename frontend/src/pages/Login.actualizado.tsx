@@ -27,7 +27,7 @@ const Login = () => {
   
   // Estados para MFA
   const [requiresMfa, setRequiresMfa] = useState(false);
-  const [cedulaMfa, setCedulaMfa] = useState('');
+  const [desafioMfa, setDesafioMfa] = useState('');
   const [mfaCode, setMfaCode] = useState('');
   const [mfaLoading, setMfaLoading] = useState(false);
   
@@ -56,7 +56,7 @@ const Login = () => {
       // Verificar si requiere MFA
       if ('requiresMfa' in response && response.requiresMfa) {
         setRequiresMfa(true);
-        setCedulaMfa(response.cedula);
+        setDesafioMfa(response.desafio);
         toast({
           title: "Verificación MFA requerida",
           description: "Ingresa el código de tu aplicación autenticadora",
@@ -90,7 +90,7 @@ const Login = () => {
     setMfaLoading(true);
 
     try {
-      const response = await mfaService.verify(cedulaMfa, mfaCode);
+      const response = await mfaService.verify(desafioMfa, mfaCode);
       
       toast({
         title: "¡Verificación exitosa!",
@@ -161,7 +161,7 @@ const Login = () => {
                 onClick={() => {
                   setRequiresMfa(false);
                   setMfaCode('');
-                  setCedulaMfa('');
+                  setDesafioMfa('');
                 }}
               >
                 Volver
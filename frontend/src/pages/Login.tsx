@@ -20,7 +20,7 @@ const Login = () => {
   
   // Estados para MFA
   const [requiresMfa, setRequiresMfa] = useState(false);
-  const [cedulaMfa, setCedulaMfa] = useState('');
+  const [desafioMfa, setDesafioMfa] = useState('');
   const [mfaCode, setMfaCode] = useState('');
   const [mfaLoading, setMfaLoading] = useState(false);
   
@@ -46,7 +46,7 @@ const Login = () => {
 
       if ('requiresMfa' in response && response.requiresMfa) {
         setRequiresMfa(true);
-        setCedulaMfa(response.cedula);
+        setDesafioMfa(response.desafio);
         toast({
           title: "Verificación MFA requerida",
           description: "Ingresa el código de tu aplicación autenticadora",
@@ -79,7 +79,7 @@ const Login = () => {
     setMfaLoading(true);
 
     try {
-      const response = await mfaService.verify(cedulaMfa, mfaCode);
+      const response = await mfaService.verify(desafioMfa, mfaCode);
       const rolString = rolNumberToString(response.rol);
       
       toast({
@@ -150,7 +150,7 @@ const Login = () => {
                 onClick={() => {
                   setRequiresMfa(false);
                   setMfaCode('');
-                  setCedulaMfa('');
+                  setDesafioMfa('');
                 }}
               >
                 Volver
@@ -39,12 +39,12 @@ export const mfaService = {
   /**
    * Verifica un código TOTP de MFA y retorna el token JWT si es válido
    * Este endpoint NO requiere autenticación (es parte del flujo de login)
-   * @param cedula - Cédula del usuario
+   * @param desafio - Desafío devuelto por /login
    * @param code - Código TOTP de 6 dígitos
    * @returns Token JWT y datos del usuario
    */
-  async verify(cedula: string, code: string): Promise<MfaVerifyResponse> {
-    const request: MfaVerifyRequest = { cedula, code };
+  async verify(desafio: string, code: string): Promise<MfaVerifyResponse> {
+    const request: MfaVerifyRequest = { desafio, code };
     const response = await mfaClient.post<MfaVerifyResponse>('/api/mfa/verify', request);
     
     const data = response.data;
@@ -87,6 +87,7 @@ export interface LoginMfaResponse {
   message: string;
   requiresMfa: boolean;
   cedula: string;
+  desafio: string; // Se envía a /api/mfa/verify junto con el código
 }
 
 // Request de Register
@@ -137,7 +138,7 @@ export interface MfaGenerateResponse {
 
 // MFA - Verificar código
 export interface MfaVerifyRequest {
-  cedula: string;
+  desafio: string; // Devuelto por /login cuando se requiere MFA
   code: string; // Código TOTP de 6 dígitos
 }
 